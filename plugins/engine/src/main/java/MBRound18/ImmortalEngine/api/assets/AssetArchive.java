@@ -0,0 +1,515 @@
+package MBRound18.ImmortalEngine.api.assets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Read-only view of an assets ZIP, shared by everything that reads from it.
+ *
+ * <p>
+ * The archive is memory-mapped once and its central directory parsed into a
+ * name index and a per-directory index, so looking up an entry or listing a
+ * directory is a single hash lookup. The file handle is released right after
+ * mapping. STORED entries are served as read-only slices of the mapping;
+ * DEFLATED entries are inflated straight from the mapping without copying the
+ * compressed bytes.
+ * </p>
+ *
+ * <p>
+ * {@link #open(Path)} shares one instance per file and maps it again only
+ * when the file's size or modification time changed. Archives larger than
+ * 2 GiB are not supported.
+ * </p>
+ */
+public final class AssetArchive {
+  private static final int EOCD_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+  private static final int CENTRAL_SIGNATURE = 0x02014b50;
+  private static final int LOCAL_SIGNATURE = 0x04034b50;
+  private static final int EOCD_SIZE = 22;
+  private static final int MAX_COMMENT = 0xFFFF;
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+
+  private static final Map<Path, AssetArchive> OPEN = new ConcurrentHashMap<>();
+
+  /**
+   * One file or directory in the archive.
+   */
+  public static final class Entry {
+    private final String name;
+    private final int method;
+    private final long crc;
+    private final long compressedSize;
+    private final long size;
+    private final long localHeaderOffset;
+    private volatile long dataOffset = -1;
+
+    private Entry(@Nonnull String name, int method, long crc, long compressedSize, long size,
+        long localHeaderOffset) {
+      this.name = name;
+      this.method = method;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+
+    @Nonnull
+    public String getName() {
+      return name;
+    }
+
+    public long getCrc() {
+      return crc;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getCompressedSize() {
+      return compressedSize;
+    }
+
+    public boolean isStored() {
+      return method == STORED;
+    }
+
+    public boolean isDirectory() {
+      return name.endsWith("/");
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private final Path path;
+  private final long fileSize;
+  private final long modified;
+  private final ByteBuffer mapped;
+  private final Map<String, Entry> byName;
+  private final Map<String, List<Entry>> byDirectory;
+  private final List<Entry> entries;
+
+  private AssetArchive(@Nonnull Path path, long fileSize, long modified, @Nonnull ByteBuffer mapped)
+      throws IOException {
+    this.path = path;
+    this.fileSize = fileSize;
+    this.modified = modified;
+    this.mapped = mapped;
+    this.entries = readCentralDirectory(mapped);
+    Map<String, Entry> names = new HashMap<>(entries.size() * 2);
+    Map<String, List<Entry>> directories = new LinkedHashMap<>();
+    for (Entry entry : entries) {
+      names.putIfAbsent(entry.name, entry);
+      if (entry.isDirectory()) {
+        continue;
+      }
+      directories.computeIfAbsent("", ignored -> new ArrayList<>()).add(entry);
+      for (int slash = entry.name.indexOf('/'); slash >= 0; slash = entry.name.indexOf('/', slash + 1)) {
+        directories.computeIfAbsent(entry.name.substring(0, slash + 1), ignored -> new ArrayList<>()).add(entry);
+      }
+    }
+    for (Map.Entry<String, List<Entry>> directory : directories.entrySet()) {
+      directory.setValue(Collections.unmodifiableList(directory.getValue()));
+    }
+    this.byName = names;
+    this.byDirectory = directories;
+  }
+
+  /**
+   * Gets the shared archive for a ZIP file, mapping it on first use or when
+   * the file changed since it was mapped.
+   *
+   * @throws IOException When the file cannot be read or is not a ZIP
+   */
+  @Nonnull
+  public static AssetArchive open(@Nonnull Path zipPath) throws IOException {
+    Path key = Objects.requireNonNull(zipPath, "zipPath").toAbsolutePath().normalize();
+    BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+    AssetArchive current = OPEN.get(key);
+    if (current != null && current.fileSize == attributes.size()
+        && current.modified == attributes.lastModifiedTime().toMillis()) {
+      return current;
+    }
+    synchronized (OPEN) {
+      current = OPEN.get(key);
+      if (current != null && current.fileSize == attributes.size()
+          && current.modified == attributes.lastModifiedTime().toMillis()) {
+        return current;
+      }
+      AssetArchive archive = map(key, attributes);
+      OPEN.put(key, archive);
+      return archive;
+    }
+  }
+
+  /**
+   * Drops the shared archive of a file so the next {@link #open} maps it
+   * again.
+   */
+  public static void release(@Nonnull Path zipPath) {
+    OPEN.remove(Objects.requireNonNull(zipPath, "zipPath").toAbsolutePath().normalize());
+  }
+
+  @Nonnull
+  private static AssetArchive map(@Nonnull Path path, @Nonnull BasicFileAttributes attributes) throws IOException {
+    long size = attributes.size();
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Assets archive too large to map: " + path);
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+      return new AssetArchive(path, size, attributes.lastModifiedTime().toMillis(), mapped);
+    }
+  }
+
+  @Nonnull
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * All entries in central directory order.
+   */
+  @Nonnull
+  public List<Entry> getEntries() {
+    return Collections.unmodifiableList(entries);
+  }
+
+  @Nullable
+  public Entry getEntry(@Nonnull String name) {
+    return byName.get(name);
+  }
+
+  public boolean contains(@Nonnull String name) {
+    return byName.containsKey(name);
+  }
+
+  /**
+   * Lists the files under a directory, recursively, in central directory
+   * order.
+   *
+   * @param directory Directory name ending in {@code /}, or {@code ""} for
+   *                  every file
+   */
+  @Nonnull
+  public List<Entry> list(@Nonnull String directory) {
+    Objects.requireNonNull(directory, "directory");
+    if (!directory.isEmpty() && !directory.endsWith("/")) {
+      throw new IllegalArgumentException("Not a directory name: " + directory);
+    }
+    return byDirectory.getOrDefault(directory, List.of());
+  }
+
+  /**
+   * Gets an entry's content. STORED entries are a read-only slice of the
+   * mapping; compressed entries are inflated into a new buffer.
+   */
+  @Nonnull
+  public ByteBuffer read(@Nonnull Entry entry) throws IOException {
+    ByteBuffer data = rawData(entry);
+    if (entry.method == STORED) {
+      return data.asReadOnlyBuffer();
+    }
+    byte[] content = new byte[checkedSize(entry)];
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(data);
+      int filled = 0;
+      while (filled < content.length) {
+        int read = inflater.inflate(content, filled, content.length - filled);
+        if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        filled += read;
+      }
+      if (filled != content.length) {
+        throw new ZipException("Truncated entry " + entry.name + " in " + path);
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException("Corrupt entry " + entry.name + " in " + path + ": " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+    return ByteBuffer.wrap(content).asReadOnlyBuffer();
+  }
+
+  /**
+   * Opens a stream over an entry's content.
+   */
+  @Nonnull
+  public InputStream openStream(@Nonnull Entry entry) throws IOException {
+    ByteBuffer data = rawData(entry);
+    if (entry.method == STORED) {
+      return new BufferStream(data);
+    }
+    return new InflatingStream(entry.name, data);
+  }
+
+  /**
+   * Opens a UTF-8 reader over an entry's content.
+   */
+  @Nonnull
+  public BufferedReader openReader(@Nonnull Entry entry) throws IOException {
+    return new BufferedReader(new InputStreamReader(openStream(entry), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Gets an entry's content decoded as UTF-8.
+   */
+  @Nonnull
+  public String readString(@Nonnull Entry entry) throws IOException {
+    return StandardCharsets.UTF_8.decode(read(entry)).toString();
+  }
+
+  @Override
+  public String toString() {
+    return "AssetArchive{" + path + ", entries=" + entries.size() + "}";
+  }
+
+  @Nonnull
+  private ByteBuffer rawData(@Nonnull Entry entry) throws IOException {
+    if (entry.method != STORED && entry.method != DEFLATED) {
+      throw new ZipException("Unsupported compression method " + entry.method + " for " + entry.name);
+    }
+    long offset = entry.dataOffset;
+    if (offset < 0) {
+      long header = entry.localHeaderOffset;
+      if (header + 30 > mapped.capacity() || mapped.getInt((int) header) != LOCAL_SIGNATURE) {
+        throw new ZipException("Bad local header for " + entry.name + " in " + path);
+      }
+      int nameLength = Short.toUnsignedInt(mapped.getShort((int) header + 26));
+      int extraLength = Short.toUnsignedInt(mapped.getShort((int) header + 28));
+      offset = header + 30 + nameLength + extraLength;
+      entry.dataOffset = offset;
+    }
+    long length = entry.method == STORED ? entry.size : entry.compressedSize;
+    if (offset + length > mapped.capacity()) {
+      throw new ZipException("Entry " + entry.name + " runs past the end of " + path);
+    }
+    return mapped.slice((int) offset, (int) length);
+  }
+
+  private int checkedSize(@Nonnull Entry entry) throws ZipException {
+    if (entry.size > Integer.MAX_VALUE - 8) {
+      throw new ZipException("Entry too large: " + entry.name);
+    }
+    return (int) entry.size;
+  }
+
+  @Nonnull
+  private static List<Entry> readCentralDirectory(@Nonnull ByteBuffer zip) throws IOException {
+    int eocd = findEndOfCentralDirectory(zip);
+    long count = Short.toUnsignedInt(zip.getShort(eocd + 10));
+    long offset = Integer.toUnsignedLong(zip.getInt(eocd + 16));
+    if ((count == 0xFFFF || offset == 0xFFFFFFFFL) && eocd >= 20
+        && zip.getInt(eocd - 20) == ZIP64_LOCATOR_SIGNATURE) {
+      long record = zip.getLong(eocd - 20 + 8);
+      if (record < 0 || record + 56 > zip.capacity() || zip.getInt((int) record) != ZIP64_EOCD_SIGNATURE) {
+        throw new ZipException("Bad ZIP64 end of central directory");
+      }
+      count = zip.getLong((int) record + 32);
+      offset = zip.getLong((int) record + 48);
+    }
+    if (offset < 0 || offset > eocd || count > (eocd - offset) / 46) {
+      throw new ZipException("Bad central directory");
+    }
+    List<Entry> entries = new ArrayList<>((int) count);
+    int position = (int) offset;
+    for (long i = 0; i < count; i++) {
+      if (position + 46 > eocd || zip.getInt(position) != CENTRAL_SIGNATURE) {
+        throw new ZipException("Bad central directory entry " + i);
+      }
+      int method = Short.toUnsignedInt(zip.getShort(position + 10));
+      long crc = Integer.toUnsignedLong(zip.getInt(position + 16));
+      long compressedSize = Integer.toUnsignedLong(zip.getInt(position + 20));
+      long size = Integer.toUnsignedLong(zip.getInt(position + 24));
+      int nameLength = Short.toUnsignedInt(zip.getShort(position + 28));
+      int extraLength = Short.toUnsignedInt(zip.getShort(position + 30));
+      int commentLength = Short.toUnsignedInt(zip.getShort(position + 32));
+      long localHeaderOffset = Integer.toUnsignedLong(zip.getInt(position + 42));
+      int nameStart = position + 46;
+      String name = StandardCharsets.UTF_8.decode(zip.slice(nameStart, nameLength)).toString();
+      if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+        long[] zip64 = readZip64Extra(zip, nameStart + nameLength, extraLength, size, compressedSize,
+            localHeaderOffset);
+        size = zip64[0];
+        compressedSize = zip64[1];
+        localHeaderOffset = zip64[2];
+      }
+      entries.add(new Entry(name, method, crc, compressedSize, size, localHeaderOffset));
+      position = nameStart + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  /**
+   * Reads the ZIP64 extended information extra field, which holds only the
+   * values whose 32-bit fields are saturated, in a fixed order.
+   */
+  @Nonnull
+  private static long[] readZip64Extra(@Nonnull ByteBuffer zip, int start, int length, long size,
+      long compressedSize, long localHeaderOffset) throws ZipException {
+    int position = start;
+    int end = start + length;
+    while (position + 4 <= end) {
+      int id = Short.toUnsignedInt(zip.getShort(position));
+      int dataLength = Short.toUnsignedInt(zip.getShort(position + 2));
+      int data = position + 4;
+      if (id == 0x0001) {
+        int cursor = data;
+        if (size == 0xFFFFFFFFL) {
+          size = zip.getLong(cursor);
+          cursor += 8;
+        }
+        if (compressedSize == 0xFFFFFFFFL) {
+          compressedSize = zip.getLong(cursor);
+          cursor += 8;
+        }
+        if (localHeaderOffset == 0xFFFFFFFFL) {
+          localHeaderOffset = zip.getLong(cursor);
+        }
+        return new long[] { size, compressedSize, localHeaderOffset };
+      }
+      position = data + dataLength;
+    }
+    throw new ZipException("Missing ZIP64 extra field");
+  }
+
+  private static int findEndOfCentralDirectory(@Nonnull ByteBuffer zip) throws ZipException {
+    int last = zip.capacity() - EOCD_SIZE;
+    int first = Math.max(0, last - MAX_COMMENT);
+    for (int position = last; position >= first; position--) {
+      if (zip.getInt(position) == EOCD_SIGNATURE) {
+        return position;
+      }
+    }
+    throw new ZipException("Not a ZIP archive (no end of central directory)");
+  }
+
+  /**
+   * Streams a STORED entry straight from the mapping.
+   */
+  private static final class BufferStream extends InputStream {
+    private final ByteBuffer data;
+
+    private BufferStream(@Nonnull ByteBuffer data) {
+      this.data = data;
+    }
+
+    @Override
+    public int read() {
+      return data.hasRemaining() ? data.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+      Objects.checkFromIndexSize(offset, length, buffer.length);
+      if (length == 0) {
+        return 0;
+      }
+      if (!data.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, data.remaining());
+      data.get(buffer, offset, count);
+      return count;
+    }
+
+    @Override
+    public long skip(long count) {
+      int skipped = (int) Math.max(0, Math.min(count, data.remaining()));
+      data.position(data.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return data.remaining();
+    }
+  }
+
+  /**
+   * Inflates a DEFLATED entry with the mapped compressed bytes as the
+   * inflater's direct input.
+   */
+  private static final class InflatingStream extends InputStream {
+    private final String name;
+    private final Inflater inflater = new Inflater(true);
+    private final byte[] single = new byte[1];
+    private boolean closed;
+
+    private InflatingStream(@Nonnull String name, @Nonnull ByteBuffer data) {
+      this.name = name;
+      inflater.setInput(data);
+    }
+
+    @Override
+    public int read() throws IOException {
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      Objects.checkFromIndexSize(offset, length, buffer.length);
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+      if (length == 0) {
+        return 0;
+      }
+      try {
+        while (true) {
+          int read = inflater.inflate(buffer, offset, length);
+          if (read > 0) {
+            return read;
+          }
+          if (inflater.finished() || inflater.needsInput()) {
+            return -1;
+          }
+          if (inflater.needsDictionary()) {
+            throw new ZipException("Entry " + name + " needs a preset dictionary");
+          }
+        }
+      } catch (DataFormatException e) {
+        throw new ZipException("Corrupt entry " + name + ": " + e.getMessage());
+      }
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        inflater.end();
+      }
+    }
+  }
+}
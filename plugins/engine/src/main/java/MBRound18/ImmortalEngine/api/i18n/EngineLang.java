@@ -1,16 +1,12 @@
 package MBRound18.ImmortalEngine.api.i18n;
 
+import MBRound18.ImmortalEngine.api.assets.AssetArchive;
 import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 import javax.annotation.Nullable;
 
 /**
@@ -76,16 +72,16 @@ public final class EngineLang {
     if (assetsZipPath == null || !Files.exists(assetsZipPath)) {
       return;
     }
-    try (ZipFile zipFile = new ZipFile(assetsZipPath.toFile())) {
-      ZipEntry entry = zipFile.getEntry(langPath);
+    try {
+      AssetArchive archive = AssetArchive.open(assetsZipPath);
+      AssetArchive.Entry entry = archive.getEntry(langPath);
       if (entry == null && !langPath.equals(toLangPath(DEFAULT_LANG_TAG))) {
-        entry = zipFile.getEntry(toLangPath(DEFAULT_LANG_TAG));
+        entry = archive.getEntry(toLangPath(DEFAULT_LANG_TAG));
       }
       if (entry == null) {
         return;
       }
-      try (InputStream stream = zipFile.getInputStream(entry);
-          BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      try (BufferedReader reader = archive.openReader(entry)) {
         String line;
         while ((line = reader.readLine()) != null) {
           String trimmed = line.trim();
@@ -114,10 +110,11 @@ public final class EngineLang {
       return;
     }
     String[] candidates = buildCandidates(locale);
-    try (ZipFile zipFile = new ZipFile(assetsZipPath.toFile())) {
+    try {
+      AssetArchive archive = AssetArchive.open(assetsZipPath);
       for (String candidate : candidates) {
         String path = toLangPath(candidate);
-        if (zipFile.getEntry(path) != null) {
+        if (archive.contains(path)) {
           langPath = path;
           return;
         }
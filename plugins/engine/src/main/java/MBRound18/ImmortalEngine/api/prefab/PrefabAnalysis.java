@@ -0,0 +1,634 @@
+package MBRound18.ImmortalEngine.api.prefab;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Everything the plugins read from a {@code .prefab.json}, collected in one
+ * streaming pass without building a JSON tree for the block and fluid arrays.
+ *
+ * <p>
+ * Besides bounds, blocks and fluids, the pass pulls out frozen model entities
+ * (entities with a Model and a Transform but no BlockEntity) and clamps item
+ * stacks whose {@code MaxDurability} is zero or whose {@code Durability} is
+ * out of range. When given a writer it also emits the sanitized prefab: the
+ * same JSON minus the frozen entities, with those item stacks fixed.
+ * </p>
+ */
+public final class PrefabAnalysis {
+
+  private static final Gson GSON = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+  private static final int BLOCK_STRIDE = 6;
+
+  private final @Nullable PrefabBounds bounds;
+  private final String[] palette;
+  private final int[] blocks;
+  private final int[] fluids;
+  private final List<FrozenEntity> frozenEntities;
+  private final int keptEntityCount;
+  private final int sanitizedItemStacks;
+  private final int detailedBlockCount;
+  private final boolean anchorOffset;
+
+  private PrefabAnalysis(@Nullable PrefabBounds bounds, String[] palette, int[] blocks, int[] fluids,
+      List<FrozenEntity> frozenEntities, int keptEntityCount, int sanitizedItemStacks, int detailedBlockCount,
+      boolean anchorOffset) {
+    this.bounds = bounds;
+    this.palette = palette;
+    this.blocks = blocks;
+    this.fluids = fluids;
+    this.frozenEntities = frozenEntities;
+    this.keptEntityCount = keptEntityCount;
+    this.sanitizedItemStacks = sanitizedItemStacks;
+    this.detailedBlockCount = detailedBlockCount;
+    this.anchorOffset = anchorOffset;
+  }
+
+  /**
+   * Analyzes a prefab.
+   *
+   * @param source    Prefab JSON
+   * @param sanitized Receives the sanitized prefab JSON, or null to skip it
+   * @return The analysis
+   * @throws IOException When the JSON cannot be read or is not an object
+   */
+  @Nonnull
+  public static PrefabAnalysis analyze(@Nonnull Reader source, @Nullable Writer sanitized) throws IOException {
+    Objects.requireNonNull(source, "source");
+    JsonReader in = new JsonReader(source);
+    in.setStrictness(Strictness.LENIENT);
+    JsonWriter out = sanitized == null ? null : new JsonWriter(sanitized);
+    Collector collector = new Collector();
+    try {
+      if (in.peek() != JsonToken.BEGIN_OBJECT) {
+        throw new IOException("Prefab JSON is not an object");
+      }
+      in.beginObject();
+      if (out != null) {
+        out.beginObject();
+      }
+      while (in.hasNext()) {
+        String name = in.nextName();
+        switch (name) {
+          case "blocks" -> collector.readBlocks(in, out);
+          case "fluids" -> collector.readFluids(in, out);
+          case "entities" -> collector.readEntities(in, out);
+          case "anchorX", "anchorY", "anchorZ" -> collector.readAnchor(name, in, out);
+          default -> collector.copyValue(name, in, out);
+        }
+      }
+      in.endObject();
+      if (out != null) {
+        out.endObject();
+        out.flush();
+      }
+    } catch (IllegalStateException | NumberFormatException e) {
+      throw new IOException("Malformed prefab JSON: " + e.getMessage(), e);
+    }
+    return collector.build();
+  }
+
+  /**
+   * Block bounds, or null when the prefab has no blocks with coordinates.
+   */
+  @Nullable
+  public PrefabBounds getBounds() {
+    return bounds;
+  }
+
+  /**
+   * Number of named blocks.
+   */
+  public int getBlockCount() {
+    return blocks.length / BLOCK_STRIDE;
+  }
+
+  public int getBlockX(int block) {
+    return blocks[block * BLOCK_STRIDE];
+  }
+
+  public int getBlockY(int block) {
+    return blocks[block * BLOCK_STRIDE + 1];
+  }
+
+  public int getBlockZ(int block) {
+    return blocks[block * BLOCK_STRIDE + 2];
+  }
+
+  @Nonnull
+  public String getBlockName(int block) {
+    return palette[blocks[block * BLOCK_STRIDE + 3]];
+  }
+
+  /**
+   * Rotation index of a block, 0 when the source has none.
+   */
+  public int getBlockRotation(int block) {
+    return blocks[block * BLOCK_STRIDE + 4];
+  }
+
+  /**
+   * Filler value of a block, 0 when the source has none.
+   */
+  public int getBlockFiller(int block) {
+    return blocks[block * BLOCK_STRIDE + 5];
+  }
+
+  /**
+   * Named blocks carrying values besides their coordinates, name, rotation and
+   * filler, such as block components.
+   */
+  public int getDetailedBlockCount() {
+    return detailedBlockCount;
+  }
+
+  /**
+   * Whether the prefab declares a non-zero anchor.
+   */
+  public boolean hasAnchorOffset() {
+    return anchorOffset;
+  }
+
+  public int getFluidCount() {
+    return fluids.length / 5;
+  }
+
+  public int getFluidX(int fluid) {
+    return fluids[fluid * 5];
+  }
+
+  public int getFluidY(int fluid) {
+    return fluids[fluid * 5 + 1];
+  }
+
+  public int getFluidZ(int fluid) {
+    return fluids[fluid * 5 + 2];
+  }
+
+  @Nonnull
+  public String getFluidName(int fluid) {
+    return palette[fluids[fluid * 5 + 3]];
+  }
+
+  public int getFluidLevel(int fluid) {
+    return fluids[fluid * 5 + 4];
+  }
+
+  /**
+   * Frozen model entities removed from the sanitized prefab, in file order.
+   */
+  @Nonnull
+  public List<FrozenEntity> getFrozenEntities() {
+    return frozenEntities;
+  }
+
+  /**
+   * Entities left in the sanitized prefab.
+   */
+  public int getKeptEntityCount() {
+    return keptEntityCount;
+  }
+
+  /**
+   * Item stack fields clamped while sanitizing.
+   */
+  public int getSanitizedItemStacks() {
+    return sanitizedItemStacks;
+  }
+
+  /**
+   * Whether the sanitized prefab differs from the source.
+   */
+  public boolean needsSanitizing() {
+    return !frozenEntities.isEmpty() || sanitizedItemStacks > 0;
+  }
+
+  /**
+   * Model entity saved into a prefab, to be spawned live instead.
+   */
+  public static final class FrozenEntity {
+    private final String modelId;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float pitch;
+    private final float yaw;
+    private final float roll;
+
+    public FrozenEntity(@Nonnull String modelId, double x, double y, double z, float pitch, float yaw,
+        float roll) {
+      this.modelId = Objects.requireNonNull(modelId, "modelId");
+      this.x = x;
+      this.y = y;
+      this.z = z;
+      this.pitch = pitch;
+      this.yaw = yaw;
+      this.roll = roll;
+    }
+
+    @Nonnull
+    public String getModelId() {
+      return modelId;
+    }
+
+    public double getX() {
+      return x;
+    }
+
+    public double getY() {
+      return y;
+    }
+
+    public double getZ() {
+      return z;
+    }
+
+    public float getPitch() {
+      return pitch;
+    }
+
+    public float getYaw() {
+      return yaw;
+    }
+
+    public float getRoll() {
+      return roll;
+    }
+  }
+
+  /**
+   * Mutable state of one pass.
+   */
+  private static final class Collector {
+    private final Map<String, Integer> paletteIndex = new HashMap<>();
+    private final List<String> palette = new ArrayList<>();
+    private int[] blocks = new int[1024];
+    private int blockLength;
+    private int[] fluids = new int[0];
+    private int fluidLength;
+    private final List<FrozenEntity> frozen = new ArrayList<>();
+    private int keptEntities;
+    private int sanitizedItems;
+    private int detailedBlocks;
+    private boolean anchorOffset;
+    private int minX = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+    private int minZ = Integer.MAX_VALUE;
+    private int maxZ = Integer.MIN_VALUE;
+
+    private void readBlocks(@Nonnull JsonReader in, @Nullable JsonWriter out) throws IOException {
+      if (in.peek() != JsonToken.BEGIN_ARRAY) {
+        copyValue("blocks", in, out);
+        return;
+      }
+      in.beginArray();
+      if (out != null) {
+        out.name("blocks").beginArray();
+      }
+      while (in.hasNext()) {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+          copyElement(in, out);
+          continue;
+        }
+        int[] xyz = new int[3];
+        boolean[] has = new boolean[3];
+        int[] state = new int[3];
+        String name = readPlacedObject(in, out, xyz, has, "name", null, state);
+        if (!has[0] || !has[1] || !has[2]) {
+          continue;
+        }
+        minX = Math.min(minX, xyz[0]);
+        maxX = Math.max(maxX, xyz[0]);
+        minY = Math.min(minY, xyz[1]);
+        maxY = Math.max(maxY, xyz[1]);
+        minZ = Math.min(minZ, xyz[2]);
+        maxZ = Math.max(maxZ, xyz[2]);
+        if (name == null || name.isBlank()) {
+          continue;
+        }
+        if (blockLength + BLOCK_STRIDE > blocks.length) {
+          blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        }
+        blocks[blockLength++] = xyz[0];
+        blocks[blockLength++] = xyz[1];
+        blocks[blockLength++] = xyz[2];
+        blocks[blockLength++] = intern(name);
+        blocks[blockLength++] = state[0];
+        blocks[blockLength++] = state[1];
+        if (state[2] > 0) {
+          detailedBlocks++;
+        }
+      }
+      in.endArray();
+      if (out != null) {
+        out.endArray();
+      }
+    }
+
+    private void readFluids(@Nonnull JsonReader in, @Nullable JsonWriter out) throws IOException {
+      if (in.peek() != JsonToken.BEGIN_ARRAY) {
+        copyValue("fluids", in, out);
+        return;
+      }
+      in.beginArray();
+      if (out != null) {
+        out.name("fluids").beginArray();
+      }
+      while (in.hasNext()) {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+          copyElement(in, out);
+          continue;
+        }
+        int[] xyz = new int[3];
+        boolean[] has = new boolean[3];
+        int[] level = new int[1];
+        String name = readPlacedObject(in, out, xyz, has, "name", level, null);
+        if (fluidLength + 5 > fluids.length) {
+          fluids = Arrays.copyOf(fluids, Math.max(80, fluids.length * 2));
+        }
+        fluids[fluidLength++] = xyz[0];
+        fluids[fluidLength++] = xyz[1];
+        fluids[fluidLength++] = xyz[2];
+        fluids[fluidLength++] = intern(name == null ? "Empty" : name);
+        fluids[fluidLength++] = level[0];
+      }
+      in.endArray();
+      if (out != null) {
+        out.endArray();
+      }
+    }
+
+    /**
+     * Reads one block or fluid object, copying it to {@code out}. Coordinates,
+     * the name, (for fluids) the level and (for blocks) the rotation and filler
+     * are read as primitives; any other value is parsed on its own and has its
+     * item containers sanitized.
+     *
+     * @param state For blocks: receives the rotation, the filler and the number
+     *              of other values
+     * @return The name, or null when absent
+     */
+    @Nullable
+    private String readPlacedObject(@Nonnull JsonReader in, @Nullable JsonWriter out, int[] xyz, boolean[] has,
+        @Nonnull String nameKey, @Nullable int[] level, @Nullable int[] state) throws IOException {
+      String name = null;
+      in.beginObject();
+      if (out != null) {
+        out.beginObject();
+      }
+      while (in.hasNext()) {
+        String key = in.nextName();
+        int axis = switch (key) {
+          case "x" -> 0;
+          case "y" -> 1;
+          case "z" -> 2;
+          default -> -1;
+        };
+        JsonToken token = in.peek();
+        if (axis >= 0 && token == JsonToken.NUMBER) {
+          xyz[axis] = in.nextInt();
+          has[axis] = true;
+          if (out != null) {
+            out.name(key).value(xyz[axis]);
+          }
+        } else if (key.equals(nameKey) && token == JsonToken.STRING) {
+          name = in.nextString();
+          if (out != null) {
+            out.name(key).value(name);
+          }
+        } else if (level != null && key.equals("level") && token == JsonToken.NUMBER) {
+          level[0] = in.nextInt();
+          if (out != null) {
+            out.name(key).value(level[0]);
+          }
+        } else if (state != null && (key.equals("rotation") || key.equals("filler"))
+            && token == JsonToken.NUMBER) {
+          int value = in.nextInt();
+          state[key.equals("rotation") ? 0 : 1] = value;
+          if (out != null) {
+            out.name(key).value(value);
+          }
+        } else {
+          if (state != null) {
+            state[2]++;
+          }
+          copyValue(key, in, out);
+        }
+      }
+      in.endObject();
+      if (out != null) {
+        out.endObject();
+      }
+      return name;
+    }
+
+    private void readEntities(@Nonnull JsonReader in, @Nullable JsonWriter out) throws IOException {
+      if (in.peek() != JsonToken.BEGIN_ARRAY) {
+        copyValue("entities", in, out);
+        return;
+      }
+      JsonArray kept = new JsonArray();
+      in.beginArray();
+      while (in.hasNext()) {
+        JsonElement entity = JsonParser.parseReader(in);
+        FrozenEntity frozenEntity = toFrozenEntity(entity);
+        if (frozenEntity != null) {
+          frozen.add(frozenEntity);
+          continue;
+        }
+        sanitizedItems += sanitizeItemContainers(entity);
+        kept.add(entity);
+      }
+      in.endArray();
+      keptEntities += kept.size();
+      if (out != null && kept.size() > 0) {
+        out.name("entities");
+        GSON.toJson(kept, out);
+      }
+    }
+
+    private void readAnchor(@Nonnull String name, @Nonnull JsonReader in, @Nullable JsonWriter out)
+        throws IOException {
+      if (in.peek() != JsonToken.NUMBER) {
+        copyValue(name, in, out);
+        return;
+      }
+      String value = in.nextString();
+      anchorOffset |= Double.parseDouble(value) != 0.0;
+      if (out != null) {
+        out.name(name).jsonValue(value);
+      }
+    }
+
+    private void copyValue(@Nonnull String name, @Nonnull JsonReader in, @Nullable JsonWriter out)
+        throws IOException {
+      JsonElement value = JsonParser.parseReader(in);
+      sanitizedItems += sanitizeItemContainers(value);
+      if (out != null) {
+        out.name(name);
+        GSON.toJson(value, out);
+      }
+    }
+
+    private void copyElement(@Nonnull JsonReader in, @Nullable JsonWriter out) throws IOException {
+      JsonElement value = JsonParser.parseReader(in);
+      sanitizedItems += sanitizeItemContainers(value);
+      if (out != null) {
+        GSON.toJson(value, out);
+      }
+    }
+
+    private int intern(@Nonnull String name) {
+      Integer index = paletteIndex.get(name);
+      if (index == null) {
+        index = palette.size();
+        palette.add(name);
+        paletteIndex.put(name, index);
+      }
+      return index;
+    }
+
+    @Nonnull
+    private PrefabAnalysis build() {
+      PrefabBounds bounds = minX == Integer.MAX_VALUE ? null : new PrefabBounds(minX, maxX, minY, maxY, minZ, maxZ);
+      return new PrefabAnalysis(bounds, palette.toArray(new String[0]), Arrays.copyOf(blocks, blockLength),
+          Arrays.copyOf(fluids, fluidLength),
+          frozen.isEmpty() ? List.of() : Collections.unmodifiableList(frozen), keptEntities, sanitizedItems,
+          detailedBlocks, anchorOffset);
+    }
+  }
+
+  /**
+   * Returns the frozen model entity an entity element describes, or null when
+   * it should stay in the prefab.
+   */
+  @Nullable
+  private static FrozenEntity toFrozenEntity(@Nonnull JsonElement element) {
+    if (!element.isJsonObject()) {
+      return null;
+    }
+    JsonObject components = objectMember(element.getAsJsonObject(), "Components");
+    if (components == null || components.has("BlockEntity")) {
+      return null;
+    }
+    JsonObject modelWrapper = objectMember(components, "Model");
+    JsonObject model = modelWrapper == null ? null : objectMember(modelWrapper, "Model");
+    if (model == null || !isPrimitive(model, "Id")) {
+      return null;
+    }
+    JsonObject transform = objectMember(components, "Transform");
+    JsonObject position = transform == null ? null : objectMember(transform, "Position");
+    JsonObject rotation = transform == null ? null : objectMember(transform, "Rotation");
+    if (position == null || rotation == null
+        || !isPrimitive(position, "X") || !isPrimitive(position, "Y") || !isPrimitive(position, "Z")
+        || !isPrimitive(rotation, "Pitch") || !isPrimitive(rotation, "Yaw") || !isPrimitive(rotation, "Roll")) {
+      return null;
+    }
+    try {
+      return new FrozenEntity(model.get("Id").getAsString(),
+          position.get("X").getAsDouble(), position.get("Y").getAsDouble(), position.get("Z").getAsDouble(),
+          (float) rotation.get("Pitch").getAsDouble(), (float) rotation.get("Yaw").getAsDouble(),
+          (float) rotation.get("Roll").getAsDouble());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private static JsonObject objectMember(@Nonnull JsonObject object, @Nonnull String name) {
+    JsonElement value = object.get(name);
+    return value != null && value.isJsonObject() ? value.getAsJsonObject() : null;
+  }
+
+  private static boolean isPrimitive(@Nonnull JsonObject object, @Nonnull String name) {
+    JsonElement value = object.get(name);
+    return value != null && value.isJsonPrimitive();
+  }
+
+  /**
+   * Clamps item stacks in every {@code ItemContainer} below an element.
+   *
+   * @return Number of fields changed
+   */
+  static int sanitizeItemContainers(@Nonnull JsonElement element) {
+    if (element.isJsonObject()) {
+      JsonObject obj = element.getAsJsonObject();
+      int updated = 0;
+      JsonObject container = objectMember(obj, "ItemContainer");
+      if (container != null) {
+        updated += sanitizeItemContainer(container);
+      }
+      for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+        JsonElement value = entry.getValue();
+        if (value != null) {
+          updated += sanitizeItemContainers(value);
+        }
+      }
+      return updated;
+    }
+    if (element.isJsonArray()) {
+      int updated = 0;
+      for (JsonElement child : element.getAsJsonArray()) {
+        if (child != null) {
+          updated += sanitizeItemContainers(child);
+        }
+      }
+      return updated;
+    }
+    return 0;
+  }
+
+  private static int sanitizeItemContainer(@Nonnull JsonObject container) {
+    JsonObject items = objectMember(container, "Items");
+    if (items == null) {
+      return 0;
+    }
+    int updated = 0;
+    for (Map.Entry<String, JsonElement> entry : items.entrySet()) {
+      if (!entry.getValue().isJsonObject()) {
+        continue;
+      }
+      JsonObject item = entry.getValue().getAsJsonObject();
+      if (!isPrimitive(item, "MaxDurability")) {
+        continue;
+      }
+      double max = item.get("MaxDurability").getAsDouble();
+      if (max <= 0.0) {
+        item.addProperty("MaxDurability", 1.0);
+        max = 1.0;
+        updated++;
+      }
+      if (isPrimitive(item, "Durability")) {
+        double durability = item.get("Durability").getAsDouble();
+        double clamped = Math.min(Math.max(0.0, durability), max);
+        if (clamped != durability) {
+          item.addProperty("Durability", clamped);
+          updated++;
+        }
+      }
+    }
+    return updated;
+  }
+}
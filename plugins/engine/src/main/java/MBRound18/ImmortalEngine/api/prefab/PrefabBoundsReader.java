@@ -1,15 +1,8 @@
 package MBRound18.ImmortalEngine.api.prefab;
 
+import MBRound18.ImmortalEngine.api.assets.AssetArchive;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 import javax.annotation.Nullable;
 
 /**
@@ -20,43 +13,12 @@ public final class PrefabBoundsReader {
   }
 
   @Nullable
-  public static PrefabBounds read(ZipFile zipFile, ZipEntry entry, LoggingHelper log) {
-    if (zipFile == null || entry == null) {
+  public static PrefabBounds read(AssetArchive archive, AssetArchive.Entry entry, LoggingHelper log) {
+    if (archive == null || entry == null) {
       return null;
     }
-    try (BufferedReader reader = new BufferedReader(
-        new InputStreamReader(zipFile.getInputStream(entry), StandardCharsets.UTF_8))) {
-      JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
-      JsonArray blocks = json.getAsJsonArray("blocks");
-      if (blocks == null || blocks.isEmpty()) {
-        return null;
-      }
-
-      int minX = Integer.MAX_VALUE;
-      int maxX = Integer.MIN_VALUE;
-      int minY = Integer.MAX_VALUE;
-      int maxY = Integer.MIN_VALUE;
-      int minZ = Integer.MAX_VALUE;
-      int maxZ = Integer.MIN_VALUE;
-
-      for (JsonElement elem : blocks) {
-        JsonObject block = elem.getAsJsonObject();
-        int x = block.get("x").getAsInt();
-        int y = block.get("y").getAsInt();
-        int z = block.get("z").getAsInt();
-        minX = Math.min(minX, x);
-        maxX = Math.max(maxX, x);
-        minY = Math.min(minY, y);
-        maxY = Math.max(maxY, y);
-        minZ = Math.min(minZ, z);
-        maxZ = Math.max(maxZ, z);
-      }
-
-      if (minX == Integer.MAX_VALUE || minY == Integer.MAX_VALUE || minZ == Integer.MAX_VALUE) {
-        return null;
-      }
-
-      return new PrefabBounds(minX, maxX, minY, maxY, minZ, maxZ);
+    try (BufferedReader reader = archive.openReader(entry)) {
+      return PrefabAnalysis.analyze(reader, null).getBounds();
     } catch (Exception e) {
       if (log != null) {
         log.warn("Failed to read prefab bounds from %s: %s", entry.getName(), e.getMessage());
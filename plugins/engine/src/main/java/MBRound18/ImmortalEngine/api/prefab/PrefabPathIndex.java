@@ -0,0 +1,175 @@
+package MBRound18.ImmortalEngine.api.prefab;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import com.hypixel.hytale.server.core.prefab.PrefabStore;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Resolves mod-relative prefab paths to their files across the asset-pack
+ * prefab roots.
+ *
+ * <p>
+ * {@link #refresh()} lists every prefab under the roots once, in
+ * {@link PrefabStore} order with the first root winning, so lookups are a
+ * single map probe. Roots inside asset-pack archives resolve to paths in the
+ * archive's file system. A prefab that appears after the last refresh is
+ * looked up in the known roots on its first miss and remembered from then
+ * on.
+ * </p>
+ */
+public final class PrefabPathIndex {
+  private static final String PREFAB_EXTENSION = ".prefab.json";
+  private static final LoggingHelper log = new LoggingHelper("PrefabPathIndex");
+  private static final PrefabPathIndex INSTANCE = new PrefabPathIndex();
+
+  private volatile List<Path> roots = List.of();
+  private volatile Map<String, Path> paths = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+
+  PrefabPathIndex() {
+  }
+
+  @Nonnull
+  public static PrefabPathIndex get() {
+    return Objects.requireNonNull(INSTANCE, "INSTANCE");
+  }
+
+  /**
+   * Lists the prefabs of the current asset-pack roots again. Called when asset
+   * packs were (re)loaded.
+   */
+  public void refresh() {
+    List<Path> current = new ArrayList<>();
+    try {
+      PrefabStore store = PrefabStore.get();
+      Path baseRoot = store.getAssetPrefabsPath();
+      if (baseRoot != null) {
+        current.add(baseRoot);
+      }
+      for (PrefabStore.AssetPackPrefabPath packPath : store.getAllAssetPrefabPaths()) {
+        Path prefabsPath = packPath != null ? packPath.prefabsPath() : null;
+        if (prefabsPath != null) {
+          current.add(prefabsPath);
+        }
+      }
+    } catch (Exception e) {
+      log.fine("Failed to list asset prefab roots: %s", e.getMessage());
+    }
+    refresh(current);
+  }
+
+  /**
+   * Lists the prefabs under the given roots, first root winning.
+   */
+  synchronized void refresh(@Nonnull List<Path> prefabRoots) {
+    Map<String, Path> indexed = new ConcurrentHashMap<>();
+    for (Path root : prefabRoots) {
+      if (root == null || !Files.isDirectory(root)) {
+        continue;
+      }
+      try {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            String name = file.getFileName() != null ? file.getFileName().toString() : "";
+            if (attrs.isRegularFile() && name.endsWith(PREFAB_EXTENSION)) {
+              indexed.putIfAbsent(key(root, file), file);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) {
+            return FileVisitResult.CONTINUE;
+          }
+        });
+      } catch (IOException e) {
+        log.warn("Failed to index prefabs under %s: %s", root, e.getMessage());
+      }
+    }
+    this.roots = List.copyOf(prefabRoots);
+    this.paths = indexed;
+    this.loaded = true;
+    log.fine("Indexed %d prefabs in %d roots", indexed.size(), prefabRoots.size());
+  }
+
+  /**
+   * Resolves a prefab to its file.
+   *
+   * @param prefabPath Path relative to Server/Prefabs/, with or without the
+   *                   {@code Server/Prefabs/} prefix and the
+   *                   {@code .prefab.json} extension
+   * @return The prefab file, or null when no asset pack has it
+   */
+  @Nullable
+  public Path resolve(@Nonnull String prefabPath) {
+    if (!loaded) {
+      refresh();
+    }
+    String key = normalize(prefabPath);
+    Path indexed = paths.get(key);
+    if (indexed != null) {
+      return indexed;
+    }
+    for (Path root : roots) {
+      Path candidate = root.resolve(key + PREFAB_EXTENSION);
+      if (Files.isRegularFile(candidate)) {
+        paths.put(key, candidate);
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Forgets where a prefab lives, after its file was added, moved or removed.
+   */
+  public void invalidate(@Nonnull String prefabPath) {
+    paths.remove(normalize(prefabPath));
+  }
+
+  public int size() {
+    return paths.size();
+  }
+
+  @Nonnull
+  static String normalize(@Nonnull String prefabPath) {
+    String path = prefabPath.replace('\\', '/');
+    if (path.startsWith("Server/")) {
+      path = path.substring("Server/".length());
+    }
+    if (path.startsWith("Prefabs/")) {
+      path = path.substring("Prefabs/".length());
+    }
+    if (path.endsWith(PREFAB_EXTENSION)) {
+      path = path.substring(0, path.length() - PREFAB_EXTENSION.length());
+    } else if (path.endsWith(".prefab")) {
+      path = path.substring(0, path.length() - ".prefab".length());
+    }
+    return path;
+  }
+
+  @Nonnull
+  private static String key(@Nonnull Path root, @Nonnull Path file) {
+    StringBuilder key = new StringBuilder();
+    for (Path part : root.relativize(file)) {
+      if (key.length() > 0) {
+        key.append('/');
+      }
+      key.append(part);
+    }
+    return key.substring(0, key.length() - PREFAB_EXTENSION.length());
+  }
+}
@@ -1,15 +1,13 @@
 package MBRound18.ImmortalEngine.api.prefab;
 
+import MBRound18.ImmortalEngine.api.assets.AssetArchive;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 import javax.annotation.Nullable;
 
 /**
@@ -23,6 +21,11 @@ public final class StitchIndexBuilder {
   private StitchIndexBuilder() {
   }
 
+  /**
+   * Builds the stitch index, reusing the stored bounds of every prefab whose
+   * ZIP entry is unchanged since the last build; only added or changed
+   * prefabs are read.
+   */
   @Nullable
   public static StitchIndex loadOrBuild(Path assetsZipPath, Path indexPath, LoggingHelper log) {
     if (assetsZipPath == null || !Files.exists(assetsZipPath)) {
@@ -31,51 +34,70 @@ public final class StitchIndexBuilder {
       }
       return null;
     }
-    long size = assetsZipPath.toFile().length();
-    long modified = assetsZipPath.toFile().lastModified();
-    StitchIndex cached = StitchIndexStore.load(indexPath, size, modified, log);
-    if (cached != null) {
-      return cached;
-    }
-    StitchIndex built = build(assetsZipPath, log);
-    if (built != null) {
-      StitchIndexStore.save(indexPath, size, modified, built, log);
+    Map<String, StitchIndexStore.Entry> stored = StitchIndexStore.load(indexPath, log);
+    Map<String, StitchIndexStore.Entry> current = new LinkedHashMap<>();
+    StitchIndex built = build(assetsZipPath, stored == null ? Map.of() : stored, current, log);
+    if (built != null && (stored == null || !sameEntries(stored, current))) {
+      StitchIndexStore.save(indexPath, current.values(), log);
     }
     return built;
   }
 
   @Nullable
   public static StitchIndex build(Path assetsZipPath, LoggingHelper log) {
+    return build(assetsZipPath, Map.of(), new LinkedHashMap<>(), log);
+  }
+
+  /**
+   * @param previous Entries of the last build; unchanged prefabs reuse their
+   *                 bounds
+   * @param current  Receives the entry of every prefab in this build
+   */
+  @Nullable
+  private static StitchIndex build(Path assetsZipPath, Map<String, StitchIndexStore.Entry> previous,
+      Map<String, StitchIndexStore.Entry> current, LoggingHelper log) {
     if (assetsZipPath == null || !Files.exists(assetsZipPath)) {
       return null;
     }
 
     Map<String, List<String>> mapping = new LinkedHashMap<>();
-    try (ZipFile zipFile = new ZipFile(assetsZipPath.toFile())) {
-      List<PrefabEntry> stitches = collectPrefabs(zipFile, STITCH_ROOT, log);
-      List<PrefabEntry> dungeons = collectPrefabs(zipFile, DUNGEON_ROOT, log);
-      List<PrefabEntry> events = collectPrefabs(zipFile, EVENT_ROOT, log);
-      List<PrefabEntry> rooms = new ArrayList<>(dungeons.size() + events.size());
+    try {
+      AssetArchive archive = AssetArchive.open(assetsZipPath);
+      List<StitchIndexStore.Entry> stitches = collectPrefabs(archive, STITCH_ROOT, previous, log);
+      List<StitchIndexStore.Entry> dungeons = collectPrefabs(archive, DUNGEON_ROOT, previous, log);
+      List<StitchIndexStore.Entry> events = collectPrefabs(archive, EVENT_ROOT, previous, log);
+      List<StitchIndexStore.Entry> rooms = new ArrayList<>(dungeons.size() + events.size());
       rooms.addAll(dungeons);
       rooms.addAll(events);
 
-      for (PrefabEntry stitch : stitches) {
+      for (StitchIndexStore.Entry stitch : stitches) {
+        PrefabBounds stitchBounds = stitch.getBounds();
         List<String> matches = new ArrayList<>();
-        for (PrefabEntry room : rooms) {
-          if (stitch.bounds == null || room.bounds == null) {
+        for (StitchIndexStore.Entry room : rooms) {
+          PrefabBounds roomBounds = room.getBounds();
+          if (stitchBounds == null || roomBounds == null) {
             continue;
           }
-          if (stitch.bounds.getWidth() == room.bounds.getWidth()
-              && stitch.bounds.getDepth() == room.bounds.getDepth()) {
-            matches.add(room.prefabPath);
+          if (stitchBounds.getWidth() == roomBounds.getWidth()
+              && stitchBounds.getDepth() == roomBounds.getDepth()) {
+            matches.add(room.getPrefabPath());
+          }
+        }
+        mapping.put(stitch.getPrefabPath(), matches);
+      }
+      int reused = 0;
+      for (List<StitchIndexStore.Entry> group : List.of(stitches, rooms)) {
+        for (StitchIndexStore.Entry entry : group) {
+          current.put(entry.getPrefabPath(), entry);
+          if (previous.get(entry.getPrefabPath()) == entry) {
+            reused++;
           }
         }
-        mapping.put(stitch.prefabPath, matches);
       }
 
       if (log != null) {
-        log.info("Built stitch index: %d stitch patterns, %d dungeon prefabs, %d event prefabs",
-            stitches.size(), dungeons.size(), events.size());
+        log.info("Built stitch index: %d stitch patterns, %d dungeon prefabs, %d event prefabs (%d read, %d reused)",
+            stitches.size(), dungeons.size(), events.size(), current.size() - reused, reused);
       }
       return new StitchIndex(mapping);
     } catch (Exception e) {
@@ -86,25 +108,43 @@ public final class StitchIndexBuilder {
     }
   }
 
-  private static List<PrefabEntry> collectPrefabs(ZipFile zipFile, String root, LoggingHelper log) {
-    List<PrefabEntry> results = new ArrayList<>();
-    Enumeration<? extends ZipEntry> entries = zipFile.entries();
-    while (entries.hasMoreElements()) {
-      ZipEntry entry = entries.nextElement();
+  /**
+   * Collects the prefabs under a root, reading bounds only for prefabs not in
+   * {@code previous} with the same entry CRC and size.
+   */
+  private static List<StitchIndexStore.Entry> collectPrefabs(AssetArchive archive, String root,
+      Map<String, StitchIndexStore.Entry> previous, LoggingHelper log) {
+    List<StitchIndexStore.Entry> results = new ArrayList<>();
+    for (AssetArchive.Entry entry : archive.list(root)) {
       String name = entry.getName();
-      if (entry.isDirectory() || !name.endsWith(".prefab.json")) {
+      if (!name.endsWith(".prefab.json")) {
         continue;
       }
-      if (!name.startsWith(root)) {
+      String prefabPath = toPrefabPath(name);
+      StitchIndexStore.Entry known = previous.get(prefabPath);
+      if (known != null && known.matches(entry.getCrc(), entry.getSize())) {
+        results.add(known);
         continue;
       }
-      String prefabPath = toPrefabPath(name);
-      PrefabBounds bounds = PrefabBoundsReader.read(zipFile, entry, log);
-      results.add(new PrefabEntry(prefabPath, bounds));
+      PrefabBounds bounds = PrefabBoundsReader.read(archive, entry, log);
+      results.add(new StitchIndexStore.Entry(prefabPath, entry.getCrc(), entry.getSize(), bounds));
     }
     return results;
   }
 
+  private static boolean sameEntries(Map<String, StitchIndexStore.Entry> stored,
+      Map<String, StitchIndexStore.Entry> current) {
+    if (stored.size() != current.size()) {
+      return false;
+    }
+    for (Map.Entry<String, StitchIndexStore.Entry> entry : current.entrySet()) {
+      if (stored.get(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static String toPrefabPath(String entryName) {
     String trimmed = entryName.substring("Server/Prefabs/".length());
     if (trimmed.endsWith(".prefab.json")) {
@@ -112,14 +152,4 @@ public final class StitchIndexBuilder {
     }
     return trimmed;
   }
-
-  private static final class PrefabEntry {
-    private final String prefabPath;
-    private final PrefabBounds bounds;
-
-    private PrefabEntry(String prefabPath, @Nullable PrefabBounds bounds) {
-      this.prefabPath = prefabPath;
-      this.bounds = bounds;
-    }
-  }
 }
@@ -7,24 +7,82 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 /**
- * Persists a stitch index to disk for fast startup reuse.
+ * Persists the per-prefab inputs of a stitch index to disk for fast startup
+ * reuse.
+ *
+ * <p>
+ * Each prefab is stored with the CRC-32 and size its ZIP entry had when its
+ * bounds were read, so a rebuild only re-reads prefabs whose content changed.
+ * </p>
  */
 public final class StitchIndexStore {
   private static final int MAGIC = 0x53544348; // "STCH"
-  private static final int VERSION = 1;
+  private static final int VERSION = 2;
 
   private StitchIndexStore() {
   }
 
+  /**
+   * Bounds of one prefab together with the fingerprint of the content they
+   * were read from.
+   */
+  public static final class Entry {
+    private final String prefabPath;
+    private final long crc;
+    private final long size;
+    private final @Nullable PrefabBounds bounds;
+
+    public Entry(@Nonnull String prefabPath, long crc, long size, @Nullable PrefabBounds bounds) {
+      this.prefabPath = Objects.requireNonNull(prefabPath, "prefabPath");
+      this.crc = crc;
+      this.size = size;
+      this.bounds = bounds;
+    }
+
+    @Nonnull
+    public String getPrefabPath() {
+      return prefabPath;
+    }
+
+    public long getCrc() {
+      return crc;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    @Nullable
+    public PrefabBounds getBounds() {
+      return bounds;
+    }
+
+    /**
+     * Whether this entry was read from content with the given fingerprint.
+     * An unknown CRC (-1) never matches.
+     */
+    public boolean matches(long otherCrc, long otherSize) {
+      return crc != -1 && crc == otherCrc && size == otherSize;
+    }
+  }
+
+  /**
+   * Loads the stored entries keyed by prefab path.
+   *
+   * @return The entries, or null when the file is missing, foreign or from an
+   *         older version
+   */
   @Nullable
-  public static StitchIndex load(Path indexPath, long assetsSize, long assetsModified, LoggingHelper log) {
+  public static Map<String, Entry> load(Path indexPath, LoggingHelper log) {
     if (indexPath == null || !Files.exists(indexPath)) {
       return null;
     }
@@ -38,26 +96,23 @@ public final class StitchIndexStore {
       if (version != VERSION) {
         return null;
       }
-      long storedSize = input.readLong();
-      long storedModified = input.readLong();
-      if (storedSize != assetsSize || storedModified != assetsModified) {
-        return null;
-      }
-      int stitchCount = input.readInt();
-      Map<String, List<String>> mapping = new LinkedHashMap<>();
-      for (int i = 0; i < stitchCount; i++) {
-        String stitch = input.readUTF();
-        int prefabCount = input.readInt();
-        List<String> prefabs = new ArrayList<>(prefabCount);
-        for (int j = 0; j < prefabCount; j++) {
-          prefabs.add(input.readUTF());
+      int count = input.readInt();
+      Map<String, Entry> entries = new LinkedHashMap<>();
+      for (int i = 0; i < count; i++) {
+        String prefabPath = input.readUTF();
+        long crc = input.readLong();
+        long size = input.readLong();
+        PrefabBounds bounds = null;
+        if (input.readBoolean()) {
+          bounds = new PrefabBounds(input.readInt(), input.readInt(), input.readInt(), input.readInt(),
+              input.readInt(), input.readInt());
         }
-        mapping.put(stitch, prefabs);
+        entries.put(prefabPath, new Entry(prefabPath, crc, size, bounds));
       }
       if (log != null) {
-        log.info("Loaded stitch index from %s (%d stitch patterns)", indexPath, mapping.size());
+        log.info("Loaded stitch index from %s (%d prefabs)", indexPath, entries.size());
       }
-      return new StitchIndex(mapping);
+      return entries;
     } catch (Exception e) {
       if (log != null) {
         log.warn("Failed to load stitch index %s: %s", indexPath, e.getMessage());
@@ -66,32 +121,37 @@ public final class StitchIndexStore {
     }
   }
 
-  public static void save(Path indexPath, long assetsSize, long assetsModified,
-      StitchIndex index, LoggingHelper log) {
-    if (indexPath == null || index == null) {
+  public static void save(Path indexPath, Collection<Entry> entries, LoggingHelper log) {
+    if (indexPath == null || entries == null) {
       return;
     }
+    Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
     try {
       Files.createDirectories(indexPath.getParent());
       try (DataOutputStream output = new DataOutputStream(
-          new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+          new BufferedOutputStream(Files.newOutputStream(temp)))) {
         output.writeInt(MAGIC);
         output.writeInt(VERSION);
-        output.writeLong(assetsSize);
-        output.writeLong(assetsModified);
-        Map<String, List<String>> mapping = index.getStitchesToPrefabs();
-        output.writeInt(mapping.size());
-        for (Map.Entry<String, List<String>> entry : mapping.entrySet()) {
-          output.writeUTF(entry.getKey());
-          List<String> prefabs = entry.getValue();
-          output.writeInt(prefabs.size());
-          for (String prefab : prefabs) {
-            output.writeUTF(prefab);
+        output.writeInt(entries.size());
+        for (Entry entry : entries) {
+          output.writeUTF(entry.prefabPath);
+          output.writeLong(entry.crc);
+          output.writeLong(entry.size);
+          PrefabBounds bounds = entry.bounds;
+          output.writeBoolean(bounds != null);
+          if (bounds != null) {
+            output.writeInt(bounds.getMinX());
+            output.writeInt(bounds.getMaxX());
+            output.writeInt(bounds.getMinY());
+            output.writeInt(bounds.getMaxY());
+            output.writeInt(bounds.getMinZ());
+            output.writeInt(bounds.getMaxZ());
           }
         }
       }
+      Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
       if (log != null) {
-        log.info("Wrote stitch index to %s (%d stitch patterns)", indexPath, index.getStitchesToPrefabs().size());
+        log.info("Wrote stitch index to %s (%d prefabs)", indexPath, entries.size());
       }
     } catch (Exception e) {
       if (log != null) {
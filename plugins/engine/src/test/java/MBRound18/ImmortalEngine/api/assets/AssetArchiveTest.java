@@ -0,0 +1,107 @@
+package MBRound18.ImmortalEngine.api.assets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+
+class AssetArchiveTest {
+
+  private static final String ROOM = "{\"blocks\":[" + "{\"x\":0,\"y\":0,\"z\":0,\"name\":\"Rock_Stone\"},".repeat(50)
+      + "{\"x\":1,\"y\":1,\"z\":1,\"name\":\"Rock_Stone\"}]}";
+
+  @Test
+  void looksUpEntriesByNameAndDirectory() throws Exception {
+    AssetArchive archive = AssetArchive.open(writeZip());
+
+    AssetArchive.Entry room = archive.getEntry("Server/Prefabs/Dungeon/Rooms/Vex_Room.prefab.json");
+    assertEquals(ROOM.length(), room.getSize());
+    assertFalse(room.isStored());
+    assertNull(archive.getEntry("Server/Prefabs/Dungeon/Missing.prefab.json"));
+    assertTrue(archive.contains("Server/Languages/en-US/server.lang"));
+
+    assertEquals(List.of("Server/Prefabs/Dungeon/Rooms/Vex_Room.prefab.json", "Server/Prefabs/Stitch/Door.prefab.json"),
+        names(archive.list("Server/Prefabs/")));
+    assertEquals(List.of("Server/Prefabs/Stitch/Door.prefab.json"), names(archive.list("Server/Prefabs/Stitch/")));
+    assertTrue(archive.list("Server/Missing/").isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> archive.list("Server/Pref"));
+  }
+
+  @Test
+  void readsStoredAndDeflatedContent() throws Exception {
+    AssetArchive archive = AssetArchive.open(writeZip());
+    AssetArchive.Entry room = archive.getEntry("Server/Prefabs/Dungeon/Rooms/Vex_Room.prefab.json");
+    AssetArchive.Entry door = archive.getEntry("Server/Prefabs/Stitch/Door.prefab.json");
+
+    assertEquals(ROOM, archive.readString(room));
+    try (BufferedReader reader = archive.openReader(room)) {
+      assertEquals(ROOM, reader.lines().collect(Collectors.joining("\n")));
+    }
+
+    ByteBuffer stored = archive.read(door);
+    assertTrue(door.isStored());
+    assertTrue(stored.isDirect(), "stored entries are slices of the mapping");
+    assertTrue(stored.isReadOnly());
+    assertEquals("{}", StandardCharsets.UTF_8.decode(stored).toString());
+    assertEquals("{}", new String(archive.openStream(door).readAllBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void sharesArchiveUntilFileChanges() throws Exception {
+    Path zip = writeZip();
+    AssetArchive first = AssetArchive.open(zip);
+    assertSame(first, AssetArchive.open(zip));
+
+    Files.setLastModifiedTime(zip, FileTime.fromMillis(Files.getLastModifiedTime(zip).toMillis() + 5_000));
+    assertNotSame(first, AssetArchive.open(zip));
+  }
+
+  private static List<String> names(List<AssetArchive.Entry> entries) {
+    return entries.stream().map(AssetArchive.Entry::getName).collect(Collectors.toList());
+  }
+
+  private static Path writeZip() throws Exception {
+    Path zip = Files.createTempFile("assets", ".zip");
+    try (OutputStream file = Files.newOutputStream(zip); ZipOutputStream out = new ZipOutputStream(file)) {
+      out.putNextEntry(new ZipEntry("Server/Prefabs/Dungeon/"));
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("Server/Prefabs/Dungeon/Rooms/Vex_Room.prefab.json"));
+      out.write(ROOM.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+
+      byte[] door = "{}".getBytes(StandardCharsets.UTF_8);
+      CRC32 crc = new CRC32();
+      crc.update(door);
+      ZipEntry stored = new ZipEntry("Server/Prefabs/Stitch/Door.prefab.json");
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(door.length);
+      stored.setCompressedSize(door.length);
+      stored.setCrc(crc.getValue());
+      out.putNextEntry(stored);
+      out.write(door);
+      out.closeEntry();
+
+      out.putNextEntry(new ZipEntry("Server/Languages/en-US/server.lang"));
+      out.write("greeting=Hello".getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    return zip;
+  }
+}
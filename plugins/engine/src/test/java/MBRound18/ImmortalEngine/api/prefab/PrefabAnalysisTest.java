@@ -0,0 +1,112 @@
+package MBRound18.ImmortalEngine.api.prefab;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class PrefabAnalysisTest {
+
+  private static final String PREFAB = "{"
+      + "\"version\":8,"
+      + "\"blocks\":["
+      + "{\"x\":-2,\"y\":0,\"z\":1,\"name\":\"Rock_Stone\"},"
+      + "{\"x\":3,\"y\":4,\"z\":-1,\"name\":\"Rock_Stone\",\"rotation\":2},"
+      + "{\"x\":0,\"y\":1,\"z\":0,\"name\":\"Chest\",\"components\":{\"ItemContainer\":{\"Items\":{"
+      + "\"0\":{\"Id\":\"Sword\",\"MaxDurability\":0,\"Durability\":5}}}}}"
+      + "],"
+      + "\"fluids\":[{\"x\":1,\"y\":0,\"z\":1,\"name\":\"Lava\",\"level\":8}],"
+      + "\"entities\":["
+      + "{\"Components\":{\"Model\":{\"Model\":{\"Id\":\"Skeleton\"}},"
+      + "\"Transform\":{\"Position\":{\"X\":1.5,\"Y\":2,\"Z\":-0.5},"
+      + "\"Rotation\":{\"Pitch\":0,\"Yaw\":1.25,\"Roll\":0}}}},"
+      + "{\"Components\":{\"BlockEntity\":{},\"Model\":{\"Model\":{\"Id\":\"Torch\"}}}}"
+      + "]}";
+
+  @Test
+  void collectsBoundsBlocksFluidsAndEntitiesInOnePass() throws IOException {
+    PrefabAnalysis analysis = PrefabAnalysis.analyze(new StringReader(PREFAB), null);
+
+    PrefabBounds bounds = analysis.getBounds();
+    assertNotNull(bounds);
+    assertEquals(-2, bounds.getMinX());
+    assertEquals(3, bounds.getMaxX());
+    assertEquals(4, bounds.getMaxY());
+    assertEquals(-1, bounds.getMinZ());
+    assertEquals(6, bounds.getWidth());
+    assertEquals(3, bounds.getDepth());
+
+    assertEquals(3, analysis.getBlockCount());
+    assertEquals("Rock_Stone", analysis.getBlockName(1));
+    assertEquals(3, analysis.getBlockX(1));
+    assertEquals(2, analysis.getBlockRotation(1));
+    assertEquals(0, analysis.getBlockRotation(0));
+    assertEquals(0, analysis.getBlockFiller(1));
+    assertEquals(1, analysis.getDetailedBlockCount());
+    assertFalse(analysis.hasAnchorOffset());
+    assertEquals(1, analysis.getFluidCount());
+    assertEquals("Lava", analysis.getFluidName(0));
+    assertEquals(8, analysis.getFluidLevel(0));
+
+    assertEquals(1, analysis.getFrozenEntities().size());
+    PrefabAnalysis.FrozenEntity skeleton = analysis.getFrozenEntities().get(0);
+    assertEquals("Skeleton", skeleton.getModelId());
+    assertEquals(1.5, skeleton.getX());
+    assertEquals(1.25f, skeleton.getYaw());
+    assertEquals(1, analysis.getKeptEntityCount());
+    assertEquals(2, analysis.getSanitizedItemStacks());
+    assertTrue(analysis.needsSanitizing());
+  }
+
+  @Test
+  void writesSanitizedPrefabWhileAnalyzing() throws IOException {
+    StringWriter sanitized = new StringWriter();
+    PrefabAnalysis.analyze(new StringReader(PREFAB), sanitized);
+
+    JsonObject root = JsonParser.parseString(sanitized.toString()).getAsJsonObject();
+    assertEquals(8, root.get("version").getAsInt());
+    assertEquals(3, root.getAsJsonArray("blocks").size());
+    assertEquals(2, root.getAsJsonArray("blocks").get(1).getAsJsonObject().get("rotation").getAsInt());
+    JsonObject item = root.getAsJsonArray("blocks").get(2).getAsJsonObject().getAsJsonObject("components")
+        .getAsJsonObject("ItemContainer").getAsJsonObject("Items").getAsJsonObject("0");
+    assertEquals(1.0, item.get("MaxDurability").getAsDouble());
+    assertEquals(1.0, item.get("Durability").getAsDouble());
+    assertEquals(1, root.getAsJsonArray("entities").size());
+    assertEquals(1, root.getAsJsonArray("fluids").size());
+  }
+
+  @Test
+  void prefabWithoutBlocksHasNoBounds() throws IOException {
+    PrefabAnalysis analysis = PrefabAnalysis.analyze(new StringReader("{\"blocks\":[]}"), null);
+
+    assertNull(analysis.getBounds());
+    assertEquals(0, analysis.getBlockCount());
+    assertFalse(analysis.needsSanitizing());
+  }
+
+  @Test
+  void notesAnchorOffsetsAndKeepsTheirValues() throws IOException {
+    StringWriter sanitized = new StringWriter();
+    PrefabAnalysis analysis = PrefabAnalysis.analyze(
+        new StringReader("{\"anchorX\":0,\"anchorY\":1.5,\"blocks\":[]}"), sanitized);
+
+    assertTrue(analysis.hasAnchorOffset());
+    JsonObject root = JsonParser.parseString(sanitized.toString()).getAsJsonObject();
+    assertEquals(0, root.get("anchorX").getAsInt());
+    assertEquals(1.5, root.get("anchorY").getAsDouble());
+  }
+
+  @Test
+  void rejectsNonObjectJson() {
+    assertThrows(IOException.class, () -> PrefabAnalysis.analyze(new StringReader("[1,2]"), null));
+  }
+}
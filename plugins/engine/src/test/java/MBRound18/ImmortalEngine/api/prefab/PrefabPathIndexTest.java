@@ -0,0 +1,53 @@
+package MBRound18.ImmortalEngine.api.prefab;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PrefabPathIndexTest {
+
+  @Test
+  void resolvesFirstRootAndAcceptsEntryPaths() throws Exception {
+    Path base = Files.createTempDirectory("prefabs-base");
+    Path pack = Files.createTempDirectory("prefabs-pack");
+    Path baseRoom = write(base, "Dungeon/Rooms/Vex_Room.prefab.json");
+    write(pack, "Dungeon/Rooms/Vex_Room.prefab.json");
+    Path packGate = write(pack, "Gates/Vex_Gate.prefab.json");
+    write(pack, "Gates/readme.txt");
+    PrefabPathIndex index = new PrefabPathIndex();
+    index.refresh(List.of(base, pack));
+
+    assertEquals(2, index.size());
+    assertEquals(baseRoom, index.resolve("Dungeon/Rooms/Vex_Room"));
+    assertEquals(baseRoom, index.resolve("Server/Prefabs/Dungeon/Rooms/Vex_Room.prefab.json"));
+    assertEquals(packGate, index.resolve("Prefabs/Gates/Vex_Gate.prefab"));
+    assertNull(index.resolve("Gates/Missing"));
+  }
+
+  @Test
+  void findsPrefabsAddedAfterRefresh() throws Exception {
+    Path root = Files.createTempDirectory("prefabs");
+    PrefabPathIndex index = new PrefabPathIndex();
+    index.refresh(List.of(root));
+    assertNull(index.resolve("Event/Vex_Shrine"));
+
+    Path shrine = write(root, "Event/Vex_Shrine.prefab.json");
+    assertEquals(shrine, index.resolve("Event/Vex_Shrine"));
+    assertEquals(1, index.size());
+
+    Files.delete(shrine);
+    index.invalidate("Event/Vex_Shrine");
+    assertNull(index.resolve("Event/Vex_Shrine"));
+  }
+
+  private static Path write(Path root, String relative) throws Exception {
+    Path file = root.resolve(relative);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, "{}");
+    return file;
+  }
+}
@@ -25,6 +25,7 @@ import MBRound18.hytale.vexlichdungeon.loot.LootService;
 import MBRound18.hytale.vexlichdungeon.loot.LootTableConfig;
 import MBRound18.hytale.vexlichdungeon.loot.LootTableLoader;
 import MBRound18.ImmortalEngine.api.prefab.StitchIndex;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndexStorage;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabStitchIndexBuilder;
 
 import MBRound18.hytale.vexlichdungeon.portal.PortalManagerSystem;
@@ -79,6 +80,7 @@ public class VexLichDungeonPlugin extends JavaPlugin {
   private RoomTileSpawnRequestHandler roomTileSpawnRequestHandler;
   private RoomEnemiesSpawnRequestHandler roomEnemiesSpawnRequestHandler;
   private NpcSpawnRequestHandler npcSpawnRequestHandler;
+  private RoguelikeDungeonController roguelikeController;
 
   public VexLichDungeonPlugin(@Nonnull JavaPluginInit init) {
     super(init);
@@ -142,7 +144,8 @@ public class VexLichDungeonPlugin extends JavaPlugin {
       unpackedRoot = null;
     }
     prefabDiscovery = Objects.requireNonNull(
-        new PrefabDiscovery(Objects.requireNonNull(log, "log"), unpackedRoot),
+        new PrefabDiscovery(Objects.requireNonNull(log, "log"), unpackedRoot, java.util.List.of("Vex_"),
+            dataDirectory.resolve("prefab-cache")),
         "prefabDiscovery");
     PortalEngineAdapter engineAdapter = new PortalEngineAdapter();
     engineAdapterEventHandler = new EngineAdapterEventHandler(engineAdapter);
@@ -160,11 +163,14 @@ public class VexLichDungeonPlugin extends JavaPlugin {
     prefabSpawner = new PrefabSpawner(
         Objects.requireNonNull(log, "log"),
         config,
-        unpackedRoot);
+        unpackedRoot,
+        dataDirectory.resolve("prefab-cache"));
     StitchIndex stitchIndex = PrefabStitchIndexBuilder.build(
         Objects.requireNonNull(prefabDiscovery, "prefabDiscovery"),
         Objects.requireNonNull(prefabSpawner, "prefabSpawner"),
-        Objects.requireNonNull(log, "log"));
+        Objects.requireNonNull(log, "log"),
+        PrefabEdgeIndexStorage.load(Objects.requireNonNull(dataDirectory, "dataDirectory"),
+            Objects.requireNonNull(log, "log")));
     PrefabHookRegistry.register(new PrefabPlacementHook());
     Path lootTablePath = dataDirectory.resolve("loot_tables.json");
     LootService lootService = buildLootService(
@@ -172,7 +178,7 @@ public class VexLichDungeonPlugin extends JavaPlugin {
         Objects.requireNonNull(log, "log"),
         generatorSeed(config),
         Objects.requireNonNull(dataDirectory, "dataDirectory"));
-    RoguelikeDungeonController roguelikeController = new RoguelikeDungeonController(
+    roguelikeController = new RoguelikeDungeonController(
         Objects.requireNonNull(log, "log"),
         dungeonGenerator,
         Objects.requireNonNull(prefabDiscovery, "prefabDiscovery"),
@@ -360,8 +366,17 @@ public class VexLichDungeonPlugin extends JavaPlugin {
       dataStore.savePortalPlacements();
       log.info("Saved all data before shutdown");
     }
+    if (assetPacksLoadedEventHandler != null) {
+      assetPacksLoadedEventHandler.shutdown();
+    }
+    if (prefabDiscovery != null) {
+      prefabDiscovery.close();
+    }
     if (prefabSpawner != null) {
-      prefabSpawner.clearCaches();
+      prefabSpawner.shutdown();
+    }
+    if (roguelikeController != null) {
+      roguelikeController.shutdown();
     }
     PortalManagerSystem.shutdown();
     MBRound18.hytale.vexlichdungeon.events.WorldEventQueue.get().shutdown();
@@ -3,14 +3,25 @@ package MBRound18.hytale.vexlichdungeon.data;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Objects;
+import java.util.TreeSet;
+import java.util.random.RandomGenerator;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Parsed spawn pool ranges for fast lookup.
+ *
+ * <p>
+ * Ranges are compiled into sorted disjoint score segments searched by binary
+ * search, and each range keeps its entries sorted by points with a running
+ * weight total, so finding a range and picking an affordable enemy are both
+ * O(log n) and allocation-free.
+ * </p>
  */
 public class SpawnPool {
 
@@ -18,11 +29,33 @@ public class SpawnPool {
     private final int minScore;
     private final int maxScore;
     private final List<SpawnPoolEntry> entries;
+    // Pickable entries sorted by points, with running weight totals, so the
+    // entries affordable for a budget are always a prefix.
+    private final SpawnPoolEntry[] byPoints;
+    private final int[] points;
+    private final long[] cumulativeWeights;
 
     public SpawnRange(int minScore, int maxScore, @Nonnull List<SpawnPoolEntry> entries) {
       this.minScore = minScore;
       this.maxScore = maxScore;
       this.entries = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(entries, "entries")));
+
+      List<SpawnPoolEntry> pickable = new ArrayList<>();
+      for (SpawnPoolEntry entry : this.entries) {
+        if (entry != null && entry.getEnemy() != null && entry.getWeight() > 0) {
+          pickable.add(entry);
+        }
+      }
+      pickable.sort(Comparator.comparingInt(SpawnPoolEntry::getPoints));
+      this.byPoints = pickable.toArray(new SpawnPoolEntry[0]);
+      this.points = new int[byPoints.length];
+      this.cumulativeWeights = new long[byPoints.length];
+      long total = 0;
+      for (int i = 0; i < byPoints.length; i++) {
+        points[i] = byPoints[i].getPoints();
+        total += byPoints[i].getWeight();
+        cumulativeWeights[i] = total;
+      }
     }
 
     public int getMinScore() {
@@ -41,12 +74,84 @@ public class SpawnPool {
     public boolean matches(int score) {
       return score >= minScore && score <= maxScore;
     }
+
+    /**
+     * Picks an entry costing at most {@code remaining} points, weighted by
+     * {@link SpawnPoolEntry#getWeight()}. Two binary searches, no allocation.
+     *
+     * @return The entry, or null when nothing is affordable
+     */
+    @Nullable
+    public SpawnPoolEntry pick(int remaining, @Nonnull RandomGenerator random) {
+      int eligible = countAffordable(remaining);
+      if (eligible == 0) {
+        return null;
+      }
+      long target = random.nextLong(cumulativeWeights[eligible - 1]);
+      int low = 0;
+      int high = eligible - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (cumulativeWeights[mid] > target) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return byPoints[low];
+    }
+
+    /**
+     * Gets the cheapest pickable entry cost, or {@link Integer#MAX_VALUE} when
+     * the range has none.
+     */
+    public int getCheapestPoints() {
+      return points.length == 0 ? Integer.MAX_VALUE : points[0];
+    }
+
+    private int countAffordable(int remaining) {
+      int low = 0;
+      int high = points.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (points[mid] <= remaining) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
   }
 
   private final List<SpawnRange> ranges;
+  // Disjoint score segments: segment i covers [segmentStarts[i],
+  // segmentStarts[i + 1]) and resolves to segmentRanges[i] (null = no range).
+  // Overlapping ranges resolve to the first one in config order.
+  private final long[] segmentStarts;
+  private final SpawnRange[] segmentRanges;
 
   private SpawnPool(@Nonnull List<SpawnRange> ranges) {
     this.ranges = Collections.unmodifiableList(Objects.requireNonNull(ranges, "ranges"));
+
+    TreeSet<Long> bounds = new TreeSet<>();
+    for (SpawnRange range : ranges) {
+      bounds.add((long) range.getMinScore());
+      bounds.add((long) range.getMaxScore() + 1);
+    }
+    this.segmentStarts = new long[bounds.size()];
+    this.segmentRanges = new SpawnRange[bounds.size()];
+    int index = 0;
+    for (long start : bounds) {
+      segmentStarts[index] = start;
+      for (SpawnRange range : ranges) {
+        if (start >= range.getMinScore() && start <= range.getMaxScore()) {
+          segmentRanges[index] = range;
+          break;
+        }
+      }
+      index++;
+    }
   }
 
   @Nonnull
@@ -56,19 +161,35 @@ public class SpawnPool {
 
   @Nonnull
   public Optional<SpawnRange> findRange(int score) {
-    for (SpawnRange range : ranges) {
-      if (range.matches(score)) {
-        return Objects.requireNonNull(Optional.of(range), "range");
+    return Objects.requireNonNull(Optional.ofNullable(rangeFor(score)), "range");
+  }
+
+  /**
+   * Finds the range for a score by binary search without allocating.
+   *
+   * @return The range, or null when no range covers the score
+   */
+  @Nullable
+  public SpawnRange rangeFor(int score) {
+    int low = 0;
+    int high = segmentStarts.length - 1;
+    int found = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (segmentStarts[mid] <= score) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
       }
     }
-    return Objects.requireNonNull(Optional.empty(), "empty");
+    return found < 0 ? null : segmentRanges[found];
   }
 
   @Nonnull
   public List<SpawnPoolEntry> getEntriesForScore(int score) {
-    return Objects.requireNonNull(findRange(score)
-        .map(SpawnRange::getEntries)
-        .orElseGet(Collections::emptyList), "entries");
+    SpawnRange range = rangeFor(score);
+    return range != null ? range.getEntries() : Objects.requireNonNull(Collections.emptyList(), "entries");
   }
 
   @Nonnull
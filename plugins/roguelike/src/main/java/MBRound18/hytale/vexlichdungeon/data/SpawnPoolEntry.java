@@ -9,6 +9,8 @@ public class SpawnPoolEntry {
 
   private String enemy;
   private int points;
+  /** Relative pick weight among eligible entries; missing in JSON means 1. */
+  private int weight = 1;
 
   public SpawnPoolEntry() {
   }
@@ -33,4 +35,12 @@ public class SpawnPoolEntry {
   public void setPoints(int points) {
     this.points = points;
   }
+
+  public int getWeight() {
+    return weight;
+  }
+
+  public void setWeight(int weight) {
+    this.weight = weight;
+  }
 }
@@ -1,10 +1,13 @@
 package MBRound18.hytale.vexlichdungeon.debug;
 
+import MBRound18.hytale.shared.utilities.CacheMetrics;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
+import MBRound18.hytale.shared.utilities.WeightedCache;
 import MBRound18.hytale.vexlichdungeon.events.RoomCoordinate;
 import MBRound18.hytale.vexlichdungeon.data.ArchiveRecord;
 import MBRound18.hytale.vexlichdungeon.data.DataStore;
 import MBRound18.ImmortalEngine.api.prefab.PrefabInspector;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPreloader;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabSpawner;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
@@ -154,6 +157,8 @@ public final class SseDebugServer {
         });
 
         app.get("/api/health", this::handleHealth);
+        app.get("/api/caches", this::handleCaches);
+        app.get("/api/preload", this::handlePreload);
         app.get("/api/metadata/players", this::handlePlayerMetadata);
         app.get("/api/metadata/prefab/{id}", this::handlePrefabMetadata);
         app.get("/api/archives", this::handleArchivesList);
@@ -670,6 +675,51 @@ public final class SseDebugServer {
     ctx.result(body);
   }
 
+  private void handleCaches(@Nonnull Context ctx) {
+    List<Map<String, Object>> list = new ArrayList<>();
+    for (WeightedCache.Stats stats : CacheMetrics.snapshot()) {
+      Map<String, Object> item = new LinkedHashMap<>();
+      item.put("name", stats.getName());
+      item.put("entries", stats.getSize());
+      item.put("weightBytes", stats.getWeightBytes());
+      item.put("budgetBytes", stats.getBudgetBytes());
+      item.put("hits", stats.getHits());
+      item.put("misses", stats.getMisses());
+      item.put("hitRate", stats.getHitRate());
+      item.put("loads", stats.getLoads());
+      item.put("coalescedLoads", stats.getCoalescedLoads());
+      item.put("loadFailures", stats.getLoadFailures());
+      item.put("averageLoadMs", stats.getAverageLoadMillis());
+      item.put("evictions", stats.getEvictions());
+      list.add(item);
+    }
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("caches", list);
+    response.put("timestamp", Instant.now().toString());
+    ctx.contentType("application/json; charset=utf-8");
+    ctx.result(toJson(response));
+  }
+
+  private void handlePreload(@Nonnull Context ctx) {
+    PrefabPreloader.Progress progress = prefabSpawner.getPreloader().getProgress();
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("state", progress.getState().name());
+    response.put("reason", progress.getReason());
+    response.put("ranked", progress.getRanked());
+    response.put("queued", progress.getQueued());
+    response.put("loaded", progress.getLoaded());
+    response.put("alreadyLoaded", progress.getAlreadyLoaded());
+    response.put("failed", progress.getFailed());
+    response.put("skipped", progress.getSkipped());
+    response.put("deferred", progress.getDeferred());
+    response.put("plannedBytes", progress.getPlannedBytes());
+    response.put("budgetBytes", progress.getBudgetBytes());
+    response.put("elapsedMs", progress.getElapsedMillis());
+    response.put("timestamp", Instant.now().toString());
+    ctx.contentType("application/json; charset=utf-8");
+    ctx.result(toJson(response));
+  }
+
   @SuppressWarnings("unchecked")
   private void handleGraphQL(@Nonnull Context ctx) {
     if (graphQL == null) {
@@ -0,0 +1,107 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import java.util.random.RandomGenerator;
+import javax.annotation.Nonnull;
+
+/**
+ * Immutable discrete distribution sampled in constant time (Vose's alias
+ * method). Building is O(n); every sample draws one int and one double and
+ * allocates nothing.
+ */
+public final class AliasTable {
+
+  private final double[] probability;
+  private final int[] alias;
+
+  private AliasTable(double[] probability, int[] alias) {
+    this.probability = probability;
+    this.alias = alias;
+  }
+
+  /**
+   * Builds a table from non-negative weights. Zero-weight slots are never
+   * sampled unless every weight is zero, in which case sampling is uniform.
+   */
+  @Nonnull
+  public static AliasTable of(@Nonnull double[] weights) {
+    int n = weights.length;
+    if (n == 0) {
+      throw new IllegalArgumentException("Alias table needs at least one weight");
+    }
+    double total = 0.0;
+    for (double weight : weights) {
+      if (weight < 0.0 || Double.isNaN(weight)) {
+        throw new IllegalArgumentException("Invalid weight: " + weight);
+      }
+      total += weight;
+    }
+
+    double[] probability = new double[n];
+    int[] alias = new int[n];
+    if (total <= 0.0) {
+      java.util.Arrays.fill(probability, 1.0);
+      for (int i = 0; i < n; i++) {
+        alias[i] = i;
+      }
+      return new AliasTable(probability, alias);
+    }
+
+    double[] scaled = new double[n];
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i = 0; i < n; i++) {
+      scaled[i] = weights[i] * n / total;
+      if (scaled[i] < 1.0) {
+        small[smallCount++] = i;
+      } else {
+        large[largeCount++] = i;
+      }
+    }
+    while (smallCount > 0 && largeCount > 0) {
+      int less = small[--smallCount];
+      int more = large[--largeCount];
+      probability[less] = scaled[less];
+      alias[less] = more;
+      scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+      if (scaled[more] < 1.0) {
+        small[smallCount++] = more;
+      } else {
+        large[largeCount++] = more;
+      }
+    }
+    // Whatever is left is 1.0 up to rounding error.
+    while (largeCount > 0) {
+      int index = large[--largeCount];
+      probability[index] = 1.0;
+      alias[index] = index;
+    }
+    while (smallCount > 0) {
+      int index = small[--smallCount];
+      probability[index] = 1.0;
+      alias[index] = index;
+    }
+    return new AliasTable(probability, alias);
+  }
+
+  /**
+   * Builds a table that samples every slot with equal probability.
+   */
+  @Nonnull
+  public static AliasTable uniform(int size) {
+    return of(new double[size]);
+  }
+
+  public int size() {
+    return probability.length;
+  }
+
+  /**
+   * Samples a slot index.
+   */
+  public int sample(@Nonnull RandomGenerator random) {
+    int column = random.nextInt(probability.length);
+    return random.nextDouble() < probability[column] ? column : alias[column];
+  }
+}
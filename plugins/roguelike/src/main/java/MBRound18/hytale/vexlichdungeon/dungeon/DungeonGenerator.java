@@ -2,15 +2,18 @@ package MBRound18.hytale.vexlichdungeon.dungeon;
 
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabDiscovery;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPool;
 import MBRound18.ImmortalEngine.api.prefab.PrefabInspector;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import com.hypixel.hytale.server.core.prefab.PrefabStore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import MBRound18.ImmortalEngine.api.prefab.PrefabPathIndex;
 
 /**
  * Core dungeon generation logic.
@@ -21,7 +24,7 @@ public class DungeonGenerator {
   private final @Nonnull LoggingHelper log;
   private final @Nonnull GenerationConfig config;
   private final @Nonnull PrefabSelector selector;
-  private final @Nonnull PrefabDiscovery discovery;
+  private final @Nonnull PrefabPool discovery;
   private final @Nonnull Map<TilePosition, DungeonTile> tileMap;
 
   // Spawn center coordinates (world coords) where base tile will be centered
@@ -35,15 +38,15 @@ public class DungeonGenerator {
    * 
    * @param config    Generation configuration
    * @param log       Logger for generation events
-   * @param discovery Prefab discovery system
+   * @param discovery Prefab discovery system, or any other prefab pool
    */
   public DungeonGenerator(@Nonnull GenerationConfig config, @Nonnull LoggingHelper log,
-      @Nonnull PrefabDiscovery discovery) {
+      @Nonnull PrefabPool discovery) {
     this.config = Objects.requireNonNull(config, "config");
     this.log = Objects.requireNonNull(log, "log");
     this.discovery = Objects.requireNonNull(discovery, "discovery");
     this.selector = new PrefabSelector(this.config.getSeed(), this.discovery);
-    this.tileMap = new HashMap<>();
+    this.tileMap = new ConcurrentHashMap<>();
     this.spawnCenterX = 0;
     this.spawnCenterY = 64;
     this.spawnCenterZ = 0;
@@ -134,13 +137,14 @@ public class DungeonGenerator {
 
     String patternPrefab = config.getStitchPatternPrefab();
     String entryPath = "Server/Prefabs/" + patternPrefab + ".prefab.json";
-    if (PrefabStore.get().findAssetPrefabPath(entryPath) == null) {
+    if (PrefabPathIndex.get().resolve(entryPath) == null) {
       log.warn("Stitch pattern prefab not found in assets: %s (using tileSize=%d)",
           entryPath, config.getTileSize());
       return;
     }
 
-    PrefabInspector inspector = new PrefabInspector(log, discovery.getUnpackedRoot());
+    PrefabInspector inspector = new PrefabInspector(log,
+        discovery instanceof PrefabDiscovery found ? found.getUnpackedRoot() : null);
     PrefabInspector.PrefabDimensions dims = inspector.getPrefabDimensions(patternPrefab);
     int tileSize = Math.max(dims.width, dims.depth);
     if (tileSize <= 0) {
@@ -164,6 +168,8 @@ public class DungeonGenerator {
   /**
    * Generates the complete dungeon layout.
    * This creates the tile map but does NOT spawn prefabs in the world yet.
+   * When parallel generation is enabled the future completes once the
+   * streamed layout (see {@link #streamLayout()}) has been fully emitted.
    * 
    * @return CompletableFuture that completes when generation is done
    */
@@ -172,6 +178,9 @@ public class DungeonGenerator {
     log.info("Starting dungeon generation with config: %s", config);
     long startTime = System.currentTimeMillis();
 
+    if (config.isParallelGeneration()) {
+      return collectStreamedLayout(streamLayout(), startTime);
+    }
     if (config.isAsyncGeneration()) {
       return Objects.requireNonNull(CompletableFuture.supplyAsync(() -> performGeneration(startTime)),
           "generationFuture");
@@ -181,26 +190,88 @@ public class DungeonGenerator {
     }
   }
 
+  /**
+   * Generates the layout in parallel regions on the common ForkJoinPool and
+   * publishes tiles ring by ring, nearest to the spawn centre first.
+   * Generation starts when the first subscriber subscribes. Each tile is
+   * also recorded in the tile map before it is published.
+   *
+   * <p>
+   * Tiles are rolled from per-cell random streams, so the streamed layout is
+   * identical to the one {@link #generateLayout()} builds serially.
+   * </p>
+   *
+   * @return Publisher of generated tiles
+   */
+  @Nonnull
+  public Flow.Publisher<DungeonTile> streamLayout() {
+    tileMap.clear();
+    int radius = config.getGenerationRadius();
+    log.info("Streaming layout (radius=%d, regionSize=%d)", radius, config.getRegionSize());
+    return createLayoutCore().stream(radius, config.getRegionSize(), !skipBaseTile, ForkJoinPool.commonPool(),
+        tile -> tileMap.put(new TilePosition(tile.getGridX(), tile.getGridZ()), tile));
+  }
+
+  @Nonnull
+  private CompletableFuture<GenerationResult> collectStreamedLayout(
+      @Nonnull Flow.Publisher<DungeonTile> publisher, long startTime) {
+    CompletableFuture<GenerationResult> future = new CompletableFuture<>();
+    publisher.subscribe(new Flow.Subscriber<DungeonTile>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(DungeonTile tile) {
+        // Already recorded in the tile map by the emitter.
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        log.error("Generation failed: %s", error.getMessage());
+        future.complete(new GenerationResult(false, Collections.emptyMap(),
+            System.currentTimeMillis() - startTime, error));
+      }
+
+      @Override
+      public void onComplete() {
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Generation complete! Streamed %d tiles in %d ms", tileMap.size(), duration);
+        future.complete(new GenerationResult(true, tileMap, duration, null));
+      }
+    });
+    return future;
+  }
+
+  @Nonnull
+  private RegionLayoutGenerator createLayoutCore() {
+    String basePrefab = Objects.requireNonNull(selector.getBasePrefab(), "basePrefab");
+    return new RegionLayoutGenerator(discovery.getAllRooms(), discovery.getAllHallways(), basePrefab,
+        config.getRoomProbability(), config.getSeed());
+  }
+
   /**
    * Performs the actual generation logic.
    */
   @Nonnull
   private GenerationResult performGeneration(long startTime) {
     try {
-      // Phase 1: Place base tile at origin
-      log.info("Phase 1: Placing base tile at origin");
-      placeBaseTile();
-
-      // Phase 2: Generate tiles in each cardinal direction
-      log.info("Phase 2: Generating tiles in cardinal directions");
-      for (CardinalDirection direction : CardinalDirection.all()) {
-        if (direction != null) {
-          generateDirectionalChain(direction);
-        }
+      tileMap.clear();
+      if (skipBaseTile) {
+        log.info("Skipping base tile placement - base prefab already present");
       }
 
-      // Phase 3: Layout complete (no gates; tiles stitch edge-to-edge)
-      log.info("Phase 3: Finalizing stitched layout");
+      // Fill the square grid from -radius to +radius (base tile at the origin)
+      int radius = config.getGenerationRadius();
+      log.info("Generating tiles in complete grid pattern (radius=%d)", radius);
+      createLayoutCore().generate(radius, !skipBaseTile,
+          tile -> tileMap.put(new TilePosition(tile.getGridX(), tile.getGridZ()), tile));
+
+      int expected = (2 * radius + 1) * (2 * radius + 1) - (skipBaseTile ? 1 : 0);
+      if (tileMap.size() < expected) {
+        log.warn("No rooms or hallways available for %d of %d tiles", expected - tileMap.size(), expected);
+      }
 
       long duration = System.currentTimeMillis() - startTime;
       log.info("Generation complete! Generated %d tiles in %d ms", tileMap.size(), duration);
@@ -214,75 +285,6 @@ public class DungeonGenerator {
     }
   }
 
-  /**
-   * Places the base courtyard tile at the origin (0, 0).
-   */
-  private void placeBaseTile() {
-    // Skip if base already exists (player standing on bedrock)
-    if (skipBaseTile) {
-      log.info("Skipping base tile placement - base prefab already present");
-      return;
-    }
-
-    String basePrefab = selector.getBasePrefab();
-    DungeonTile baseTile = new DungeonTile(
-        0, 0,
-        basePrefab,
-        0, // No rotation for base
-        DungeonTile.TileType.BASE);
-    tileMap.put(new TilePosition(0, 0), baseTile);
-    log.info("Placed base tile at (0, 0): %s", basePrefab);
-  }
-
-  /**
-   * Generates a chain of tiles in the specified direction.
-   * Actually generates a complete grid filling the dungeon area.
-   * 
-   * @param direction This parameter is now unused but kept for compatibility
-   */
-  private void generateDirectionalChain(@Nonnull CardinalDirection direction) {
-    // Only generate once, on the first direction call
-    // The tile map already has the base tile, so we check if we need to fill
-    if (tileMap.size() > 1) {
-      return; // Already generated grid
-    }
-
-    int radius = config.getGenerationRadius();
-    int tilesGenerated = 0;
-
-    // Generate tiles in a square grid from -radius to +radius
-    for (int gridX = -radius; gridX <= radius; gridX++) {
-      for (int gridZ = -radius; gridZ <= radius; gridZ++) {
-        // Skip the base tile (already placed at 0,0)
-        if (gridX == 0 && gridZ == 0) {
-          continue;
-        }
-
-        // Select room or hallway based on probability
-        String prefabPath = selector.selectRoomOrHallway(config.getRoomProbability());
-
-        // Skip if no prefabs available
-        if (prefabPath == null) {
-          log.warn("No rooms or hallways available for tile at (%d, %d)", gridX, gridZ);
-          continue;
-        }
-
-        int rotation = selector.selectRandomRotation();
-
-        // Determine tile type based on prefab path
-        DungeonTile.TileType type = prefabPath.contains("Hallway")
-            ? DungeonTile.TileType.HALLWAY
-            : DungeonTile.TileType.ROOM;
-
-        DungeonTile tile = new DungeonTile(gridX, gridZ, prefabPath, rotation, type);
-        tileMap.put(new TilePosition(gridX, gridZ), tile);
-        tilesGenerated++;
-      }
-    }
-
-    log.info("Generated %d tiles in complete grid pattern (radius=%d)", tilesGenerated, radius);
-  }
-
   /**
    * Gets the generated tile map.
    * 
@@ -5,14 +5,18 @@ import MBRound18.hytale.vexlichdungeon.data.SpawnPoolEntry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.Objects;
+import java.util.random.RandomGenerator;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Plans enemy spawns based on score budget and spawn pool configuration.
  */
 public class EnemySpawnPlanner {
 
+  /** Upper bound on enemies planned for one room. */
+  private static final int MAX_PICKS = 1000;
+
   private final Random random;
 
   public EnemySpawnPlanner(long seed) {
@@ -21,41 +25,40 @@ public class EnemySpawnPlanner {
 
   @Nonnull
   public List<SpawnPoolEntry> planEnemies(@Nonnull SpawnPool pool, int scoreBudget) {
-    List<SpawnPoolEntry> result = new ArrayList<>();
+    return planEnemies(pool, scoreBudget, random);
+  }
+
+  /**
+   * Plans enemies using the given random source instead of the planner's shared
+   * one, e.g. a per-room stream from {@link RoomRandomStreams}. The returned
+   * entries are the pool's own and must not be modified.
+   */
+  @Nonnull
+  public List<SpawnPoolEntry> planEnemies(@Nonnull SpawnPool pool, int scoreBudget,
+      @Nonnull RandomGenerator random) {
     if (scoreBudget <= 0) {
-      return result;
+      return new ArrayList<>();
     }
+    return plan(pool.rangeFor(scoreBudget), scoreBudget, random);
+  }
 
-    List<SpawnPoolEntry> entries = pool.getEntriesForScore(scoreBudget);
-    if (entries.isEmpty()) {
-      return result;
+  @Nonnull
+  private List<SpawnPoolEntry> plan(@Nullable SpawnPool.SpawnRange range, int scoreBudget,
+      @Nonnull RandomGenerator random) {
+    if (range == null || scoreBudget <= 0 || range.getCheapestPoints() > scoreBudget) {
+      return new ArrayList<>();
     }
-
+    List<SpawnPoolEntry> result = new ArrayList<>(Math.min(MAX_PICKS,
+        scoreBudget / Math.max(1, range.getCheapestPoints())));
     int remaining = scoreBudget;
-    int safety = 0;
-    while (remaining > 0 && safety < 1000) {
-      SpawnPoolEntry entry = pickEligible(entries, remaining);
+    while (remaining > 0 && result.size() < MAX_PICKS) {
+      SpawnPoolEntry entry = range.pick(remaining, random);
       if (entry == null) {
         break;
       }
-      result.add(new SpawnPoolEntry(Objects.requireNonNull(entry.getEnemy(), "enemy"), entry.getPoints()));
+      result.add(entry);
       remaining -= Math.max(1, entry.getPoints());
-      safety++;
     }
-
     return result;
   }
-
-  private SpawnPoolEntry pickEligible(List<SpawnPoolEntry> entries, int remaining) {
-    List<SpawnPoolEntry> eligible = new ArrayList<>();
-    for (SpawnPoolEntry entry : entries) {
-      if (entry.getPoints() <= remaining) {
-        eligible.add(entry);
-      }
-    }
-    if (eligible.isEmpty()) {
-      return null;
-    }
-    return eligible.get(random.nextInt(eligible.size()));
-  }
 }
@@ -28,6 +28,34 @@ public class GenerationConfig {
   public static final int DEFAULT_WORLD_MIN_Y = 0;
   public static final int DEFAULT_WORLD_MAX_Y = 320;
 
+  /** Default number of rings the room planner decides ahead of the players */
+  public static final int DEFAULT_LOOKAHEAD_RINGS = 2;
+
+  /** Default number of background room planner threads */
+  public static final int DEFAULT_PLANNER_THREADS = Math.max(1,
+      Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+  /** Default edge length (in tiles) of a region generated in parallel */
+  public static final int DEFAULT_REGION_SIZE = 8;
+
+  /** Default memory budget (MiB) for pre-rotated prefab variants */
+  public static final int DEFAULT_VARIANT_CACHE_MB = 256;
+
+  /** Default memory budget (MiB) for compiled prefabs held by the catalog */
+  public static final int DEFAULT_CATALOG_CACHE_MB = 128;
+
+  /** Default memory budget (MiB) for loaded prefab block selections */
+  public static final int DEFAULT_PREFAB_CACHE_MB = 256;
+
+  /** Default block budget for the prefab placements run per world tick */
+  public static final int DEFAULT_PLACEMENT_BLOCKS_PER_TICK = 2048;
+
+  /** Default number of background prefab preload threads */
+  public static final int DEFAULT_PRELOAD_THREADS = 1;
+
+  /** Default prefab source (MiB) read by one preload run */
+  public static final int DEFAULT_PRELOAD_BUDGET_MB = 64;
+
   private int tileSize = DEFAULT_TILE_SIZE;
   private int gateGap = DEFAULT_GATE_GAP;
   private int generationRadius = DEFAULT_GENERATION_RADIUS;
@@ -39,6 +67,17 @@ public class GenerationConfig {
   private String stitchPatternPrefab = DEFAULT_STITCH_PATTERN;
   private int worldMinY = DEFAULT_WORLD_MIN_Y;
   private int worldMaxY = DEFAULT_WORLD_MAX_Y;
+  private int lookaheadRings = DEFAULT_LOOKAHEAD_RINGS;
+  private int plannerThreads = DEFAULT_PLANNER_THREADS;
+  private boolean parallelGeneration = false;
+  private int regionSize = DEFAULT_REGION_SIZE;
+  private int variantCacheMb = DEFAULT_VARIANT_CACHE_MB;
+  private int catalogCacheMb = DEFAULT_CATALOG_CACHE_MB;
+  private int prefabCacheMb = DEFAULT_PREFAB_CACHE_MB;
+  private int placementBlocksPerTick = DEFAULT_PLACEMENT_BLOCKS_PER_TICK;
+  private boolean placeHiddenLast = true;
+  private int preloadThreads = DEFAULT_PRELOAD_THREADS;
+  private int preloadBudgetMb = DEFAULT_PRELOAD_BUDGET_MB;
 
   /**
    * Gets the size of each tile in blocks.
@@ -275,6 +314,222 @@ public class GenerationConfig {
     return this;
   }
 
+  /**
+   * Gets how many rings of rooms are planned ahead of the players.
+   */
+  public int getLookaheadRings() {
+    return lookaheadRings;
+  }
+
+  /**
+   * Sets how many rings of rooms are planned ahead of the players (0 disables
+   * lookahead planning).
+   */
+  @Nonnull
+  public GenerationConfig setLookaheadRings(int lookaheadRings) {
+    if (lookaheadRings < 0) {
+      throw new IllegalArgumentException("Lookahead rings cannot be negative: " + lookaheadRings);
+    }
+    this.lookaheadRings = lookaheadRings;
+    return this;
+  }
+
+  /**
+   * Gets the number of background room planner threads.
+   */
+  public int getPlannerThreads() {
+    return plannerThreads;
+  }
+
+  /**
+   * Sets the number of background room planner threads.
+   */
+  @Nonnull
+  public GenerationConfig setPlannerThreads(int plannerThreads) {
+    if (plannerThreads <= 0) {
+      throw new IllegalArgumentException("Planner threads must be positive: " + plannerThreads);
+    }
+    this.plannerThreads = plannerThreads;
+    return this;
+  }
+
+  /**
+   * Checks if the layout is generated in parallel regions and streamed ring by
+   * ring.
+   */
+  public boolean isParallelGeneration() {
+    return parallelGeneration;
+  }
+
+  /**
+   * Sets whether the layout is generated in parallel regions and streamed ring
+   * by ring.
+   */
+  @Nonnull
+  public GenerationConfig setParallelGeneration(boolean parallelGeneration) {
+    this.parallelGeneration = parallelGeneration;
+    return this;
+  }
+
+  /**
+   * Gets the edge length (in tiles) of a parallel generation region.
+   */
+  public int getRegionSize() {
+    return regionSize;
+  }
+
+  /**
+   * Sets the edge length (in tiles) of a parallel generation region.
+   */
+  @Nonnull
+  public GenerationConfig setRegionSize(int regionSize) {
+    if (regionSize <= 0) {
+      throw new IllegalArgumentException("Region size must be positive: " + regionSize);
+    }
+    this.regionSize = regionSize;
+    return this;
+  }
+
+  /**
+   * Gets the memory budget (MiB) for pre-rotated prefab variants.
+   */
+  public int getVariantCacheMb() {
+    return variantCacheMb;
+  }
+
+  /**
+   * Sets the memory budget (MiB) for pre-rotated prefab variants (0 disables
+   * the variant cache).
+   */
+  @Nonnull
+  public GenerationConfig setVariantCacheMb(int variantCacheMb) {
+    if (variantCacheMb < 0) {
+      throw new IllegalArgumentException("Variant cache budget cannot be negative: " + variantCacheMb);
+    }
+    this.variantCacheMb = variantCacheMb;
+    return this;
+  }
+
+  /**
+   * Gets the memory budget (MiB) for compiled prefabs held by the prefab
+   * catalog.
+   */
+  public int getCatalogCacheMb() {
+    return catalogCacheMb;
+  }
+
+  /**
+   * Sets the memory budget (MiB) for compiled prefabs held by the prefab
+   * catalog (0 reads every prefab from its compiled artifact).
+   */
+  @Nonnull
+  public GenerationConfig setCatalogCacheMb(int catalogCacheMb) {
+    if (catalogCacheMb < 0) {
+      throw new IllegalArgumentException("Catalog cache budget cannot be negative: " + catalogCacheMb);
+    }
+    this.catalogCacheMb = catalogCacheMb;
+    return this;
+  }
+
+  /**
+   * Gets the memory budget (MiB) for loaded prefab block selections.
+   */
+  public int getPrefabCacheMb() {
+    return prefabCacheMb;
+  }
+
+  /**
+   * Sets the memory budget (MiB) for loaded prefab block selections (0
+   * deserializes every prefab on each load).
+   */
+  @Nonnull
+  public GenerationConfig setPrefabCacheMb(int prefabCacheMb) {
+    if (prefabCacheMb < 0) {
+      throw new IllegalArgumentException("Prefab cache budget cannot be negative: " + prefabCacheMb);
+    }
+    this.prefabCacheMb = prefabCacheMb;
+    return this;
+  }
+
+  /**
+   * Gets the block budget for the prefab placements run per world tick.
+   */
+  public int getPlacementBlocksPerTick() {
+    return placementBlocksPerTick;
+  }
+
+  /**
+   * Sets the block budget for the prefab placements run per world tick
+   * (prefabs larger than the budget are written one chunk section per job over
+   * several ticks; the first job of a tick always runs; 0 places every prefab
+   * whole as soon as it is ready).
+   */
+  @Nonnull
+  public GenerationConfig setPlacementBlocksPerTick(int placementBlocksPerTick) {
+    if (placementBlocksPerTick < 0) {
+      throw new IllegalArgumentException("Placement budget cannot be negative: " + placementBlocksPerTick);
+    }
+    this.placementBlocksPerTick = placementBlocksPerTick;
+    return this;
+  }
+
+  /**
+   * Checks if prefabs out of every player's sight are placed only on ticks
+   * without visible placements.
+   */
+  public boolean isPlaceHiddenLast() {
+    return placeHiddenLast;
+  }
+
+  /**
+   * Sets whether prefabs out of every player's sight are placed only on ticks
+   * without visible placements.
+   */
+  @Nonnull
+  public GenerationConfig setPlaceHiddenLast(boolean placeHiddenLast) {
+    this.placeHiddenLast = placeHiddenLast;
+    return this;
+  }
+
+  /**
+   * Gets the number of background prefab preload threads.
+   */
+  public int getPreloadThreads() {
+    return preloadThreads;
+  }
+
+  /**
+   * Sets the number of background prefab preload threads.
+   */
+  @Nonnull
+  public GenerationConfig setPreloadThreads(int preloadThreads) {
+    if (preloadThreads <= 0) {
+      throw new IllegalArgumentException("Preload threads must be positive: " + preloadThreads);
+    }
+    this.preloadThreads = preloadThreads;
+    return this;
+  }
+
+  /**
+   * Gets the prefab source (MiB) one preload run may read.
+   */
+  public int getPreloadBudgetMb() {
+    return preloadBudgetMb;
+  }
+
+  /**
+   * Sets the prefab source (MiB) one preload run may read (0 disables
+   * preloading).
+   */
+  @Nonnull
+  public GenerationConfig setPreloadBudgetMb(int preloadBudgetMb) {
+    if (preloadBudgetMb < 0) {
+      throw new IllegalArgumentException("Preload budget cannot be negative: " + preloadBudgetMb);
+    }
+    this.preloadBudgetMb = preloadBudgetMb;
+    return this;
+  }
+
   /**
    * Calculates the total number of tiles that will be generated.
    * Formula: 1 (base) + 4 * radius (cardinal directions)
@@ -313,14 +568,27 @@ public class GenerationConfig {
         .setUseStitchPattern(useStitchPattern)
         .setStitchPatternPrefab(java.util.Objects.requireNonNull(stitchPatternPrefab, "stitchPatternPrefab"))
         .setWorldMinY(worldMinY)
-        .setWorldMaxY(worldMaxY);
+        .setWorldMaxY(worldMaxY)
+        .setLookaheadRings(lookaheadRings)
+        .setPlannerThreads(plannerThreads)
+        .setParallelGeneration(parallelGeneration)
+        .setRegionSize(regionSize)
+        .setVariantCacheMb(variantCacheMb)
+        .setCatalogCacheMb(catalogCacheMb)
+        .setPrefabCacheMb(prefabCacheMb)
+        .setPlacementBlocksPerTick(placementBlocksPerTick)
+        .setPlaceHiddenLast(placeHiddenLast)
+        .setPreloadThreads(preloadThreads)
+        .setPreloadBudgetMb(preloadBudgetMb);
   }
 
   @Override
   public String toString() {
     return String.format(
-        "GenerationConfig[radius=%d, tileSize=%d, gateGap=%d, roomProb=%.2f, tiles=%d, async=%b, batch=%d, seed=%d, stitch=%b, pattern=%s, worldY=[%d,%d]]",
+        "GenerationConfig[radius=%d, tileSize=%d, gateGap=%d, roomProb=%.2f, tiles=%d, async=%b, batch=%d, seed=%d, stitch=%b, pattern=%s, worldY=[%d,%d], lookahead=%d, planners=%d, parallel=%b, region=%d, variantCacheMb=%d, catalogCacheMb=%d, prefabCacheMb=%d, placementBudget=%d, hiddenLast=%b, preloadThreads=%d, preloadBudgetMb=%d]",
         generationRadius, tileSize, gateGap, roomProbability, calculateTotalTiles(),
-        asyncGeneration, batchSize, seed, useStitchPattern, stitchPatternPrefab, worldMinY, worldMaxY);
+        asyncGeneration, batchSize, seed, useStitchPattern, stitchPatternPrefab, worldMinY, worldMaxY,
+        lookaheadRings, plannerThreads, parallelGeneration, regionSize, variantCacheMb,
+        catalogCacheMb, prefabCacheMb, placementBlocksPerTick, placeHiddenLast, preloadThreads, preloadBudgetMb);
   }
 }
@@ -0,0 +1,43 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Packs dungeon grid coordinates into a single long so room lookups do not
+ * need boxed key objects. X occupies the high 32 bits and Z the low 32 bits.
+ */
+public final class GridKeys {
+
+  /**
+   * Sentinel for "no room". Equal to {@code pack(Integer.MIN_VALUE, 0)}, a cell
+   * two billion rooms from spawn that no dungeon grows to.
+   */
+  public static final long NONE = Long.MIN_VALUE;
+
+  private GridKeys() {
+  }
+
+  public static long pack(int gridX, int gridZ) {
+    return ((long) gridX << 32) | (gridZ & 0xFFFFFFFFL);
+  }
+
+  public static int x(long key) {
+    return (int) (key >> 32);
+  }
+
+  public static int z(long key) {
+    return (int) key;
+  }
+
+  public static long offset(long key, @Nonnull CardinalDirection direction) {
+    return pack(x(key) + direction.getOffsetX(), z(key) + direction.getOffsetZ());
+  }
+
+  @Nonnull
+  public static String format(long key) {
+    if (key == NONE) {
+      return "none";
+    }
+    return "(" + x(key) + ", " + z(key) + ")";
+  }
+}
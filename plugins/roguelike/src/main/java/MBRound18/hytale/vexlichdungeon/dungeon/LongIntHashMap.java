@@ -0,0 +1,164 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to int values.
+ *
+ * <p>
+ * Uses linear probing over power-of-two parallel arrays, so lookups touch
+ * contiguous memory and neither lookups nor inserts allocate (except when the
+ * table grows). Removal shifts the rest of the probe run back instead of
+ * leaving tombstones, so lookups never slow down after removals.
+ * </p>
+ */
+public final class LongIntHashMap {
+
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private long[] keys;
+  private int[] values;
+  private boolean[] used;
+  private int size;
+  private int resizeAt;
+
+  public LongIntHashMap() {
+    this(16);
+  }
+
+  public LongIntHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    allocate(capacity);
+  }
+
+  /**
+   * @return The mapped value, or {@code missing} when the key is absent
+   */
+  public int get(long key, int missing) {
+    int mask = keys.length - 1;
+    int index = mix(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        return values[index];
+      }
+      index = (index + 1) & mask;
+    }
+    return missing;
+  }
+
+  public boolean containsKey(long key) {
+    int mask = keys.length - 1;
+    int index = mix(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        return true;
+      }
+      index = (index + 1) & mask;
+    }
+    return false;
+  }
+
+  public void put(long key, int value) {
+    int mask = keys.length - 1;
+    int index = mix(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        values[index] = value;
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    used[index] = true;
+    keys[index] = key;
+    values[index] = value;
+    if (++size >= resizeAt) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  /**
+   * @return Whether the key was present
+   */
+  public boolean remove(long key) {
+    int mask = keys.length - 1;
+    int index = mix(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        shiftBack(index, mask);
+        size--;
+        return true;
+      }
+      index = (index + 1) & mask;
+    }
+    return false;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    Arrays.fill(used, false);
+    size = 0;
+  }
+
+  /**
+   * Closes the hole left at {@code hole} by moving back later entries of the
+   * probe run whose home slot does not lie between the hole and themselves.
+   */
+  private void shiftBack(int hole, int mask) {
+    int index = hole;
+    while (true) {
+      index = (index + 1) & mask;
+      if (!used[index]) {
+        break;
+      }
+      int home = mix(keys[index]) & mask;
+      if (((index - home) & mask) >= ((index - hole) & mask)) {
+        keys[hole] = keys[index];
+        values[hole] = values[index];
+        hole = index;
+      }
+    }
+    used[hole] = false;
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    used = new boolean[capacity];
+    resizeAt = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    boolean[] oldUsed = used;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (!oldUsed[i]) {
+        continue;
+      }
+      int index = mix(oldKeys[i]) & mask;
+      while (used[index]) {
+        index = (index + 1) & mask;
+      }
+      used[index] = true;
+      keys[index] = oldKeys[i];
+      values[index] = oldValues[i];
+    }
+  }
+
+  private static int mix(long key) {
+    // Murmur3 finalizer: neighbouring grid cells differ only in a few low bits
+    // of each half, so spread them before masking.
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+}
@@ -0,0 +1,230 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import MBRound18.ImmortalEngine.api.prefab.StitchIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Immutable source prefab to compatible prefab table derived from a
+ * {@link StitchIndex}.
+ *
+ * <p>
+ * Two prefabs are compatible when they share a stitch. Every source prefab gets
+ * one alias table for regular rooms and one for event rooms, weighted by how
+ * many stitches the pair shares. Sources without matches fall back to uniform
+ * tables over all rooms or all events. Lookups are a single hash probe and
+ * sampling allocates nothing.
+ * </p>
+ */
+public final class PrefabAdjacencyTable {
+
+  private static final PrefabAdjacencyTable EMPTY = new PrefabAdjacencyTable(Map.of(), null, null);
+
+  private final Map<String, Adjacency> bySource;
+  private final Choices fallbackRooms;
+  private final Choices fallbackEvents;
+
+  private PrefabAdjacencyTable(@Nonnull Map<String, Adjacency> bySource, @Nullable Choices fallbackRooms,
+      @Nullable Choices fallbackEvents) {
+    this.bySource = bySource;
+    this.fallbackRooms = fallbackRooms;
+    this.fallbackEvents = fallbackEvents;
+  }
+
+  @Nonnull
+  public static PrefabAdjacencyTable empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Builds the table.
+   *
+   * @param stitchIndex Stitch index, or null to only use the fallbacks
+   * @param roomSet     Prefabs allowed as regular room candidates
+   * @param rooms       Uniform fallback for regular rooms
+   * @param events      Uniform fallback for event rooms
+   */
+  @Nonnull
+  public static PrefabAdjacencyTable build(@Nullable StitchIndex stitchIndex, @Nonnull Set<String> roomSet,
+      @Nonnull Collection<String> rooms, @Nonnull Collection<String> events) {
+    // Weighted candidate counts per source; ordered so equal inputs build equal
+    // tables regardless of the stitch index's map iteration order.
+    Map<String, Map<String, Integer>> roomWeights = new TreeMap<>();
+    Map<String, Map<String, Integer>> eventWeights = new TreeMap<>();
+    if (stitchIndex != null) {
+      Map<String, List<String>> stitches = new TreeMap<>(stitchIndex.getStitchesToPrefabs());
+      for (List<String> prefabs : stitches.values()) {
+        for (String source : prefabs) {
+          for (String candidate : prefabs) {
+            if (roomSet.contains(candidate)) {
+              roomWeights.computeIfAbsent(source, k -> new LinkedHashMap<>()).merge(candidate, 1, Integer::sum);
+            }
+            if (isEvent(candidate)) {
+              eventWeights.computeIfAbsent(source, k -> new LinkedHashMap<>()).merge(candidate, 1, Integer::sum);
+            }
+          }
+        }
+      }
+    }
+
+    Map<String, Adjacency> bySource = new HashMap<>();
+    for (Map.Entry<String, Map<String, Integer>> entry : roomWeights.entrySet()) {
+      bySource.computeIfAbsent(entry.getKey(), k -> new Adjacency()).rooms = Choices.weighted(entry.getValue());
+    }
+    for (Map.Entry<String, Map<String, Integer>> entry : eventWeights.entrySet()) {
+      bySource.computeIfAbsent(entry.getKey(), k -> new Adjacency()).events = Choices.weighted(entry.getValue());
+    }
+    return new PrefabAdjacencyTable(Map.copyOf(bySource), Choices.uniform(rooms), Choices.uniform(events));
+  }
+
+  /**
+   * Samples a regular room compatible with the source prefab.
+   *
+   * @return A room prefab path, or null when no rooms are known at all
+   */
+  @Nullable
+  public String sampleRoom(@Nullable String sourcePrefab, @Nonnull RandomGenerator random) {
+    Adjacency adjacency = sourcePrefab != null ? bySource.get(sourcePrefab) : null;
+    Choices choices = adjacency != null && adjacency.rooms != null ? adjacency.rooms : fallbackRooms;
+    return choices != null ? choices.sample(random) : null;
+  }
+
+  /**
+   * Samples an event room compatible with the source prefab.
+   *
+   * @return An event prefab path, or null when no events are known at all
+   */
+  @Nullable
+  public String sampleEvent(@Nullable String sourcePrefab, @Nonnull RandomGenerator random) {
+    Adjacency adjacency = sourcePrefab != null ? bySource.get(sourcePrefab) : null;
+    Choices choices = adjacency != null && adjacency.events != null ? adjacency.events : fallbackEvents;
+    return choices != null ? choices.sample(random) : null;
+  }
+
+  /**
+   * Ranks prefabs by how often a walk from a start prefab is expected to
+   * select them within a few rooms, for preloading.
+   *
+   * <p>
+   * Each step spreads the selection probability of every prefab over its
+   * regular and event candidates, split by {@code eventShare}. The start
+   * prefab counts once as visited.
+   * </p>
+   *
+   * @param start      Prefab the walk starts from
+   * @param eventShare Share of selections that are event rooms, in [0, 1]
+   * @param steps      Number of rooms to walk
+   * @return Reached prefabs, most likely first; ties ordered by path
+   */
+  @Nonnull
+  public List<String> rankByReach(@Nonnull String start, double eventShare, int steps) {
+    double events = Math.max(0.0, Math.min(1.0, eventShare));
+    Map<String, Double> reach = new HashMap<>();
+    Map<String, Double> frontier = Map.of(start, 1.0);
+    reach.put(start, 1.0);
+    for (int step = 0; step < steps && !frontier.isEmpty(); step++) {
+      Map<String, Double> next = new HashMap<>();
+      for (Map.Entry<String, Double> entry : frontier.entrySet()) {
+        Adjacency adjacency = bySource.get(entry.getKey());
+        Choices rooms = adjacency != null && adjacency.rooms != null ? adjacency.rooms : fallbackRooms;
+        Choices eventRooms = adjacency != null && adjacency.events != null ? adjacency.events : fallbackEvents;
+        double mass = entry.getValue();
+        double roomMass = mass * (eventRooms != null ? 1.0 - events : 1.0);
+        double eventMass = mass * (rooms != null ? events : 1.0);
+        if (rooms != null && roomMass > 0.0) {
+          rooms.spread(roomMass, next);
+        }
+        if (eventRooms != null && eventMass > 0.0) {
+          eventRooms.spread(eventMass, next);
+        }
+      }
+      next.forEach((prefab, mass) -> reach.merge(prefab, mass, Double::sum));
+      frontier = next;
+    }
+    List<Map.Entry<String, Double>> ranked = new ArrayList<>(reach.entrySet());
+    ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+    List<String> prefabs = new ArrayList<>(ranked.size());
+    for (Map.Entry<String, Double> entry : ranked) {
+      prefabs.add(entry.getKey());
+    }
+    return prefabs;
+  }
+
+  public int getSourceCount() {
+    return bySource.size();
+  }
+
+  private static boolean isEvent(@Nonnull String prefabPath) {
+    return prefabPath.startsWith("Event/");
+  }
+
+  private static final class Adjacency {
+    private Choices rooms;
+    private Choices events;
+  }
+
+  private static final class Choices {
+    private final String[] prefabs;
+    private final double[] weights;
+    private final double totalWeight;
+    private final AliasTable table;
+
+    private Choices(@Nonnull String[] prefabs, @Nonnull double[] weights, @Nonnull AliasTable table) {
+      this.prefabs = prefabs;
+      this.weights = weights;
+      double total = 0.0;
+      for (double weight : weights) {
+        total += weight;
+      }
+      this.totalWeight = total;
+      this.table = table;
+    }
+
+    @Nullable
+    private static Choices weighted(@Nonnull Map<String, Integer> weights) {
+      if (weights.isEmpty()) {
+        return null;
+      }
+      String[] prefabs = new String[weights.size()];
+      double[] values = new double[weights.size()];
+      int index = 0;
+      for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+        prefabs[index] = entry.getKey();
+        values[index] = entry.getValue();
+        index++;
+      }
+      return new Choices(prefabs, values, AliasTable.of(values));
+    }
+
+    @Nullable
+    private static Choices uniform(@Nonnull Collection<String> prefabs) {
+      if (prefabs.isEmpty()) {
+        return null;
+      }
+      double[] weights = new double[prefabs.size()];
+      Arrays.fill(weights, 1.0);
+      return new Choices(prefabs.toArray(new String[0]), weights, AliasTable.uniform(prefabs.size()));
+    }
+
+    private void spread(double mass, @Nonnull Map<String, Double> into) {
+      for (int i = 0; i < prefabs.length; i++) {
+        into.merge(prefabs[i], mass * weights[i] / totalWeight, Double::sum);
+      }
+    }
+
+    @Nonnull
+    private String sample(@Nonnull RandomGenerator random) {
+      return prefabs[table.sample(random)];
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package MBRound18.hytale.vexlichdungeon.dungeon;
 
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabDiscovery;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPool;
 import java.util.*;
+import java.util.random.RandomGenerator;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -13,21 +15,31 @@ import javax.annotation.Nullable;
 public class PrefabSelector {
 
   private final Random random;
-  private final PrefabDiscovery discovery;
+  private final PrefabPool discovery;
 
   /**
    * Creates a new prefab selector with the given random seed and discovery
    * system.
    * 
    * @param seed      Random seed for reproducible generation
-   * @param discovery Prefab discovery system to find available prefabs
+   * @param discovery Prefab discovery system (or any other pool) to find
+   *                  available prefabs
    */
-  public PrefabSelector(long seed, @Nonnull PrefabDiscovery discovery) {
+  public PrefabSelector(long seed, @Nonnull PrefabPool discovery) {
     this.random = new Random(seed);
     this.discovery = discovery;
   }
 
+  /**
+   * Gets the discovery system backing this selector, or null when the selector
+   * was created from another prefab pool.
+   */
   public PrefabDiscovery getDiscovery() {
+    return discovery instanceof PrefabDiscovery prefabDiscovery ? prefabDiscovery : null;
+  }
+
+  @Nonnull
+  public PrefabPool getPool() {
     return discovery;
   }
 
@@ -41,6 +53,28 @@ public class PrefabSelector {
     return discovery.getRandomRoom();
   }
 
+  /**
+   * Selects a random room prefab using the given random source.
+   *
+   * @param random Random source, e.g. a per-room stream
+   * @return Full mod path to a random room, or null if none available
+   */
+  @Nullable
+  public String selectRandomRoom(@Nonnull RandomGenerator random) {
+    return selectRandom(discovery.getAllRooms(), random);
+  }
+
+  /**
+   * Selects a random hallway prefab using the given random source.
+   *
+   * @param random Random source, e.g. a per-room stream
+   * @return Full mod path to a random hallway, or null if none available
+   */
+  @Nullable
+  public String selectRandomHallway(@Nonnull RandomGenerator random) {
+    return selectRandom(discovery.getAllHallways(), random);
+  }
+
   /**
    * Selects a random hallway prefab from discovered assets.
    * 
@@ -80,6 +114,22 @@ public class PrefabSelector {
     }
   }
 
+  /**
+   * Selects either a room or hallway using the given random source.
+   *
+   * @param roomProbability Probability of selecting a room (0.0 to 1.0)
+   * @param random          Random source, e.g. a per-room stream
+   * @return Full mod path to either a room or hallway, or null if none available
+   */
+  @Nullable
+  public String selectRoomOrHallway(double roomProbability, @Nonnull RandomGenerator random) {
+    if (random.nextDouble() < roomProbability) {
+      return selectRandomRoom(random);
+    } else {
+      return selectRandomHallway(random);
+    }
+  }
+
   /**
    * Selects a random gate prefab from discovered assets (not blocked).
    * 
@@ -118,11 +168,26 @@ public class PrefabSelector {
    * @return Random rotation in degrees
    */
   public int selectRandomRotation() {
+    return selectRandomRotation(random);
+  }
+
+  /**
+   * Generates a random rotation using the given random source.
+   *
+   * @param random Random source, e.g. a per-room stream
+   * @return Random rotation in degrees
+   */
+  public int selectRandomRotation(@Nonnull RandomGenerator random) {
     return random.nextInt(4) * 90; // 0, 90, 180, or 270
   }
 
   @Nullable
   public <T> T selectRandom(@Nonnull List<T> items) {
+    return selectRandom(items, random);
+  }
+
+  @Nullable
+  public <T> T selectRandom(@Nonnull List<T> items, @Nonnull RandomGenerator random) {
     if (items == null || items.isEmpty()) {
       return null;
     }
@@ -0,0 +1,213 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Pure layout core behind {@link DungeonGenerator}.
+ *
+ * <p>
+ * Every cell is decided from its own {@link RoomRandomStreams} stream, so a
+ * tile only depends on the run seed and its grid position. That makes the
+ * layout identical whether it is generated serially or split into regions on
+ * a {@link ForkJoinPool}, and independent of the region size.
+ * </p>
+ *
+ * <p>
+ * The streaming mode generates square regions in parallel and publishes tiles
+ * ring by ring (Chebyshev distance from the spawn centre): ring {@code d} is
+ * emitted as soon as every region touching it is done, so consumers can start
+ * placing the courtyard ring while the outer rings are still being computed.
+ * </p>
+ */
+public final class RegionLayoutGenerator {
+
+  private final List<String> rooms;
+  private final List<String> hallways;
+  private final String basePrefab;
+  private final double roomProbability;
+  private final RoomRandomStreams streams;
+
+  /**
+   * @param rooms           Room prefab paths (snapshot; not copied)
+   * @param hallways        Hallway prefab paths (snapshot; not copied)
+   * @param basePrefab      Prefab placed at the origin
+   * @param roomProbability Probability of a room rather than a hallway
+   * @param seed            Run seed
+   */
+  public RegionLayoutGenerator(@Nonnull List<String> rooms, @Nonnull List<String> hallways,
+      @Nonnull String basePrefab, double roomProbability, long seed) {
+    this.rooms = Objects.requireNonNull(rooms, "rooms");
+    this.hallways = Objects.requireNonNull(hallways, "hallways");
+    this.basePrefab = Objects.requireNonNull(basePrefab, "basePrefab");
+    this.roomProbability = roomProbability;
+    this.streams = new RoomRandomStreams(seed);
+  }
+
+  /**
+   * Decides the tile for one non-origin cell. Thread-safe.
+   *
+   * @return The tile, or null when there are no rooms or hallways to pick from
+   */
+  @Nullable
+  public DungeonTile decide(int gridX, int gridZ) {
+    SplittableRandom random = streams.forRoom(gridX, gridZ, RoomRandomStreams.Purpose.PREFAB);
+    List<String> pool = random.nextDouble() < roomProbability ? rooms : hallways;
+    if (pool.isEmpty()) {
+      return null;
+    }
+    String prefabPath = pool.get(random.nextInt(pool.size()));
+    int rotation = streams.forRoom(gridX, gridZ, RoomRandomStreams.Purpose.ROTATION).nextInt(4) * 90;
+    DungeonTile.TileType type = prefabPath.contains("Hallway")
+        ? DungeonTile.TileType.HALLWAY
+        : DungeonTile.TileType.ROOM;
+    return new DungeonTile(gridX, gridZ, prefabPath, rotation, type);
+  }
+
+  @Nonnull
+  public DungeonTile baseTile() {
+    return new DungeonTile(0, 0, basePrefab, 0, DungeonTile.TileType.BASE);
+  }
+
+  /**
+   * Generates the full square grid on the calling thread, in the same ring
+   * order the streaming mode publishes.
+   */
+  public void generate(int radius, boolean includeBase, @Nonnull Consumer<DungeonTile> sink) {
+    Region whole = new Region(-radius, radius, -radius, radius, includeBase);
+    whole.compute();
+    for (int ring = 0; ring <= radius; ring++) {
+      whole.emit(ring, sink);
+    }
+  }
+
+  /**
+   * Streams the grid. Generation starts when the first subscriber subscribes;
+   * later subscribers only see the remaining tiles.
+   *
+   * @param radius      Grid radius
+   * @param regionSize  Edge length of a parallel region in cells
+   * @param includeBase Whether to emit the base tile at the origin
+   * @param pool        Pool for region tasks, the emitter and delivery
+   * @param onEmit      Called on the emitter thread for every tile before it
+   *                    is published
+   */
+  @Nonnull
+  public Flow.Publisher<DungeonTile> stream(int radius, int regionSize, boolean includeBase,
+      @Nonnull ForkJoinPool pool, @Nullable Consumer<DungeonTile> onEmit) {
+    SubmissionPublisher<DungeonTile> publisher = new SubmissionPublisher<>(pool, Flow.defaultBufferSize());
+    AtomicBoolean started = new AtomicBoolean();
+    return subscriber -> {
+      publisher.subscribe(subscriber);
+      if (started.compareAndSet(false, true)) {
+        pool.execute(() -> emitRings(radius, Math.max(1, regionSize), includeBase, pool, publisher, onEmit));
+      }
+    };
+  }
+
+  private void emitRings(int radius, int regionSize, boolean includeBase, @Nonnull ForkJoinPool pool,
+      @Nonnull SubmissionPublisher<DungeonTile> publisher, @Nullable Consumer<DungeonTile> onEmit) {
+    try {
+      List<Region> regions = new ArrayList<>();
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (int x0 = -radius; x0 <= radius; x0 += regionSize) {
+        for (int z0 = -radius; z0 <= radius; z0 += regionSize) {
+          Region region = new Region(x0, Math.min(radius, x0 + regionSize - 1), z0,
+              Math.min(radius, z0 + regionSize - 1), includeBase);
+          regions.add(region);
+          tasks.add(pool.submit(region::compute));
+        }
+      }
+      Consumer<DungeonTile> sink = tile -> {
+        if (onEmit != null) {
+          onEmit.accept(tile);
+        }
+        publisher.submit(tile);
+      };
+      for (int ring = 0; ring <= radius; ring++) {
+        for (int i = 0; i < regions.size(); i++) {
+          Region region = regions.get(i);
+          if (ring < region.minRing || ring > region.maxRing) {
+            continue;
+          }
+          tasks.get(i).join();
+          region.emit(ring, sink);
+        }
+      }
+      publisher.close();
+    } catch (Throwable t) {
+      publisher.closeExceptionally(t);
+    }
+  }
+
+  /**
+   * Rectangular block of cells with its tiles bucketed by ring.
+   */
+  private final class Region {
+    private final int minX;
+    private final int maxX;
+    private final int minZ;
+    private final int maxZ;
+    private final boolean includeBase;
+    private final int minRing;
+    private final int maxRing;
+    private List<List<DungeonTile>> byRing;
+
+    private Region(int minX, int maxX, int minZ, int maxZ, boolean includeBase) {
+      this.minX = minX;
+      this.maxX = maxX;
+      this.minZ = minZ;
+      this.maxZ = maxZ;
+      this.includeBase = includeBase;
+      this.minRing = Math.max(axisDistance(minX, maxX), axisDistance(minZ, maxZ));
+      this.maxRing = Math.max(Math.max(Math.abs(minX), Math.abs(maxX)), Math.max(Math.abs(minZ), Math.abs(maxZ)));
+    }
+
+    private void compute() {
+      List<List<DungeonTile>> buckets = new ArrayList<>(maxRing - minRing + 1);
+      for (int i = minRing; i <= maxRing; i++) {
+        buckets.add(new ArrayList<>());
+      }
+      for (int x = minX; x <= maxX; x++) {
+        for (int z = minZ; z <= maxZ; z++) {
+          DungeonTile tile;
+          if (x == 0 && z == 0) {
+            tile = includeBase ? baseTile() : null;
+          } else {
+            tile = decide(x, z);
+          }
+          if (tile != null) {
+            buckets.get(Math.max(Math.abs(x), Math.abs(z)) - minRing).add(tile);
+          }
+        }
+      }
+      byRing = buckets;
+    }
+
+    private void emit(int ring, @Nonnull Consumer<DungeonTile> sink) {
+      if (ring < minRing || ring > maxRing) {
+        return;
+      }
+      for (DungeonTile tile : byRing.get(ring - minRing)) {
+        sink.accept(tile);
+      }
+    }
+
+    private int axisDistance(int min, int max) {
+      if (min <= 0 && max >= 0) {
+        return 0;
+      }
+      return Math.min(Math.abs(min), Math.abs(max));
+    }
+  }
+}
@@ -7,9 +7,11 @@ import MBRound18.hytale.vexlichdungeon.engine.PortalEngineAdapter;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import MBRound18.ImmortalEngine.api.prefab.StitchIndex;
 import MBRound18.ImmortalEngine.api.prefab.PrefabInspector;
-import MBRound18.hytale.vexlichdungeon.prefab.PrefabDiscovery;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPool;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndex;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPreloader;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabSpawner;
+import MBRound18.hytale.vexlichdungeon.prefab.WalkableSurface;
 import MBRound18.hytale.vexlichdungeon.loot.LootService;
 import MBRound18.hytale.vexlichdungeon.events.EntityEliminatedEvent;
 import MBRound18.hytale.vexlichdungeon.events.EntitySpawnedEvent;
@@ -50,11 +52,13 @@ import MBRound18.hytale.vexlichdungeon.events.NpcSpawnRequestedEvent;
 import MBRound18.hytale.vexlichdungeon.events.NpcSpawnResult;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Rogue-like dungeon controller that generates rooms on-demand.
@@ -65,6 +69,10 @@ public class RoguelikeDungeonController {
   private static final String RETURN_PORTAL_BLOCK_ID = "Vex_Dungeon_Challenge_Return";
   private static final int ROOM_Y_OFFSET = 14;
   private static final int RETURN_PORTAL_LOCAL_Y = 2;
+  private static final int ENEMY_SPAWN_SPACING = 3;
+  private static final CardinalDirection[] DIRECTIONS = CardinalDirection.all();
+  /** Rooms walked from the base prefab when ranking prefabs to preload. */
+  private static final int PRELOAD_RANK_STEPS = 4;
 
   private final LoggingHelper log;
   private final DungeonGenerator generator;
@@ -74,39 +82,163 @@ public class RoguelikeDungeonController {
   private final PortalEngineAdapter engineAdapter;
   private final EnemySpawnPlanner spawnPlanner;
   private final LoggingHelper eventsLogger;
-  private StitchIndex stitchIndex;
-  private PrefabEdgeIndex edgeIndex;
+  private volatile StitchIndex stitchIndex;
+  private volatile PrefabEdgeIndex edgeIndex;
   private final LootService lootService;
+  private final RoomLookaheadPlanner lookahead;
+  private final RoomTileSelector roomSelector;
+  private final WorldBridge bridge;
   private final Map<String, RoguelikeWorldState> worldStates = new HashMap<>();
 
+  /**
+   * Side effects the controller has on a live world: event dispatch, player
+   * lookup and chunk access. Swapped out by the headless simulation harness.
+   */
+  public interface WorldBridge {
+    void dispatch(@Nonnull World world, @Nonnull IEvent<Void> event);
+
+    @Nonnull
+    Collection<PlayerRef> players(@Nonnull World world);
+
+    @Nullable
+    Vector3d position(@Nonnull PlayerRef playerRef);
+
+    @Nonnull
+    String displayName(@Nonnull PlayerRef playerRef);
+
+    void trackParticipants(@Nonnull World world);
+
+    @Nullable
+    BlockAccessor chunk(@Nonnull World world, long chunkKey);
+  }
+
+  private static final WorldBridge DEFAULT_WORLD_BRIDGE = new WorldBridge() {
+    @Override
+    public void dispatch(@Nonnull World world, @Nonnull IEvent<Void> event) {
+      WorldEventQueue.get().dispatch(world, event);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<PlayerRef> players(@Nonnull World world) {
+      return world.getPlayerRefs();
+    }
+
+    @Override
+    @Nullable
+    public Vector3d position(@Nonnull PlayerRef playerRef) {
+      Player player = resolvePlayer(playerRef);
+      if (player == null) {
+        return null;
+      }
+      com.hypixel.hytale.server.core.modules.entity.component.TransformComponent transform = player
+          .getTransformComponent();
+      return transform == null ? null : transform.getPosition();
+    }
+
+    @Override
+    @Nonnull
+    public String displayName(@Nonnull PlayerRef playerRef) {
+      return resolveDisplayName(playerRef);
+    }
+
+    @Override
+    public void trackParticipants(@Nonnull World world) {
+      ParticipantTracker.get().updateFromWorld(world);
+    }
+
+    @Override
+    @Nullable
+    public BlockAccessor chunk(@Nonnull World world, long chunkKey) {
+      return world.getChunkIfLoaded(chunkKey);
+    }
+  };
+
   public RoguelikeDungeonController(
       @Nonnull LoggingHelper log,
       @Nonnull DungeonGenerator generator,
-      @Nonnull PrefabDiscovery discovery,
+      @Nonnull PrefabPool discovery,
       @Nonnull PrefabSpawner prefabSpawner,
       @Nonnull DataStore dataStore,
       @Nonnull PortalEngineAdapter engineAdapter,
       @Nonnull LoggingHelper eventsLogger,
       StitchIndex stitchIndex,
       LootService lootService) {
+    this(log, generator, discovery, prefabSpawner, dataStore, engineAdapter, eventsLogger, stitchIndex,
+        lootService, DEFAULT_WORLD_BRIDGE);
+  }
+
+  public RoguelikeDungeonController(
+      @Nonnull LoggingHelper log,
+      @Nonnull DungeonGenerator generator,
+      @Nonnull PrefabPool discovery,
+      @Nonnull PrefabSpawner prefabSpawner,
+      @Nonnull DataStore dataStore,
+      @Nonnull PortalEngineAdapter engineAdapter,
+      @Nonnull LoggingHelper eventsLogger,
+      StitchIndex stitchIndex,
+      LootService lootService,
+      @Nonnull WorldBridge bridge) {
     this.log = log;
+    this.bridge = java.util.Objects.requireNonNull(bridge, "bridge");
     this.generator = generator;
     this.selector = new PrefabSelector(generator.getConfig().getSeed(), discovery);
     this.prefabSpawner = prefabSpawner;
+    prefabSpawner.setPlayerLocator(this::playerPositions);
     this.dataStore = dataStore;
     this.engineAdapter = engineAdapter;
     this.spawnPlanner = new EnemySpawnPlanner(generator.getConfig().getSeed());
     this.eventsLogger = eventsLogger;
     this.stitchIndex = stitchIndex;
     this.lootService = lootService;
+    this.roomSelector = new RoomTileSelector(selector);
+    rebuildAdjacency();
+    this.lookahead = new RoomLookaheadPlanner(log, generator.getConfig().getLookaheadRings(),
+        generator.getConfig().getPlannerThreads());
+  }
+
+  @Nullable
+  public PrefabEdgeIndex getEdgeIndex() {
+    return edgeIndex;
   }
 
   public void setEdgeIndex(@Nullable PrefabEdgeIndex edgeIndex) {
     this.edgeIndex = edgeIndex;
+    TileConstraintSolver rebuilt = roomSelector.rebuildSolver(edgeIndex);
+    log.fine("[ROGUELIKE] Rebuilt edge constraint solver (%d variants)",
+        rebuilt == null ? 0 : rebuilt.getVariantCount());
+    lookahead.invalidatePlanned();
   }
 
   public void setStitchIndex(@Nullable StitchIndex stitchIndex) {
     this.stitchIndex = stitchIndex;
+    rebuildAdjacency();
+    lookahead.invalidatePlanned();
+  }
+
+  private void rebuildAdjacency() {
+    PrefabAdjacencyTable table = roomSelector.rebuildAdjacency(stitchIndex);
+    log.fine("[ROGUELIKE] Rebuilt prefab adjacency table (%d sources)", table.getSourceCount());
+  }
+
+  /**
+   * Preloads the prefabs a new instance is most likely to select, ranked by
+   * walking the adjacency table from the base prefab with the configured share
+   * of event rooms.
+   *
+   * @param reason What triggered the preload, for logs and the debug server
+   */
+  @Nonnull
+  public CompletableFuture<PrefabPreloader.Progress> preloadPrefabs(@Nonnull String reason) {
+    int interval = dataStore.getConfig().getEventRoomInterval();
+    double eventShare = interval > 0 ? 1.0 / (interval + 1) : 0.0;
+    List<String> ranked = roomSelector.getAdjacency().rankByReach(selector.getBasePrefab(), eventShare,
+        PRELOAD_RANK_STEPS);
+    return prefabSpawner.getPreloader().preload(ranked, reason);
+  }
+
+  public void shutdown() {
+    lookahead.shutdown();
   }
 
   public void initializeWorld(@Nonnull World world) {
@@ -115,8 +247,14 @@ public class RoguelikeDungeonController {
       return;
     }
 
-    RoguelikeWorldState state = new RoguelikeWorldState();
+    long runSeed = dataStore.getInstance(worldName)
+        .map(data -> data.getSeed())
+        .filter(seed -> seed != 0L)
+        .orElseGet(() -> RoomRandomStreams.runSeed(generator.getConfig().getSeed(), worldName,
+            System.currentTimeMillis()));
+    RoguelikeWorldState state = new RoguelikeWorldState(new RoomRandomStreams(runSeed));
     worldStates.put(worldName, state);
+    log.info("[ROGUELIKE] World %s rolls rooms from run seed %d", worldName, runSeed);
 
     dataStore.getInstance(worldName).ifPresent(data -> {
       state.totalScore = data.getTotalScore();
@@ -131,28 +269,28 @@ public class RoguelikeDungeonController {
     int spawnZ = generator.getSpawnCenterZ();
 
     DungeonTile baseTile = new DungeonTile(0, 0, selector.getBasePrefab(), 0, DungeonTile.TileType.BASE);
-    state.rooms.put(new RoomKey(0, 0), baseTile);
+    state.grid.putTile(GridKeys.pack(0, 0), baseTile);
+    lookahead.recordPlaced(worldName, baseTile);
 
     if (!generator.isSkipBaseTile()) {
       // Emit event request instead of direct call - RoomTileSpawnRequestHandler will
       // spawn the tile
-      WorldEventQueue.get().dispatch(world,
-          new RoomTileSpawnRequestedEvent(world, java.util.Objects.requireNonNull(baseTile, "baseTile"),
-              spawnX, spawnY, spawnZ));
-      emitRoomGenerated(world, baseTile, new RoomKey(0, 0));
+      requestTileSpawn(world, state, GridKeys.pack(0, 0),
+          java.util.Objects.requireNonNull(baseTile, "baseTile"), spawnX, spawnY, spawnZ);
+      emitRoomGenerated(world, baseTile, GridKeys.pack(0, 0));
     }
 
     // Pre-generate 4 adjacent rooms.
-    for (CardinalDirection direction : CardinalDirection.all()) {
-      RoomKey neighborKey = new RoomKey(direction.getOffsetX(), direction.getOffsetZ());
-      if (!state.rooms.containsKey(neighborKey)) {
-        DungeonTile room = createRoomTile(direction.getOffsetX(), direction.getOffsetZ(), state, baseTile);
-        state.rooms.put(neighborKey, room);
+    for (CardinalDirection direction : DIRECTIONS) {
+      long neighborKey = GridKeys.pack(direction.getOffsetX(), direction.getOffsetZ());
+      if (!state.grid.hasTile(neighborKey)) {
+        DungeonTile room = createRoomTile(worldName, direction.getOffsetX(), direction.getOffsetZ(), state,
+            baseTile);
+        state.grid.putTile(neighborKey, room);
         int[] worldPos = gridToWorld(direction.getOffsetX(), direction.getOffsetZ());
         // Emit event request instead of direct call
-        WorldEventQueue.get().dispatch(world,
-            new RoomTileSpawnRequestedEvent(world, java.util.Objects.requireNonNull(room, "room"),
-                worldPos[0], spawnY, worldPos[1]));
+        requestTileSpawn(world, state, neighborKey, java.util.Objects.requireNonNull(room, "room"),
+            worldPos[0], spawnY, worldPos[1]);
         emitRoomGenerated(world, room, neighborKey);
       }
     }
@@ -160,6 +298,16 @@ public class RoguelikeDungeonController {
     log.info("[ROGUELIKE] Initialized world %s with base and 4 adjacent rooms", worldName);
   }
 
+  /**
+   * Gets the run seed the rooms of a world are rolled from.
+   *
+   * @return The run seed, or 0 when the world was not initialized
+   */
+  public long getRunSeed(@Nonnull String worldName) {
+    RoguelikeWorldState state = worldStates.get(worldName);
+    return state != null ? state.streams.getSeed() : 0L;
+  }
+
   public void initializePlayer(@Nonnull World world,
       @Nonnull PlayerRef playerRef,
       boolean showWelcome) {
@@ -194,12 +342,14 @@ public class RoguelikeDungeonController {
       return;
     }
 
-    ParticipantTracker.get().updateFromWorld(world);
-    Map<String, String> currentPlayers = new HashMap<>();
-    for (PlayerRef playerRef : world.getPlayerRefs()) {
-      String uuid = playerRef.getUuid().toString();
-      String name = resolveDisplayName(playerRef);
-      currentPlayers.put(uuid, name);
+    bridge.trackParticipants(world);
+    Collection<PlayerRef> playerRefs = bridge.players(world);
+    Map<String, String> currentPlayers = state.currentPlayers;
+    currentPlayers.clear();
+    for (PlayerRef playerRef : playerRefs) {
+      PlayerRoom tracked = trackedRoom(state, playerRef.getUuid());
+      String name = bridge.displayName(playerRef);
+      currentPlayers.put(tracked.uuid, name);
     }
     dataStore.updateCurrentPlayers(worldName, currentPlayers);
 
@@ -218,67 +368,72 @@ public class RoguelikeDungeonController {
       state.capacityReached = false;
     }
 
-    for (PlayerRef playerRef : world.getPlayerRefs()) {
+    for (PlayerRef playerRef : playerRefs) {
       if (playerRef == null) {
         continue;
       }
-      Player player = resolvePlayer(playerRef);
-      if (player == null) {
+      Vector3d pos = bridge.position(playerRef);
+      if (pos == null) {
         continue;
       }
-      com.hypixel.hytale.server.core.modules.entity.component.TransformComponent transform = player
-          .getTransformComponent();
-      if (transform == null) {
-        continue;
-      }
-      Vector3d pos = transform.getPosition();
-      RoomKey key = toGridKey(pos);
-      RoomKey previous = state.playerRooms.put(playerRef.getUuid(), key);
-      if (!key.equals(previous)) {
+      long key = toGridKey(pos);
+      PlayerRoom tracked = trackedRoom(state, playerRef.getUuid());
+      long previous = tracked.key;
+      if (key != previous) {
+        tracked.key = key;
         onEnterRoom(world, state, key, previous);
         emitRoomEntered(world, playerRef, key, previous);
       }
     }
   }
 
-  private void onEnterRoom(@Nonnull World world, @Nonnull RoguelikeWorldState state, @Nonnull RoomKey key,
-      RoomKey previous) {
-    DungeonTile room = state.rooms.get(key);
+  @Nonnull
+  private static PlayerRoom trackedRoom(@Nonnull RoguelikeWorldState state, @Nonnull UUID uuid) {
+    PlayerRoom tracked = state.playerRooms.get(uuid);
+    if (tracked == null) {
+      tracked = new PlayerRoom(uuid.toString());
+      state.playerRooms.put(uuid, tracked);
+    }
+    return tracked;
+  }
+
+  private void onEnterRoom(@Nonnull World world, @Nonnull RoguelikeWorldState state, long key, long previous) {
+    RoomGrid grid = state.grid;
+    DungeonTile room = grid.getTile(key);
     if (room == null) {
-      DungeonTile source = previous != null ? state.rooms.get(previous) : null;
-      room = createRoomTile(key.x, key.z, state, source);
-      state.rooms.put(key, room);
-      int[] worldPos = gridToWorld(key.x, key.z);
+      DungeonTile source = previous != GridKeys.NONE ? grid.getTile(previous) : null;
+      room = createRoomTile(world.getName(), GridKeys.x(key), GridKeys.z(key), state, source);
+      grid.putTile(key, room);
+      int[] worldPos = gridToWorld(GridKeys.x(key), GridKeys.z(key));
       // Emit event request instead of direct call
-      WorldEventQueue.get().dispatch(world,
-          new RoomTileSpawnRequestedEvent(world, java.util.Objects.requireNonNull(room, "room"),
-              worldPos[0], generator.getSpawnCenterY(), worldPos[1]));
+      requestTileSpawn(world, state, key, java.util.Objects.requireNonNull(room, "room"),
+          worldPos[0], generator.getSpawnCenterY(), worldPos[1]);
       emitRoomGenerated(world, room, key);
-      log.info("[ROGUELIKE] Spawned room at grid (%d, %d)", key.x, key.z);
+      log.info("[ROGUELIKE] Spawned room at grid (%d, %d)", GridKeys.x(key), GridKeys.z(key));
     }
 
-    RoomState roomState = state.roomStates.computeIfAbsent(key, k -> new RoomState());
-    if (roomState.activated) {
+    int slot = grid.slotFor(key);
+    if (grid.activated[slot]) {
       return;
     }
 
     if (room.getType() == DungeonTile.TileType.BASE || room.getType() == DungeonTile.TileType.BASE_CORNER) {
-      roomState.activated = true;
+      grid.activated[slot] = true;
       generateAdjacentRooms(world, state, key, previous);
       if (eventsLogger != null) {
-        eventsLogger.info("Activated base room at grid (" + key.x + ", " + key.z + ")");
+        eventsLogger.info("Activated base room at grid (" + GridKeys.x(key) + ", " + GridKeys.z(key) + ")");
       }
       maybeRemoveReturnPortal(world, state, previous);
       return;
     }
 
-    roomState.activated = true;
-    roomState.entryFrom = previous;
-    if (room.isEventRoom() && !roomState.safeCounted) {
-      roomState.safeCounted = true;
+    grid.activated[slot] = true;
+    grid.entryFrom[slot] = previous;
+    if (room.isEventRoom() && !grid.safeCounted[slot]) {
+      grid.safeCounted[slot] = true;
       state.safeRoomsVisited++;
       state.roundsCleared++;
-      RoomCoordinate roomCoordinate = new RoomCoordinate(key.x, key.z);
+      RoomCoordinate roomCoordinate = new RoomCoordinate(GridKeys.x(key), GridKeys.z(key));
       dispatchEvent(world, new RoundClearedEvent(world, roomCoordinate));
       dispatchEvent(world, new SafeRoomVisitedEvent(world, roomCoordinate));
       engineAdapter.onRoundCleared(world.getName());
@@ -286,8 +441,9 @@ public class RoguelikeDungeonController {
       spawnReturnPortal(world, state, key);
       state.roomsSinceEvent = 0;
       if (lootService != null) {
-        int threat = roomState.enemyPoints;
-        lootService.generateLoot(state.totalScore, threat)
+        int threat = grid.enemyPoints[slot];
+        lootService.generateLoot(state.totalScore, threat,
+            state.streams.forRoom(GridKeys.x(key), GridKeys.z(key), RoomRandomStreams.Purpose.LOOT))
             .forEach(roll -> {
               log.info("[LOOT] Event room reward: %s x%d",
                   roll.getItemId(), roll.getCount());
@@ -310,115 +466,137 @@ public class RoguelikeDungeonController {
             dataStore.getConfig().getEventRoomInterval()));
       }
     }
-    if (!roomState.counted) {
-      roomState.counted = true;
+    if (!grid.counted[slot]) {
+      grid.counted[slot] = true;
       state.roomsEntered++;
       if (eventsLogger != null) {
         eventsLogger.info("Rooms entered: " + state.roomsEntered);
       }
     }
-    log.info("[ROGUELIKE] Activated room at grid (%d, %d)", key.x, key.z);
+    log.info("[ROGUELIKE] Activated room at grid (%d, %d)", GridKeys.x(key), GridKeys.z(key));
     if (eventsLogger != null) {
-      eventsLogger.info("Activated room at grid (" + key.x + ", " + key.z + ")");
+      eventsLogger.info("Activated room at grid (" + GridKeys.x(key) + ", " + GridKeys.z(key) + ")");
     }
     generateAdjacentRooms(world, state, key, previous);
-    // Emit event request instead of direct call
-    WorldEventQueue.get().dispatch(world,
-        new RoomEnemiesSpawnRequestedEvent(world, key.x, key.z));
+    requestEnemySpawn(world, state, key);
     maybeRemoveReturnPortal(world, state, previous);
   }
 
-  private void generateAdjacentRooms(@Nonnull World world, @Nonnull RoguelikeWorldState state, @Nonnull RoomKey key,
-      RoomKey previous) {
-    for (CardinalDirection direction : CardinalDirection.all()) {
-      RoomKey neighborKey = new RoomKey(key.x + direction.getOffsetX(), key.z + direction.getOffsetZ());
-      if (previous != null && neighborKey.equals(previous)) {
+  /**
+   * Requests a tile spawn, remembering the placement until it completes so the
+   * room's enemies can wait for its blocks.
+   */
+  private void requestTileSpawn(@Nonnull World world, @Nonnull RoguelikeWorldState state, long key,
+      @Nonnull DungeonTile tile, int worldX, int worldY, int worldZ) {
+    RoomTileSpawnRequestedEvent request = new RoomTileSpawnRequestedEvent(world, tile, worldX, worldY, worldZ);
+    CompletableFuture<Void> placed = request.getResult();
+    state.placingTiles.put(key, placed);
+    placed.whenComplete((ignored, error) -> state.placingTiles.remove(key, placed));
+    bridge.dispatch(world, request);
+  }
+
+  /**
+   * Requests the enemies of a room once its tile is placed. Placement finishes
+   * off the world thread; the request goes through the bridge, which queues it
+   * back onto the world thread. Rooms whose tile failed to place get no
+   * enemies.
+   */
+  private void requestEnemySpawn(@Nonnull World world, @Nonnull RoguelikeWorldState state, long key) {
+    int roomX = GridKeys.x(key);
+    int roomZ = GridKeys.z(key);
+    CompletableFuture<Void> placed = state.placingTiles.get(key);
+    if (placed == null) {
+      bridge.dispatch(world, new RoomEnemiesSpawnRequestedEvent(world, roomX, roomZ));
+      return;
+    }
+    placed.whenComplete((ignored, error) -> {
+      if (error != null) {
+        log.warn("[ROGUELIKE] Room tile at grid (%d, %d) failed to place, not spawning its enemies: %s",
+            roomX, roomZ, error.getMessage());
+        return;
+      }
+      bridge.dispatch(world, new RoomEnemiesSpawnRequestedEvent(world, roomX, roomZ));
+    });
+  }
+
+  private void generateAdjacentRooms(@Nonnull World world, @Nonnull RoguelikeWorldState state, long key,
+      long previous) {
+    for (CardinalDirection direction : DIRECTIONS) {
+      long neighborKey = GridKeys.offset(key, direction);
+      if (neighborKey == previous) {
         continue; // keep the room they came from unchanged
       }
 
-      if (!state.rooms.containsKey(neighborKey)) {
-        DungeonTile current = state.rooms.get(key);
-        DungeonTile room = createRoomTile(neighborKey.x, neighborKey.z, state, current);
-        state.rooms.put(neighborKey, room);
-        int[] worldPos = gridToWorld(neighborKey.x, neighborKey.z);
+      if (!state.grid.hasTile(neighborKey)) {
+        DungeonTile current = state.grid.getTile(key);
+        DungeonTile room = createRoomTile(world.getName(), GridKeys.x(neighborKey), GridKeys.z(neighborKey), state,
+            current);
+        state.grid.putTile(neighborKey, room);
+        int[] worldPos = gridToWorld(GridKeys.x(neighborKey), GridKeys.z(neighborKey));
         // Emit event request instead of direct call
-        WorldEventQueue.get().dispatch(world,
-            new RoomTileSpawnRequestedEvent(world, java.util.Objects.requireNonNull(room, "room"),
-                worldPos[0], generator.getSpawnCenterY(), worldPos[1]));
+        requestTileSpawn(world, state, neighborKey, java.util.Objects.requireNonNull(room, "room"),
+            worldPos[0], generator.getSpawnCenterY(), worldPos[1]);
         emitRoomGenerated(world, room, neighborKey);
       }
     }
+    // Decide the rooms beyond the new neighbours off the world thread.
+    RoomRandomStreams streams = state.streams;
+    lookahead.scheduleAround(world.getName(), GridKeys.x(key), GridKeys.z(key),
+        (x, z, source, neighbors) -> planAndPrewarm(streams, x, z, source, neighbors));
   }
 
+  /**
+   * Player positions of a world as {@code x0, z0, x1, z1, ...}, used to place
+   * the rooms nearest to players first.
+   */
   @Nonnull
-  private DungeonTile createRoomTile(int gridX, int gridZ, RoguelikeWorldState state, @Nullable DungeonTile source) {
-    String prefabPath;
-    if (state.eventRoomPending) {
-      prefabPath = selectEventPrefab(source);
-      state.eventRoomPending = false;
-    } else {
-      prefabPath = selectRoomPrefab(source);
-    }
-    if (prefabPath == null) {
-      prefabPath = selector.getBasePrefab();
-    }
-    DungeonTile tile = new DungeonTile(gridX, gridZ, prefabPath, selector.selectRandomRotation(),
-        DungeonTile.TileType.ROOM);
-    if (prefabPath.startsWith("Event/")) {
-      tile.setEventRoom(true);
-    }
-    return tile;
-  }
-
-  private String selectRoomPrefab(@Nullable DungeonTile source) {
-    if (source == null || stitchIndex == null) {
-      return selector.selectRandomRoom();
-    }
-
-    java.util.Set<String> roomSet = new java.util.HashSet<>(selector.getDiscovery().getAllDungeonPrefabs());
-    java.util.List<String> matchingRooms = new java.util.ArrayList<>();
-    for (java.util.Map.Entry<String, java.util.List<String>> entry : stitchIndex.getStitchesToPrefabs().entrySet()) {
-      if (!entry.getValue().contains(source.getPrefabPath())) {
-        continue;
-      }
-      for (String prefab : entry.getValue()) {
-        if (roomSet.contains(prefab)) {
-          matchingRooms.add(prefab);
-        }
+  private double[] playerPositions(@Nonnull World world) {
+    Collection<PlayerRef> players = bridge.players(world);
+    double[] positions = new double[players.size() * 2];
+    int count = 0;
+    for (PlayerRef playerRef : players) {
+      Vector3d pos = playerRef == null ? null : bridge.position(playerRef);
+      if (pos != null) {
+        positions[count++] = pos.x;
+        positions[count++] = pos.z;
       }
     }
-
-    if (matchingRooms.isEmpty()) {
-      return selector.selectRandomRoom();
-    }
-    return matchingRooms.get(new java.util.Random().nextInt(matchingRooms.size()));
+    return count == positions.length ? positions : java.util.Arrays.copyOf(positions, count);
   }
 
-  private String selectEventPrefab(DungeonTile source) {
-    List<String> events = selector.getDiscovery().getAllEventPrefabs();
-    if (events.isEmpty()) {
-      return selector.selectRandomRoom();
-    }
-    if (source == null || stitchIndex == null) {
-      return events.get(new java.util.Random().nextInt(events.size()));
+  /**
+   * Plans a room ahead of the players and starts rotating its prefab, so the
+   * spawn request finds the variant ready.
+   */
+  @Nullable
+  private DungeonTile planAndPrewarm(@Nonnull RoomRandomStreams streams, int gridX, int gridZ,
+      @Nonnull DungeonTile source, @Nonnull TileConstraintSolver.Neighbors neighbors) {
+    DungeonTile tile = roomSelector.planRoomTile(streams, gridX, gridZ, source, neighbors);
+    if (tile != null) {
+      prefabSpawner.prewarmVariant(tile.getPrefabPath(), tile.getRotation());
     }
+    return tile;
+  }
 
-    List<String> matchingEvents = new java.util.ArrayList<>();
-    for (java.util.Map.Entry<String, java.util.List<String>> entry : stitchIndex.getStitchesToPrefabs().entrySet()) {
-      if (!entry.getValue().contains(source.getPrefabPath())) {
-        continue;
-      }
-      for (String prefab : entry.getValue()) {
-        if (prefab.startsWith("Event/")) {
-          matchingEvents.add(prefab);
-        }
+  @Nonnull
+  private DungeonTile createRoomTile(@Nonnull String worldName, int gridX, int gridZ, RoguelikeWorldState state,
+      @Nullable DungeonTile source) {
+    TileConstraintSolver.Neighbors neighbors = (x, z) -> {
+      DungeonTile placed = state.grid.getTile(GridKeys.pack(x, z));
+      return placed != null ? placed : lookahead.peek(worldName, x, z);
+    };
+    DungeonTile tile;
+    if (state.eventRoomPending) {
+      state.eventRoomPending = false;
+      tile = roomSelector.planEventTile(state.streams, gridX, gridZ, source, neighbors);
+    } else {
+      tile = lookahead.take(worldName, gridX, gridZ);
+      if (tile == null) {
+        tile = roomSelector.planRoomTile(state.streams, gridX, gridZ, source, neighbors);
       }
     }
-
-    if (matchingEvents.isEmpty()) {
-      return events.get(new java.util.Random().nextInt(events.size()));
-    }
-    return matchingEvents.get(new java.util.Random().nextInt(matchingEvents.size()));
+    lookahead.recordPlaced(worldName, tile);
+    return tile;
   }
 
   /**
@@ -432,8 +610,7 @@ public class RoguelikeDungeonController {
     if (state == null) {
       return;
     }
-    RoomKey key = new RoomKey(roomX, roomZ);
-    spawnEnemiesForRoom(world, state, key);
+    spawnEnemiesForRoom(world, state, GridKeys.pack(roomX, roomZ));
   }
 
   public void trackEntitySpawned(@Nonnull EntitySpawnedEvent event) {
@@ -450,8 +627,7 @@ public class RoguelikeDungeonController {
     if (entityId == null || room == null) {
       return;
     }
-    RoomKey key = new RoomKey(room.getX(), room.getZ());
-    state.enemyRooms.putIfAbsent(entityId, key);
+    state.enemyRooms.putIfAbsent(entityId, GridKeys.pack(room.getX(), room.getZ()));
     state.enemyPoints.putIfAbsent(entityId, Math.max(0, event.getPoints()));
     if (event.getEntityType() != null) {
       state.enemyTypes.putIfAbsent(entityId, event.getEntityType());
@@ -465,25 +641,27 @@ public class RoguelikeDungeonController {
     }
   }
 
-  private void spawnEnemiesForRoom(@Nonnull World world, @Nonnull RoguelikeWorldState state, @Nonnull RoomKey key) {
-    RoomState roomState = state.roomStates.computeIfAbsent(key, k -> new RoomState());
-    if (roomState.cleared || roomState.enemiesRemaining > 0) {
+  private void spawnEnemiesForRoom(@Nonnull World world, @Nonnull RoguelikeWorldState state, long key) {
+    RoomGrid grid = state.grid;
+    int slot = grid.slotFor(key);
+    if (grid.cleared[slot] || grid.enemiesRemaining[slot] > 0) {
       return;
     }
 
     int scoreBudget = Math.max(10, state.totalScore);
     SpawnPool pool = dataStore.getSpawnPool();
-    java.util.List<SpawnPoolEntry> enemyPlan = spawnPlanner.planEnemies(pool, scoreBudget);
+    java.util.List<SpawnPoolEntry> enemyPlan = spawnPlanner.planEnemies(pool, scoreBudget,
+        state.streams.forRoom(GridKeys.x(key), GridKeys.z(key), RoomRandomStreams.Purpose.ENEMIES));
 
     if (enemyPlan.isEmpty()) {
-      roomState.cleared = true;
+      grid.cleared[slot] = true;
       return;
     }
 
-    int[] worldPos = gridToWorld(key.x, key.z);
+    int[] worldPos = gridToWorld(GridKeys.x(key), GridKeys.z(key));
     int baseX = worldPos[0] + 4;
     int baseZ = worldPos[1] + 4;
-    DungeonTile tile = state.rooms.get(key);
+    DungeonTile tile = grid.tiles[slot];
     PrefabInspector.PrefabDimensions dims = tile != null
         ? prefabSpawner.getPrefabDimensions(tile.getPrefabPath())
         : null;
@@ -495,6 +673,12 @@ public class RoguelikeDungeonController {
     minY = Math.max(worldMinY, minY);
     maxY = Math.min(worldMaxY - 2, maxY);
 
+    WalkableSurface surface = tile != null
+        ? prefabSpawner.getWalkableSurface(tile.getPrefabPath(), tile.getRotation())
+        : WalkableSurface.empty();
+    int[] cells = surface.pickSpread(enemyPlan.size(), ENEMY_SPAWN_SPACING,
+        state.streams.forRoom(GridKeys.x(key), GridKeys.z(key), RoomRandomStreams.Purpose.SPAWN_POSITIONS));
+
     int spawned = 0;
     int totalEnemyPoints = 0;
     for (int i = 0; i < enemyPlan.size(); i++) {
@@ -502,14 +686,24 @@ public class RoguelikeDungeonController {
       if (enemy == null) {
         continue;
       }
-      int offsetX = (i % 3) * 3;
-      int offsetZ = (i / 3) * 3;
-      int spawnX = baseX + offsetX;
-      int spawnZ = baseZ + offsetZ;
-      Integer spawnY = findSpawnY(world, spawnX, spawnZ, minY, maxY);
+      int spawnX;
+      int spawnZ;
+      Integer spawnY;
+      if (cells.length > 0) {
+        int cell = cells[i];
+        spawnX = worldPos[0] + surface.x(cell);
+        spawnZ = worldPos[1] + surface.z(cell);
+        int y = tileBaseY + surface.y(cell);
+        spawnY = y >= worldMinY && y <= worldMaxY - 2 ? y : null;
+      } else {
+        // No prefab data for this tile; scan the live chunk instead.
+        spawnX = baseX + (i % 3) * 3;
+        spawnZ = baseZ + (i / 3) * 3;
+        spawnY = findSpawnY(world, spawnX, spawnZ, minY, maxY);
+      }
       if (spawnY == null) {
-        log.warn("[ROGUELIKE] No safe ground for enemy spawn at (%d,%d) in room (%d,%d)", spawnX, spawnZ, key.x,
-            key.z);
+        log.warn("[ROGUELIKE] No safe ground for enemy spawn at (%d,%d) in room (%d,%d)", spawnX, spawnZ,
+            GridKeys.x(key), GridKeys.z(key));
         continue;
       }
       Vector3d spawnPos = new Vector3d(spawnX, spawnY, spawnZ);
@@ -519,15 +713,15 @@ public class RoguelikeDungeonController {
       }
     }
 
-    roomState.enemiesRemaining = spawned;
-    roomState.enemyPoints = totalEnemyPoints;
-    log.info("[ROGUELIKE] Spawned %d enemies in room (%d, %d)", spawned, key.x, key.z);
+    grid.enemiesRemaining[slot] = spawned;
+    grid.enemyPoints[slot] = totalEnemyPoints;
+    log.info("[ROGUELIKE] Spawned %d enemies in room (%d, %d)", spawned, GridKeys.x(key), GridKeys.z(key));
     if (eventsLogger != null) {
-      eventsLogger.info("Spawned " + spawned + " enemies in room (" + key.x + ", " + key.z + ")");
+      eventsLogger.info("Spawned " + spawned + " enemies in room (" + GridKeys.x(key) + ", " + GridKeys.z(key) + ")");
     }
   }
 
-  private boolean spawnEnemy(@Nonnull World world, @Nonnull RoguelikeWorldState state, @Nonnull RoomKey key,
+  private boolean spawnEnemy(@Nonnull World world, @Nonnull RoguelikeWorldState state, long key,
       @Nonnull SpawnPoolEntry enemy, @Nonnull Vector3d position) {
     try {
       String roleName = enemy.getEnemy();
@@ -538,7 +732,7 @@ public class RoguelikeDungeonController {
       }
       NpcSpawnRequestedEvent request = new NpcSpawnRequestedEvent(
           world,
-          new RoomCoordinate(key.x, key.z),
+          new RoomCoordinate(GridKeys.x(key), GridKeys.z(key)),
           roleName,
           modelId,
           position,
@@ -554,8 +748,8 @@ public class RoguelikeDungeonController {
       state.enemyRooms.put(uuid, key);
       state.enemyTypes.put(uuid, roleName);
       state.enemyPositions.put(uuid, position);
-      dispatchEvent(world, new EntitySpawnedEvent(world, uuid, new RoomCoordinate(key.x, key.z), roleName,
-          Math.max(1, enemy.getPoints()), position));
+      dispatchEvent(world, new EntitySpawnedEvent(world, uuid, new RoomCoordinate(GridKeys.x(key), GridKeys.z(key)),
+          roleName, Math.max(1, enemy.getPoints()), position));
       log.info("[ROGUELIKE] Spawned NPC %s (%s) at (%.1f, %.1f, %.1f)", roleName, uuid,
           position.x, position.y, position.z);
       if (eventsLogger != null) {
@@ -572,18 +766,20 @@ public class RoguelikeDungeonController {
     return false;
   }
 
-  public void recordEnemyKilled(@Nonnull World world, @Nonnull RoomKey key, int points, UUID killerUuid) {
+  public void recordEnemyKilled(@Nonnull World world, int roomX, int roomZ, int points, UUID killerUuid) {
     RoguelikeWorldState state = worldStates.get(world.getName());
     if (state == null) {
       return;
     }
 
-    RoomState roomState = state.roomStates.get(key);
-    if (roomState == null || roomState.cleared) {
+    long key = GridKeys.pack(roomX, roomZ);
+    RoomGrid grid = state.grid;
+    int slot = grid.slotOf(key);
+    if (slot < 0 || grid.cleared[slot]) {
       return;
     }
 
-    roomState.enemiesRemaining = Math.max(0, roomState.enemiesRemaining - 1);
+    grid.enemiesRemaining[slot] = Math.max(0, grid.enemiesRemaining[slot] - 1);
     state.totalScore += Math.max(0, points);
     state.totalKills += 1;
     if (killerUuid != null) {
@@ -599,14 +795,14 @@ public class RoguelikeDungeonController {
     }
     updateScoreHud(world, state, killerUuid, points);
 
-    if (roomState.enemiesRemaining == 0) {
-      roomState.cleared = true;
+    if (grid.enemiesRemaining[slot] == 0) {
+      grid.cleared[slot] = true;
       state.roomsCleared++;
       engineAdapter.onRoomCleared(world.getName());
-      dispatchEvent(world, new RoomClearedEvent(world, new RoomCoordinate(key.x, key.z)));
-      log.info("[ROGUELIKE] Room (%d, %d) cleared", key.x, key.z);
+      dispatchEvent(world, new RoomClearedEvent(world, new RoomCoordinate(GridKeys.x(key), GridKeys.z(key))));
+      log.info("[ROGUELIKE] Room (%d, %d) cleared", GridKeys.x(key), GridKeys.z(key));
       if (eventsLogger != null) {
-        eventsLogger.info("Room (" + key.x + ", " + key.z + ") cleared");
+        eventsLogger.info("Room (" + GridKeys.x(key) + ", " + GridKeys.z(key) + ") cleared");
       }
     }
   }
@@ -646,12 +842,12 @@ public class RoguelikeDungeonController {
     }
 
     Integer points = state.enemyPoints.get(uuid);
-    RoomKey key = state.enemyRooms.get(uuid);
+    Long key = state.enemyRooms.get(uuid);
     String entityType = state.enemyTypes.get(uuid);
 
     if (eventsLogger != null) {
       eventsLogger.info("[REMOVED] Entity " + uuid + " removed. Tracked: points=" + points + ", key="
-          + key + ", type=" + entityType);
+          + (key == null ? "null" : GridKeys.format(key)) + ", type=" + entityType);
     }
 
     if (points != null && key != null && entityType != null) {
@@ -713,13 +909,14 @@ public class RoguelikeDungeonController {
     }
 
     Integer points = state.enemyPoints.remove(uuid);
-    RoomKey key = state.enemyRooms.remove(uuid);
+    Long trackedKey = state.enemyRooms.remove(uuid);
+    long key = trackedKey != null ? trackedKey : GridKeys.NONE;
     String entityType = state.enemyTypes.remove(uuid);
     Vector3d trackedPosition = state.enemyPositions.remove(uuid);
 
     if (eventsLogger != null) {
       eventsLogger.info("[ELIMINATION] Processing entity " + uuid + ": points=" + points + ", key="
-          + key + ", type=" + entityType);
+          + GridKeys.format(key) + ", type=" + entityType);
     }
 
     if (points == null) {
@@ -745,20 +942,21 @@ public class RoguelikeDungeonController {
       }
     }
 
-    if (key == null) {
+    if (key == GridKeys.NONE) {
       Vector3d fallbackPosition = position != null ? position : trackedPosition;
       if (fallbackPosition != null) {
         key = toGridKey(fallbackPosition);
         if (eventsLogger != null) {
-          eventsLogger.info("[ELIMINATION] Derived room key %s for entity %s from position", key, uuid);
+          eventsLogger.info("[ELIMINATION] Derived room key %s for entity %s from position",
+              GridKeys.format(key), uuid);
         }
       }
     }
 
-    if (key == null) {
+    if (key == GridKeys.NONE) {
       if (eventsLogger != null) {
         eventsLogger.warn("[ELIMINATION] Entity " + uuid
-            + " missing critical data (points=" + points + ", key=" + key
+            + " missing critical data (points=" + points + ", key=" + GridKeys.format(key)
             + ") - cannot emit elimination event");
       }
       return;
@@ -772,19 +970,20 @@ public class RoguelikeDungeonController {
     if (eventsLogger != null) {
       eventsLogger.info("[ELIMINATION] Emitting EntityEliminatedEvent for " + safeEntityType + " ("
           + uuid + ") killed by " + (killerName == null ? "unknown" : killerName) + " at room ("
-          + key.x + ", " + key.z + ") for " + points + " points");
+          + GridKeys.x(key) + ", " + GridKeys.z(key) + ") for " + points + " points");
     }
 
     dispatchEvent(world, new EntityEliminatedEvent(world, uuid, killerUuid, killerName, points,
-        new RoomCoordinate(key.x, key.z), entityType, finalPosition));
-    recordEnemyKilled(world, key, points, killerUuid);
+        new RoomCoordinate(GridKeys.x(key), GridKeys.z(key)), entityType, finalPosition));
+    recordEnemyKilled(world, GridKeys.x(key), GridKeys.z(key), points, killerUuid);
   }
 
   public void removeWorldState(@Nonnull String worldName) {
     worldStates.remove(worldName);
+    lookahead.removeWorld(worldName);
   }
 
-  private void emitRoomGenerated(@Nonnull World world, @Nullable DungeonTile room, @Nonnull RoomKey key) {
+  private void emitRoomGenerated(@Nonnull World world, @Nullable DungeonTile room, long key) {
     if (room == null) {
       return;
     }
@@ -792,13 +991,15 @@ public class RoguelikeDungeonController {
     if (prefabPath == null) {
       return;
     }
-    dispatchEvent(world, new RoomGeneratedEvent(world, new RoomCoordinate(key.x, key.z), prefabPath));
+    dispatchEvent(world, new RoomGeneratedEvent(world, new RoomCoordinate(GridKeys.x(key), GridKeys.z(key)),
+        prefabPath));
   }
 
-  private void emitRoomEntered(@Nonnull World world, @Nonnull PlayerRef playerRef, @Nonnull RoomKey key,
-      @Nullable RoomKey previous) {
-    RoomCoordinate room = new RoomCoordinate(key.x, key.z);
-    RoomCoordinate previousRoom = previous == null ? null : new RoomCoordinate(previous.x, previous.z);
+  private void emitRoomEntered(@Nonnull World world, @Nonnull PlayerRef playerRef, long key, long previous) {
+    RoomCoordinate room = new RoomCoordinate(GridKeys.x(key), GridKeys.z(key));
+    RoomCoordinate previousRoom = previous == GridKeys.NONE
+        ? null
+        : new RoomCoordinate(GridKeys.x(previous), GridKeys.z(previous));
     dispatchEvent(world, new RoomEnteredEvent(world, playerRef, room, previousRoom));
   }
 
@@ -806,7 +1007,7 @@ public class RoguelikeDungeonController {
     if (event == null) {
       return;
     }
-    WorldEventQueue.get().dispatch(world, event);
+    bridge.dispatch(world, event);
   }
 
   public void showExitSummary(@Nonnull PlayerRef playerRef, @Nonnull World world) {
@@ -851,7 +1052,7 @@ public class RoguelikeDungeonController {
   }
 
   private UUID findNearestPlayerInRoom(@Nonnull World world, @Nonnull RoguelikeWorldState state,
-      @Nonnull RoomKey key, @Nonnull Vector3d entityPosition) {
+      long key, @Nonnull Vector3d entityPosition) {
     double bestDistance = Double.MAX_VALUE;
     UUID bestUuid = null;
     for (PlayerRef playerRef : world.getPlayerRefs()) {
@@ -862,8 +1063,8 @@ public class RoguelikeDungeonController {
       if (player == null) {
         continue;
       }
-      RoomKey playerRoom = state.playerRooms.get(playerRef.getUuid());
-      if (playerRoom == null || !playerRoom.equals(key)) {
+      PlayerRoom playerRoom = state.playerRooms.get(playerRef.getUuid());
+      if (playerRoom == null || playerRoom.key != key) {
         continue;
       }
       com.hypixel.hytale.server.core.modules.entity.component.TransformComponent playerTransform = player
@@ -888,11 +1089,11 @@ public class RoguelikeDungeonController {
     return generator.gridToWorld(gridX, gridZ);
   }
 
-  private RoomKey toGridKey(Vector3d pos) {
+  private long toGridKey(Vector3d pos) {
     int gridStep = generator.getConfig().getGridStep();
     int gridX = (int) Math.round((pos.x - generator.getSpawnCenterX()) / (double) gridStep);
     int gridZ = (int) Math.round((pos.z - generator.getSpawnCenterZ()) / (double) gridStep);
-    return new RoomKey(gridX, gridZ);
+    return GridKeys.pack(gridX, gridZ);
   }
 
   private void updateScoreHud(@Nonnull World world, @Nonnull RoguelikeWorldState state, UUID killerUuid, int delta) {
@@ -910,7 +1111,7 @@ public class RoguelikeDungeonController {
       state.playerNames.put(uuid, resolveDisplayName(playerRef));
       int playerScore = state.playerScores.getOrDefault(uuid, 0);
       int playerDelta = (killerUuid != null && killerUuid.equals(uuid)) ? delta : 0;
-      WorldEventQueue.get().dispatch(world,
+      bridge.dispatch(world,
           new VexScoreHudRequestedEvent(playerRef, instanceScore, playerScore, playerDelta,
               java.util.Objects.requireNonNull(partyList, "partyList")));
     }
@@ -941,17 +1142,17 @@ public class RoguelikeDungeonController {
     return Math.abs(worldName.hashCode() % 1000);
   }
 
-  private void spawnReturnPortal(@Nonnull World world, @Nonnull RoguelikeWorldState state, @Nonnull RoomKey key) {
-    if (state.returnPortalRoom != null) {
+  private void spawnReturnPortal(@Nonnull World world, @Nonnull RoguelikeWorldState state, long key) {
+    if (state.returnPortalRoom != GridKeys.NONE) {
       return;
     }
-    int[] worldPos = gridToWorld(key.x, key.z);
+    int[] worldPos = gridToWorld(GridKeys.x(key), GridKeys.z(key));
     int portalX = worldPos[0];
     int portalZ = worldPos[1];
     int portalY = generator.getSpawnCenterY() + ROOM_Y_OFFSET + RETURN_PORTAL_LOCAL_Y;
 
     long chunkKey = (((long) (portalX >> 4)) << 32) | (((long) (portalZ >> 4)) & 0xFFFFFFFFL);
-    BlockAccessor chunk = world.getChunkIfLoaded(chunkKey);
+    BlockAccessor chunk = bridge.chunk(world, chunkKey);
     if (chunk == null) {
       return;
     }
@@ -976,45 +1177,43 @@ public class RoguelikeDungeonController {
     state.returnPortalPos = new Vector3i(portalX, portalY, portalZ);
     log.info("[ROGUELIKE] Return portal spawned at (%d,%d,%d)", portalX, portalY, portalZ);
     dispatchEvent(world, new ReturnPortalSpawnedEvent(world,
-        new RoomCoordinate(key.x, key.z),
+        new RoomCoordinate(GridKeys.x(key), GridKeys.z(key)),
         new Vector3i(portalX, portalY, portalZ)));
   }
 
-  private void maybeRemoveReturnPortal(@Nonnull World world, @Nonnull RoguelikeWorldState state, RoomKey previousRoom) {
-    if (state.returnPortalRoom == null || previousRoom == null) {
+  private void maybeRemoveReturnPortal(@Nonnull World world, @Nonnull RoguelikeWorldState state, long previousRoom) {
+    if (state.returnPortalRoom == GridKeys.NONE || previousRoom == GridKeys.NONE) {
       return;
     }
-    if (!state.returnPortalRoom.equals(previousRoom)) {
+    if (state.returnPortalRoom != previousRoom) {
       return;
     }
-    for (RoomKey room : state.playerRooms.values()) {
-      if (state.returnPortalRoom.equals(room)) {
+    for (PlayerRoom room : state.playerRooms.values()) {
+      if (room.key == state.returnPortalRoom) {
         return;
       }
     }
-    RoomKey removedRoom = state.returnPortalRoom;
+    long removedRoom = state.returnPortalRoom;
     Vector3i pos = state.returnPortalPos;
     if (pos == null) {
-      state.returnPortalRoom = null;
+      state.returnPortalRoom = GridKeys.NONE;
       return;
     }
     long chunkKey = (((long) (pos.x >> 4)) << 32) | (((long) (pos.z >> 4)) & 0xFFFFFFFFL);
-    BlockAccessor chunk = world.getChunkIfLoaded(chunkKey);
+    BlockAccessor chunk = bridge.chunk(world, chunkKey);
     if (chunk != null) {
       chunk.setBlock(pos.x, pos.y, pos.z, 0);
     }
-    state.returnPortalRoom = null;
+    state.returnPortalRoom = GridKeys.NONE;
     state.returnPortalPos = null;
     log.info("[ROGUELIKE] Return portal removed");
-    if (removedRoom != null) {
-      dispatchEvent(world, new ReturnPortalRemovedEvent(world,
-          new RoomCoordinate(removedRoom.x, removedRoom.z),
-          pos));
-    }
+    dispatchEvent(world, new ReturnPortalRemovedEvent(world,
+        new RoomCoordinate(GridKeys.x(removedRoom), GridKeys.z(removedRoom)),
+        pos));
   }
 
   @Nullable
-  private Player resolvePlayer(@Nonnull PlayerRef playerRef) {
+  private static Player resolvePlayer(@Nonnull PlayerRef playerRef) {
     Ref<EntityStore> ref = playerRef.getReference();
     if (ref == null || !ref.isValid()) {
       return null;
@@ -1024,7 +1223,7 @@ public class RoguelikeDungeonController {
   }
 
   @Nonnull
-  private String resolveDisplayName(@Nonnull PlayerRef playerRef) {
+  private static String resolveDisplayName(@Nonnull PlayerRef playerRef) {
     String username = playerRef.getUsername();
     Player player = resolvePlayer(playerRef);
     if (player == null) {
@@ -1064,7 +1263,7 @@ public class RoguelikeDungeonController {
       return null;
     }
     long chunkKey = (((long) (x >> 4)) << 32) | (((long) (z >> 4)) & 0xFFFFFFFFL);
-    BlockAccessor chunk = world.getChunkIfLoaded(chunkKey);
+    BlockAccessor chunk = bridge.chunk(world, chunkKey);
     if (chunk == null) {
       return null;
     }
@@ -1109,23 +1308,19 @@ public class RoguelikeDungeonController {
         || block.getDrawType() == com.hypixel.hytale.protocol.DrawType.Empty) {
       return true;
     }
-    String key = block.getId() != null ? block.getId().toLowerCase() : "";
-    return key.contains("grass")
-        || key.contains("plant")
-        || key.contains("flower")
-        || key.contains("mushroom")
-        || key.contains("fern")
-        || key.contains("bush")
-        || key.contains("leaves")
-        || key.contains("sapling");
+    return WalkableSurface.isFoliage(block.getId());
   }
 
   private static class RoguelikeWorldState {
-    private final Map<RoomKey, DungeonTile> rooms = new HashMap<>();
-    private final Map<RoomKey, RoomState> roomStates = new HashMap<>();
-    private final Map<UUID, RoomKey> playerRooms = new HashMap<>();
+    private final RoomRandomStreams streams;
+    private final RoomGrid grid = new RoomGrid();
+    private final Map<UUID, PlayerRoom> playerRooms = new HashMap<>();
     private final Map<UUID, Integer> playerScores = new HashMap<>();
     private final Map<UUID, String> playerNames = new HashMap<>();
+    /** Reused by every poll; DataStore copies what it keeps. */
+    private final Map<String, String> currentPlayers = new HashMap<>();
+    /** Tile placements still in flight by grid key, completed from any thread. */
+    private final Map<Long, CompletableFuture<Void>> placingTiles = new ConcurrentHashMap<>();
     private int roomsEntered = 0;
     private int totalScore = 0;
     private int totalKills = 0;
@@ -1136,47 +1331,90 @@ public class RoguelikeDungeonController {
     private boolean eventRoomPending = false;
     private boolean capacityReached = false;
     private final Map<UUID, Integer> enemyPoints = new HashMap<>();
-    private final Map<UUID, RoomKey> enemyRooms = new HashMap<>();
+    private final Map<UUID, Long> enemyRooms = new HashMap<>();
     private final Map<UUID, String> enemyTypes = new HashMap<>();
     private final Map<UUID, Vector3d> enemyPositions = new HashMap<>();
-    private RoomKey returnPortalRoom = null;
+    private long returnPortalRoom = GridKeys.NONE;
     private Vector3i returnPortalPos = null;
-  }
 
-  private static class RoomState {
-    private boolean activated = false;
-    private boolean cleared = false;
-    private int enemiesRemaining = 0;
-    private int enemyPoints = 0;
-    private RoomKey entryFrom = null;
-    private boolean counted = false;
-    private boolean safeCounted = false;
+    private RoguelikeWorldState(@Nonnull RoomRandomStreams streams) {
+      this.streams = streams;
+    }
   }
 
-  private static class RoomKey {
-    private final int x;
-    private final int z;
+  /**
+   * Rooms of one world stored as parallel arrays indexed by a dense slot. Slots
+   * are handed out in creation order and never reused, so a slot stays valid
+   * for the lifetime of the world even when the arrays grow.
+   */
+  private static final class RoomGrid {
+    private final LongIntHashMap slots = new LongIntHashMap(64);
+    private DungeonTile[] tiles = new DungeonTile[32];
+    private boolean[] activated = new boolean[32];
+    private boolean[] cleared = new boolean[32];
+    private boolean[] counted = new boolean[32];
+    private boolean[] safeCounted = new boolean[32];
+    private int[] enemiesRemaining = new int[32];
+    private int[] enemyPoints = new int[32];
+    private long[] entryFrom = new long[32];
+    private int size = 0;
+
+    private int slotOf(long key) {
+      return slots.get(key, -1);
+    }
+
+    private int slotFor(long key) {
+      int slot = slots.get(key, -1);
+      if (slot >= 0) {
+        return slot;
+      }
+      if (size == tiles.length) {
+        grow(size << 1);
+      }
+      slot = size++;
+      entryFrom[slot] = GridKeys.NONE;
+      slots.put(key, slot);
+      return slot;
+    }
+
+    @Nullable
+    private DungeonTile getTile(long key) {
+      int slot = slotOf(key);
+      return slot >= 0 ? tiles[slot] : null;
+    }
 
-    private RoomKey(int x, int z) {
-      this.x = x;
-      this.z = z;
+    private boolean hasTile(long key) {
+      return getTile(key) != null;
     }
 
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (o == null || getClass() != o.getClass()) {
-        return false;
-      }
-      RoomKey roomKey = (RoomKey) o;
-      return x == roomKey.x && z == roomKey.z;
+    private int putTile(long key, @Nonnull DungeonTile tile) {
+      int slot = slotFor(key);
+      tiles[slot] = tile;
+      return slot;
     }
 
-    @Override
-    public int hashCode() {
-      return Objects.hash(x, z);
+    private void grow(int capacity) {
+      tiles = java.util.Arrays.copyOf(tiles, capacity);
+      activated = java.util.Arrays.copyOf(activated, capacity);
+      cleared = java.util.Arrays.copyOf(cleared, capacity);
+      counted = java.util.Arrays.copyOf(counted, capacity);
+      safeCounted = java.util.Arrays.copyOf(safeCounted, capacity);
+      enemiesRemaining = java.util.Arrays.copyOf(enemiesRemaining, capacity);
+      enemyPoints = java.util.Arrays.copyOf(enemyPoints, capacity);
+      entryFrom = java.util.Arrays.copyOf(entryFrom, capacity);
+    }
+  }
+
+  /**
+   * Mutable per-player room holder so polling can update it in place.
+   */
+  private static final class PlayerRoom {
+    /** The player's UUID as stored by the data store, built once per player. */
+    private final String uuid;
+    private long key = GridKeys.NONE;
+
+    private PlayerRoom(@Nonnull String uuid) {
+      this.uuid = uuid;
     }
   }
 
@@ -0,0 +1,293 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Plans room tiles ahead of the players on a worker pool.
+ *
+ * <p>
+ * Each world keeps a frontier of decided tiles: tiles that were placed by the
+ * controller and tiles that were planned in the background but not yet
+ * spawned. When a player enters a room the controller schedules planning for
+ * the rings around it; by the time the player crosses the next grid line the
+ * neighbour's prefab and rotation are usually already decided, so the world
+ * thread only has to dispatch the spawn request.
+ * </p>
+ *
+ * <p>
+ * Planning requests for the same world are coalesced: while a job is running,
+ * newer centers replace older ones and the job picks up the latest before it
+ * exits.
+ * </p>
+ *
+ * <p>
+ * Each frontier counts invalidations. A plan records the count it started
+ * under and is dropped if the count changed by the time it is stored, so a
+ * tile planned against an index that was since replaced is never handed
+ * out.
+ * </p>
+ */
+public final class RoomLookaheadPlanner {
+
+  /**
+   * Decides a tile for an empty grid cell. Called off the world thread, so
+   * implementations must not touch world state.
+   */
+  @FunctionalInterface
+  public interface TilePlanner {
+    @Nullable
+    DungeonTile plan(int gridX, int gridZ, @Nonnull DungeonTile source,
+        @Nonnull TileConstraintSolver.Neighbors neighbors);
+  }
+
+  /** No pending center; shares {@link GridKeys#NONE}'s unreachable cell. */
+  private static final long NO_CENTER = GridKeys.NONE;
+
+  private final LoggingHelper log;
+  private final int rings;
+  private final ExecutorService workers;
+  private final Map<String, Frontier> frontiers = new ConcurrentHashMap<>();
+
+  public RoomLookaheadPlanner(@Nonnull LoggingHelper log, int rings, int threads) {
+    this.log = Objects.requireNonNull(log, "log");
+    this.rings = Math.max(0, rings);
+    AtomicInteger counter = new AtomicInteger();
+    this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+      Thread t = new Thread(r, "vex-room-planner-" + counter.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  public int getRings() {
+    return rings;
+  }
+
+  /**
+   * Records a tile the controller has committed to (spawned or about to be).
+   * Replacing a different planned tile invalidates the planned neighbours that
+   * were chosen against it.
+   */
+  public void recordPlaced(@Nonnull String worldName, @Nonnull DungeonTile tile) {
+    Frontier frontier = frontier(worldName);
+    long key = GridKeys.pack(tile.getGridX(), tile.getGridZ());
+    Slot previous = frontier.cells.put(key, new Slot(tile, true, 0L));
+    if (previous != null && !previous.placed && previous.tile != tile) {
+      for (CardinalDirection direction : CardinalDirection.all()) {
+        long neighbor = GridKeys.offset(key, direction);
+        Slot slot = frontier.cells.get(neighbor);
+        if (slot != null && !slot.placed) {
+          frontier.cells.remove(neighbor, slot);
+        }
+      }
+    }
+  }
+
+  /**
+   * Claims the planned tile for a cell, if the planner already decided one.
+   *
+   * @return The planned tile, or null when the caller has to decide itself
+   */
+  @Nullable
+  public DungeonTile take(@Nonnull String worldName, int gridX, int gridZ) {
+    Frontier frontier = frontiers.get(worldName);
+    if (frontier == null) {
+      return null;
+    }
+    long key = GridKeys.pack(gridX, gridZ);
+    Slot slot = frontier.cells.get(key);
+    if (slot == null || slot.placed || !frontier.isCurrent(slot)) {
+      return null;
+    }
+    if (frontier.cells.replace(key, slot, new Slot(slot.tile, true, 0L))) {
+      return slot.tile;
+    }
+    return null;
+  }
+
+  /**
+   * Gets the decided tile for a cell (placed or planned) without claiming it.
+   */
+  @Nullable
+  public DungeonTile peek(@Nonnull String worldName, int gridX, int gridZ) {
+    Frontier frontier = frontiers.get(worldName);
+    return frontier == null ? null : frontier.tileAt(gridX, gridZ);
+  }
+
+  /**
+   * Schedules planning of the rings around the given room.
+   */
+  public void scheduleAround(@Nonnull String worldName, int gridX, int gridZ, @Nonnull TilePlanner planner) {
+    if (rings <= 0) {
+      return;
+    }
+    Frontier frontier = frontier(worldName);
+    frontier.pendingCenter.set(GridKeys.pack(gridX, gridZ));
+    if (!frontier.running.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      workers.execute(() -> drain(worldName, frontier, planner));
+    } catch (RejectedExecutionException e) {
+      frontier.running.set(false);
+    }
+  }
+
+  /**
+   * Drops every planned (not yet placed) tile. Used when the indexes the plans
+   * were based on change.
+   */
+  public void invalidatePlanned() {
+    for (Frontier frontier : frontiers.values()) {
+      // Bump first: a plan stored after the sweep sees the new count
+      frontier.generation.incrementAndGet();
+      frontier.cells.values().removeIf(slot -> !slot.placed);
+    }
+  }
+
+  public void removeWorld(@Nonnull String worldName) {
+    Frontier frontier = frontiers.remove(worldName);
+    if (frontier != null) {
+      frontier.removed = true;
+    }
+  }
+
+  public void shutdown() {
+    workers.shutdownNow();
+    frontiers.clear();
+  }
+
+  private void drain(@Nonnull String worldName, @Nonnull Frontier frontier, @Nonnull TilePlanner planner) {
+    try {
+      while (!frontier.removed) {
+        long center = frontier.pendingCenter.getAndSet(NO_CENTER);
+        if (center == NO_CENTER) {
+          break;
+        }
+        planRings(frontier, GridKeys.x(center), GridKeys.z(center), planner);
+      }
+    } catch (Exception e) {
+      log.warn("[PLANNER] Lookahead planning failed for %s: %s", worldName, e.getMessage());
+    } finally {
+      frontier.running.set(false);
+    }
+    // A center may have arrived between the last poll and releasing the flag.
+    if (!frontier.removed && frontier.pendingCenter.get() != NO_CENTER
+        && frontier.running.compareAndSet(false, true)) {
+      try {
+        workers.execute(() -> drain(worldName, frontier, planner));
+      } catch (RejectedExecutionException e) {
+        frontier.running.set(false);
+      }
+    }
+  }
+
+  private void planRings(@Nonnull Frontier frontier, int centerX, int centerZ, @Nonnull TilePlanner planner) {
+    for (int ring = 1; ring <= rings; ring++) {
+      for (int dx = -ring; dx <= ring; dx++) {
+        int span = ring - Math.abs(dx);
+        planCell(frontier, centerX + dx, centerZ - span, centerX, centerZ, planner);
+        if (span != 0) {
+          planCell(frontier, centerX + dx, centerZ + span, centerX, centerZ, planner);
+        }
+      }
+      if (frontier.removed || frontier.pendingCenter.get() != NO_CENTER) {
+        return; // the players moved on; re-plan from the newer center
+      }
+    }
+  }
+
+  private void planCell(@Nonnull Frontier frontier, int gridX, int gridZ, int centerX, int centerZ,
+      @Nonnull TilePlanner planner) {
+    long key = GridKeys.pack(gridX, gridZ);
+    if (frontier.cells.containsKey(key)) {
+      return;
+    }
+    long generation = frontier.generation.get();
+    DungeonTile source = findSource(frontier, gridX, gridZ, centerX, centerZ);
+    if (source == null) {
+      return;
+    }
+    DungeonTile tile = planner.plan(gridX, gridZ, source, frontier::tileAt);
+    if (tile == null || frontier.generation.get() != generation) {
+      return;
+    }
+    Slot slot = new Slot(tile, false, generation);
+    if (frontier.cells.putIfAbsent(key, slot) == null && frontier.generation.get() != generation) {
+      // Invalidated while storing; the sweep may have missed it
+      frontier.cells.remove(key, slot);
+    }
+  }
+
+  /**
+   * Picks the decided neighbour closest to the center as the source tile, which
+   * matches the direction players approach the cell from.
+   */
+  @Nullable
+  private DungeonTile findSource(@Nonnull Frontier frontier, int gridX, int gridZ, int centerX, int centerZ) {
+    DungeonTile best = null;
+    int bestDistance = Integer.MAX_VALUE;
+    for (CardinalDirection direction : CardinalDirection.all()) {
+      int nx = gridX + direction.getOffsetX();
+      int nz = gridZ + direction.getOffsetZ();
+      Slot slot = frontier.cells.get(GridKeys.pack(nx, nz));
+      if (slot == null || !frontier.isCurrent(slot)) {
+        continue;
+      }
+      int distance = Math.abs(nx - centerX) + Math.abs(nz - centerZ);
+      if (distance < bestDistance) {
+        bestDistance = distance;
+        best = slot.tile;
+      }
+    }
+    return best;
+  }
+
+  @Nonnull
+  private Frontier frontier(@Nonnull String worldName) {
+    return frontiers.computeIfAbsent(worldName, name -> new Frontier());
+  }
+
+  private static final class Frontier {
+    private final Map<Long, Slot> cells = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong pendingCenter = new AtomicLong(NO_CENTER);
+    /** Bumped whenever planned tiles are invalidated. */
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean removed;
+
+    @Nullable
+    private DungeonTile tileAt(int gridX, int gridZ) {
+      Slot slot = cells.get(GridKeys.pack(gridX, gridZ));
+      return slot == null || !isCurrent(slot) ? null : slot.tile;
+    }
+
+    private boolean isCurrent(@Nonnull Slot slot) {
+      return slot.placed || slot.generation == generation.get();
+    }
+  }
+
+  private static final class Slot {
+    private final DungeonTile tile;
+    private final boolean placed;
+    /** Frontier generation a planned tile was decided under. */
+    private final long generation;
+
+    private Slot(@Nonnull DungeonTile tile, boolean placed, long generation) {
+      this.tile = tile;
+      this.placed = placed;
+      this.generation = generation;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import java.util.SplittableRandom;
+import javax.annotation.Nonnull;
+
+/**
+ * Derives independent random streams per room from the run seed.
+ *
+ * <p>
+ * A stream is keyed by (run seed, grid x, grid z, purpose), so a room's prefab,
+ * rotation, enemy plan and loot never depend on which rooms were rolled before
+ * it or on which thread rolls them. Every dungeon instance has its own run
+ * seed (see {@link #runSeed}), so instances open at the same time roll
+ * different rooms; replaying an instance only needs its run seed.
+ * </p>
+ */
+public final class RoomRandomStreams {
+
+  /**
+   * What a stream is used for. Each purpose has a fixed salt so adding or
+   * reordering purposes does not change existing streams.
+   */
+  public enum Purpose {
+    PREFAB(0x50524546L),
+    ROTATION(0x524F5441L),
+    ENEMIES(0x454E454DL),
+    SPAWN_POSITIONS(0x53504F53L),
+    LOOT(0x4C4F4F54L);
+
+    private final long salt;
+
+    Purpose(long salt) {
+      this.salt = salt;
+    }
+  }
+
+  private final long seed;
+
+  public RoomRandomStreams(long seed) {
+    this.seed = seed;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Derives the run seed of a new dungeon instance.
+   *
+   * @param baseSeed   Configured generation seed
+   * @param worldName  Name of the instance world
+   * @param createdAt  Creation time of the instance, in milliseconds, so an
+   *                   instance that reuses a world name still rolls anew
+   * @return The run seed, never 0 (0 marks "no seed" in stored instance data)
+   */
+  public static long runSeed(long baseSeed, @Nonnull String worldName, long createdAt) {
+    long h = mix64(baseSeed ^ 0x243F6A8885A308D3L);
+    h = mix64(h + worldName.hashCode());
+    h = mix64(h + createdAt);
+    return h != 0L ? h : 1L;
+  }
+
+  /**
+   * Creates a fresh stream for one room and purpose. Equal arguments always
+   * produce equal sequences.
+   */
+  @Nonnull
+  public SplittableRandom forRoom(int gridX, int gridZ, @Nonnull Purpose purpose) {
+    return new SplittableRandom(seedFor(gridX, gridZ, purpose));
+  }
+
+  /**
+   * Gets the stream seed for one room and purpose, e.g. for logging a
+   * reproducible roll.
+   */
+  public long seedFor(int gridX, int gridZ, @Nonnull Purpose purpose) {
+    long h = mix64(seed ^ 0x9E3779B97F4A7C15L);
+    h = mix64(h + GridKeys.pack(gridX, gridZ));
+    return mix64(h + purpose.salt);
+  }
+
+  /**
+   * SplitMix64 finalizer (variant 13).
+   */
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
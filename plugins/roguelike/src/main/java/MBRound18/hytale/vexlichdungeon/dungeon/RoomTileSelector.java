@@ -0,0 +1,145 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import MBRound18.ImmortalEngine.api.prefab.StitchIndex;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndex;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPool;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Decides prefab and rotation for roguelike rooms.
+ *
+ * <p>
+ * Tries the edge {@link TileConstraintSolver} first and falls back to the
+ * stitch {@link PrefabAdjacencyTable}, rolling everything from the per-room
+ * {@link RoomRandomStreams} of the instance being planned. Only reads immutable indexes and the given
+ * neighbour lookup, so the lookahead planner can call it from its worker
+ * threads.
+ * </p>
+ */
+public final class RoomTileSelector {
+
+  private final PrefabSelector selector;
+  private volatile PrefabAdjacencyTable adjacency = PrefabAdjacencyTable.empty();
+  private volatile TileConstraintSolver solver;
+
+  public RoomTileSelector(@Nonnull PrefabSelector selector) {
+    this.selector = Objects.requireNonNull(selector, "selector");
+  }
+
+  /**
+   * Rebuilds the adjacency table from the selector's prefab pool.
+   *
+   * @param stitchIndex Stitch index, or null to only use uniform fallbacks
+   * @return The new table
+   */
+  @Nonnull
+  public PrefabAdjacencyTable rebuildAdjacency(@Nullable StitchIndex stitchIndex) {
+    PrefabPool pool = selector.getPool();
+    PrefabAdjacencyTable table = PrefabAdjacencyTable.build(stitchIndex,
+        new HashSet<>(pool.getAllDungeonPrefabs()), pool.getAllRooms(), pool.getAllEventPrefabs());
+    this.adjacency = table;
+    return table;
+  }
+
+  @Nonnull
+  public PrefabAdjacencyTable getAdjacency() {
+    return adjacency;
+  }
+
+  /**
+   * Rebuilds the constraint solver from an edge index.
+   *
+   * @param edgeIndex Edge index, or null to disable the solver
+   * @return The new solver, or null when there is none
+   */
+  @Nullable
+  public TileConstraintSolver rebuildSolver(@Nullable PrefabEdgeIndex edgeIndex) {
+    TileConstraintSolver rebuilt = edgeIndex == null
+        ? null
+        : TileConstraintSolver.build(edgeIndex, new HashSet<>(selector.getPool().getAllDungeonPrefabs()));
+    this.solver = rebuilt;
+    return rebuilt;
+  }
+
+  /**
+   * Decides a regular room for a grid cell.
+   */
+  @Nonnull
+  public DungeonTile planRoomTile(@Nonnull RoomRandomStreams streams, int gridX, int gridZ,
+      @Nullable DungeonTile source, @Nonnull TileConstraintSolver.Neighbors neighbors) {
+    DungeonTile solved = solveTile(streams, gridX, gridZ, source, neighbors, TileConstraintSolver.Kind.ROOM);
+    if (solved != null) {
+      return solved;
+    }
+    return buildRoomTile(streams, gridX, gridZ, selectRoomPrefab(streams, gridX, gridZ, source));
+  }
+
+  /**
+   * Decides an event room for a grid cell.
+   */
+  @Nonnull
+  public DungeonTile planEventTile(@Nonnull RoomRandomStreams streams, int gridX, int gridZ,
+      @Nullable DungeonTile source, @Nonnull TileConstraintSolver.Neighbors neighbors) {
+    DungeonTile solved = solveTile(streams, gridX, gridZ, source, neighbors, TileConstraintSolver.Kind.EVENT);
+    if (solved != null) {
+      return solved;
+    }
+    return buildRoomTile(streams, gridX, gridZ, selectEventPrefab(streams, gridX, gridZ, source));
+  }
+
+  /**
+   * Picks prefab and rotation together so the edges match every decided
+   * neighbour. Returns null when there is no edge index or nothing fits, in
+   * which case the adjacency table decides.
+   */
+  @Nullable
+  private DungeonTile solveTile(@Nonnull RoomRandomStreams streams, int gridX, int gridZ,
+      @Nullable DungeonTile source, @Nonnull TileConstraintSolver.Neighbors neighbors,
+      @Nonnull TileConstraintSolver.Kind kind) {
+    TileConstraintSolver current = solver;
+    if (current == null) {
+      return null;
+    }
+    int variant = current.solve(gridX, gridZ, source, neighbors, kind,
+        streams.forRoom(gridX, gridZ, RoomRandomStreams.Purpose.PREFAB));
+    if (variant == TileConstraintSolver.NONE) {
+      return null;
+    }
+    return buildRoomTile(gridX, gridZ, current.getPrefab(variant), current.getRotation(variant));
+  }
+
+  @Nonnull
+  private DungeonTile buildRoomTile(@Nonnull RoomRandomStreams streams, int gridX, int gridZ,
+      @Nullable String prefabPath) {
+    return buildRoomTile(gridX, gridZ, prefabPath, selector.selectRandomRotation(
+        streams.forRoom(gridX, gridZ, RoomRandomStreams.Purpose.ROTATION)));
+  }
+
+  @Nonnull
+  private DungeonTile buildRoomTile(int gridX, int gridZ, @Nullable String prefabPath, int rotation) {
+    if (prefabPath == null) {
+      prefabPath = selector.getBasePrefab();
+    }
+    DungeonTile tile = new DungeonTile(gridX, gridZ, prefabPath, rotation, DungeonTile.TileType.ROOM);
+    if (prefabPath.startsWith("Event/")) {
+      tile.setEventRoom(true);
+    }
+    return tile;
+  }
+
+  private String selectRoomPrefab(@Nonnull RoomRandomStreams streams, int gridX, int gridZ, @Nullable DungeonTile source) {
+    SplittableRandom random = streams.forRoom(gridX, gridZ, RoomRandomStreams.Purpose.PREFAB);
+    String prefab = adjacency.sampleRoom(source != null ? source.getPrefabPath() : null, random);
+    return prefab != null ? prefab : selector.selectRandomRoom(random);
+  }
+
+  private String selectEventPrefab(@Nonnull RoomRandomStreams streams, int gridX, int gridZ, @Nullable DungeonTile source) {
+    SplittableRandom random = streams.forRoom(gridX, gridZ, RoomRandomStreams.Purpose.PREFAB);
+    String prefab = adjacency.sampleEvent(source != null ? source.getPrefabPath() : null, random);
+    return prefab != null ? prefab : selector.selectRandomRoom(random);
+  }
+}
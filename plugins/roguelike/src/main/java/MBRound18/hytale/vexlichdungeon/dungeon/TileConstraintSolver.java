@@ -0,0 +1,349 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndex;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.random.RandomGenerator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Chooses prefab and rotation together so that every decided neighbour's edge
+ * stitches line up.
+ *
+ * <p>
+ * Every (prefab, rotation) pair from the {@link PrefabEdgeIndex} is interned as
+ * a variant id. For each variant and edge the solver precomputes the bitset of
+ * variants that may sit on the other side of that edge (they share at least one
+ * stitch id on the facing edges). Solving a cell is then a handful of
+ * word-wise AND operations: the domain starts as all allowed variants,
+ * is intersected with the masks of each decided neighbour, and is then
+ * forward-checked so that no empty neighbour is left without a candidate.
+ * </p>
+ *
+ * <p>
+ * When nothing fits the solver relaxes step by step: first it drops the
+ * forward check, then it only honours the source room. If even that is empty,
+ * or no neighbour is in the index at all, it returns {@link #NONE} and the
+ * caller falls back to the adjacency table.
+ * </p>
+ */
+public final class TileConstraintSolver {
+
+  /** Returned when no variant satisfies the constraints. */
+  public static final int NONE = -1;
+
+  private static final CardinalDirection[] DIRECTIONS = CardinalDirection.all();
+
+  /**
+   * Looks up decided tiles around the cell being solved.
+   */
+  @FunctionalInterface
+  public interface Neighbors {
+    @Nullable
+    DungeonTile at(int gridX, int gridZ);
+  }
+
+  /** Which prefab family a cell may use. */
+  public enum Kind {
+    ROOM,
+    EVENT
+  }
+
+  private final String[] prefabs;
+  private final int[] rotations;
+  private final Map<String, int[]> variantsByPrefab;
+  private final int words;
+  /** compatible[variant][edge ordinal] = variants allowed across that edge. */
+  private final long[][][] compatible;
+  private final long[] roomMask;
+  private final long[] eventMask;
+
+  private TileConstraintSolver(String[] prefabs, int[] rotations, Map<String, int[]> variantsByPrefab,
+      long[][][] compatible, long[] roomMask, long[] eventMask) {
+    this.prefabs = prefabs;
+    this.rotations = rotations;
+    this.variantsByPrefab = variantsByPrefab;
+    this.words = roomMask.length;
+    this.compatible = compatible;
+    this.roomMask = roomMask;
+    this.eventMask = eventMask;
+  }
+
+  /**
+   * Builds the solver from an edge index.
+   *
+   * @param edgeIndex Edge index to derive compatibility from
+   * @param roomSet   Prefabs allowed for regular rooms
+   * @return The solver, or null when the index has no variants
+   */
+  @Nullable
+  public static TileConstraintSolver build(@Nonnull PrefabEdgeIndex edgeIndex, @Nonnull Set<String> roomSet) {
+    List<String> prefabList = new ArrayList<>();
+    List<Integer> rotationList = new ArrayList<>();
+    Map<String, int[]> variantsByPrefab = new HashMap<>();
+    for (String prefab : new TreeSet<>(edgeIndex.getPrefabs())) {
+      boolean event = prefab.startsWith("Event/");
+      if (!event && !roomSet.contains(prefab)) {
+        continue;
+      }
+      // Index: rotation / 90 -> variant id.
+      int[] byRotation = new int[] { NONE, NONE, NONE, NONE };
+      for (int rotation : new TreeSet<>(edgeIndex.getRotations(prefab))) {
+        int slot = Math.floorMod(rotation / 90, 4);
+        byRotation[slot] = prefabList.size();
+        prefabList.add(prefab);
+        rotationList.add(rotation);
+      }
+      variantsByPrefab.put(prefab, byRotation);
+    }
+    int count = prefabList.size();
+    if (count == 0) {
+      return null;
+    }
+    int words = (count + 63) >>> 6;
+    String[] prefabs = prefabList.toArray(new String[0]);
+    int[] rotations = new int[count];
+    for (int i = 0; i < count; i++) {
+      rotations[i] = rotationList.get(i);
+    }
+
+    // exposes[edge][stitch] = variants exposing that stitch on that edge
+    Map<String, Integer> stitchIds = new HashMap<>();
+    int[][][] stitchesByVariant = new int[count][DIRECTIONS.length][];
+    for (int v = 0; v < count; v++) {
+      for (CardinalDirection edge : DIRECTIONS) {
+        Collection<String> stitches = edgeIndex.getStitchesForEdge(prefabs[v], rotations[v], edge);
+        int[] ids = new int[stitches.size()];
+        int i = 0;
+        for (String stitch : stitches) {
+          ids[i++] = stitchIds.computeIfAbsent(stitch, k -> stitchIds.size());
+        }
+        stitchesByVariant[v][edge.ordinal()] = ids;
+      }
+    }
+    long[][][] exposes = new long[DIRECTIONS.length][stitchIds.size()][words];
+    for (int v = 0; v < count; v++) {
+      for (CardinalDirection edge : DIRECTIONS) {
+        for (int stitch : stitchesByVariant[v][edge.ordinal()]) {
+          exposes[edge.ordinal()][stitch][v >>> 6] |= 1L << v;
+        }
+      }
+    }
+
+    long[][][] compatible = new long[count][DIRECTIONS.length][words];
+    for (int v = 0; v < count; v++) {
+      for (CardinalDirection edge : DIRECTIONS) {
+        long[] mask = compatible[v][edge.ordinal()];
+        int facing = edge.getOpposite().ordinal();
+        for (int stitch : stitchesByVariant[v][edge.ordinal()]) {
+          or(mask, exposes[facing][stitch]);
+        }
+      }
+    }
+
+    long[] roomMask = new long[words];
+    long[] eventMask = new long[words];
+    for (int v = 0; v < count; v++) {
+      long[] target = prefabs[v].startsWith("Event/") ? eventMask : roomMask;
+      target[v >>> 6] |= 1L << v;
+    }
+    return new TileConstraintSolver(prefabs, rotations, Map.copyOf(variantsByPrefab), compatible, roomMask,
+        eventMask);
+  }
+
+  public int getVariantCount() {
+    return prefabs.length;
+  }
+
+  @Nonnull
+  public String getPrefab(int variant) {
+    return prefabs[variant];
+  }
+
+  public int getRotation(int variant) {
+    return rotations[variant];
+  }
+
+  /**
+   * Finds the variant id of a decided tile.
+   *
+   * @return The variant, or {@link #NONE} when the tile is not in the index
+   */
+  public int variantOf(@Nullable DungeonTile tile) {
+    if (tile == null || tile.getPrefabPath() == null) {
+      return NONE;
+    }
+    int[] byRotation = variantsByPrefab.get(tile.getPrefabPath());
+    if (byRotation == null) {
+      return NONE;
+    }
+    return byRotation[Math.floorMod(tile.getRotation() / 90, 4)];
+  }
+
+  /**
+   * Solves one cell.
+   *
+   * @param gridX     Cell X
+   * @param gridZ     Cell Z
+   * @param source    Room the cell is generated from (honoured by the last
+   *                  relaxation step), or null
+   * @param neighbors Lookup for decided tiles
+   * @param kind      Prefab family for the cell
+   * @param random    Random source used to pick among the valid variants
+   * @return The chosen variant, or {@link #NONE}
+   */
+  public int solve(int gridX, int gridZ, @Nullable DungeonTile source, @Nonnull Neighbors neighbors,
+      @Nonnull Kind kind, @Nonnull RandomGenerator random) {
+    long[] domain = (kind == Kind.EVENT ? eventMask : roomMask).clone();
+    boolean constrained = false;
+    for (CardinalDirection direction : DIRECTIONS) {
+      DungeonTile neighbor = neighbors.at(gridX + direction.getOffsetX(), gridZ + direction.getOffsetZ());
+      int variant = variantOf(neighbor);
+      if (variant == NONE) {
+        continue;
+      }
+      // The neighbour's edge that faces this cell points back at us.
+      and(domain, compatible[variant][direction.getOpposite().ordinal()]);
+      constrained = true;
+    }
+
+    if (!constrained) {
+      return NONE; // no indexed neighbours; the adjacency table decides
+    }
+    if (!isEmpty(domain)) {
+      long[] checked = forwardCheck(gridX, gridZ, domain, neighbors);
+      return pick(isEmpty(checked) ? domain : checked, random);
+    }
+
+    // Neighbours disagree; only keep the seam with the room the players come from.
+    int sourceVariant = variantOf(source);
+    if (sourceVariant == NONE || source == null) {
+      return NONE;
+    }
+    CardinalDirection towardSource = directionBetween(gridX, gridZ, source.getGridX(), source.getGridZ());
+    if (towardSource == null) {
+      return NONE;
+    }
+    long[] relaxed = (kind == Kind.EVENT ? eventMask : roomMask).clone();
+    and(relaxed, compatible[sourceVariant][towardSource.getOpposite().ordinal()]);
+    return isEmpty(relaxed) ? NONE : pick(relaxed, random);
+  }
+
+  /**
+   * Removes candidates that would leave an empty neighbouring cell with no
+   * compatible variant given that cell's other decided neighbours.
+   */
+  @Nonnull
+  private long[] forwardCheck(int gridX, int gridZ, @Nonnull long[] domain, @Nonnull Neighbors neighbors) {
+    long[] result = domain.clone();
+    long[] support = new long[words];
+    for (CardinalDirection direction : DIRECTIONS) {
+      int ex = gridX + direction.getOffsetX();
+      int ez = gridZ + direction.getOffsetZ();
+      if (neighbors.at(ex, ez) != null) {
+        continue;
+      }
+      boolean hasSupport = false;
+      for (CardinalDirection around : DIRECTIONS) {
+        int nx = ex + around.getOffsetX();
+        int nz = ez + around.getOffsetZ();
+        if (nx == gridX && nz == gridZ) {
+          continue;
+        }
+        int variant = variantOf(neighbors.at(nx, nz));
+        if (variant == NONE) {
+          continue;
+        }
+        if (!hasSupport) {
+          System.arraycopy(compatible[variant][around.getOpposite().ordinal()], 0, support, 0, words);
+          hasSupport = true;
+        } else {
+          and(support, compatible[variant][around.getOpposite().ordinal()]);
+        }
+      }
+      if (!hasSupport || isEmpty(support)) {
+        continue; // unconstrained, or already unsatisfiable whatever we pick
+      }
+      int edge = direction.ordinal();
+      for (int w = 0; w < words; w++) {
+        long bits = result[w];
+        while (bits != 0) {
+          int bit = Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          int v = (w << 6) + bit;
+          if (!intersects(compatible[v][edge], support)) {
+            result[w] &= ~(1L << bit);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private static CardinalDirection directionBetween(int fromX, int fromZ, int toX, int toZ) {
+    for (CardinalDirection direction : DIRECTIONS) {
+      if (fromX + direction.getOffsetX() == toX && fromZ + direction.getOffsetZ() == toZ) {
+        return direction;
+      }
+    }
+    return null;
+  }
+
+  private static int pick(@Nonnull long[] set, @Nonnull RandomGenerator random) {
+    int count = 0;
+    for (long word : set) {
+      count += Long.bitCount(word);
+    }
+    int target = random.nextInt(count);
+    for (int w = 0; w < set.length; w++) {
+      int bits = Long.bitCount(set[w]);
+      if (target >= bits) {
+        target -= bits;
+        continue;
+      }
+      long word = set[w];
+      for (int i = 0; i < target; i++) {
+        word &= word - 1;
+      }
+      return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+    return NONE;
+  }
+
+  private static void and(@Nonnull long[] target, @Nonnull long[] mask) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] &= mask[i];
+    }
+  }
+
+  private static void or(@Nonnull long[] target, @Nonnull long[] mask) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] |= mask[i];
+    }
+  }
+
+  private static boolean intersects(@Nonnull long[] a, @Nonnull long[] b) {
+    for (int i = 0; i < a.length; i++) {
+      if ((a[i] & b[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isEmpty(@Nonnull long[] set) {
+    for (long word : set) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
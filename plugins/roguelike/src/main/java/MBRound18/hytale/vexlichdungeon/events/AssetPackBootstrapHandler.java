@@ -7,6 +7,7 @@ import MBRound18.hytale.vexlichdungeon.prefab.PrefabSpawner;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndex;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndexBuilder;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndexStorage;
+import MBRound18.ImmortalEngine.api.prefab.PrefabPathIndex;
 import MBRound18.ImmortalEngine.api.prefab.StitchIndex;
 import com.hypixel.hytale.event.EventBus;
 import com.hypixel.hytale.server.core.asset.AssetPackRegisterEvent;
@@ -88,11 +89,18 @@ public final class AssetPackBootstrapHandler {
     }
     log.fine("[ASSETS] Bootstrapping prefabs after %s", reason);
     CompletableFuture.runAsync(() -> {
+      PrefabPathIndex.get().refresh();
       discovery.refresh();
+      PrefabEdgeIndex previous = controller.getEdgeIndex();
+      if (previous == null) {
+        previous = PrefabEdgeIndexStorage.load(Objects.requireNonNull(dataDirectory, "dataDirectory"),
+            Objects.requireNonNull(log, "log"));
+      }
       PrefabEdgeIndex edgeIndex = PrefabEdgeIndexBuilder.build(
           Objects.requireNonNull(discovery, "discovery"),
           Objects.requireNonNull(spawner, "spawner"),
-          Objects.requireNonNull(log, "log"));
+          Objects.requireNonNull(log, "log"),
+          previous);
       controller.setEdgeIndex(edgeIndex);
       StitchIndex stitchIndex = edgeIndex != null ? edgeIndex.toStitchIndex() : null;
       controller.setStitchIndex(stitchIndex);
@@ -107,6 +115,7 @@ public final class AssetPackBootstrapHandler {
       if (startedLogged.compareAndSet(false, true)) {
         log.info("[ASSETS] Startup complete; prefab indexes ready.");
       }
+      controller.preloadPrefabs(reason);
     });
   }
 
@@ -3,11 +3,14 @@ package MBRound18.hytale.vexlichdungeon.events;
 import MBRound18.ImmortalEngine.api.events.AssetPacksLoadedEvent;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import MBRound18.hytale.vexlichdungeon.dungeon.RoguelikeDungeonController;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabDiscovered;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabDiscovery;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabDiscoveryListener;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabSpawner;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndex;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndexBuilder;
 import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndexStorage;
+import MBRound18.ImmortalEngine.api.prefab.PrefabPathIndex;
 import MBRound18.ImmortalEngine.api.prefab.StitchIndex;
 import com.hypixel.hytale.event.EventBus;
 import java.nio.file.Path;
@@ -15,19 +18,38 @@ import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 
 /**
- * Listens for AssetPacksLoadedEvent from the engine plugin and rebuilds
- * dungeon prefab indexes in response.
+ * Listens for AssetPacksLoadedEvent from the engine plugin, and for prefab
+ * file changes reported by {@link PrefabDiscovery}, and rebuilds dungeon
+ * prefab indexes in response.
  */
 public final class AssetPacksLoadedEventHandler {
+  private static final long REBUILD_DEBOUNCE_MS = 500L;
+
   private final LoggingHelper log;
   private final PrefabDiscovery discovery;
   private final PrefabSpawner spawner;
   private final RoguelikeDungeonController controller;
   private final Path dataDirectory;
   private final ScheduledExecutorService scheduler;
+  private final PrefabDiscoveryListener prefabListener = new PrefabDiscoveryListener() {
+    @Override
+    public void onPrefabAdded(@Nonnull PrefabDiscovered prefab) {
+      spawner.revalidatePrefab(prefab.getPrefabPath());
+      scheduleRebuild("prefab changes");
+    }
+
+    @Override
+    public void onPrefabRemoved(@Nonnull PrefabDiscovered prefab) {
+      spawner.revalidatePrefab(prefab.getPrefabPath());
+      scheduleRebuild("prefab changes");
+    }
+  };
+  private ScheduledFuture<?> pendingRebuild;
 
   public AssetPacksLoadedEventHandler(
       @Nonnull LoggingHelper log,
@@ -52,31 +74,64 @@ public final class AssetPacksLoadedEventHandler {
     eventBus.register(
         (Class) AssetPacksLoadedEvent.class,
         (java.util.function.Consumer) (Object e) -> onAssetPacksLoaded());
+    discovery.addListener(prefabListener);
   }
 
   private void onAssetPacksLoaded() {
     log.fine("[ASSETS] AssetPacksLoaded event received");
     CompletableFuture.runAsync(() -> {
+      PrefabPathIndex.get().refresh();
+      spawner.revalidatePrefabs();
       discovery.refresh();
+      scheduleRebuild("asset-packs");
+    });
+  }
+
+  /**
+   * Rebuilds the indexes once changes stop arriving, so a burst of prefab
+   * edits or an asset pack reload costs a single incremental rebuild.
+   */
+  private synchronized void scheduleRebuild(@Nonnull String reason) {
+    ScheduledFuture<?> existing = pendingRebuild;
+    if (existing != null) {
+      existing.cancel(false);
+    }
+    pendingRebuild = scheduler.schedule(() -> rebuildIndexes(reason), REBUILD_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+  }
+
+  private void rebuildIndexes(@Nonnull String reason) {
+    try {
+      PrefabEdgeIndex previous = controller.getEdgeIndex();
+      if (previous == null) {
+        previous = PrefabEdgeIndexStorage.load(Objects.requireNonNull(dataDirectory, "dataDirectory"),
+            Objects.requireNonNull(log, "log"));
+      }
       PrefabEdgeIndex edgeIndex = PrefabEdgeIndexBuilder.build(
           Objects.requireNonNull(discovery, "discovery"),
           Objects.requireNonNull(spawner, "spawner"),
-          Objects.requireNonNull(log, "log"));
+          Objects.requireNonNull(log, "log"),
+          previous);
       controller.setEdgeIndex(edgeIndex);
       StitchIndex stitchIndex = edgeIndex != null ? edgeIndex.toStitchIndex() : null;
       controller.setStitchIndex(stitchIndex);
-      log.info("[ASSETS] Rebuilt indexes (edge=%s, stitch=%s)", edgeIndex == null ? "null" : "ready",
-          stitchIndex == null ? "null" : "ready");
+      log.info("[ASSETS] Rebuilt indexes after %s (edge=%s, stitch=%s)", reason,
+          edgeIndex == null ? "null" : "ready", stitchIndex == null ? "null" : "ready");
       if (edgeIndex != null) {
         PrefabEdgeIndexStorage.save(
             Objects.requireNonNull(dataDirectory, "dataDirectory"),
             edgeIndex,
             Objects.requireNonNull(log, "log"));
       }
-    });
+      spawner.getCatalog().save();
+      log.fine("[ASSETS] %s", spawner.getCatalog());
+      controller.preloadPrefabs(reason);
+    } catch (RuntimeException e) {
+      log.error("[ASSETS] Failed to rebuild prefab indexes after %s: %s", reason, e.getMessage());
+    }
   }
 
   public void shutdown() {
+    discovery.removeListener(prefabListener);
     scheduler.shutdownNow();
   }
 }
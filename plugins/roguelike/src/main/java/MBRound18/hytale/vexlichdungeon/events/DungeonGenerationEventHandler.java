@@ -123,6 +123,9 @@ public class DungeonGenerationEventHandler {
     eventBus.register(
         (Class) VexPlayerAddedEvent.class,
         (java.util.function.Consumer) (Object e) -> onVexPlayerAdded((VexPlayerAddedEvent) e));
+    eventBus.register(
+        (Class) InstanceCreatedEvent.class,
+        (java.util.function.Consumer) (Object e) -> onInstanceCreated((InstanceCreatedEvent) e));
     log.info("Successfully registered dungeon generation event handler");
   }
 
@@ -253,6 +256,19 @@ public class DungeonGenerationEventHandler {
     }
   }
 
+  /**
+   * Warms the prefab cache with the rooms a fresh instance is likely to reach
+   * first, so the first entries do not wait on prefab loads.
+   */
+  private void onInstanceCreated(@Nonnull InstanceCreatedEvent event) {
+    try {
+      World world = event.getWorld();
+      roguelikeController.preloadPrefabs("instance " + world.getName());
+    } catch (Exception e) {
+      log.error("Exception in onInstanceCreated: %s", e.getMessage());
+    }
+  }
+
   private void onVexPlayerAdded(@Nonnull VexPlayerAddedEvent event) {
     try {
       World world = event.getWorld();
@@ -849,7 +865,7 @@ public class DungeonGenerationEventHandler {
         log.info("[GENERATE-COMPLETE] Successfully initialized roguelike dungeon for world: %s", world.getName());
 
         // Mark as generated in persistent storage
-        dataStore.markGenerated(world.getName(), System.currentTimeMillis(), 1);
+        dataStore.markGenerated(world.getName(), roguelikeController.getRunSeed(world.getName()), 1);
         WorldEventQueue.get().dispatch(world, new InstanceCreatedEvent(world));
         currentlyGenerating.remove(world.getName());
         log.info("[GENERATE-MARKED] Marked world as generated: %s", world.getName());
@@ -30,15 +30,23 @@ public class RoomTileSpawnRequestHandler {
 
   private void onRoomTileSpawnRequested(@Nonnull RoomTileSpawnRequestedEvent event) {
     if (prefabSpawner == null) {
+      event.getResult().complete(null);
       return;
     }
-    // Delegate to spawner - it will emit RoomGeneratedEvent after placement
-    prefabSpawner.spawnTile(
+    // Delegate to spawner - loading and rotation run off the world thread,
+    // placement is scheduled back onto it
+    prefabSpawner.spawnTileAsync(
         event.getTile(),
         event.getWorld(),
         event.getWorldX(),
         event.getWorldY(),
         event.getWorldZ(),
-        false);
+        false).whenComplete((ignored, error) -> {
+          if (error != null) {
+            event.getResult().completeExceptionally(error);
+          } else {
+            event.getResult().complete(null);
+          }
+        });
   }
 }
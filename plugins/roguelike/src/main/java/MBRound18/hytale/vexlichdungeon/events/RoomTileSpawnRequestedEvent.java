@@ -3,12 +3,14 @@ package MBRound18.hytale.vexlichdungeon.events;
 import MBRound18.hytale.vexlichdungeon.dungeon.DungeonTile;
 import com.hypixel.hytale.event.IEvent;
 import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 
 /**
  * Event fired when a room tile needs to be spawned into the world.
  * This is a request event - listeners should spawn the tile and emit
- * RoomGeneratedEvent.
+ * RoomGeneratedEvent. Spawning is asynchronous; {@link #getResult()} completes
+ * once the tile has been placed.
  */
 public class RoomTileSpawnRequestedEvent implements IEvent<Void> {
   @Nonnull
@@ -21,6 +23,9 @@ public class RoomTileSpawnRequestedEvent implements IEvent<Void> {
   private final int worldY;
   private final int worldZ;
 
+  @Nonnull
+  private final CompletableFuture<Void> result;
+
   public RoomTileSpawnRequestedEvent(@Nonnull World world, @Nonnull DungeonTile tile, int worldX, int worldY,
       int worldZ) {
     this.world = world;
@@ -28,6 +33,7 @@ public class RoomTileSpawnRequestedEvent implements IEvent<Void> {
     this.worldX = worldX;
     this.worldY = worldY;
     this.worldZ = worldZ;
+    this.result = new CompletableFuture<>();
   }
 
   @Nonnull
@@ -51,4 +57,9 @@ public class RoomTileSpawnRequestedEvent implements IEvent<Void> {
   public int getWorldZ() {
     return worldZ;
   }
+
+  @Nonnull
+  public CompletableFuture<Void> getResult() {
+    return result;
+  }
 }
@@ -2,11 +2,15 @@ package MBRound18.hytale.vexlichdungeon.events;
 
 import MBRound18.ImmortalEngine.api.events.EventDispatcher;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
+import com.hypixel.hytale.event.EventBus;
 import com.hypixel.hytale.event.IEvent;
 import com.hypixel.hytale.server.core.HytaleServer;
 import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public final class WorldEventQueue {
@@ -51,6 +55,63 @@ public final class WorldEventQueue {
     }
   }
 
+  /**
+   * Dispatches events in order from a single world task rather than one task
+   * per event.
+   */
+  public void dispatchAll(@Nullable World world, @Nonnull List<? extends IEvent<Void>> events) {
+    dispatchAll(world, events, event -> {
+    });
+  }
+
+  /**
+   * Dispatches events in order from a single world task rather than one task
+   * per event. An event whose listeners fail does not stop the rest; it is
+   * handed to {@code failed} instead.
+   *
+   * @param failed Called, on the dispatching thread, with each event whose
+   *               dispatch failed
+   */
+  public void dispatchAll(@Nullable World world, @Nonnull List<? extends IEvent<Void>> events,
+      @Nonnull Consumer<? super IEvent<Void>> failed) {
+    if (events.isEmpty()) {
+      return;
+    }
+    String worldName = world != null ? world.getName() : null;
+    if (world == null || worldName == null || worldName.isBlank()) {
+      globalQueue.execute(() -> dispatchEach(events, failed));
+      return;
+    }
+    try {
+      world.execute(() -> dispatchEach(events, failed));
+    } catch (Exception e) {
+      dispatchEach(events, failed);
+      log.warn("World event dispatch fallback for %s (%d events): %s", worldName, events.size(), e.getMessage());
+    }
+  }
+
+  private void dispatchEach(@Nonnull List<? extends IEvent<Void>> events,
+      @Nonnull Consumer<? super IEvent<Void>> failed) {
+    EventBus eventBus = HytaleServer.get().getEventBus();
+    for (IEvent<Void> event : events) {
+      boolean dispatched;
+      try {
+        dispatched = EventDispatcher.dispatch(eventBus, event);
+      } catch (RuntimeException e) {
+        dispatched = false;
+      }
+      if (dispatched) {
+        continue;
+      }
+      log.warn("Failed to dispatch %s", event.getClass().getSimpleName());
+      try {
+        failed.accept(event);
+      } catch (RuntimeException e) {
+        log.warn("Failed to handle undispatched %s: %s", event.getClass().getSimpleName(), e.getMessage());
+      }
+    }
+  }
+
   public void dispatchGlobal(@Nullable IEvent<Void> event) {
     if (event == null) {
       return;
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public final class LootService {
   private final LootTableConfig config;
@@ -20,6 +21,14 @@ public final class LootService {
   }
 
   public List<LootRoll> generateLoot(int totalScore, int roomEnemyPoints) {
+    return generateLoot(totalScore, roomEnemyPoints, random);
+  }
+
+  /**
+   * Rolls loot using the given random source instead of the service's shared
+   * one, so a room's rewards can be reproduced from its own stream.
+   */
+  public List<LootRoll> generateLoot(int totalScore, int roomEnemyPoints, RandomGenerator random) {
     if (config == null || config.getTiers() == null || config.getTiers().isEmpty()) {
       return List.of();
     }
@@ -39,7 +48,7 @@ public final class LootService {
 
     List<LootRoll> results = new ArrayList<>();
     for (int i = 0; i < rolls; i++) {
-      String categoryId = pickWeightedCategory(tier.getCategoryWeights());
+      String categoryId = pickWeightedCategory(tier.getCategoryWeights(), random);
       if (categoryId == null) {
         continue;
       }
@@ -54,8 +63,8 @@ public final class LootService {
         }
         continue;
       }
-      int count = rollCount(category.getMinCount(), category.getMaxCount());
-      String item = pickWeightedItem(items, category.getRarityRules());
+      int count = rollCount(category.getMinCount(), category.getMaxCount(), random);
+      String item = pickWeightedItem(items, category.getRarityRules(), random);
       if (item != null) {
         results.add(new LootRoll(item, Math.max(1, count)));
       }
@@ -91,7 +100,7 @@ public final class LootService {
     return null;
   }
 
-  private String pickWeightedCategory(Map<String, Integer> weights) {
+  private String pickWeightedCategory(Map<String, Integer> weights, RandomGenerator random) {
     int total = 0;
     for (Integer weight : weights.values()) {
       total += Math.max(0, weight);
@@ -110,7 +119,8 @@ public final class LootService {
     return null;
   }
 
-  private String pickWeightedItem(List<String> items, List<LootTableConfig.RarityRule> rules) {
+  private String pickWeightedItem(List<String> items, List<LootTableConfig.RarityRule> rules,
+      RandomGenerator random) {
     if (rules == null || rules.isEmpty()) {
       return items.get(random.nextInt(items.size()));
     }
@@ -142,7 +152,7 @@ public final class LootService {
     return items.get(random.nextInt(items.size()));
   }
 
-  private int rollCount(int min, int max) {
+  private int rollCount(int min, int max, RandomGenerator random) {
     int safeMin = Math.max(1, min);
     int safeMax = Math.max(safeMin, max);
     if (safeMin == safeMax) {
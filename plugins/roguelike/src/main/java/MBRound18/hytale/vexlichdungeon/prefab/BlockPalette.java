@@ -0,0 +1,34 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+/**
+ * Process-wide interning of block names to small int ids, so edge slices and
+ * stitch patterns compare ints instead of strings. Id 0 means "no block".
+ *
+ * <p>
+ * Ids are only stable for the life of the process; they are never persisted.
+ * </p>
+ */
+final class BlockPalette {
+  static final int EMPTY = 0;
+
+  private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+  private static final AtomicInteger NEXT_ID = new AtomicInteger(EMPTY + 1);
+
+  private BlockPalette() {
+  }
+
+  /**
+   * Gets the id of a block name, assigning the next free id on first use.
+   */
+  static int intern(@Nonnull String blockName) {
+    Objects.requireNonNull(blockName, "blockName");
+    Integer id = IDS.get(blockName);
+    return id != null ? id : IDS.computeIfAbsent(blockName, name -> NEXT_ID.getAndIncrement());
+  }
+}
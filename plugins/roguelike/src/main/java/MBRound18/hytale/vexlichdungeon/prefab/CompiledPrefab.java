@@ -0,0 +1,485 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.ImmortalEngine.api.prefab.PrefabBounds;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Compact binary form of a {@code .prefab.json}: its block bounds, a name
+ * palette, packed block (with rotation and filler) and fluid arrays and the
+ * table of frozen entities pulled out of the prefab.
+ *
+ * <p>
+ * Artifacts are keyed by the SHA-256 of the source JSON, so an edited prefab
+ * simply misses and gets recompiled. They are written once and memory-mapped
+ * on later loads, which replaces the Gson pass {@link PrefabSpawner} used to
+ * make over every prefab it loaded.
+ * </p>
+ */
+public final class CompiledPrefab {
+
+  public static final String EXTENSION = ".vxprefab";
+  private static final int MAGIC = 0x56585046; // "VXPF"
+  private static final int VERSION = 3;
+  private static final int HASH_BYTES = 32;
+  private static final int BLOCK_STRIDE = 6;
+  private static final int FLUID_STRIDE = 5;
+
+  private final byte[] contentHash;
+  private final boolean sanitized;
+  private final boolean sliceable;
+  private final @Nullable PrefabBounds bounds;
+  private final String[] palette;
+  private final int[] blocks;
+  private final int[] fluids;
+  private final int[] entityModels;
+  private final double[] entityPositions;
+  private final float[] entityRotations;
+
+  private CompiledPrefab(byte[] contentHash, boolean sanitized, boolean sliceable, @Nullable PrefabBounds bounds,
+      String[] palette, int[] blocks, int[] fluids, int[] entityModels, double[] entityPositions,
+      float[] entityRotations) {
+    this.contentHash = contentHash;
+    this.sanitized = sanitized;
+    this.sliceable = sliceable;
+    this.bounds = bounds;
+    this.palette = palette;
+    this.blocks = blocks;
+    this.fluids = fluids;
+    this.entityModels = entityModels;
+    this.entityPositions = entityPositions;
+    this.entityRotations = entityRotations;
+  }
+
+  /**
+   * SHA-256 of a prefab's source bytes.
+   */
+  @Nonnull
+  public static byte[] contentHash(@Nonnull byte[] source) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(source);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * Artifact file name for a content hash.
+   */
+  @Nonnull
+  public static String fileName(@Nonnull byte[] contentHash) {
+    return HexFormat.of().formatHex(contentHash) + EXTENSION;
+  }
+
+  @Nonnull
+  public byte[] getContentHash() {
+    return contentHash.clone();
+  }
+
+  public boolean hasContentHash(@Nonnull byte[] hash) {
+    return Arrays.equals(contentHash, hash);
+  }
+
+  /**
+   * Whether the server should read a sanitized copy of the JSON instead of
+   * the original (entities were extracted or item stacks fixed).
+   */
+  public boolean isSanitized() {
+    return sanitized;
+  }
+
+  /**
+   * Whether the blocks stored here describe the prefab completely (no block
+   * components, kept entities or anchor offset), so it can be rebuilt from
+   * them piece by piece.
+   */
+  public boolean isSliceable() {
+    return sliceable;
+  }
+
+  /**
+   * Bounds of every block in the source, named or not; null when it has none.
+   */
+  @Nullable
+  public PrefabBounds getBounds() {
+    return bounds;
+  }
+
+  /**
+   * Rough heap footprint, used to budget caches of compiled prefabs.
+   */
+  public long estimatedBytes() {
+    long bytes = 128L + (blocks.length + fluids.length + entityModels.length) * 4L
+        + entityPositions.length * 8L + entityRotations.length * 4L;
+    for (String name : palette) {
+      bytes += 48L + name.length() * 2L;
+    }
+    return bytes;
+  }
+
+  public int getBlockCount() {
+    return blocks.length / BLOCK_STRIDE;
+  }
+
+  public int getBlockX(int block) {
+    return blocks[block * BLOCK_STRIDE];
+  }
+
+  public int getBlockY(int block) {
+    return blocks[block * BLOCK_STRIDE + 1];
+  }
+
+  public int getBlockZ(int block) {
+    return blocks[block * BLOCK_STRIDE + 2];
+  }
+
+  @Nonnull
+  public String getBlockName(int block) {
+    return palette[blocks[block * BLOCK_STRIDE + 3]];
+  }
+
+  public int getBlockRotation(int block) {
+    return blocks[block * BLOCK_STRIDE + 4];
+  }
+
+  public int getBlockFiller(int block) {
+    return blocks[block * BLOCK_STRIDE + 5];
+  }
+
+  public int getFluidCount() {
+    return fluids.length / FLUID_STRIDE;
+  }
+
+  public int getFluidX(int fluid) {
+    return fluids[fluid * FLUID_STRIDE];
+  }
+
+  public int getFluidY(int fluid) {
+    return fluids[fluid * FLUID_STRIDE + 1];
+  }
+
+  public int getFluidZ(int fluid) {
+    return fluids[fluid * FLUID_STRIDE + 2];
+  }
+
+  @Nonnull
+  public String getFluidName(int fluid) {
+    return palette[fluids[fluid * FLUID_STRIDE + 3]];
+  }
+
+  public int getFluidLevel(int fluid) {
+    return fluids[fluid * FLUID_STRIDE + 4];
+  }
+
+  public int getEntityCount() {
+    return entityModels.length;
+  }
+
+  @Nonnull
+  public String getEntityModel(int entity) {
+    return palette[entityModels[entity]];
+  }
+
+  /**
+   * Entity position component: 0 = x, 1 = y, 2 = z.
+   */
+  public double getEntityPosition(int entity, int axis) {
+    return entityPositions[entity * 3 + axis];
+  }
+
+  /**
+   * Entity rotation component: 0 = pitch, 1 = yaw, 2 = roll.
+   */
+  public float getEntityRotation(int entity, int axis) {
+    return entityRotations[entity * 3 + axis];
+  }
+
+  /**
+   * Walkable cells of the unrotated prefab.
+   *
+   * @param classifier Classifies each palette entry once
+   */
+  @Nonnull
+  public WalkableSurface buildWalkableSurface(@Nonnull WalkableSurface.BlockClassifier classifier) {
+    WalkableSurface.BlockClass[] classes = new WalkableSurface.BlockClass[palette.length];
+    for (int i = 0; i < palette.length; i++) {
+      classes[i] = classifier.classify(palette[i]);
+    }
+    WalkableSurface.Builder builder = new WalkableSurface.Builder();
+    for (int i = 0; i < getBlockCount(); i++) {
+      builder.add(getBlockX(i), getBlockY(i), getBlockZ(i), classes[blocks[i * BLOCK_STRIDE + 3]]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Writes the artifact, replacing any existing file atomically.
+   */
+  public void write(@Nonnull Path path) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.write(contentHash);
+      out.writeBoolean(sanitized);
+      out.writeBoolean(sliceable);
+      out.writeBoolean(bounds != null);
+      if (bounds != null) {
+        out.writeInt(bounds.getMinX());
+        out.writeInt(bounds.getMaxX());
+        out.writeInt(bounds.getMinY());
+        out.writeInt(bounds.getMaxY());
+        out.writeInt(bounds.getMinZ());
+        out.writeInt(bounds.getMaxZ());
+      }
+      out.writeInt(palette.length);
+      for (String name : palette) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      writeInts(out, blocks);
+      writeInts(out, fluids);
+      writeInts(out, entityModels);
+      for (double value : entityPositions) {
+        out.writeDouble(value);
+      }
+      for (float value : entityRotations) {
+        out.writeFloat(value);
+      }
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Memory-maps and decodes an artifact.
+   *
+   * @return The artifact, or null when the file is missing, from another
+   *         format version or truncated
+   */
+  @Nullable
+  public static CompiledPrefab read(@Nonnull Path path) throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return decode(buffer);
+    }
+  }
+
+  @Nullable
+  static CompiledPrefab decode(@Nonnull ByteBuffer buffer) {
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        return null;
+      }
+      byte[] hash = new byte[HASH_BYTES];
+      buffer.get(hash);
+      boolean sanitized = buffer.get() != 0;
+      boolean sliceable = buffer.get() != 0;
+      PrefabBounds bounds = buffer.get() != 0
+          ? new PrefabBounds(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+              buffer.getInt())
+          : null;
+      String[] palette = new String[checkedLength(buffer, 4)];
+      for (int i = 0; i < palette.length; i++) {
+        byte[] bytes = new byte[checkedLength(buffer, 1)];
+        buffer.get(bytes);
+        palette[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+      int[] blocks = readInts(buffer);
+      int[] fluids = readInts(buffer);
+      int[] entityModels = readInts(buffer);
+      double[] entityPositions = new double[entityModels.length * 3];
+      for (int i = 0; i < entityPositions.length; i++) {
+        entityPositions[i] = buffer.getDouble();
+      }
+      float[] entityRotations = new float[entityModels.length * 3];
+      for (int i = 0; i < entityRotations.length; i++) {
+        entityRotations[i] = buffer.getFloat();
+      }
+      if (blocks.length % BLOCK_STRIDE != 0 || fluids.length % FLUID_STRIDE != 0
+          || !paletteIndexesValid(blocks, BLOCK_STRIDE, 3, palette.length)
+          || !paletteIndexesValid(fluids, FLUID_STRIDE, 3, palette.length)
+          || !paletteIndexesValid(entityModels, 1, 0, palette.length)) {
+        return null;
+      }
+      return new CompiledPrefab(hash, sanitized, sliceable, bounds, palette, blocks, fluids, entityModels,
+          entityPositions, entityRotations);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static void writeInts(@Nonnull DataOutputStream out, @Nonnull int[] values) throws IOException {
+    out.writeInt(values.length);
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  @Nonnull
+  private static int[] readInts(@Nonnull ByteBuffer buffer) {
+    int[] values = new int[checkedLength(buffer, 4)];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + values.length * 4);
+    return values;
+  }
+
+  private static int checkedLength(@Nonnull ByteBuffer buffer, int elementBytes) {
+    int length = buffer.getInt();
+    if (length < 0 || (long) length * elementBytes > buffer.remaining()) {
+      throw new IllegalArgumentException("Invalid length " + length);
+    }
+    return length;
+  }
+
+  private static boolean paletteIndexesValid(int[] values, int stride, int offset, int paletteSize) {
+    for (int i = offset; i < values.length; i += stride) {
+      if (values[i] < 0 || values[i] >= paletteSize) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collects the parts of one prefab.
+   */
+  public static final class Builder {
+    private final byte[] contentHash;
+    private final Map<String, Integer> paletteIndex = new HashMap<>();
+    private final List<String> palette = new ArrayList<>();
+    private int[] blocks = new int[256];
+    private int blockLength;
+    private int[] fluids = new int[0];
+    private int fluidLength;
+    private final List<Integer> entityModels = new ArrayList<>();
+    private final List<double[]> entityPositions = new ArrayList<>();
+    private final List<float[]> entityRotations = new ArrayList<>();
+    private boolean sanitized;
+    private boolean sliceable;
+    private @Nullable PrefabBounds bounds;
+
+    /**
+     * @param contentHash SHA-256 of the source JSON (see {@link #contentHash})
+     */
+    public Builder(@Nonnull byte[] contentHash) {
+      Objects.requireNonNull(contentHash, "contentHash");
+      if (contentHash.length != HASH_BYTES) {
+        throw new IllegalArgumentException("contentHash must be " + HASH_BYTES + " bytes");
+      }
+      this.contentHash = contentHash.clone();
+    }
+
+    @Nonnull
+    public Builder addBlock(int x, int y, int z, @Nonnull String name) {
+      return addBlock(x, y, z, name, 0, 0);
+    }
+
+    @Nonnull
+    public Builder addBlock(int x, int y, int z, @Nonnull String name, int rotation, int filler) {
+      if (blockLength + BLOCK_STRIDE > blocks.length) {
+        blocks = Arrays.copyOf(blocks, blocks.length * 2);
+      }
+      blocks[blockLength++] = x;
+      blocks[blockLength++] = y;
+      blocks[blockLength++] = z;
+      blocks[blockLength++] = intern(name);
+      blocks[blockLength++] = rotation;
+      blocks[blockLength++] = filler;
+      return this;
+    }
+
+    @Nonnull
+    public Builder addFluid(int x, int y, int z, @Nonnull String name, int level) {
+      if (fluidLength + FLUID_STRIDE > fluids.length) {
+        fluids = Arrays.copyOf(fluids, Math.max(FLUID_STRIDE * 16, fluids.length * 2));
+      }
+      fluids[fluidLength++] = x;
+      fluids[fluidLength++] = y;
+      fluids[fluidLength++] = z;
+      fluids[fluidLength++] = intern(name);
+      fluids[fluidLength++] = level;
+      return this;
+    }
+
+    @Nonnull
+    public Builder addEntity(@Nonnull String modelId, double x, double y, double z, float pitch, float yaw,
+        float roll) {
+      entityModels.add(intern(modelId));
+      entityPositions.add(new double[] { x, y, z });
+      entityRotations.add(new float[] { pitch, yaw, roll });
+      return this;
+    }
+
+    @Nonnull
+    public Builder sanitized(boolean sanitized) {
+      this.sanitized = sanitized;
+      return this;
+    }
+
+    @Nonnull
+    public Builder sliceable(boolean sliceable) {
+      this.sliceable = sliceable;
+      return this;
+    }
+
+    @Nonnull
+    public Builder bounds(@Nullable PrefabBounds bounds) {
+      this.bounds = bounds;
+      return this;
+    }
+
+    @Nonnull
+    public CompiledPrefab build() {
+      int entities = entityModels.size();
+      int[] models = new int[entities];
+      double[] positions = new double[entities * 3];
+      float[] rotations = new float[entities * 3];
+      for (int i = 0; i < entities; i++) {
+        models[i] = entityModels.get(i);
+        System.arraycopy(entityPositions.get(i), 0, positions, i * 3, 3);
+        System.arraycopy(entityRotations.get(i), 0, rotations, i * 3, 3);
+      }
+      return new CompiledPrefab(contentHash, sanitized, sliceable, bounds, palette.toArray(new String[0]),
+          Arrays.copyOf(blocks, blockLength), Arrays.copyOf(fluids, fluidLength), models, positions, rotations);
+    }
+
+    private int intern(@Nonnull String name) {
+      Objects.requireNonNull(name, "name");
+      Integer index = paletteIndex.get(name);
+      if (index == null) {
+        index = palette.size();
+        palette.add(name);
+        paletteIndex.put(name, index);
+      }
+      return index;
+    }
+  }
+}
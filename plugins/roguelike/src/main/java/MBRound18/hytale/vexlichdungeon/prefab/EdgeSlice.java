@@ -1,32 +1,46 @@
 package MBRound18.hytale.vexlichdungeon.prefab;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.BitSet;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+/**
+ * One face of a rotated prefab as a dense grid of block ids (see
+ * {@link BlockPalette}), indexed {@code v * width + u}.
+ *
+ * <p>
+ * Slices are filled by the edge analyzer and then shared read-only between
+ * index builds; the per-block position sets used for matching are built on
+ * first use.
+ * </p>
+ */
 final class EdgeSlice {
   private final int width;
   private final int height;
-  private final Map<Long, String> cells;
+  private final int[] cells;
+  private volatile BitSet[] positions;
 
   EdgeSlice(int width, int height) {
     this.width = Math.max(0, width);
     this.height = Math.max(0, height);
-    this.cells = new HashMap<>();
+    this.cells = new int[this.width * this.height];
   }
 
   void put(int u, int v, @Nonnull String name) {
     if (u < 0 || v < 0 || u >= width || v >= height) {
       return;
     }
-    cells.put(key(u, v), name);
+    cells[v * width + u] = BlockPalette.intern(name);
   }
 
-  @Nullable
-  String get(int u, int v) {
-    return cells.get(key(u, v));
+  /**
+   * @return The block id at a cell, or {@link BlockPalette#EMPTY}
+   */
+  int get(int u, int v) {
+    if (u < 0 || v < 0 || u >= width || v >= height) {
+      return BlockPalette.EMPTY;
+    }
+    return cells[v * width + u];
   }
 
   int getWidth() {
@@ -37,12 +51,40 @@ final class EdgeSlice {
     return height;
   }
 
-  @Nonnull
-  Map<Long, String> getCells() {
-    return Collections.unmodifiableMap(cells);
+  /**
+   * Cells holding a block id, as bits indexed {@code v * width + u}.
+   *
+   * @return The positions, or null when the slice has no such block
+   */
+  @Nullable
+  BitSet positionsOf(int blockId) {
+    BitSet[] byId = positions;
+    if (byId == null) {
+      byId = indexPositions();
+      positions = byId;
+    }
+    return blockId > 0 && blockId < byId.length ? byId[blockId] : null;
   }
 
-  private static long key(int u, int v) {
-    return (((long) v) << 32) | (u & 0xffffffffL);
+  @Nonnull
+  private BitSet[] indexPositions() {
+    int maxId = 0;
+    for (int id : cells) {
+      maxId = Math.max(maxId, id);
+    }
+    BitSet[] byId = new BitSet[maxId + 1];
+    for (int i = 0; i < cells.length; i++) {
+      int id = cells[i];
+      if (id == BlockPalette.EMPTY) {
+        continue;
+      }
+      BitSet bits = byId[id];
+      if (bits == null) {
+        bits = new BitSet(cells.length);
+        byId[id] = bits;
+      }
+      bits.set(i);
+    }
+    return byId;
   }
 }
@@ -0,0 +1,78 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.hytale.vexlichdungeon.events.NpcSpawnRequestedEvent;
+import MBRound18.hytale.vexlichdungeon.events.NpcSpawnResult;
+import com.hypixel.hytale.event.IEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * The entity events of one batch of placements: NPC spawn requests and the
+ * furniture events that go with them, dispatched together in order.
+ *
+ * <p>
+ * {@link #dispatch} completes once every spawn request has a result. A
+ * request whose dispatch failed is answered with a failed result, and
+ * requests still unanswered at the timeout are left incomplete, so the
+ * spawned events that follow a batch are never lost to one broken listener.
+ * </p>
+ */
+final class EntitySpawnBatch {
+
+  /**
+   * Dispatches a batch's events in order, reporting each event whose dispatch
+   * failed.
+   */
+  @FunctionalInterface
+  interface Dispatcher {
+    void dispatchAll(@Nonnull List<IEvent<Void>> events, @Nonnull Consumer<? super IEvent<Void>> failed);
+  }
+
+  private final List<IEvent<Void>> events = new ArrayList<>();
+  private final List<NpcSpawnRequestedEvent> requests = new ArrayList<>();
+
+  void add(@Nonnull IEvent<Void> event) {
+    events.add(Objects.requireNonNull(event, "event"));
+  }
+
+  void addRequest(@Nonnull NpcSpawnRequestedEvent request) {
+    events.add(Objects.requireNonNull(request, "request"));
+    requests.add(request);
+  }
+
+  boolean isEmpty() {
+    return events.isEmpty();
+  }
+
+  /**
+   * Dispatches the batch.
+   *
+   * @param timeout How long to wait for spawn results
+   * @return The batch's spawn requests, once each has a result or the timeout
+   *         passed
+   */
+  @Nonnull
+  CompletableFuture<List<NpcSpawnRequestedEvent>> dispatch(@Nonnull Dispatcher dispatcher, long timeout,
+      @Nonnull TimeUnit unit) {
+    List<NpcSpawnRequestedEvent> batchRequests = List.copyOf(requests);
+    if (!events.isEmpty()) {
+      dispatcher.dispatchAll(List.copyOf(events), event -> {
+        if (event instanceof NpcSpawnRequestedEvent request) {
+          request.getResult().complete(NpcSpawnResult.failure("Spawn request was not dispatched"));
+        }
+      });
+    }
+    CompletableFuture<?>[] results = new CompletableFuture<?>[batchRequests.size()];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = batchRequests.get(i).getResult();
+    }
+    return CompletableFuture.allOf(results)
+        .orTimeout(timeout, unit)
+        .handle((ignored, error) -> batchRequests);
+  }
+}
@@ -0,0 +1,265 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+/**
+ * Orders and throttles prefab placements per world under a per-tick block
+ * budget.
+ *
+ * <p>
+ * Each tick {@link #drain} runs queued placements nearest to a player first
+ * until the next one would exceed the tick's block budget; the first placement
+ * of a tick always runs, so a prefab larger than the budget still gets placed,
+ * on a tick of its own. With {@code hiddenLast}, placements farther than the
+ * visible radius from every player wait for a tick in which nothing visible
+ * was placed.
+ * </p>
+ *
+ * <p>
+ * A placement larger than the budget is submitted as several jobs (one per
+ * chunk section it covers) so a room is written over several ticks; jobs with
+ * the same center run in the order they were submitted.
+ * </p>
+ */
+public final class PlacementScheduler {
+
+  /** How long a claimed drain may stay pending before another may be claimed. */
+  static final long CLAIM_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  private final int blocksPerTick;
+  private final boolean hiddenLast;
+  private final double visibleRadiusSq;
+  private final Map<String, WorldQueue> queues = new ConcurrentHashMap<>();
+
+  /**
+   * @param blocksPerTick Block budget per world and tick (must be positive)
+   * @param hiddenLast    Whether placements out of every player's sight wait
+   *                      for a tick without visible work
+   * @param visibleRadius Horizontal distance within which a placement counts
+   *                      as visible
+   */
+  public PlacementScheduler(int blocksPerTick, boolean hiddenLast, double visibleRadius) {
+    if (blocksPerTick <= 0) {
+      throw new IllegalArgumentException("Blocks per tick must be positive: " + blocksPerTick);
+    }
+    this.blocksPerTick = blocksPerTick;
+    this.hiddenLast = hiddenLast;
+    this.visibleRadiusSq = visibleRadius * visibleRadius;
+  }
+
+  public int getBlocksPerTick() {
+    return blocksPerTick;
+  }
+
+  /**
+   * Queues a placement.
+   *
+   * @param worldName  World the placement belongs to
+   * @param x          World X of the placement's center
+   * @param z          World Z of the placement's center
+   * @param blockCount Blocks written by the placement
+   * @param placement  Writes the blocks; runs on the thread calling
+   *                   {@link #drain}
+   * @param done       Completed once the placement ran (exceptionally when it
+   *                   threw or was cancelled)
+   */
+  public void submit(@Nonnull String worldName, double x, double z, int blockCount, @Nonnull Runnable placement,
+      @Nonnull CompletableFuture<Void> done) {
+    Objects.requireNonNull(placement, "placement");
+    Objects.requireNonNull(done, "done");
+    WorldQueue queue = queues.computeIfAbsent(Objects.requireNonNull(worldName, "worldName"),
+        name -> new WorldQueue());
+    synchronized (queue) {
+      queue.jobs.add(new Job(x, z, Math.max(1, blockCount), queue.sequence++, placement, done));
+    }
+  }
+
+  public boolean hasPending(@Nonnull String worldName) {
+    return pendingCount(worldName) > 0;
+  }
+
+  public int pendingCount(@Nonnull String worldName) {
+    WorldQueue queue = queues.get(worldName);
+    if (queue == null) {
+      return 0;
+    }
+    synchronized (queue) {
+      return queue.jobs.size();
+    }
+  }
+
+  /**
+   * Claims the next drain of a world, so that only one drain is scheduled at
+   * a time. A claim whose drain has not run within
+   * {@link #CLAIM_TIMEOUT_NANOS} is taken over, so a drain the world dropped
+   * does not stall its queue.
+   *
+   * @return True when the caller should schedule {@link #drain}
+   */
+  public boolean markScheduled(@Nonnull String worldName) {
+    return markScheduled(worldName, System.nanoTime());
+  }
+
+  boolean markScheduled(@Nonnull String worldName, long nowNanos) {
+    WorldQueue queue = queues.get(worldName);
+    if (queue == null) {
+      return false;
+    }
+    long stamp = nowNanos == 0L ? 1L : nowNanos;
+    long claimed = queue.claimedAt.get();
+    if (claimed != 0L && nowNanos - claimed < CLAIM_TIMEOUT_NANOS) {
+      return false;
+    }
+    return queue.claimedAt.compareAndSet(claimed, stamp);
+  }
+
+  /**
+   * Releases a claim taken by {@link #markScheduled} whose drain could not be
+   * scheduled.
+   */
+  public void releaseScheduled(@Nonnull String worldName) {
+    WorldQueue queue = queues.get(worldName);
+    if (queue != null) {
+      queue.claimedAt.set(0L);
+    }
+  }
+
+  /**
+   * Runs this tick's placements for one world. Must be called on the world's
+   * thread; releases the claim taken by {@link #markScheduled}.
+   *
+   * @param playerXZ Player positions as {@code x0, z0, x1, z1, ...}
+   * @return Blocks placed this tick
+   */
+  public int drain(@Nonnull String worldName, @Nonnull double[] playerXZ) {
+    WorldQueue queue = queues.get(worldName);
+    if (queue == null) {
+      return 0;
+    }
+    int placed = 0;
+    boolean visiblePlaced = false;
+    try {
+      while (true) {
+        Job next;
+        boolean hidden;
+        synchronized (queue) {
+          int index = nearest(queue.jobs, playerXZ);
+          if (index < 0) {
+            break;
+          }
+          next = queue.jobs.get(index);
+          hidden = hiddenLast && playerXZ.length >= 2 && distanceSq(next, playerXZ) > visibleRadiusSq;
+          if (placed > 0 && next.blockCount > blocksPerTick - placed) {
+            break;
+          }
+          if (hidden && visiblePlaced) {
+            break;
+          }
+          queue.jobs.remove(index);
+        }
+        try {
+          next.placement.run();
+          next.done.complete(null);
+        } catch (RuntimeException e) {
+          next.done.completeExceptionally(e);
+        }
+        placed += next.blockCount;
+        visiblePlaced |= !hidden;
+      }
+    } finally {
+      queue.claimedAt.set(0L);
+    }
+    return placed;
+  }
+
+  /**
+   * Cancels every queued placement of a world.
+   */
+  public void cancel(@Nonnull String worldName) {
+    WorldQueue queue = queues.remove(worldName);
+    if (queue != null) {
+      cancelJobs(queue);
+    }
+  }
+
+  public void cancelAll() {
+    for (String worldName : new ArrayList<>(queues.keySet())) {
+      cancel(worldName);
+    }
+  }
+
+  private static void cancelJobs(@Nonnull WorldQueue queue) {
+    List<Job> jobs;
+    synchronized (queue) {
+      jobs = new ArrayList<>(queue.jobs);
+      queue.jobs.clear();
+    }
+    for (Job job : jobs) {
+      job.done.completeExceptionally(new CancellationException("Placement cancelled"));
+    }
+  }
+
+  private static int nearest(@Nonnull List<Job> jobs, @Nonnull double[] playerXZ) {
+    int best = -1;
+    double bestDistance = Double.MAX_VALUE;
+    long bestSequence = Long.MAX_VALUE;
+    for (int i = 0; i < jobs.size(); i++) {
+      Job job = jobs.get(i);
+      double distance = distanceSq(job, playerXZ);
+      if (distance < bestDistance || (distance == bestDistance && job.sequence < bestSequence)) {
+        best = i;
+        bestDistance = distance;
+        bestSequence = job.sequence;
+      }
+    }
+    return best;
+  }
+
+  private static double distanceSq(@Nonnull Job job, @Nonnull double[] playerXZ) {
+    if (playerXZ.length < 2) {
+      return 0.0;
+    }
+    double best = Double.MAX_VALUE;
+    for (int i = 0; i + 1 < playerXZ.length; i += 2) {
+      double dx = job.x - playerXZ[i];
+      double dz = job.z - playerXZ[i + 1];
+      best = Math.min(best, dx * dx + dz * dz);
+    }
+    return best;
+  }
+
+  private static final class WorldQueue {
+    private final List<Job> jobs = new ArrayList<>();
+    /** {@code System.nanoTime()} of the pending drain's claim, 0 when none. */
+    private final AtomicLong claimedAt = new AtomicLong();
+    private long sequence;
+  }
+
+  private static final class Job {
+    private final double x;
+    private final double z;
+    private final int blockCount;
+    private final long sequence;
+    private final Runnable placement;
+    private final CompletableFuture<Void> done;
+
+    private Job(double x, double z, int blockCount, long sequence, @Nonnull Runnable placement,
+        @Nonnull CompletableFuture<Void> done) {
+      this.x = x;
+      this.z = z;
+      this.blockCount = blockCount;
+      this.sequence = sequence;
+      this.placement = placement;
+      this.done = done;
+    }
+  }
+}
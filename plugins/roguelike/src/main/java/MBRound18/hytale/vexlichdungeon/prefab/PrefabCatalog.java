@@ -0,0 +1,481 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.ImmortalEngine.api.prefab.PrefabBounds;
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import MBRound18.hytale.shared.utilities.WeightedCache;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Owns everything the plugin derives from prefab files: the compiled prefab
+ * (see {@link CompiledPrefab}), its bounds and values computed from it such as
+ * entity tables, walkable surfaces and edge slices.
+ *
+ * <p>
+ * Entries are keyed by the SHA-256 of the source JSON. The catalog file maps
+ * each prefab path to its content hash, bounds and the size and modification
+ * time of the source it was hashed from, so after a restart a prefab whose file
+ * is unchanged needs only a {@code stat} and the memory-mapped artifact. A path
+ * is checked against its file once per session; {@link #revalidate} starts a
+ * new session after asset packs change, and only prefabs whose files differ are
+ * hashed and compiled again.
+ * </p>
+ *
+ * <p>
+ * Resident compiled prefabs are kept in a {@link WeightedCache} within a byte
+ * budget (see {@link CompiledPrefab#estimatedBytes}). Derived values live and
+ * die with their prefab's entry and are not weighed.
+ * </p>
+ */
+public final class PrefabCatalog {
+
+  public static final String FILE_NAME = "catalog.bin";
+  private static final int MAGIC = 0x56584354; // "VXCT"
+  private static final int VERSION = 1;
+  private static final int HASH_BYTES = 32;
+
+  /**
+   * Produces the compiled form of a prefab on a catalog miss.
+   */
+  public interface Compiler {
+    /**
+     * Compiles a prefab whose content is not in the catalog.
+     */
+    @Nonnull
+    CompiledPrefab compile(@Nonnull String prefabPath, @Nonnull byte[] source, @Nonnull byte[] contentHash)
+        throws IOException;
+
+    /**
+     * Whether a compiled prefab found in memory or on disk can still be used
+     * for {@code prefabPath}; returning false recompiles it.
+     */
+    default boolean accepts(@Nonnull String prefabPath, @Nonnull CompiledPrefab compiled) {
+      return true;
+    }
+  }
+
+  /**
+   * A value computed once from a compiled prefab and kept with its entry.
+   * Facets are compared by identity, so each should be a constant.
+   *
+   * @param <T> Value type
+   */
+  public static final class Facet<T> {
+    private final String name;
+    private final Function<CompiledPrefab, T> compute;
+
+    public Facet(@Nonnull String name, @Nonnull Function<CompiledPrefab, T> compute) {
+      this.name = Objects.requireNonNull(name, "name");
+      this.compute = Objects.requireNonNull(compute, "compute");
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private final LoggingHelper log;
+  private final @Nullable Path directory;
+  private final Map<String, Record> records = new ConcurrentHashMap<>();
+  private final Set<String> verified = ConcurrentHashMap.newKeySet();
+  private final WeightedCache<String, Resident> resident;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder compiles = new LongAdder();
+  private volatile boolean dirty;
+
+  /**
+   * @param directory   Directory holding the catalog file and compiled
+   *                    artifacts, or null to keep the catalog in memory only
+   * @param budgetBytes Memory budget for resident compiled prefabs
+   */
+  public PrefabCatalog(@Nonnull LoggingHelper log, @Nullable Path directory, long budgetBytes) {
+    this.log = Objects.requireNonNull(log, "log");
+    this.directory = directory;
+    this.resident = new WeightedCache<>("prefab-catalog", budgetBytes, (key, entry) -> entry.weight);
+    load();
+  }
+
+  /**
+   * Gets the compiled form of a prefab, compiling it when its source changed
+   * or was never seen.
+   *
+   * @param source Current source file of the prefab
+   */
+  @Nonnull
+  public CompiledPrefab get(@Nonnull String prefabPath, @Nonnull Path source, @Nonnull Compiler compiler)
+      throws IOException {
+    CompiledPrefab hit = peek(prefabPath);
+    if (hit != null) {
+      return hit;
+    }
+    Record record = records.get(prefabPath);
+    misses.increment();
+
+    long size = Files.size(source);
+    long modified = Files.getLastModifiedTime(source).toMillis();
+    if (record != null && record.size == size && record.modified == modified) {
+      CompiledPrefab known = find(prefabPath, record.hash, compiler);
+      if (known != null) {
+        verified.add(prefabPath);
+        return known;
+      }
+    }
+
+    byte[] bytes = Files.readAllBytes(source);
+    byte[] contentHash = CompiledPrefab.contentHash(bytes);
+    CompiledPrefab compiled = find(prefabPath, contentHash, compiler);
+    if (compiled == null) {
+      compiled = admit(compiler.compile(prefabPath, bytes, contentHash));
+      storeArtifact(prefabPath, compiled);
+      compiles.increment();
+    }
+    records.put(prefabPath, new Record(contentHash, size, modified, compiled.getBounds()));
+    verified.add(prefabPath);
+    dirty = true;
+    return compiled;
+  }
+
+  /**
+   * Gets the content hash of a prefab's current source. A prefab whose file
+   * still has the size and modification time of its record costs one
+   * {@code stat}; anything else is compiled (or found) as by {@link #get}.
+   */
+  @Nonnull
+  public byte[] contentHash(@Nonnull String prefabPath, @Nonnull Path source, @Nonnull Compiler compiler)
+      throws IOException {
+    Record record = records.get(prefabPath);
+    if (record != null && (verified.contains(prefabPath)
+        || (record.size == Files.size(source) && record.modified == Files.getLastModifiedTime(source).toMillis()))) {
+      return record.hash.clone();
+    }
+    return get(prefabPath, source, compiler).getContentHash();
+  }
+
+  /**
+   * Gets a resident compiled prefab already checked this session, without
+   * touching its file.
+   */
+  @Nullable
+  public CompiledPrefab peek(@Nonnull String prefabPath) {
+    Record record = records.get(prefabPath);
+    if (record == null || !verified.contains(prefabPath)) {
+      return null;
+    }
+    CompiledPrefab compiled = resident(record.hashKey);
+    if (compiled != null) {
+      hits.increment();
+    }
+    return compiled;
+  }
+
+  /**
+   * Bounds of a prefab already checked this session, without touching its
+   * file.
+   *
+   * @return The bounds, or null when unknown, unchecked or blockless
+   */
+  @Nullable
+  public PrefabBounds getBounds(@Nonnull String prefabPath) {
+    Record record = records.get(prefabPath);
+    return record != null && verified.contains(prefabPath) ? record.bounds : null;
+  }
+
+  /**
+   * Size of a prefab's source file when it was last compiled, without
+   * touching the file.
+   *
+   * @return The size in bytes, or -1 when the prefab was never compiled
+   */
+  public long getSourceSize(@Nonnull String prefabPath) {
+    Record record = records.get(prefabPath);
+    return record != null ? record.size : -1L;
+  }
+
+  /**
+   * Gets a derived value of a compiled prefab, computing it once per resident
+   * entry. Prefabs that are not resident get a fresh, uncached value.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T derive(@Nonnull CompiledPrefab compiled, @Nonnull Facet<T> facet) {
+    Resident entry = resident.getIfPresent(HexFormat.of().formatHex(compiled.getContentHash()));
+    if (entry == null || entry.compiled != compiled) {
+      return facet.compute.apply(compiled);
+    }
+    return (T) entry.facets.computeIfAbsent(facet, key -> facet.compute.apply(compiled));
+  }
+
+  /**
+   * Drops a prefab's path mapping, so its file is hashed again on next use.
+   */
+  public void invalidate(@Nonnull String prefabPath) {
+    verified.remove(prefabPath);
+    if (records.remove(prefabPath) != null) {
+      dirty = true;
+    }
+  }
+
+  /**
+   * Starts a new session: every path is checked against its file again on
+   * next use, and unchanged prefabs keep their entries.
+   */
+  public void revalidate() {
+    verified.clear();
+  }
+
+  /**
+   * Checks one prefab against its file again on next use.
+   */
+  public void revalidate(@Nonnull String prefabPath) {
+    verified.remove(prefabPath);
+  }
+
+  /**
+   * Drops resident prefabs and their derived values; the path mappings stay.
+   */
+  public void clearResident() {
+    resident.clear();
+  }
+
+  /**
+   * Writes the catalog file when it changed.
+   */
+  public void save() {
+    Path dir = directory;
+    if (dir == null || !dirty) {
+      return;
+    }
+    dirty = false;
+    Path file = dir.resolve(FILE_NAME);
+    Path temp = dir.resolve(FILE_NAME + ".tmp");
+    try {
+      Files.createDirectories(dir);
+      Map<String, Record> snapshot = Map.copyOf(records);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, Record> entry : snapshot.entrySet()) {
+          Record record = entry.getValue();
+          out.writeUTF(entry.getKey());
+          out.writeLong(record.size);
+          out.writeLong(record.modified);
+          out.write(record.hash);
+          PrefabBounds bounds = record.bounds;
+          out.writeBoolean(bounds != null);
+          if (bounds != null) {
+            out.writeInt(bounds.getMinX());
+            out.writeInt(bounds.getMaxX());
+            out.writeInt(bounds.getMinY());
+            out.writeInt(bounds.getMaxY());
+            out.writeInt(bounds.getMinZ());
+            out.writeInt(bounds.getMaxZ());
+          }
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.fine("[CATALOG] Saved %d prefab entries", snapshot.size());
+    } catch (IOException e) {
+      dirty = true;
+      log.warn("[CATALOG] Failed to save prefab catalog: %s", e.getMessage());
+    }
+  }
+
+  public int getPrefabCount() {
+    return records.size();
+  }
+
+  public int getResidentCount() {
+    return resident.size();
+  }
+
+  public long getWeightBytes() {
+    return resident.getWeightBytes();
+  }
+
+  public long getBudgetBytes() {
+    return resident.getBudgetBytes();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getCompiles() {
+    return compiles.sum();
+  }
+
+  public long getEvictions() {
+    return resident.getEvictions();
+  }
+
+  /**
+   * The cache of resident compiled prefabs, for metrics.
+   */
+  @Nonnull
+  public WeightedCache<?, ?> getResidentCache() {
+    return resident;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "PrefabCatalog[prefabs=%d, resident=%d, weight=%d/%d bytes, hits=%d, misses=%d, compiles=%d, evictions=%d]",
+        records.size(), resident.size(), resident.getWeightBytes(), resident.getBudgetBytes(), hits.sum(),
+        misses.sum(), compiles.sum(), resident.getEvictions());
+  }
+
+  /**
+   * Returns the resident or on-disk compiled prefab for a content hash when
+   * the compiler still accepts it for this path.
+   */
+  @Nullable
+  private CompiledPrefab find(@Nonnull String prefabPath, @Nonnull byte[] contentHash,
+      @Nonnull Compiler compiler) {
+    CompiledPrefab compiled = resident(HexFormat.of().formatHex(contentHash));
+    if (compiled == null) {
+      compiled = readArtifact(prefabPath, contentHash);
+    }
+    if (compiled == null || !compiler.accepts(prefabPath, compiled)) {
+      return null;
+    }
+    return admit(compiled);
+  }
+
+  @Nullable
+  private CompiledPrefab resident(@Nonnull String hashKey) {
+    Resident entry = resident.getIfPresent(hashKey);
+    return entry == null ? null : entry.compiled;
+  }
+
+  /**
+   * Makes a compiled prefab resident unless an entry for its content already
+   * is, then evicts least recently used entries until the budget holds.
+   *
+   * @return The resident prefab (possibly the earlier one), or
+   *         {@code compiled} when it is too heavy to keep
+   */
+  @Nonnull
+  private CompiledPrefab admit(@Nonnull CompiledPrefab compiled) {
+    String key = HexFormat.of().formatHex(compiled.getContentHash());
+    return resident.putIfAbsent(key, new Resident(compiled, compiled.estimatedBytes())).compiled;
+  }
+
+  @Nullable
+  private CompiledPrefab readArtifact(@Nonnull String prefabPath, @Nonnull byte[] contentHash) {
+    Path dir = directory;
+    if (dir == null) {
+      return null;
+    }
+    Path artifact = dir.resolve(CompiledPrefab.fileName(contentHash));
+    try {
+      CompiledPrefab compiled = CompiledPrefab.read(artifact);
+      if (compiled == null) {
+        if (Files.exists(artifact)) {
+          log.warn("[COMPILED] Ignoring unreadable compiled prefab %s for %s", artifact.getFileName(), prefabPath);
+        }
+        return null;
+      }
+      return compiled.hasContentHash(contentHash) ? compiled : null;
+    } catch (IOException e) {
+      log.warn("[COMPILED] Failed to read compiled prefab for %s: %s", prefabPath, e.getMessage());
+      return null;
+    }
+  }
+
+  private void storeArtifact(@Nonnull String prefabPath, @Nonnull CompiledPrefab compiled) {
+    Path dir = directory;
+    if (dir == null) {
+      return;
+    }
+    try {
+      compiled.write(dir.resolve(CompiledPrefab.fileName(compiled.getContentHash())));
+    } catch (IOException e) {
+      log.warn("[COMPILED] Failed to write compiled prefab for %s: %s", prefabPath, e.getMessage());
+    }
+  }
+
+  private void load() {
+    Path dir = directory;
+    if (dir == null) {
+      return;
+    }
+    Path file = dir.resolve(FILE_NAME);
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        log.info("[CATALOG] Ignoring prefab catalog from another format version");
+        return;
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String path = in.readUTF();
+        long size = in.readLong();
+        long modified = in.readLong();
+        byte[] hash = new byte[HASH_BYTES];
+        in.readFully(hash);
+        PrefabBounds bounds = in.readBoolean()
+            ? new PrefabBounds(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt())
+            : null;
+        records.put(path, new Record(hash, size, modified, bounds));
+      }
+      log.info("[CATALOG] Loaded %d prefab entries", records.size());
+    } catch (EOFException e) {
+      records.clear();
+      log.warn("[CATALOG] Ignoring truncated prefab catalog %s", file.getFileName());
+    } catch (IOException e) {
+      records.clear();
+      log.warn("[CATALOG] Failed to read prefab catalog: %s", e.getMessage());
+    }
+  }
+
+  private static final class Record {
+    private final byte[] hash;
+    private final String hashKey;
+    private final long size;
+    private final long modified;
+    private final @Nullable PrefabBounds bounds;
+
+    private Record(@Nonnull byte[] hash, long size, long modified, @Nullable PrefabBounds bounds) {
+      this.hash = hash;
+      this.hashKey = HexFormat.of().formatHex(hash);
+      this.size = size;
+      this.modified = modified;
+      this.bounds = bounds;
+    }
+  }
+
+  private static final class Resident {
+    private final CompiledPrefab compiled;
+    private final long weight;
+    private final Map<Facet<?>, Object> facets = new ConcurrentHashMap<>();
+
+    private Resident(@Nonnull CompiledPrefab compiled, long weight) {
+      this.compiled = compiled;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Watches prefab roots on the default file system recursively and reports the
+ * paths that changed under each root in debounced batches, so an editor save
+ * that touches several files arrives as one batch.
+ *
+ * <p>
+ * A lost event ({@code OVERFLOW}) reports the root itself, which callers treat
+ * as "reconcile everything". Roots inside asset pack archives cannot be
+ * watched; {@link #watch} returns false for them.
+ * </p>
+ */
+final class PrefabDirectoryWatcher implements AutoCloseable {
+  static final long DEBOUNCE_MS = 250L;
+
+  private final LoggingHelper log;
+  private final Consumer<Map<Path, Set<Path>>> onChanges;
+  private final Map<WatchKey, Path[]> keys = new ConcurrentHashMap<>();
+  private final Set<Path> roots = ConcurrentHashMap.newKeySet();
+  private @Nullable WatchService service;
+  private @Nullable Thread thread;
+
+  /**
+   * @param onChanges Receives each batch as changed paths keyed by root; runs
+   *                  on the watcher thread
+   */
+  PrefabDirectoryWatcher(@Nonnull LoggingHelper log, @Nonnull Consumer<Map<Path, Set<Path>>> onChanges) {
+    this.log = Objects.requireNonNull(log, "log");
+    this.onChanges = Objects.requireNonNull(onChanges, "onChanges");
+  }
+
+  boolean isWatching(@Nonnull Path root) {
+    return roots.contains(root);
+  }
+
+  /**
+   * Starts watching a root and every directory below it.
+   *
+   * @return Whether the root is watched
+   */
+  synchronized boolean watch(@Nonnull Path root) {
+    if (roots.contains(root)) {
+      return true;
+    }
+    if (root.getFileSystem() != FileSystems.getDefault() || !Files.isDirectory(root)) {
+      return false;
+    }
+    try {
+      WatchService watchService = start();
+      registerTree(watchService, root, root);
+      roots.add(root);
+      log.fine("[PREFABS] Watching %s", root);
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      unwatch(root);
+      log.warn("[PREFABS] Cannot watch %s: %s", root, e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Stops watching a root.
+   */
+  synchronized void unwatch(@Nonnull Path root) {
+    roots.remove(root);
+    Iterator<Map.Entry<WatchKey, Path[]>> it = keys.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<WatchKey, Path[]> entry = it.next();
+      if (entry.getValue()[0].equals(root)) {
+        entry.getKey().cancel();
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Stops watching every root not in {@code keep}.
+   */
+  synchronized void retain(@Nonnull Collection<Path> keep) {
+    for (Path root : List.copyOf(roots)) {
+      if (!keep.contains(root)) {
+        unwatch(root);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    roots.clear();
+    keys.clear();
+    WatchService watchService = service;
+    service = null;
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.warn("[PREFABS] Failed to close prefab watcher: %s", e.getMessage());
+      }
+    }
+    Thread watcher = thread;
+    thread = null;
+    if (watcher != null) {
+      watcher.interrupt();
+    }
+  }
+
+  @Nonnull
+  private WatchService start() throws IOException {
+    WatchService watchService = service;
+    if (watchService != null) {
+      return watchService;
+    }
+    watchService = FileSystems.getDefault().newWatchService();
+    service = watchService;
+    WatchService polled = watchService;
+    Thread watcher = new Thread(() -> run(polled), "vex-prefab-watch");
+    watcher.setDaemon(true);
+    thread = watcher;
+    watcher.start();
+    return watchService;
+  }
+
+  private void registerTree(@Nonnull WatchService watchService, @Nonnull Path root, @Nonnull Path directory)
+      throws IOException {
+    try (Stream<Path> dirs = Files.walk(directory)) {
+      Iterator<Path> it = dirs.filter(Files::isDirectory).iterator();
+      while (it.hasNext()) {
+        Path dir = it.next();
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        keys.put(key, new Path[] { root, dir });
+      }
+    }
+  }
+
+  private void run(@Nonnull WatchService watchService) {
+    Map<Path, Set<Path>> batch = new LinkedHashMap<>();
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key = batch.isEmpty() ? watchService.take() : watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        if (key == null) {
+          deliver(batch);
+          batch = new LinkedHashMap<>();
+          continue;
+        }
+        collect(watchService, key, batch);
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void collect(@Nonnull WatchService watchService, @Nonnull WatchKey key,
+      @Nonnull Map<Path, Set<Path>> batch) {
+    Path[] location = keys.get(key);
+    if (location == null) {
+      key.cancel();
+      return;
+    }
+    Path root = location[0];
+    Path dir = location[1];
+    Set<Path> changed = batch.computeIfAbsent(root, ignored -> new LinkedHashSet<>());
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        changed.add(root);
+        continue;
+      }
+      Path child = dir.resolve((Path) event.context());
+      changed.add(child);
+      if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+        try {
+          registerTree(watchService, root, child);
+        } catch (IOException | ClosedWatchServiceException e) {
+          log.warn("[PREFABS] Failed to watch new directory %s: %s", child, e.getMessage());
+        }
+      }
+    }
+    if (!key.reset()) {
+      keys.remove(key);
+    }
+  }
+
+  private void deliver(@Nonnull Map<Path, Set<Path>> batch) {
+    try {
+      onChanges.accept(batch);
+    } catch (RuntimeException e) {
+      log.error("[PREFABS] Failed to apply prefab changes: %s", e.getMessage());
+    }
+  }
+}
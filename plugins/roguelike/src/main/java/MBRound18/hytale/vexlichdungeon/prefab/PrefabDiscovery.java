@@ -4,27 +4,41 @@ import MBRound18.hytale.shared.utilities.LoggingHelper;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.nio.file.Path;
-import java.nio.file.Files;
 import java.util.*;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import com.hypixel.hytale.server.core.prefab.PrefabStore;
 
 /**
  * Dynamically discovers and categorizes prefabs from the server asset store.
  * Uses PrefabStore paths instead of ZIP inspection.
+ *
+ * <p>
+ * Discovered files are kept in a persisted {@link PrefabDiscoveryIndex}, so
+ * startup publishes the last known prefabs without walking any directory.
+ * {@link #refresh()} reconciles only roots that are not already watched;
+ * watched roots are kept current by a {@link PrefabDirectoryWatcher}, and
+ * every change reaches {@link PrefabDiscoveryListener}s as add and remove
+ * events.
+ * </p>
  */
-public class PrefabDiscovery {
+public class PrefabDiscovery implements PrefabPool, AutoCloseable {
 
   private final @Nonnull LoggingHelper log;
   private final List<String> prefabPrefixAllowList;
-  private final List<String> rooms = new ArrayList<>();
-  private final List<String> hallways = new ArrayList<>();
-  private final List<String> gates = new ArrayList<>();
-  private final List<String> stitches = new ArrayList<>();
-  private final List<String> dungeonPrefabs = new ArrayList<>();
-  private final List<String> eventPrefabs = new ArrayList<>();
+  private volatile List<String> rooms = List.of();
+  private volatile List<String> hallways = List.of();
+  private volatile List<String> gates = List.of();
+  private volatile List<String> stitches = List.of();
+  private volatile List<String> dungeonPrefabs = List.of();
+  private volatile List<String> eventPrefabs = List.of();
   private final @Nullable Path unpackedRoot;
+  private final @Nullable Path indexDirectory;
+  private final PrefabDiscoveryIndex index;
+  private final PrefabDirectoryWatcher watcher;
+  private final List<PrefabDiscoveryListener> listeners = new CopyOnWriteArrayList<>();
+  private Map<String, PrefabDiscoveryIndex.Entry> published = Map.of();
 
   /**
    * Creates a new prefab discovery system that loads from the server asset store.
@@ -41,25 +55,56 @@ public class PrefabDiscovery {
 
   public PrefabDiscovery(@Nonnull LoggingHelper log, @Nullable Path unpackedRoot,
       @Nonnull List<String> prefabPrefixAllowList) {
+    this(log, unpackedRoot, prefabPrefixAllowList, null);
+  }
+
+  /**
+   * @param indexDirectory Directory holding the discovery index, or null to
+   *                       scan every root at startup
+   */
+  public PrefabDiscovery(@Nonnull LoggingHelper log, @Nullable Path unpackedRoot,
+      @Nonnull List<String> prefabPrefixAllowList, @Nullable Path indexDirectory) {
     this.log = Objects.requireNonNull(log, "log");
     this.unpackedRoot = unpackedRoot;
+    this.indexDirectory = indexDirectory;
     this.prefabPrefixAllowList = new ArrayList<>(
         Objects.requireNonNull(prefabPrefixAllowList, "prefabPrefixAllowList"));
-    discoverPrefabs();
+    this.index = new PrefabDiscoveryIndex(this.log, this::isAllowedPrefab);
+    this.watcher = new PrefabDirectoryWatcher(this.log, this::applyChanges);
+    Changes changes;
+    synchronized (this) {
+      if (!index.load(indexDirectory)) {
+        discoverPrefabs();
+      }
+      changes = publish();
+    }
+    notifyListeners(changes);
+  }
+
+  public void addListener(@Nonnull PrefabDiscoveryListener listener) {
+    listeners.add(Objects.requireNonNull(listener, "listener"));
   }
 
-  public synchronized void refresh() {
-    rooms.clear();
-    hallways.clear();
-    gates.clear();
-    stitches.clear();
-    dungeonPrefabs.clear();
-    eventPrefabs.clear();
+  public void removeListener(@Nonnull PrefabDiscoveryListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Re-resolves the prefab roots and reconciles those that are new or cannot
+   * be watched. Watched roots are already current.
+   */
+  public void refresh() {
     log.fine("[PREFABS] Refresh requested. unpackedRoot=%s", unpackedRoot);
-    discoverPrefabs();
+    Changes changes;
+    synchronized (this) {
+      discoverPrefabs();
+      changes = publish();
+    }
+    notifyListeners(changes);
     log.info(
-        "[PREFABS] Discovered: %d rooms, %d hallways, %d events, %d gates, %d stitches",
-        rooms.size(), hallways.size(), eventPrefabs.size(), gates.size(), stitches.size());
+        "[PREFABS] Discovered: %d rooms, %d hallways, %d events, %d gates, %d stitches (%d added, %d removed)",
+        rooms.size(), hallways.size(), eventPrefabs.size(), gates.size(), stitches.size(),
+        changes.added.size(), changes.removed.size());
     if (!rooms.isEmpty()) {
       log.fine("[PREFABS] Rooms: %s", rooms);
     }
@@ -72,90 +117,56 @@ public class PrefabDiscovery {
   }
 
   /**
-   * Scans the server asset store and discovers all available prefabs.
+   * Stops watching prefab roots and writes the discovery index.
    */
-  private void discoverPrefabs() {
-    try {
-      Set<String> seen = new HashSet<>();
-      List<Path> roots = resolvePrefabRoots();
-      log.fine("[PREFABS] Resolved prefab roots: %s", roots);
-      for (Path root : roots) {
-        if (root == null || !Files.exists(root)) {
-          continue;
-        }
-        Files.walk(root)
-            .filter(path -> path != null && Files.isRegularFile(path))
-            .filter(path -> path.toString().endsWith(".prefab.json"))
-            .forEach(path -> {
-              String rel = root.relativize(path).toString().replace('\\', '/');
-              String entryName = "Server/Prefabs/" + rel;
-              if (!entryName.startsWith("Server/Prefabs/")) {
-                return;
-              }
-
-              if (entryName.startsWith("Server/Prefabs/Gates/")) {
-                String prefabPath = Objects.requireNonNull(toPrefabPath(entryName), "prefabPath");
-                registerPrefab(prefabPath, PrefabCategory.GATE, PrefabSource.ASSET, seen);
-                return;
-              }
-
-              if (entryName.startsWith("Server/Prefabs/Stitch/")) {
-                String prefabPath = Objects.requireNonNull(toPrefabPath(entryName), "prefabPath");
-                registerPrefab(prefabPath, PrefabCategory.STITCH, PrefabSource.ASSET, seen);
-                return;
-              }
-
-              if (entryName.startsWith("Server/Prefabs/Dungeon/")) {
-                String prefabPath = Objects.requireNonNull(toPrefabPath(entryName), "prefabPath");
-                if (entryName.contains("/Hallways/")) {
-                  registerPrefab(prefabPath, PrefabCategory.HALLWAY, PrefabSource.ASSET, seen);
-                } else if (entryName.contains("/Rooms/")) {
-                  registerPrefab(prefabPath, PrefabCategory.ROOM, PrefabSource.ASSET, seen);
-                } else {
-                  registerPrefab(prefabPath, PrefabCategory.DUNGEON, PrefabSource.ASSET, seen);
-                }
-                return;
-              }
-
-              if (entryName.startsWith("Server/Prefabs/Event/")) {
-                String prefabPath = Objects.requireNonNull(toPrefabPath(entryName), "prefabPath");
-                registerPrefab(prefabPath, PrefabCategory.EVENT, PrefabSource.ASSET, seen);
-              }
-            });
-      }
-
-      discoverUnpackedPrefabs(seen);
-
-      log.fine(
-          "Discovered %d dungeon prefabs (%d hallways, %d rooms), %d event prefabs, %d gates, %d stitches from asset store",
-          dungeonPrefabs.size(), hallways.size(), rooms.size(), eventPrefabs.size(), gates.size(), stitches.size());
+  @Override
+  public void close() {
+    watcher.close();
+    synchronized (this) {
+      index.save(indexDirectory);
+    }
+  }
 
-      if (dungeonPrefabs.isEmpty()) {
-        log.fine("No dungeon prefabs found under Server/Prefabs/Dungeon/");
-      }
-      if (eventPrefabs.isEmpty()) {
-        log.fine("No event prefabs found under Server/Prefabs/Event/");
-      }
-      if (gates.isEmpty()) {
-        log.fine("No gate prefabs found under Server/Prefabs/Gates/");
+  /**
+   * Brings the index up to date with the current prefab roots. Roots are
+   * watched before they are scanned so no change falls between the two.
+   */
+  private void discoverPrefabs() {
+    Map<Path, PrefabSource> roots = resolvePrefabRoots();
+    log.fine("[PREFABS] Resolved prefab roots: %s", roots.keySet());
+    watcher.retain(roots.keySet());
+    Set<Path> known = new HashSet<>();
+    for (Path root : roots.keySet()) {
+      if (index.hasRoot(root)) {
+        known.add(root);
       }
-      if (stitches.isEmpty()) {
-        log.fine("No stitch prefabs found under Server/Prefabs/Stitch/");
+    }
+    index.setRoots(roots);
+    int scanned = 0;
+    for (Path root : roots.keySet()) {
+      if (known.contains(root) && watcher.isWatching(root)) {
+        continue;
       }
-
-    } catch (Exception e) {
-      log.error("Failed to discover prefabs from asset store: %s", e.getMessage());
+      watcher.watch(root);
+      index.update(root, root);
+      scanned++;
     }
+    log.fine("[PREFABS] Reconciled %d of %d prefab roots (%d prefabs indexed)", scanned, roots.size(),
+        index.size());
   }
 
+  /**
+   * Resolves the prefab roots in precedence order: the base asset prefabs,
+   * each asset pack, then the unpacked assets.
+   */
   @Nonnull
-  private List<Path> resolvePrefabRoots() {
-    List<Path> roots = new ArrayList<>();
+  private Map<Path, PrefabSource> resolvePrefabRoots() {
+    Map<Path, PrefabSource> roots = new LinkedHashMap<>();
     try {
       PrefabStore store = PrefabStore.get();
       Path baseRoot = store.getAssetPrefabsPath();
       if (baseRoot != null) {
-        roots.add(baseRoot);
+        roots.putIfAbsent(baseRoot, PrefabSource.ASSET);
       }
       for (PrefabStore.AssetPackPrefabPath packPath : store.getAllAssetPrefabPaths()) {
         if (packPath == null) {
@@ -163,89 +174,134 @@ public class PrefabDiscovery {
         }
         Path prefabsPath = packPath.prefabsPath();
         if (prefabsPath != null) {
-          roots.add(prefabsPath);
+          roots.putIfAbsent(prefabsPath, PrefabSource.ASSET);
         }
       }
     } catch (Exception e) {
       log.warn("Failed to resolve prefab roots from PrefabStore: %s", e.getMessage());
     }
-    LinkedHashSet<Path> unique = new LinkedHashSet<>();
-    for (Path root : roots) {
-      if (root != null) {
-        unique.add(root);
-      }
+    if (unpackedRoot != null) {
+      roots.putIfAbsent(unpackedRoot.resolve("Server").resolve("Prefabs"), PrefabSource.UNPACKED);
     }
-    return new ArrayList<>(unique);
+    return roots;
   }
 
-  private void discoverUnpackedPrefabs(@Nonnull Set<String> seen) {
-    if (unpackedRoot == null) {
-      return;
-    }
-    try {
-      Path prefabRoot = unpackedRoot.resolve("Server").resolve("Prefabs");
-      if (!Files.exists(prefabRoot)) {
+  /**
+   * Applies a batch of file changes reported by the watcher.
+   */
+  private void applyChanges(@Nonnull Map<Path, Set<Path>> batch) {
+    Changes changes;
+    synchronized (this) {
+      boolean changed = false;
+      for (Map.Entry<Path, Set<Path>> root : batch.entrySet()) {
+        for (Path path : root.getValue()) {
+          changed |= index.update(root.getKey(), path);
+        }
+      }
+      if (!changed) {
+        index.save(indexDirectory);
         return;
       }
-      Files.walk(prefabRoot)
-          .filter(path -> path != null && Files.isRegularFile(path))
-          .filter(path -> path.toString().endsWith(".prefab.json"))
-          .forEach(path -> {
-            String rel = prefabRoot.relativize(path).toString().replace('\\', '/');
-            String entryName = "Server/Prefabs/" + rel;
-            String prefabPath = Objects.requireNonNull(toPrefabPath(entryName), "prefabPath");
-            if (entryName.startsWith("Server/Prefabs/Gates/")) {
-              registerPrefab(prefabPath, PrefabCategory.GATE, PrefabSource.UNPACKED, seen);
-              return;
-            }
-            if (entryName.startsWith("Server/Prefabs/Stitch/")) {
-              registerPrefab(prefabPath, PrefabCategory.STITCH, PrefabSource.UNPACKED, seen);
-              return;
-            }
-            if (entryName.startsWith("Server/Prefabs/Dungeon/")) {
-              if (entryName.contains("/Hallways/")) {
-                registerPrefab(prefabPath, PrefabCategory.HALLWAY, PrefabSource.UNPACKED, seen);
-              } else if (entryName.contains("/Rooms/")) {
-                registerPrefab(prefabPath, PrefabCategory.ROOM, PrefabSource.UNPACKED, seen);
-              } else {
-                registerPrefab(prefabPath, PrefabCategory.DUNGEON, PrefabSource.UNPACKED, seen);
-              }
-              return;
-            }
-            if (entryName.startsWith("Server/Prefabs/Event/")) {
-              registerPrefab(prefabPath, PrefabCategory.EVENT, PrefabSource.UNPACKED, seen);
-            }
-          });
-    } catch (Exception e) {
-      log.warn("Failed to scan unpacked prefabs: %s", e.getMessage());
+      changes = publish();
     }
+    log.info("[PREFABS] Applied prefab file changes (%d added, %d removed)", changes.added.size(),
+        changes.removed.size());
+    notifyListeners(changes);
   }
 
-  private void registerPrefab(@Nonnull String prefabPath, @Nonnull PrefabCategory category,
-      @Nonnull PrefabSource source, @Nonnull Set<String> seen) {
-    if (!seen.add(prefabPath)) {
-      return;
+  /**
+   * Rebuilds the category lists from the index and works out what changed
+   * since the last publish.
+   */
+  @Nonnull
+  private Changes publish() {
+    Map<String, PrefabDiscoveryIndex.Entry> visible = index.visible();
+    Changes changes = new Changes();
+    for (PrefabDiscoveryIndex.Entry previous : published.values()) {
+      PrefabDiscoveryIndex.Entry current = visible.get(previous.getPrefabPath());
+      if (current == null || !current.sameContent(previous)) {
+        changes.removed.add(previous.toDiscovered());
+      }
     }
-    if (!isAllowedPrefab(prefabPath)) {
-      return;
+    for (PrefabDiscoveryIndex.Entry current : visible.values()) {
+      PrefabDiscoveryIndex.Entry previous = published.get(current.getPrefabPath());
+      if (previous == null || !previous.sameContent(current)) {
+        changes.added.add(current.toDiscovered());
+      }
     }
-    switch (category) {
-      case GATE -> gates.add(prefabPath);
-      case STITCH -> stitches.add(prefabPath);
-      case HALLWAY -> {
-        hallways.add(prefabPath);
-        dungeonPrefabs.add(prefabPath);
+    published = visible;
+
+    List<String> nextRooms = new ArrayList<>();
+    List<String> nextHallways = new ArrayList<>();
+    List<String> nextGates = new ArrayList<>();
+    List<String> nextStitches = new ArrayList<>();
+    List<String> nextDungeon = new ArrayList<>();
+    List<String> nextEvents = new ArrayList<>();
+    for (PrefabDiscoveryIndex.Entry entry : visible.values()) {
+      String prefabPath = entry.getPrefabPath();
+      switch (entry.getCategory()) {
+        case GATE -> nextGates.add(prefabPath);
+        case STITCH -> nextStitches.add(prefabPath);
+        case HALLWAY -> {
+          nextHallways.add(prefabPath);
+          nextDungeon.add(prefabPath);
+        }
+        case ROOM -> {
+          nextRooms.add(prefabPath);
+          nextDungeon.add(prefabPath);
+        }
+        case EVENT -> nextEvents.add(prefabPath);
+        case DUNGEON, UNKNOWN -> nextDungeon.add(prefabPath);
       }
-      case ROOM -> {
-        rooms.add(prefabPath);
-        dungeonPrefabs.add(prefabPath);
+    }
+    rooms = List.copyOf(nextRooms);
+    hallways = List.copyOf(nextHallways);
+    gates = List.copyOf(nextGates);
+    stitches = List.copyOf(nextStitches);
+    dungeonPrefabs = List.copyOf(nextDungeon);
+    eventPrefabs = List.copyOf(nextEvents);
+    index.save(indexDirectory);
+
+    log.fine(
+        "Discovered %d dungeon prefabs (%d hallways, %d rooms), %d event prefabs, %d gates, %d stitches from asset store",
+        dungeonPrefabs.size(), hallways.size(), rooms.size(), eventPrefabs.size(), gates.size(), stitches.size());
+
+    if (dungeonPrefabs.isEmpty()) {
+      log.fine("No dungeon prefabs found under Server/Prefabs/Dungeon/");
+    }
+    if (eventPrefabs.isEmpty()) {
+      log.fine("No event prefabs found under Server/Prefabs/Event/");
+    }
+    if (gates.isEmpty()) {
+      log.fine("No gate prefabs found under Server/Prefabs/Gates/");
+    }
+    if (stitches.isEmpty()) {
+      log.fine("No stitch prefabs found under Server/Prefabs/Stitch/");
+    }
+    return changes;
+  }
+
+  private void notifyListeners(@Nonnull Changes changes) {
+    for (PrefabDiscovered removed : changes.removed) {
+      for (PrefabDiscoveryListener listener : listeners) {
+        try {
+          listener.onPrefabRemoved(removed);
+        } catch (RuntimeException e) {
+          log.warn("[PREFABS] Listener failed on removal of %s: %s", removed.getPrefabPath(), e.getMessage());
+        }
       }
-      case EVENT -> eventPrefabs.add(prefabPath);
-      case DUNGEON, UNKNOWN -> dungeonPrefabs.add(prefabPath);
     }
-    PrefabDiscovered discovered = new PrefabDiscovered(prefabPath, category, source);
-    for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-      hook.onPrefabDiscovered(discovered);
+    for (PrefabDiscovered added : changes.added) {
+      for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
+        hook.onPrefabDiscovered(added);
+      }
+      for (PrefabDiscoveryListener listener : listeners) {
+        try {
+          listener.onPrefabAdded(added);
+        } catch (RuntimeException e) {
+          log.warn("[PREFABS] Listener failed on addition of %s: %s", added.getPrefabPath(), e.getMessage());
+        }
+      }
     }
   }
 
@@ -274,6 +330,7 @@ public class PrefabDiscovery {
    * 
    * @return Random room prefab path, or null if none available
    */
+  @Override
   public String getRandomRoom() {
     List<String> source = rooms.isEmpty() ? dungeonPrefabs : rooms;
     if (source.isEmpty()) {
@@ -288,6 +345,7 @@ public class PrefabDiscovery {
    * 
    * @return Random hallway prefab path, or null if none available
    */
+  @Override
   public String getRandomHallway() {
     List<String> source = hallways.isEmpty() ? dungeonPrefabs : hallways;
     if (source.isEmpty()) {
@@ -302,6 +360,7 @@ public class PrefabDiscovery {
    * 
    * @return Random gate prefab path, or null if none available
    */
+  @Override
   public String getRandomGate() {
     if (gates.isEmpty()) {
       log.warn("No gates available!");
@@ -321,6 +380,7 @@ public class PrefabDiscovery {
    * 
    * @return Blocked gate prefab path, or null if not found
    */
+  @Override
   public String getBlockedGate() {
     return gates.stream()
         .filter(g -> g.contains("Blocked"))
@@ -331,6 +391,7 @@ public class PrefabDiscovery {
   /**
    * Gets all available rooms.
    */
+  @Override
   public List<String> getAllRooms() {
     return new ArrayList<>(rooms);
   }
@@ -338,6 +399,7 @@ public class PrefabDiscovery {
   /**
    * Gets all available hallways.
    */
+  @Override
   public List<String> getAllHallways() {
     return new ArrayList<>(hallways);
   }
@@ -359,6 +421,7 @@ public class PrefabDiscovery {
   /**
    * Gets all available dungeon prefabs (recursive under Server/Prefabs/Dungeon).
    */
+  @Override
   public List<String> getAllDungeonPrefabs() {
     return new ArrayList<>(dungeonPrefabs);
   }
@@ -366,6 +429,7 @@ public class PrefabDiscovery {
   /**
    * Gets all available event prefabs (recursive under Server/Prefabs/Event).
    */
+  @Override
   public List<String> getAllEventPrefabs() {
     return new ArrayList<>(eventPrefabs);
   }
@@ -388,14 +452,6 @@ public class PrefabDiscovery {
         .collect(Collectors.toList());
   }
 
-  private String toPrefabPath(String entryName) {
-    String trimmed = entryName.substring("Server/Prefabs/".length());
-    if (trimmed.endsWith(".prefab.json")) {
-      trimmed = trimmed.substring(0, trimmed.length() - ".prefab.json".length());
-    }
-    return trimmed;
-  }
-
   /**
    * Closes the ZIP file when done.
    */
@@ -403,4 +459,9 @@ public class PrefabDiscovery {
   public Path getUnpackedRoot() {
     return unpackedRoot;
   }
+
+  private static final class Changes {
+    private final List<PrefabDiscovered> added = new ArrayList<>();
+    private final List<PrefabDiscovered> removed = new ArrayList<>();
+  }
 }
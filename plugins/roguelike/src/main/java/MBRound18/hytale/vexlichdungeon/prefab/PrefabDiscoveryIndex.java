@@ -0,0 +1,415 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Every prefab file found under the discovery roots, with its category and the
+ * size, modification time and content hash it had when last seen.
+ *
+ * <p>
+ * The index is persisted so discovery can publish its lists at startup without
+ * walking any directory. Reconciling a directory only stats its files; a file
+ * is read and hashed again only when its size or modification time changed.
+ * When the same prefab path exists under several roots, the root registered
+ * first wins. Not thread-safe; {@link PrefabDiscovery} serializes access.
+ * </p>
+ */
+final class PrefabDiscoveryIndex {
+
+  static final String FILE_NAME = "discovery.bin";
+  private static final int MAGIC = 0x56584453; // "VXDS"
+  private static final int VERSION = 1;
+  private static final int HASH_BYTES = 32;
+  private static final String PREFAB_SUFFIX = ".prefab.json";
+
+  /**
+   * One prefab file under a root.
+   */
+  static final class Entry {
+    private final String prefabPath;
+    private final PrefabCategory category;
+    private final PrefabSource source;
+    private final long size;
+    private final long modified;
+    private final byte[] hash;
+
+    private Entry(@Nonnull String prefabPath, @Nonnull PrefabCategory category, @Nonnull PrefabSource source,
+        long size, long modified, @Nonnull byte[] hash) {
+      this.prefabPath = prefabPath;
+      this.category = category;
+      this.source = source;
+      this.size = size;
+      this.modified = modified;
+      this.hash = hash;
+    }
+
+    @Nonnull
+    String getPrefabPath() {
+      return prefabPath;
+    }
+
+    @Nonnull
+    PrefabCategory getCategory() {
+      return category;
+    }
+
+    @Nonnull
+    PrefabSource getSource() {
+      return source;
+    }
+
+    long getSize() {
+      return size;
+    }
+
+    long getModified() {
+      return modified;
+    }
+
+    @Nonnull
+    byte[] getHash() {
+      return hash.clone();
+    }
+
+    /**
+     * Whether two entries describe the same prefab content.
+     */
+    boolean sameContent(@Nonnull Entry other) {
+      return category == other.category && Arrays.equals(hash, other.hash);
+    }
+
+    @Nonnull
+    PrefabDiscovered toDiscovered() {
+      return new PrefabDiscovered(prefabPath, category, source);
+    }
+  }
+
+  private static final class Root {
+    private final PrefabSource source;
+    /** Entries keyed by the file path relative to the root, '/'-separated. */
+    private final Map<String, Entry> files = new TreeMap<>();
+
+    private Root(@Nonnull PrefabSource source) {
+      this.source = source;
+    }
+  }
+
+  private final LoggingHelper log;
+  private final Predicate<String> allowed;
+  private Map<String, Root> roots = new LinkedHashMap<>();
+  private boolean dirty;
+
+  /**
+   * @param allowed Whether a prefab path is indexed at all
+   */
+  PrefabDiscoveryIndex(@Nonnull LoggingHelper log, @Nonnull Predicate<String> allowed) {
+    this.log = Objects.requireNonNull(log, "log");
+    this.allowed = Objects.requireNonNull(allowed, "allowed");
+  }
+
+  /**
+   * Sets the roots in precedence order, dropping the entries of roots that are
+   * gone. New roots start empty until reconciled.
+   */
+  void setRoots(@Nonnull Map<Path, PrefabSource> ordered) {
+    Map<String, Root> next = new LinkedHashMap<>();
+    for (Map.Entry<Path, PrefabSource> root : ordered.entrySet()) {
+      String key = key(root.getKey());
+      Root existing = roots.get(key);
+      next.put(key, existing != null && existing.source == root.getValue() ? existing : new Root(root.getValue()));
+    }
+    if (!next.keySet().equals(roots.keySet())) {
+      dirty = true;
+    }
+    roots = next;
+  }
+
+  boolean hasRoot(@Nonnull Path root) {
+    return roots.containsKey(key(root));
+  }
+
+  /**
+   * Brings the entries for {@code path} under {@code root} up to date: a file
+   * is added or re-hashed, a directory is reconciled recursively and a missing
+   * path drops its entries.
+   *
+   * @return Whether any entry changed
+   */
+  boolean update(@Nonnull Path root, @Nonnull Path path) {
+    Root indexed = roots.get(key(root));
+    if (indexed == null) {
+      return false;
+    }
+    String relative = relative(root, path);
+    if (relative == null) {
+      return false;
+    }
+    if (Files.isDirectory(path)) {
+      return reconcileDirectory(indexed, root, path, relative);
+    }
+    if (Files.isRegularFile(path)) {
+      return updateFile(indexed, path, relative);
+    }
+    return removeUnder(indexed, relative);
+  }
+
+  /**
+   * The prefab paths visible across all roots, sorted by path.
+   */
+  @Nonnull
+  Map<String, Entry> visible() {
+    Map<String, Entry> visible = new TreeMap<>();
+    for (Root root : roots.values()) {
+      for (Entry entry : root.files.values()) {
+        visible.putIfAbsent(entry.prefabPath, entry);
+      }
+    }
+    return visible;
+  }
+
+  int size() {
+    int size = 0;
+    for (Root root : roots.values()) {
+      size += root.files.size();
+    }
+    return size;
+  }
+
+  private boolean reconcileDirectory(@Nonnull Root indexed, @Nonnull Path root, @Nonnull Path directory,
+      @Nonnull String relative) {
+    boolean changed = false;
+    Set<String> seen = new HashSet<>();
+    try (Stream<Path> files = Files.walk(directory)) {
+      Iterator<Path> it = files.iterator();
+      while (it.hasNext()) {
+        Path file = it.next();
+        if (!file.toString().endsWith(PREFAB_SUFFIX) || !Files.isRegularFile(file)) {
+          continue;
+        }
+        String fileRelative = relative(root, file);
+        if (fileRelative == null) {
+          continue;
+        }
+        seen.add(fileRelative);
+        if (updateFile(indexed, file, fileRelative)) {
+          changed = true;
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("[PREFABS] Failed to scan %s: %s", directory, e.getMessage());
+      return changed;
+    }
+    String prefix = relative.isEmpty() ? "" : relative + "/";
+    Iterator<String> known = indexed.files.keySet().iterator();
+    while (known.hasNext()) {
+      String file = known.next();
+      if (file.startsWith(prefix) && !seen.contains(file)) {
+        known.remove();
+        changed = true;
+      }
+    }
+    dirty |= changed;
+    return changed;
+  }
+
+  private boolean updateFile(@Nonnull Root indexed, @Nonnull Path file, @Nonnull String relative) {
+    String entryName = "Server/Prefabs/" + relative;
+    PrefabCategory category = categorize(entryName);
+    String prefabPath = toPrefabPath(relative);
+    if (category == null || prefabPath == null || !allowed.test(prefabPath)) {
+      return removeUnder(indexed, relative);
+    }
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      long size = attributes.size();
+      long modified = attributes.lastModifiedTime().toMillis();
+      Entry existing = indexed.files.get(relative);
+      if (existing != null && existing.size == size && existing.modified == modified
+          && existing.category == category) {
+        return false;
+      }
+      byte[] hash = CompiledPrefab.contentHash(Files.readAllBytes(file));
+      indexed.files.put(relative, new Entry(prefabPath, category, indexed.source, size, modified, hash));
+      dirty = true;
+      return existing == null || !Arrays.equals(existing.hash, hash) || existing.category != category;
+    } catch (IOException e) {
+      log.warn("[PREFABS] Failed to index %s: %s", file, e.getMessage());
+      return removeUnder(indexed, relative);
+    }
+  }
+
+  private boolean removeUnder(@Nonnull Root indexed, @Nonnull String relative) {
+    boolean changed = indexed.files.remove(relative) != null;
+    String prefix = relative.isEmpty() ? "" : relative + "/";
+    changed |= indexed.files.keySet().removeIf(file -> file.startsWith(prefix));
+    dirty |= changed;
+    return changed;
+  }
+
+  /**
+   * Gets the category of a prefab file from its location, or null when the
+   * file is not a dungeon prefab.
+   *
+   * @param entryName Path of the file starting at {@code Server/Prefabs/}
+   */
+  @Nullable
+  static PrefabCategory categorize(@Nonnull String entryName) {
+    if (!entryName.endsWith(PREFAB_SUFFIX)) {
+      return null;
+    }
+    if (entryName.startsWith("Server/Prefabs/Gates/")) {
+      return PrefabCategory.GATE;
+    }
+    if (entryName.startsWith("Server/Prefabs/Stitch/")) {
+      return PrefabCategory.STITCH;
+    }
+    if (entryName.startsWith("Server/Prefabs/Dungeon/")) {
+      if (entryName.contains("/Hallways/")) {
+        return PrefabCategory.HALLWAY;
+      }
+      if (entryName.contains("/Rooms/")) {
+        return PrefabCategory.ROOM;
+      }
+      return PrefabCategory.DUNGEON;
+    }
+    if (entryName.startsWith("Server/Prefabs/Event/")) {
+      return PrefabCategory.EVENT;
+    }
+    return null;
+  }
+
+  @Nullable
+  private static String toPrefabPath(@Nonnull String relative) {
+    if (!relative.endsWith(PREFAB_SUFFIX)) {
+      return null;
+    }
+    return relative.substring(0, relative.length() - PREFAB_SUFFIX.length());
+  }
+
+  @Nullable
+  private static String relative(@Nonnull Path root, @Nonnull Path path) {
+    if (!path.startsWith(root)) {
+      return null;
+    }
+    return root.relativize(path).toString().replace('\\', '/');
+  }
+
+  @Nonnull
+  private static String key(@Nonnull Path root) {
+    return root.toUri().toString();
+  }
+
+  /**
+   * Reads the index file, replacing the current entries.
+   *
+   * @return Whether an index was loaded
+   */
+  boolean load(@Nullable Path directory) {
+    if (directory == null) {
+      return false;
+    }
+    Path file = directory.resolve(FILE_NAME);
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    Map<String, Root> loaded = new LinkedHashMap<>();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        log.info("[PREFABS] Ignoring discovery index from another format version");
+        return false;
+      }
+      int rootCount = in.readInt();
+      for (int r = 0; r < rootCount; r++) {
+        String rootKey = in.readUTF();
+        Root root = new Root(PrefabSource.valueOf(in.readUTF()));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+          String relative = in.readUTF();
+          String prefabPath = in.readUTF();
+          PrefabCategory category = PrefabCategory.valueOf(in.readUTF());
+          long size = in.readLong();
+          long modified = in.readLong();
+          byte[] hash = new byte[HASH_BYTES];
+          in.readFully(hash);
+          if (allowed.test(prefabPath)) {
+            root.files.put(relative, new Entry(prefabPath, category, root.source, size, modified, hash));
+          }
+        }
+        loaded.put(rootKey, root);
+      }
+    } catch (EOFException e) {
+      log.warn("[PREFABS] Ignoring truncated discovery index %s", file.getFileName());
+      return false;
+    } catch (IOException | IllegalArgumentException e) {
+      log.warn("[PREFABS] Failed to read discovery index: %s", e.getMessage());
+      return false;
+    }
+    roots = loaded;
+    dirty = false;
+    log.info("[PREFABS] Loaded discovery index (%d prefabs in %d roots)", size(), roots.size());
+    return true;
+  }
+
+  /**
+   * Writes the index file when it changed.
+   */
+  void save(@Nullable Path directory) {
+    if (directory == null || !dirty) {
+      return;
+    }
+    dirty = false;
+    Path file = directory.resolve(FILE_NAME);
+    Path temp = directory.resolve(FILE_NAME + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(roots.size());
+        for (Map.Entry<String, Root> root : roots.entrySet()) {
+          out.writeUTF(root.getKey());
+          out.writeUTF(root.getValue().source.name());
+          List<Map.Entry<String, Entry>> files = List.copyOf(root.getValue().files.entrySet());
+          out.writeInt(files.size());
+          for (Map.Entry<String, Entry> indexed : files) {
+            Entry entry = indexed.getValue();
+            out.writeUTF(indexed.getKey());
+            out.writeUTF(entry.prefabPath);
+            out.writeUTF(entry.category.name());
+            out.writeLong(entry.size);
+            out.writeLong(entry.modified);
+            out.write(entry.hash);
+          }
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.fine("[PREFABS] Saved discovery index (%d prefabs)", size());
+    } catch (IOException e) {
+      dirty = true;
+      log.warn("[PREFABS] Failed to save discovery index: %s", e.getMessage());
+    }
+  }
+}
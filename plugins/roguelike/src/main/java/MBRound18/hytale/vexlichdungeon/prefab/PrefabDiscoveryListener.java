@@ -0,0 +1,21 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives incremental changes to the prefabs known to {@link PrefabDiscovery}.
+ *
+ * <p>
+ * A prefab whose content changed is reported as removed and then added again.
+ * Callbacks run on the thread that applied the change (a refresh or the
+ * directory watcher) after discovery's lists were updated, so listeners should
+ * hand heavy work off to their own executor.
+ * </p>
+ */
+public interface PrefabDiscoveryListener {
+  default void onPrefabAdded(@Nonnull PrefabDiscovered prefab) {
+  }
+
+  default void onPrefabRemoved(@Nonnull PrefabDiscovered prefab) {
+  }
+}
@@ -2,10 +2,6 @@ package MBRound18.hytale.vexlichdungeon.prefab;
 
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import MBRound18.hytale.vexlichdungeon.dungeon.CardinalDirection;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -19,11 +15,11 @@ import javax.annotation.Nullable;
 
 final class PrefabEdgeAnalyzer {
   private static final int[] ROTATIONS = new int[] { 0, 90, 180, 270 };
+  private static final PrefabCatalog.Facet<Map<Integer, Map<CardinalDirection, EdgeSlice>>> EDGES =
+      new PrefabCatalog.Facet<>("edges", PrefabEdgeAnalyzer::buildEdges);
 
   private final PrefabSpawner spawner;
   private final LoggingHelper log;
-  private final Map<String, List<Block>> blockCache = new ConcurrentHashMap<>();
-  private final Map<String, Map<Integer, Map<CardinalDirection, EdgeSlice>>> edgeCache = new ConcurrentHashMap<>();
   private final Map<String, StitchPattern> stitchCache = new ConcurrentHashMap<>();
 
   PrefabEdgeAnalyzer(@Nonnull PrefabSpawner spawner, @Nonnull LoggingHelper log) {
@@ -33,7 +29,12 @@ final class PrefabEdgeAnalyzer {
 
   @Nonnull
   Map<Integer, Map<CardinalDirection, EdgeSlice>> getEdges(@Nonnull String prefabPath) {
-    return edgeCache.computeIfAbsent(prefabPath, this::buildEdges);
+    CompiledPrefab compiled = spawner.getCompiledPrefab(prefabPath);
+    if (compiled == null) {
+      log.warn("Prefab JSON not found for %s", prefabPath);
+      return Collections.emptyMap();
+    }
+    return spawner.getCatalog().derive(compiled, EDGES);
   }
 
   @Nullable
@@ -42,8 +43,8 @@ final class PrefabEdgeAnalyzer {
   }
 
   @Nonnull
-  private Map<Integer, Map<CardinalDirection, EdgeSlice>> buildEdges(@Nonnull String prefabPath) {
-    List<Block> blocks = loadBlocks(prefabPath);
+  private static Map<Integer, Map<CardinalDirection, EdgeSlice>> buildEdges(@Nonnull CompiledPrefab compiled) {
+    List<Block> blocks = blocks(compiled);
     if (blocks.isEmpty()) {
       return Collections.emptyMap();
     }
@@ -57,7 +58,12 @@ final class PrefabEdgeAnalyzer {
 
   @Nullable
   private StitchPattern buildPattern(@Nonnull String stitchPrefab) {
-    List<Block> blocks = loadBlocks(stitchPrefab);
+    CompiledPrefab compiled = spawner.getCompiledPrefab(stitchPrefab);
+    if (compiled == null) {
+      log.warn("Prefab JSON not found for %s", stitchPrefab);
+      return null;
+    }
+    List<Block> blocks = blocks(compiled);
     if (blocks.isEmpty()) {
       return null;
     }
@@ -77,7 +83,7 @@ final class PrefabEdgeAnalyzer {
       log.warn("Stitch prefab %s has depth %d; using first slice for pattern matching",
           stitchPrefab, maxDepth - minDepth + 1);
     }
-    Map<Long, String> cells = new HashMap<>();
+    int[] cells = new int[width * height];
     for (Block block : blocks) {
       int depth = useX ? block.z : block.x;
       if (depth != minDepth) {
@@ -88,13 +94,13 @@ final class PrefabEdgeAnalyzer {
       if (u < 0 || v < 0 || u >= width || v >= height) {
         continue;
       }
-      cells.put(StitchPattern.key(u, v), block.name);
+      cells[v * width + u] = BlockPalette.intern(block.name);
     }
     return new StitchPattern(stitchPrefab, width, height, cells);
   }
 
   @Nonnull
-  private Map<CardinalDirection, EdgeSlice> buildEdgeSlices(@Nonnull RotatedBlocks rotated) {
+  private static Map<CardinalDirection, EdgeSlice> buildEdgeSlices(@Nonnull RotatedBlocks rotated) {
     Bounds bounds = rotated.bounds;
     Map<CardinalDirection, EdgeSlice> edges = new EnumMap<>(CardinalDirection.class);
 
@@ -135,47 +141,22 @@ final class PrefabEdgeAnalyzer {
   }
 
   @Nonnull
-  private List<Block> loadBlocks(@Nonnull String prefabPath) {
-    return blockCache.computeIfAbsent(prefabPath, this::parseBlocks);
-  }
-
-  @Nonnull
-  private List<Block> parseBlocks(@Nonnull String prefabPath) {
-    String json = spawner.getPrefabJson(prefabPath);
-    if (json == null || json.isBlank()) {
-      log.warn("Prefab JSON not found for %s", prefabPath);
+  private static List<Block> blocks(@Nonnull CompiledPrefab compiled) {
+    if (compiled.getBlockCount() == 0) {
       return List.of();
     }
-    try {
-      JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-      JsonArray blocks = root.getAsJsonArray("blocks");
-      if (blocks == null || blocks.isEmpty()) {
-        return List.of();
-      }
-      List<Block> out = new ArrayList<>(blocks.size());
-      for (JsonElement elem : blocks) {
-        if (!elem.isJsonObject()) {
-          continue;
-        }
-        JsonObject block = elem.getAsJsonObject();
-        if (!block.has("x") || !block.has("y") || !block.has("z")) {
-          continue;
-        }
-        String name = block.has("name") ? block.get("name").getAsString() : null;
-        if (name == null || name.isBlank()) {
-          continue;
-        }
-        out.add(new Block(block.get("x").getAsInt(), block.get("y").getAsInt(),
-            block.get("z").getAsInt(), name));
+    List<Block> out = new ArrayList<>(compiled.getBlockCount());
+    for (int i = 0; i < compiled.getBlockCount(); i++) {
+      String name = compiled.getBlockName(i);
+      if (name.isBlank()) {
+        continue;
       }
-      return out.isEmpty() ? List.of() : Collections.unmodifiableList(out);
-    } catch (Exception e) {
-      log.warn("Failed to parse prefab blocks for %s: %s", prefabPath, e.getMessage());
-      return List.of();
+      out.add(new Block(compiled.getBlockX(i), compiled.getBlockY(i), compiled.getBlockZ(i), name));
     }
+    return out.isEmpty() ? List.of() : Collections.unmodifiableList(out);
   }
 
-  private RotatedBlocks rotateBlocks(@Nonnull List<Block> blocks, int rotation) {
+  private static RotatedBlocks rotateBlocks(@Nonnull List<Block> blocks, int rotation) {
     List<Block> rotated = new ArrayList<>(blocks.size());
     for (Block block : blocks) {
       int[] rot = rotateXZ(block.x, block.z, rotation);
@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -25,11 +26,16 @@ public final class PrefabEdgeIndex {
 
   private final Map<String, Map<Integer, Map<CardinalDirection, Set<String>>>> stitchesByPrefab;
   private final Map<String, List<EdgeCandidate>> candidatesByStitch;
+  private final Map<String, byte[]> prefabHashes;
+  private final Map<String, byte[]> stitchHashes;
 
   PrefabEdgeIndex(@Nonnull Map<String, Map<Integer, Map<CardinalDirection, Set<String>>>> stitchesByPrefab,
-      @Nonnull Map<String, List<EdgeCandidate>> candidatesByStitch) {
+      @Nonnull Map<String, List<EdgeCandidate>> candidatesByStitch, @Nonnull Map<String, byte[]> prefabHashes,
+      @Nonnull Map<String, byte[]> stitchHashes) {
     this.stitchesByPrefab = Objects.requireNonNull(stitchesByPrefab, "stitchesByPrefab");
     this.candidatesByStitch = Objects.requireNonNull(candidatesByStitch, "candidatesByStitch");
+    this.prefabHashes = Objects.requireNonNull(prefabHashes, "prefabHashes");
+    this.stitchHashes = Objects.requireNonNull(stitchHashes, "stitchHashes");
   }
 
   @Nonnull
@@ -47,6 +53,23 @@ public final class PrefabEdgeIndex {
     return stitches == null ? Set.of() : stitches;
   }
 
+  /**
+   * Gets every prefab that exposes at least one stitch on some edge.
+   */
+  @Nonnull
+  public Set<String> getPrefabs() {
+    return stitchesByPrefab.keySet();
+  }
+
+  /**
+   * Gets the rotations that were analyzed for a prefab.
+   */
+  @Nonnull
+  public Set<Integer> getRotations(@Nonnull String prefabPath) {
+    Map<Integer, Map<CardinalDirection, Set<String>>> byRotation = stitchesByPrefab.get(prefabPath);
+    return byRotation == null ? Set.of() : byRotation.keySet();
+  }
+
   @Nonnull
   public List<EdgeCandidate> getCandidatesForStitch(@Nonnull String stitchId,
       @Nonnull CardinalDirection edge) {
@@ -81,6 +104,46 @@ public final class PrefabEdgeIndex {
     return candidatesByStitch;
   }
 
+  /**
+   * Content hash of a room or event prefab as it was when its edges were
+   * analyzed, for incremental rebuilds.
+   *
+   * @return The hash, or null when the prefab was not part of the build
+   */
+  @Nullable
+  public byte[] getPrefabHash(@Nonnull String prefabPath) {
+    byte[] hash = prefabHashes.get(prefabPath);
+    return hash == null ? null : hash.clone();
+  }
+
+  /**
+   * Content hash of a stitch prefab as it was when its pattern was matched.
+   *
+   * @return The hash, or null when the stitch was not part of the build
+   */
+  @Nullable
+  public byte[] getStitchHash(@Nonnull String stitchId) {
+    byte[] hash = stitchHashes.get(stitchId);
+    return hash == null ? null : hash.clone();
+  }
+
+  /**
+   * Gets every room or event prefab analyzed for this index, with or without
+   * matches.
+   */
+  @Nonnull
+  public Set<String> getAnalyzedPrefabs() {
+    return prefabHashes.keySet();
+  }
+
+  /**
+   * Gets every stitch pattern matched for this index.
+   */
+  @Nonnull
+  public Set<String> getAnalyzedStitches() {
+    return stitchHashes.keySet();
+  }
+
   @Nonnull
   public StitchIndex toStitchIndex() {
     Map<String, List<String>> mapping = new HashMap<>();
@@ -95,11 +158,33 @@ public final class PrefabEdgeIndex {
     return new StitchIndex(mapping);
   }
 
-  static final class Builder {
+  /**
+   * Accumulates edge matches; used by the index builder, storage and for
+   * in-memory indexes (tests, benchmarks).
+   */
+  public static final class Builder {
     private final Map<String, Map<Integer, Map<CardinalDirection, Set<String>>>> stitchesByPrefab = new HashMap<>();
     private final Map<String, List<EdgeCandidate>> candidatesByStitch = new HashMap<>();
+    private final Map<String, byte[]> prefabHashes = new LinkedHashMap<>();
+    private final Map<String, byte[]> stitchHashes = new LinkedHashMap<>();
+
+    /**
+     * Records the content hash a room or event prefab was analyzed at.
+     */
+    public void recordPrefab(@Nonnull String prefabPath, @Nonnull byte[] contentHash) {
+      prefabHashes.put(Objects.requireNonNull(prefabPath, "prefabPath"),
+          Objects.requireNonNull(contentHash, "contentHash").clone());
+    }
+
+    /**
+     * Records the content hash a stitch pattern was matched at.
+     */
+    public void recordStitch(@Nonnull String stitchId, @Nonnull byte[] contentHash) {
+      stitchHashes.put(Objects.requireNonNull(stitchId, "stitchId"),
+          Objects.requireNonNull(contentHash, "contentHash").clone());
+    }
 
-    void addMatches(@Nonnull String prefabPath, int rotation, @Nonnull CardinalDirection edge,
+    public void addMatches(@Nonnull String prefabPath, int rotation, @Nonnull CardinalDirection edge,
         @Nonnull Set<String> stitchIds) {
       if (stitchIds.isEmpty()) {
         return;
@@ -118,7 +203,8 @@ public final class PrefabEdgeIndex {
       }
     }
 
-    PrefabEdgeIndex build() {
+    @Nonnull
+    public PrefabEdgeIndex build() {
       Map<String, Map<Integer, Map<CardinalDirection, Set<String>>>> frozen = new HashMap<>();
       for (Map.Entry<String, Map<Integer, Map<CardinalDirection, Set<String>>>> entry : stitchesByPrefab.entrySet()) {
         Map<Integer, Map<CardinalDirection, Set<String>>> byRotation = new HashMap<>();
@@ -135,7 +221,9 @@ public final class PrefabEdgeIndex {
       for (Map.Entry<String, List<EdgeCandidate>> entry : candidatesByStitch.entrySet()) {
         frozenCandidates.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
       }
-      return new PrefabEdgeIndex(Collections.unmodifiableMap(frozen), Collections.unmodifiableMap(frozenCandidates));
+      return new PrefabEdgeIndex(Collections.unmodifiableMap(frozen), Collections.unmodifiableMap(frozenCandidates),
+          Collections.unmodifiableMap(new LinkedHashMap<>(prefabHashes)),
+          Collections.unmodifiableMap(new LinkedHashMap<>(stitchHashes)));
     }
   }
 }
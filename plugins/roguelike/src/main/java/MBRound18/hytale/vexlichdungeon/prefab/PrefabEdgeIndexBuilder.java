@@ -3,21 +3,42 @@ package MBRound18.hytale.vexlichdungeon.prefab;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import MBRound18.hytale.vexlichdungeon.dungeon.CardinalDirection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public final class PrefabEdgeIndexBuilder {
+  private static final int BUILD_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
   private PrefabEdgeIndexBuilder() {
   }
 
   @Nullable
   public static PrefabEdgeIndex build(@Nonnull PrefabDiscovery discovery, @Nonnull PrefabSpawner spawner,
       @Nonnull LoggingHelper log) {
+    return build(discovery, spawner, log, null);
+  }
+
+  /**
+   * Builds the edge stitch index, reusing the matches of {@code previous} for
+   * every room whose content hash is unchanged. Unchanged rooms are only
+   * matched against stitch patterns that were added or changed since; removed
+   * prefabs and stitches drop out.
+   *
+   * @param previous Index of an earlier build (e.g. loaded from
+   *                 {@code rooms.db}), or null to analyze every room
+   */
+  @Nullable
+  public static PrefabEdgeIndex build(@Nonnull PrefabDiscovery discovery, @Nonnull PrefabSpawner spawner,
+      @Nonnull LoggingHelper log, @Nullable PrefabEdgeIndex previous) {
     Objects.requireNonNull(discovery, "discovery");
     Objects.requireNonNull(spawner, "spawner");
     Objects.requireNonNull(log, "log");
@@ -32,12 +53,24 @@ public final class PrefabEdgeIndexBuilder {
     rooms.addAll(discovery.getAllDungeonPrefabs());
     rooms.addAll(discovery.getAllEventPrefabs());
 
+    PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
     PrefabEdgeAnalyzer analyzer = new PrefabEdgeAnalyzer(spawner, log);
     List<StitchPattern> patterns = new ArrayList<>();
+    List<StitchPattern> changedPatterns = new ArrayList<>();
+    Set<String> keptStitches = new HashSet<>();
     for (String stitch : stitches) {
-      StitchPattern pattern = analyzer.getStitchPattern(stitch);
-      if (pattern != null) {
-        patterns.add(pattern);
+      byte[] hash = spawner.getContentHash(stitch);
+      StitchPattern pattern = hash == null ? null : analyzer.getStitchPattern(stitch);
+      if (pattern == null) {
+        continue;
+      }
+      patterns.add(pattern);
+      builder.recordStitch(stitch, hash);
+      byte[] previousHash = previous == null ? null : previous.getStitchHash(stitch);
+      if (previousHash != null && Arrays.equals(previousHash, hash)) {
+        keptStitches.add(stitch);
+      } else {
+        changedPatterns.add(pattern);
       }
     }
     if (patterns.isEmpty()) {
@@ -45,83 +78,120 @@ public final class PrefabEdgeIndexBuilder {
       return null;
     }
 
-    PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
-
-    for (String room : rooms) {
-      if (room == null) {
-        continue;
-      }
-      Map<Integer, Map<CardinalDirection, EdgeSlice>> edges = analyzer.getEdges(room);
-      if (edges.isEmpty()) {
-        continue;
+    int analyzed = 0;
+    ForkJoinPool pool = new ForkJoinPool(BUILD_THREADS, forkJoinPool -> {
+      ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+      t.setName("vex-edge-index-" + t.getPoolIndex());
+      t.setDaemon(true);
+      return t;
+    }, null, false);
+    try {
+      List<ForkJoinTask<RoomMatches>> tasks = new ArrayList<>(rooms.size());
+      for (String room : rooms) {
+        if (room != null) {
+          tasks.add(pool.submit(() -> analyzeRoom(analyzer, spawner, room, patterns, changedPatterns,
+              keptStitches, previous)));
+        }
       }
-      for (Map.Entry<Integer, Map<CardinalDirection, EdgeSlice>> rotationEntry : edges.entrySet()) {
-        int rotation = rotationEntry.getKey();
-        Map<CardinalDirection, EdgeSlice> byEdge = rotationEntry.getValue();
-        for (Map.Entry<CardinalDirection, EdgeSlice> edgeEntry : byEdge.entrySet()) {
-          CardinalDirection edge = edgeEntry.getKey();
-          EdgeSlice slice = edgeEntry.getValue();
-          Set<String> matches = matchPatterns(slice, patterns);
-          if (!matches.isEmpty()) {
-            builder.addMatches(room, rotation, edge, matches);
-          }
+      // Joined in discovery order so the index is the same on every build.
+      for (ForkJoinTask<RoomMatches> task : tasks) {
+        RoomMatches result = task.join();
+        if (result == null) {
+          continue;
+        }
+        builder.recordPrefab(result.room(), result.contentHash());
+        for (EdgeMatches match : result.matches()) {
+          builder.addMatches(result.room(), match.rotation(), match.edge(), match.stitches());
+        }
+        if (result.analyzed()) {
+          analyzed++;
         }
       }
+    } finally {
+      pool.shutdownNow();
     }
 
-    log.info("Built edge stitch index: %d stitch patterns, %d room/event prefabs",
-        patterns.size(), rooms.size());
+    log.info("Built edge stitch index: %d stitch patterns (%d changed), %d room/event prefabs (%d analyzed)",
+        patterns.size(), changedPatterns.size(), rooms.size(), analyzed);
     return builder.build();
   }
 
-  @Nonnull
-  private static Set<String> matchPatterns(@Nonnull EdgeSlice slice, @Nonnull List<StitchPattern> patterns) {
-    Set<String> matches = new HashSet<>();
-    for (StitchPattern pattern : patterns) {
-      if (patternMatches(slice, pattern)) {
-        matches.add(pattern.getId());
+  /**
+   * Gets a room's stitch matches, reusing the previous build's matches when
+   * the room's content is unchanged.
+   *
+   * @return The matches, or null when the room is unavailable
+   */
+  @Nullable
+  private static RoomMatches analyzeRoom(@Nonnull PrefabEdgeAnalyzer analyzer, @Nonnull PrefabSpawner spawner,
+      @Nonnull String room, @Nonnull List<StitchPattern> patterns, @Nonnull List<StitchPattern> changedPatterns,
+      @Nonnull Set<String> keptStitches, @Nullable PrefabEdgeIndex previous) {
+    byte[] hash = spawner.getContentHash(room);
+    if (hash == null) {
+      return null;
+    }
+    byte[] previousHash = previous == null ? null : previous.getPrefabHash(room);
+    if (previous == null || previousHash == null || !Arrays.equals(previousHash, hash)) {
+      return new RoomMatches(room, hash, matchRoom(analyzer, room, patterns), true);
+    }
+    List<EdgeMatches> matches = new ArrayList<>();
+    for (int rotation : previous.getRotations(room)) {
+      for (CardinalDirection edge : CardinalDirection.values()) {
+        Set<String> kept = new HashSet<>(previous.getStitchesForEdge(room, rotation, edge));
+        kept.retainAll(keptStitches);
+        if (!kept.isEmpty()) {
+          matches.add(new EdgeMatches(rotation, edge, kept));
+        }
       }
     }
-    return matches;
+    if (changedPatterns.isEmpty()) {
+      return new RoomMatches(room, hash, matches, false);
+    }
+    matches.addAll(matchRoom(analyzer, room, changedPatterns));
+    return new RoomMatches(room, hash, matches, true);
   }
 
-  private static boolean patternMatches(@Nonnull EdgeSlice slice, @Nonnull StitchPattern pattern) {
-    int sliceWidth = slice.getWidth();
-    int sliceHeight = slice.getHeight();
-    int patternWidth = pattern.getWidth();
-    int patternHeight = pattern.getHeight();
-    if (patternWidth <= 0 || patternHeight <= 0) {
-      return false;
-    }
-    if (patternWidth > sliceWidth || patternHeight > sliceHeight) {
-      return false;
+  /**
+   * Matches every rotation and edge of one room against the stitch patterns.
+   */
+  @Nonnull
+  private static List<EdgeMatches> matchRoom(@Nonnull PrefabEdgeAnalyzer analyzer, @Nonnull String room,
+      @Nonnull List<StitchPattern> patterns) {
+    Map<Integer, Map<CardinalDirection, EdgeSlice>> edges = analyzer.getEdges(room);
+    if (edges.isEmpty()) {
+      return List.of();
     }
-    int maxU = sliceWidth - patternWidth;
-    int maxV = sliceHeight - patternHeight;
-    Map<Long, String> patternCells = pattern.getCells();
-
-    for (int uOffset = 0; uOffset <= maxU; uOffset++) {
-      for (int vOffset = 0; vOffset <= maxV; vOffset++) {
-        if (patternMatchesAt(slice, patternCells, uOffset, vOffset)) {
-          return true;
+    List<EdgeMatches> matches = new ArrayList<>();
+    for (Map.Entry<Integer, Map<CardinalDirection, EdgeSlice>> rotationEntry : edges.entrySet()) {
+      int rotation = rotationEntry.getKey();
+      for (Map.Entry<CardinalDirection, EdgeSlice> edgeEntry : rotationEntry.getValue().entrySet()) {
+        Set<String> stitches = matchPatterns(edgeEntry.getValue(), patterns);
+        if (!stitches.isEmpty()) {
+          matches.add(new EdgeMatches(rotation, edgeEntry.getKey(), stitches));
         }
       }
     }
-    return false;
+    return matches;
   }
 
-  private static boolean patternMatchesAt(@Nonnull EdgeSlice slice, @Nonnull Map<Long, String> patternCells,
-      int uOffset, int vOffset) {
-    for (Map.Entry<Long, String> entry : patternCells.entrySet()) {
-      long key = entry.getKey();
-      int u = (int) key;
-      int v = (int) (key >>> 32);
-      String expected = entry.getValue();
-      String actual = slice.get(u + uOffset, v + vOffset);
-      if (actual == null || !actual.equals(expected)) {
-        return false;
+  @Nonnull
+  private static Set<String> matchPatterns(@Nonnull EdgeSlice slice, @Nonnull List<StitchPattern> patterns) {
+    Set<String> matches = new HashSet<>();
+    for (StitchPattern pattern : patterns) {
+      if (pattern.matches(slice)) {
+        matches.add(pattern.getId());
       }
     }
-    return true;
+    return matches;
+  }
+
+  private record EdgeMatches(int rotation, @Nonnull CardinalDirection edge, @Nonnull Set<String> stitches) {
+  }
+
+  /**
+   * @param analyzed Whether any of the room's edges had to be matched
+   */
+  private record RoomMatches(@Nonnull String room, @Nonnull byte[] contentHash, @Nonnull List<EdgeMatches> matches,
+      boolean analyzed) {
   }
 }
@@ -9,14 +9,25 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+/**
+ * Persists the edge stitch index as {@code rooms.db}.
+ *
+ * <p>
+ * Every analyzed room and stitch prefab is stored with the content hash it
+ * had when it was analyzed, so the next build (see
+ * {@link PrefabEdgeIndexBuilder#build(PrefabDiscovery, PrefabSpawner, LoggingHelper, PrefabEdgeIndex)})
+ * only re-analyzes prefabs that were added or changed.
+ * </p>
+ */
 public final class PrefabEdgeIndexStorage {
-  private static final int VERSION = 1;
+  private static final int VERSION = 2;
   private static final String ROOMS_DB = "rooms.db";
 
   private PrefabEdgeIndexStorage() {
@@ -34,25 +45,34 @@ public final class PrefabEdgeIndexStorage {
         log.warn("rooms.db version mismatch (found %d, expected %d). Ignoring cache.", version, VERSION);
         return null;
       }
-      int stitchCount = in.readInt();
       PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
       CardinalDirection[] directions = CardinalDirection.values();
 
+      int stitchCount = in.readInt();
       for (int i = 0; i < stitchCount; i++) {
-        String stitchId = in.readUTF();
-        int candidateCount = in.readInt();
-        for (int j = 0; j < candidateCount; j++) {
-          String prefabPath = in.readUTF();
+        builder.recordStitch(in.readUTF(), readHash(in));
+      }
+      int prefabCount = in.readInt();
+      for (int i = 0; i < prefabCount; i++) {
+        String prefabPath = in.readUTF();
+        builder.recordPrefab(prefabPath, readHash(in));
+        int edgeCount = in.readInt();
+        for (int j = 0; j < edgeCount; j++) {
           int rotation = in.readInt();
           int edgeOrdinal = in.readUnsignedByte();
-          if (edgeOrdinal < 0 || edgeOrdinal >= directions.length) {
-            continue;
+          int matchCount = in.readInt();
+          Set<String> stitchIds = new HashSet<>();
+          for (int k = 0; k < matchCount; k++) {
+            stitchIds.add(in.readUTF());
+          }
+          if (edgeOrdinal < directions.length) {
+            builder.addMatches(prefabPath, rotation, directions[edgeOrdinal], stitchIds);
           }
-          CardinalDirection edge = directions[edgeOrdinal];
-          builder.addMatches(prefabPath, rotation, edge, Collections.singleton(stitchId));
         }
       }
-      return builder.build();
+      PrefabEdgeIndex index = builder.build();
+      log.fine("Loaded rooms.db (%d prefabs, %d stitch patterns)", prefabCount, stitchCount);
+      return index;
     } catch (Exception e) {
       log.warn("Failed to load rooms.db: %s", e.getMessage());
       return null;
@@ -68,23 +88,62 @@ public final class PrefabEdgeIndexStorage {
       return;
     }
     Path path = dataDirectory.resolve(ROOMS_DB);
-    Map<String, List<PrefabEdgeIndex.EdgeCandidate>> mapping = index.getCandidatesByStitch();
+    Path temp = dataDirectory.resolve(ROOMS_DB + ".tmp");
 
-    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
-      out.writeInt(VERSION);
-      out.writeInt(mapping.size());
-      for (Map.Entry<String, List<PrefabEdgeIndex.EdgeCandidate>> entry : mapping.entrySet()) {
-        out.writeUTF(entry.getKey());
-        List<PrefabEdgeIndex.EdgeCandidate> candidates = entry.getValue();
-        out.writeInt(candidates.size());
-        for (PrefabEdgeIndex.EdgeCandidate candidate : candidates) {
-          out.writeUTF(candidate.prefabPath());
-          out.writeInt(candidate.rotation());
-          out.writeByte(candidate.edge().ordinal());
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(VERSION);
+        Set<String> stitches = index.getAnalyzedStitches();
+        out.writeInt(stitches.size());
+        for (String stitchId : stitches) {
+          out.writeUTF(stitchId);
+          writeHash(out, Objects.requireNonNull(index.getStitchHash(stitchId), "stitchHash"));
+        }
+        Set<String> prefabs = index.getAnalyzedPrefabs();
+        out.writeInt(prefabs.size());
+        for (String prefabPath : prefabs) {
+          out.writeUTF(prefabPath);
+          writeHash(out, Objects.requireNonNull(index.getPrefabHash(prefabPath), "prefabHash"));
+          int edgeCount = 0;
+          for (int rotation : index.getRotations(prefabPath)) {
+            for (CardinalDirection edge : CardinalDirection.values()) {
+              if (!index.getStitchesForEdge(prefabPath, rotation, edge).isEmpty()) {
+                edgeCount++;
+              }
+            }
+          }
+          out.writeInt(edgeCount);
+          for (int rotation : index.getRotations(prefabPath)) {
+            for (CardinalDirection edge : CardinalDirection.values()) {
+              Set<String> stitchIds = index.getStitchesForEdge(prefabPath, rotation, edge);
+              if (stitchIds.isEmpty()) {
+                continue;
+              }
+              out.writeInt(rotation);
+              out.writeByte(edge.ordinal());
+              out.writeInt(stitchIds.size());
+              for (String stitchId : stitchIds) {
+                out.writeUTF(stitchId);
+              }
+            }
+          }
         }
       }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     } catch (Exception e) {
       log.warn("Failed to save rooms.db: %s", e.getMessage());
     }
   }
+
+  @Nonnull
+  private static byte[] readHash(@Nonnull DataInputStream in) throws IOException {
+    byte[] hash = new byte[in.readUnsignedByte()];
+    in.readFully(hash);
+    return hash;
+  }
+
+  private static void writeHash(@Nonnull DataOutputStream out, @Nonnull byte[] hash) throws IOException {
+    out.writeByte(hash.length);
+    out.write(hash);
+  }
 }
@@ -1,15 +1,11 @@
 package MBRound18.hytale.vexlichdungeon.prefab;
 
+import MBRound18.ImmortalEngine.api.assets.AssetArchive;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
 import com.hypixel.hytale.server.core.prefab.selection.standard.BlockSelection;
 import javax.annotation.Nonnull;
 import java.util.Objects;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 /**
  * Loads prefabs directly from a ZIP file.
@@ -18,11 +14,11 @@ import java.util.zip.ZipFile;
 public class PrefabLoader {
 
   private final LoggingHelper log;
-  private final ZipFile zipFile;
+  private final AssetArchive archive;
 
-  public PrefabLoader(@Nonnull LoggingHelper log, @Nonnull ZipFile zipFile) {
+  public PrefabLoader(@Nonnull LoggingHelper log, @Nonnull AssetArchive archive) {
     this.log = log;
-    this.zipFile = zipFile;
+    this.archive = Objects.requireNonNull(archive, "archive");
   }
 
   /**
@@ -37,23 +33,14 @@ public class PrefabLoader {
   public BlockSelection loadPrefab(@Nonnull String relativePathToZip) throws IOException {
     // Construct the full path within the ZIP
     String zipEntryPath = "Server/Prefabs/" + relativePathToZip + ".prefab.json";
-    ZipEntry entry = zipFile.getEntry(zipEntryPath);
+    AssetArchive.Entry entry = archive.getEntry(zipEntryPath);
 
     if (entry == null) {
       throw new IOException("Prefab not found in ZIP: " + zipEntryPath);
     }
 
     // Read the JSON content
-    String jsonContent;
-    try (BufferedReader reader = new BufferedReader(
-        new InputStreamReader(zipFile.getInputStream(entry), StandardCharsets.UTF_8))) {
-      StringBuilder sb = new StringBuilder();
-      String line;
-      while ((line = reader.readLine()) != null) {
-        sb.append(line).append("\n");
-      }
-      jsonContent = sb.toString();
-    }
+    String jsonContent = archive.readString(entry);
 
     // Attempt to deserialize using Hytale's built-in JSON utilities
     // BlockSelection should have a static fromJson method or similar
@@ -0,0 +1,47 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import java.util.List;
+
+/**
+ * Read-only view of the categorized prefab paths used for dungeon generation.
+ * Implemented by {@link PrefabDiscovery}; in-memory pools can stand in for it
+ * where the server asset store is not available (e.g. benchmarks).
+ */
+public interface PrefabPool {
+
+  /**
+   * Gets a random room prefab.
+   *
+   * @return Random room prefab path, or null if none available
+   */
+  String getRandomRoom();
+
+  /**
+   * Gets a random hallway prefab.
+   *
+   * @return Random hallway prefab path, or null if none available
+   */
+  String getRandomHallway();
+
+  /**
+   * Gets a random gate prefab.
+   *
+   * @return Random gate prefab path, or null if none available
+   */
+  String getRandomGate();
+
+  /**
+   * Gets the blocked gate prefab.
+   *
+   * @return Blocked gate prefab path, or null if not found
+   */
+  String getBlockedGate();
+
+  List<String> getAllRooms();
+
+  List<String> getAllHallways();
+
+  List<String> getAllDungeonPrefabs();
+
+  List<String> getAllEventPrefabs();
+}
@@ -0,0 +1,296 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+/**
+ * Loads prefabs into the prefab caches ahead of their first spawn.
+ *
+ * <p>
+ * A run takes prefabs most likely first and queues loads on a small worker
+ * pool until the source bytes of the queued prefabs reach the run's I/O
+ * budget. Prefabs already in memory are skipped and cost nothing. Starting a
+ * run cancels the loads the previous run has not started yet.
+ * </p>
+ */
+public final class PrefabPreloader {
+  /** Source size charged for a prefab that was never compiled. */
+  static final long UNKNOWN_SOURCE_BYTES = 256L * 1024L;
+
+  /**
+   * Loads prefabs for the preloader. Called from the preload workers.
+   */
+  public interface Loader {
+    /**
+     * @return Whether the prefab is already loaded in memory
+     */
+    boolean isLoaded(@Nonnull String prefabPath);
+
+    /**
+     * @return Size of the prefab's source in bytes, or -1 when unknown
+     */
+    long sourceBytes(@Nonnull String prefabPath);
+
+    void load(@Nonnull String prefabPath) throws Exception;
+  }
+
+  public enum State {
+    IDLE, RUNNING, COMPLETE, CANCELLED
+  }
+
+  private final LoggingHelper log;
+  private final Loader loader;
+  private final long budgetBytes;
+  private final ExecutorService workers;
+  private volatile Run current;
+
+  /**
+   * @param threads     Number of preload workers
+   * @param budgetBytes Prefab source bytes one run may read (0 disables
+   *                    preloading)
+   */
+  public PrefabPreloader(@Nonnull LoggingHelper log, @Nonnull Loader loader, int threads, long budgetBytes) {
+    this.log = Objects.requireNonNull(log, "log");
+    this.loader = Objects.requireNonNull(loader, "loader");
+    this.budgetBytes = Math.max(0L, budgetBytes);
+    AtomicInteger counter = new AtomicInteger();
+    this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+      Thread t = new Thread(r, "vex-prefab-preload-" + counter.incrementAndGet());
+      t.setDaemon(true);
+      t.setPriority(Thread.MIN_PRIORITY);
+      return t;
+    });
+  }
+
+  /**
+   * Starts a run over ranked prefabs, cancelling the previous run.
+   *
+   * @param ranked Prefab paths, most likely first
+   * @param reason What triggered the run, for logs and progress
+   * @return Future completing with the run's final progress
+   */
+  @Nonnull
+  public synchronized CompletableFuture<Progress> preload(@Nonnull List<String> ranked, @Nonnull String reason) {
+    if (budgetBytes == 0L) {
+      return CompletableFuture.completedFuture(Progress.IDLE);
+    }
+    Run previous = current;
+    if (previous != null) {
+      previous.cancelled = true;
+    }
+    Run run = new Run(reason, ranked.size());
+    current = run;
+
+    List<String> queued = new ArrayList<>();
+    for (String prefabPath : ranked) {
+      if (loader.isLoaded(prefabPath)) {
+        run.alreadyLoaded.incrementAndGet();
+        continue;
+      }
+      long size = loader.sourceBytes(prefabPath);
+      long charge = size >= 0 ? size : UNKNOWN_SOURCE_BYTES;
+      if (run.plannedBytes + charge > budgetBytes) {
+        run.deferred = ranked.size() - run.alreadyLoaded.get() - queued.size();
+        break;
+      }
+      run.plannedBytes += charge;
+      queued.add(prefabPath);
+    }
+    run.queued = queued.size();
+
+    List<CompletableFuture<Void>> loads = new ArrayList<>(queued.size());
+    try {
+      for (String prefabPath : queued) {
+        loads.add(CompletableFuture.runAsync(() -> load(run, prefabPath), workers));
+      }
+    } catch (RejectedExecutionException e) {
+      run.cancelled = true;
+    }
+    return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).handle((ignored, error) -> {
+      run.finishedAt = System.currentTimeMillis();
+      Progress progress = run.snapshot();
+      log.info("[PRELOAD] %s: %d loaded, %d warm, %d failed, %d skipped, %d deferred (%d KiB) in %d ms",
+          reason, progress.getLoaded(), progress.getAlreadyLoaded(), progress.getFailed(), progress.getSkipped(),
+          progress.getDeferred(), progress.getPlannedBytes() / 1024L, progress.getElapsedMillis());
+      return progress;
+    });
+  }
+
+  private void load(@Nonnull Run run, @Nonnull String prefabPath) {
+    if (run.cancelled) {
+      run.skipped.incrementAndGet();
+      return;
+    }
+    try {
+      if (loader.isLoaded(prefabPath)) {
+        run.alreadyLoaded.incrementAndGet();
+      } else {
+        loader.load(prefabPath);
+        run.loaded.incrementAndGet();
+      }
+    } catch (Exception e) {
+      run.failed.incrementAndGet();
+      log.fine("[PRELOAD] Failed to preload %s: %s", prefabPath, e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the progress of the latest run.
+   */
+  @Nonnull
+  public Progress getProgress() {
+    Run run = current;
+    return run == null ? Progress.IDLE : run.snapshot();
+  }
+
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  /**
+   * Stops the workers; loads that have not started are dropped.
+   */
+  public void shutdown() {
+    Run run = current;
+    if (run != null) {
+      run.cancelled = true;
+    }
+    workers.shutdownNow();
+  }
+
+  private final class Run {
+    private final String reason;
+    private final int ranked;
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger alreadyLoaded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private volatile int queued;
+    private volatile int deferred;
+    private volatile long plannedBytes;
+    private volatile long finishedAt;
+    private volatile boolean cancelled;
+
+    private Run(@Nonnull String reason, int ranked) {
+      this.reason = reason;
+      this.ranked = ranked;
+    }
+
+    @Nonnull
+    private Progress snapshot() {
+      long finished = finishedAt;
+      State state = finished == 0L ? State.RUNNING : cancelled ? State.CANCELLED : State.COMPLETE;
+      return new Progress(reason, state, ranked, queued, loaded.get(), alreadyLoaded.get(), failed.get(),
+          skipped.get(), deferred, plannedBytes, budgetBytes, startedAt,
+          (finished == 0L ? System.currentTimeMillis() : finished) - startedAt);
+    }
+  }
+
+  /**
+   * Snapshot of a preload run.
+   */
+  public static final class Progress {
+    static final Progress IDLE = new Progress("", State.IDLE, 0, 0, 0, 0, 0, 0, 0, 0L, 0L, 0L, 0L);
+
+    private final String reason;
+    private final State state;
+    private final int ranked;
+    private final int queued;
+    private final int loaded;
+    private final int alreadyLoaded;
+    private final int failed;
+    private final int skipped;
+    private final int deferred;
+    private final long plannedBytes;
+    private final long budgetBytes;
+    private final long startedAt;
+    private final long elapsedMillis;
+
+    private Progress(@Nonnull String reason, @Nonnull State state, int ranked, int queued, int loaded,
+        int alreadyLoaded, int failed, int skipped, int deferred, long plannedBytes, long budgetBytes,
+        long startedAt, long elapsedMillis) {
+      this.reason = reason;
+      this.state = state;
+      this.ranked = ranked;
+      this.queued = queued;
+      this.loaded = loaded;
+      this.alreadyLoaded = alreadyLoaded;
+      this.failed = failed;
+      this.skipped = skipped;
+      this.deferred = deferred;
+      this.plannedBytes = plannedBytes;
+      this.budgetBytes = budgetBytes;
+      this.startedAt = startedAt;
+      this.elapsedMillis = elapsedMillis;
+    }
+
+    @Nonnull
+    public String getReason() {
+      return reason;
+    }
+
+    @Nonnull
+    public State getState() {
+      return state;
+    }
+
+    /** Prefabs the run was given. */
+    public int getRanked() {
+      return ranked;
+    }
+
+    /** Prefabs queued for loading within the budget. */
+    public int getQueued() {
+      return queued;
+    }
+
+    public int getLoaded() {
+      return loaded;
+    }
+
+    /** Prefabs that were already in memory. */
+    public int getAlreadyLoaded() {
+      return alreadyLoaded;
+    }
+
+    public int getFailed() {
+      return failed;
+    }
+
+    /** Queued prefabs dropped because a newer run started. */
+    public int getSkipped() {
+      return skipped;
+    }
+
+    /** Prefabs left out because the budget ran out. */
+    public int getDeferred() {
+      return deferred;
+    }
+
+    /** Source bytes of the queued prefabs. */
+    public long getPlannedBytes() {
+      return plannedBytes;
+    }
+
+    public long getBudgetBytes() {
+      return budgetBytes;
+    }
+
+    public long getStartedAt() {
+      return startedAt;
+    }
+
+    public long getElapsedMillis() {
+      return elapsedMillis;
+    }
+  }
+}
@@ -3,7 +3,9 @@ package MBRound18.hytale.vexlichdungeon.prefab;
 import MBRound18.hytale.vexlichdungeon.dungeon.CardinalDirection;
 import MBRound18.hytale.vexlichdungeon.dungeon.DungeonTile;
 import MBRound18.hytale.vexlichdungeon.dungeon.GenerationConfig;
+import MBRound18.hytale.shared.utilities.CacheMetrics;
 import MBRound18.hytale.shared.utilities.LoggingHelper;
+import MBRound18.hytale.shared.utilities.WeightedCache;
 import MBRound18.hytale.vexlichdungeon.events.WorldEventQueue;
 import MBRound18.hytale.vexlichdungeon.events.EntitySpawnedEvent;
 import MBRound18.hytale.vexlichdungeon.events.RoomCoordinate;
@@ -13,15 +15,18 @@ import MBRound18.hytale.vexlichdungeon.events.EntityReplacedEvent;
 import MBRound18.hytale.vexlichdungeon.events.NpcSpawnRequestedEvent;
 import MBRound18.hytale.vexlichdungeon.events.NpcSpawnResult;
 import MBRound18.hytale.vexlichdungeon.events.PrefabEntitySpawnedEvent;
+import MBRound18.ImmortalEngine.api.prefab.PrefabAnalysis;
+import MBRound18.ImmortalEngine.api.prefab.PrefabBounds;
 import MBRound18.ImmortalEngine.api.prefab.PrefabInspector;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import MBRound18.ImmortalEngine.api.prefab.PrefabPathIndex;
+import com.hypixel.hytale.event.IEvent;
 import com.hypixel.hytale.math.Axis;
 import com.hypixel.hytale.math.vector.Vector3d;
 import com.hypixel.hytale.math.vector.Vector3f;
 import com.hypixel.hytale.math.vector.Vector3i;
+import com.hypixel.hytale.protocol.BlockMaterial;
+import com.hypixel.hytale.protocol.DrawType;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
 import com.hypixel.hytale.server.core.asset.type.fluid.Fluid;
 import com.hypixel.hytale.server.core.console.ConsoleSender;
 import com.hypixel.hytale.server.core.prefab.PrefabStore;
@@ -33,21 +38,30 @@ import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.server.npc.NPCPlugin;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
-import java.lang.ref.SoftReference;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for spawning prefabs into the world.
@@ -65,42 +79,104 @@ public class PrefabSpawner {
 
   private static final int ROOM_Y_OFFSET = 14;
   private static final int GATE_Y_OFFSET = 15;
-  private static final int MAX_PREFAB_CACHE = 64;
+  /** Share of a cache budget charged for a prefab whose size is unknown. */
+  private static final int UNKNOWN_PREFAB_SHARE = 64;
+  /** Rough retained size of one block (plus its share of fluids) in a rotated selection. */
+  private static final long VARIANT_BYTES_PER_BLOCK = 48L;
+  private static final int SPAWN_WORKERS = Math.max(1,
+      Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+  private static final long PLACEMENT_TICK_MS = 50L;
+  /** How long the spawned events of a batch wait for its NPC spawn results. */
+  private static final long ENTITY_SPAWN_TIMEOUT_SECONDS = 30L;
+
+  /**
+   * Reports where the players of a world are, for placement priority.
+   */
+  @FunctionalInterface
+  public interface PlayerLocator {
+    /**
+     * @return Player positions as {@code x0, z0, x1, z1, ...}; called on the
+     *         world thread
+     */
+    @Nonnull
+    double[] locate(@Nonnull World world);
+  }
+
+  /** Extracted entities relative to the prefab origin, one list per 90-degree rotation. */
+  private static final PrefabCatalog.Facet<List<List<PrefabEntityDefinition>>> ROTATED_ENTITIES =
+      new PrefabCatalog.Facet<>("entities", PrefabSpawner::buildRotatedEntities);
+  private static final PrefabCatalog.Facet<WalkableSurface[]> WALKABLE_SURFACES =
+      new PrefabCatalog.Facet<>("walkable", PrefabSpawner::buildWalkableSurfaces);
+  /** World tasks spent retrying entities the server has not made unfreezable yet. */
+  private static final int UNFREEZE_SWEEPS = 3;
 
   private final LoggingHelper log;
-  private final PrefabInspector inspector;
   private final GenerationConfig config;
   private final @Nullable Path unpackedRoot;
-  private final Map<String, SoftReference<BlockSelection>> prefabCache;
-  private final Map<String, List<PrefabEntityDefinition>> prefabEntityCache = new ConcurrentHashMap<>();
-  private final Map<String, String> prefabJsonCache = new ConcurrentHashMap<>();
-  private final Map<String, Path> sanitizedPrefabCache = new ConcurrentHashMap<>();
+  private final WeightedCache<String, BlockSelection> prefabCache;
+  private final SanitizedPrefabStore sanitizedStore;
+  private final @Nonnull Path compiledDirectory;
+  private final PrefabCatalog catalog;
+  private final PrefabCatalog.Compiler prefabCompiler = new SanitizingCompiler();
+  private final RotationVariantCache<BlockSelection> variantCache;
+  private final ExecutorService spawnWorkers;
+  private final PrefabPreloader preloader;
+  private final @Nullable PlacementScheduler placements;
+  private final @Nullable ScheduledExecutorService placementTicker;
+  private final Map<String, World> placementWorlds = new ConcurrentHashMap<>();
+  private volatile PlayerLocator playerLocator = world -> new double[0];
 
   /**
-   * Creates a new prefab spawner.
-   * 
-   * @param log Logger for spawning events
+   * Creates a prefab spawner that keeps its prefab catalog (see
+   * {@link PrefabCatalog}), compiled prefabs and sanitized prefab JSON under
+   * {@code compiledDirectory}, so later loads skip the JSON pass.
+   *
+   * @param log               Logger for spawning events
+   * @param compiledDirectory Directory for compiled artifacts, normally under
+   *                          the plugin data directory; prefabs are always
+   *                          loaded from their sanitized copy there
    */
-  public PrefabSpawner(@Nonnull LoggingHelper log, @Nonnull GenerationConfig config) {
-    this(log, config, null);
-  }
-
   public PrefabSpawner(@Nonnull LoggingHelper log, @Nonnull GenerationConfig config,
-      @Nullable Path unpackedRoot) {
+      @Nullable Path unpackedRoot, @Nonnull Path compiledDirectory) {
     this.log = log;
     this.config = config;
     this.unpackedRoot = unpackedRoot;
-    this.inspector = new PrefabInspector(log, unpackedRoot);
-    this.prefabCache = Collections.synchronizedMap(new LinkedHashMap<>(MAX_PREFAB_CACHE, 0.75f, true) {
-      @Override
-      protected boolean removeEldestEntry(Map.Entry<String, SoftReference<BlockSelection>> eldest) {
-        return size() > MAX_PREFAB_CACHE;
-      }
+    this.compiledDirectory = Objects.requireNonNull(compiledDirectory, "compiledDirectory");
+    this.catalog = new PrefabCatalog(log, compiledDirectory, config.getCatalogCacheMb() * 1024L * 1024L);
+    this.sanitizedStore = new SanitizedPrefabStore(log, compiledDirectory);
+    this.variantCache = new RotationVariantCache<>(config.getVariantCacheMb() * 1024L * 1024L);
+    this.prefabCache = new WeightedCache<>("prefab-selections", config.getPrefabCacheMb() * 1024L * 1024L,
+        (path, prefab) -> estimateSelectionBytes(path, config.getPrefabCacheMb() * 1024L * 1024L));
+    CacheMetrics.register(prefabCache);
+    CacheMetrics.register(variantCache.getCache());
+    CacheMetrics.register(catalog.getResidentCache());
+    AtomicInteger workerCounter = new AtomicInteger();
+    this.spawnWorkers = Executors.newFixedThreadPool(SPAWN_WORKERS, r -> {
+      Thread t = new Thread(r, "vex-prefab-spawn-" + workerCounter.incrementAndGet());
+      t.setDaemon(true);
+      return t;
     });
+    this.preloader = new PrefabPreloader(log, new CacheLoader(), config.getPreloadThreads(),
+        config.getPrefabCacheMb() == 0 ? 0L : config.getPreloadBudgetMb() * 1024L * 1024L);
+    if (config.getPlacementBlocksPerTick() > 0) {
+      this.placements = new PlacementScheduler(config.getPlacementBlocksPerTick(), config.isPlaceHiddenLast(),
+          config.getTileSize() * 1.5);
+      this.placementTicker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "vex-prefab-placement");
+        t.setDaemon(true);
+        return t;
+      });
+      placementTicker.scheduleAtFixedRate(this::tickPlacements, PLACEMENT_TICK_MS, PLACEMENT_TICK_MS,
+          TimeUnit.MILLISECONDS);
+    } else {
+      this.placements = null;
+      this.placementTicker = null;
+    }
   }
 
   /**
-   * Loads a prefab from the server asset store.
+   * Loads a prefab from the server asset store. Concurrent loads of the same
+   * prefab share one deserialization.
    * 
    * @param modRelativePath Path relative to Server/Prefabs/ (e.g.,
    *                        "Rooms/Vex_Room_S_Lava_B")
@@ -108,449 +184,251 @@ public class PrefabSpawner {
    */
   @Nonnull
   public CompletableFuture<BlockSelection> loadPrefab(@Nonnull String modRelativePath) {
-    return Objects.requireNonNull(CompletableFuture.supplyAsync(() -> {
-      StringBuilder jsonBuilder = new StringBuilder();
-      try {
-        SoftReference<BlockSelection> cachedRef = prefabCache.get(modRelativePath);
-        if (cachedRef != null) {
-          BlockSelection cached = cachedRef.get();
-          if (cached != null) {
-            return cached;
-          }
-        }
-
-        log.info("Loading prefab: [%s]", modRelativePath);
-
-        String prefabEntryPath = "Server/Prefabs/" + modRelativePath + ".prefab.json";
-        Path prefabPath = resolveAssetPrefab(prefabEntryPath, modRelativePath);
-        if (prefabPath == null || !Files.exists(prefabPath)) {
-          throw new PrefabLoadException("Prefab file not found in assets at: " + prefabEntryPath);
-        }
-
-        try (BufferedReader reader = Files.newBufferedReader(prefabPath, StandardCharsets.UTF_8)) {
-          String line;
-          while ((line = reader.readLine()) != null) {
-            jsonBuilder.append(line).append('\n');
-          }
-        }
-
-        String jsonContent = Objects.requireNonNull(jsonBuilder.toString(), "jsonContent");
-        JsonObject root = Objects.requireNonNull(JsonParser.parseString(jsonContent).getAsJsonObject(), "root");
-
-        // Extract entities first so they're removed from the JSON
-        List<PrefabEntityDefinition> entities = extractPrefabEntities(root, modRelativePath);
-        prefabEntityCache.put(modRelativePath, entities);
-        log.fine("[CACHE] Cached %d entities for prefab %s", entities.size(), modRelativePath);
+    return Objects.requireNonNull(CompletableFuture.supplyAsync(
+        () -> Objects.requireNonNull(prefabCache.get(modRelativePath, this::readPrefab), "prefab")),
+        "prefabFuture");
+  }
 
-        // Now sanitize items from the entity-extracted root
-        int sanitizedItems = sanitizeItemContainers(root);
+  @Nonnull
+  private BlockSelection readPrefab(@Nonnull String modRelativePath) {
+    try {
+      log.info("Loading prefab: [%s]", modRelativePath);
 
-        // Write sanitized JSON (with entities removed and items sanitized) if needed
-        Path resolvedPrefabPath = prefabPath;
-        if (entities.size() > 0 || sanitizedItems > 0) {
-          resolvedPrefabPath = writeSanitizedPrefab(modRelativePath, prefabPath, root,
-              entities.size() + sanitizedItems);
-          log.fine("[SANITIZE] Wrote entity-extracted prefab to %s (removed %d entities, %d item stacks)",
-              resolvedPrefabPath.getFileName(), entities.size(), sanitizedItems);
-        }
+      CompiledSource source = compile(modRelativePath);
+      CompiledPrefab compiled = source.compiled;
 
-        prefabJsonCache.put(modRelativePath, jsonContent);
+      BlockSelection prefab = PrefabStore.get().getPrefab(source.jsonPath);
 
-        // Use PrefabStore to deserialize the BlockSelection from the JSON file
-        BlockSelection prefab = PrefabStore.get().getPrefab(Objects.requireNonNull(resolvedPrefabPath, "prefabPath"));
+      hydrateFluids(prefab, compiled, modRelativePath, 0);
 
-        hydrateFluidsFromJson(prefab, jsonContent,
-            modRelativePath);
+      if (prefab.getFluidCount() > 0) {
+        log.info("Prefab %s contains %d fluids", modRelativePath, prefab.getFluidCount());
+      }
 
-        if (prefab.getFluidCount() > 0) {
-          log.info("Prefab %s contains %d fluids", modRelativePath, prefab.getFluidCount());
-        }
+      log.info("Successfully loaded and deserialized prefab: %s", modRelativePath);
+      for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
+        hook.onPrefabLoaded(modRelativePath, prefab);
+      }
+      return prefab;
 
-        log.info("Successfully loaded and deserialized prefab: %s", modRelativePath);
-        for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-          hook.onPrefabLoaded(modRelativePath, prefab);
-        }
-        prefabCache.put(modRelativePath, new SoftReference<>(prefab));
-        return prefab;
+    } catch (Exception e) {
+      log.error("Failed to load prefab %s: %s", modRelativePath, e.getMessage());
+      throw new RuntimeException("Failed to load prefab: " + modRelativePath, e);
+    }
+  }
 
-      } catch (Exception e) {
-        log.error("Failed to load prefab %s: %s", modRelativePath, e.getMessage());
-        throw new RuntimeException("Failed to load prefab: " + modRelativePath, e);
-      } finally {
-      }
-    }), "prefabFuture");
+  /**
+   * Estimates the retained size of a prefab's block selection from its
+   * compiled block and fluid counts.
+   *
+   * @param budgetBytes Budget of the cache asking, charged a fixed share when
+   *                    the prefab has not been compiled
+   */
+  private long estimateSelectionBytes(@Nonnull String prefabPath, long budgetBytes) {
+    CompiledPrefab compiled = catalog.peek(prefabPath);
+    return compiled == null
+        ? budgetBytes / UNKNOWN_PREFAB_SHARE
+        : (compiled.getBlockCount() + compiled.getFluidCount()) * VARIANT_BYTES_PER_BLOCK;
   }
 
+  /**
+   * Resolves a prefab file through the shared {@link PrefabPathIndex}, falling
+   * back to the unpacked assets directory.
+   *
+   * @return The prefab file, or null when no asset pack or the unpacked
+   *         directory has it
+   */
   @Nullable
-  private Path resolveAssetPrefab(@Nonnull String entryPath, @Nonnull String modRelativePath) {
-    try {
-      String trimmed = entryPath.startsWith("Server/Prefabs/")
-          ? entryPath.substring("Server/Prefabs/".length())
-          : entryPath;
-      java.util.List<Path> roots = new java.util.ArrayList<>();
-      PrefabStore store = PrefabStore.get();
-      Path baseRoot = store.getAssetPrefabsPath();
-      if (baseRoot != null) {
-        roots.add(baseRoot);
-      }
-      for (PrefabStore.AssetPackPrefabPath packPath : store.getAllAssetPrefabPaths()) {
-        if (packPath == null) {
-          continue;
-        }
-        Path prefabsPath = packPath.prefabsPath();
-        if (prefabsPath != null) {
-          roots.add(prefabsPath);
-        }
-      }
-      for (Path root : roots) {
-        if (root == null) {
-          continue;
-        }
-        Path candidate = root.resolve(trimmed);
-        if (Files.exists(candidate)) {
-          return candidate;
-        }
-      }
-    } catch (Exception e) {
-      log.fine("PrefabStore lookup failed for %s: %s", modRelativePath, e.getMessage());
+  private Path resolveAssetPrefab(@Nonnull String entryPath) {
+    Path indexed = PrefabPathIndex.get().resolve(entryPath);
+    if (indexed != null) {
+      return indexed;
     }
     Path root = unpackedRoot;
     if (root == null) {
       return null;
     }
     String trimmed = entryPath.startsWith("Server/") ? entryPath.substring("Server/".length()) : entryPath;
-    return root.resolve(trimmed);
+    Path unpacked = root.resolve(trimmed);
+    return Files.isRegularFile(unpacked) ? unpacked : null;
   }
 
-  private List<PrefabEntityDefinition> extractPrefabEntities(@Nonnull JsonObject root, @Nonnull String prefabPath) {
-    try {
-      JsonArray entities = root.getAsJsonArray("entities");
-      if (entities == null) {
-        log.fine("[EXTRACT] Prefab %s has no entities array", prefabPath);
-        return List.of();
-      }
-      if (entities.isEmpty()) {
-        log.fine("[EXTRACT] Prefab %s entities array is empty", prefabPath);
-        return List.of();
-      }
-
-      List<PrefabEntityDefinition> definitions = new ArrayList<>();
-      JsonArray keptEntities = new JsonArray();
-      int extracted = 0;
-      int kept = 0;
-
-      for (JsonElement element : entities) {
-        if (!element.isJsonObject()) {
-          keptEntities.add(element);
-          kept++;
-          continue;
-        }
-        JsonObject entity = element.getAsJsonObject();
-        JsonObject components = entity.getAsJsonObject("Components");
-        if (components == null) {
-          keptEntities.add(entity);
-          kept++;
-          continue;
-        }
-        if (components.has("BlockEntity")) {
-          keptEntities.add(entity);
-          kept++;
-          continue;
-        }
-
-        JsonObject modelWrapper = components.getAsJsonObject("Model");
-        if (modelWrapper == null) {
-          keptEntities.add(entity);
-          kept++;
-          continue;
-        }
-        JsonObject model = modelWrapper.getAsJsonObject("Model");
-        if (model == null || !model.has("Id")) {
-          keptEntities.add(entity);
-          kept++;
-          continue;
-        }
-        String modelId = Objects.requireNonNull(model.get("Id").getAsString(), "modelId");
-
-        JsonObject transform = components.getAsJsonObject("Transform");
-        if (transform == null) {
-          keptEntities.add(entity);
-          kept++;
-          continue;
-        }
-        JsonObject position = transform.getAsJsonObject("Position");
-        JsonObject rotation = transform.getAsJsonObject("Rotation");
-        if (position == null || rotation == null) {
-          keptEntities.add(entity);
-          kept++;
-          continue;
-        }
-
-        Vector3d pos = new Vector3d(
-            position.get("X").getAsDouble(),
-            position.get("Y").getAsDouble(),
-            position.get("Z").getAsDouble());
-        Vector3f rot = new Vector3f(
-            (float) rotation.get("Pitch").getAsDouble(),
-            (float) rotation.get("Yaw").getAsDouble(),
-            (float) rotation.get("Roll").getAsDouble());
-
-        definitions.add(new PrefabEntityDefinition(modelId, pos, rot));
-        extracted++;
-      }
-
-      if (keptEntities.size() > 0) {
-        root.add("entities", keptEntities);
-      } else {
-        root.remove("entities");
-      }
-
-      log.info("[EXTRACT] Prefab %s: %d frozen entities removed, %d other entities kept", prefabPath, extracted, kept);
-      if (!definitions.isEmpty()) {
-        log.info("[EXTRACT] Extracted enemy entities: %s",
-            definitions.stream().map(PrefabEntityDefinition::getModelId).toList());
-      }
-      return definitions;
-    } catch (Exception e) {
-      log.warn("Failed to parse prefab entities for %s: %s", prefabPath, e.getMessage());
-      return List.of();
-    }
-  }
-
-  private void hydrateFluidsFromJson(
+  /**
+   * Adds the prefab's fluids to a selection that lost them, either because
+   * the server's JSON loader skipped them or because rotation dropped them.
+   */
+  private void hydrateFluids(
       @Nonnull BlockSelection prefab,
-      @Nonnull String jsonContent,
-      @Nonnull String modRelativePath) {
+      @Nonnull CompiledPrefab compiled,
+      @Nonnull String modRelativePath,
+      int rotationDegrees) {
+    int normalized = ((rotationDegrees % 360) + 360) % 360;
     try {
-      if (prefab.getFluidCount() > 0) {
-        return;
-      }
-
-      JsonObject root = JsonParser.parseString(jsonContent).getAsJsonObject();
-      JsonArray fluids = root.getAsJsonArray("fluids");
-      if (fluids == null || fluids.isEmpty()) {
+      if (prefab.getFluidCount() > 0 || compiled.getFluidCount() == 0) {
         return;
       }
 
       int added = 0;
-      for (JsonElement element : fluids) {
-        if (!element.isJsonObject()) {
-          continue;
-        }
-        JsonObject fluid = element.getAsJsonObject();
-        String name = fluid.has("name") ? fluid.get("name").getAsString() : "Empty";
+      for (int i = 0; i < compiled.getFluidCount(); i++) {
+        String name = compiled.getFluidName(i);
         if ("Empty".equalsIgnoreCase(name)) {
           continue;
         }
-
-        int level = fluid.has("level") ? fluid.get("level").getAsInt() : 0;
         int fluidId = Fluid.getFluidIdOrUnknown(name, "Prefab fluid %s", name);
         if (fluidId == Fluid.EMPTY_ID) {
           continue;
         }
 
-        int x = fluid.has("x") ? fluid.get("x").getAsInt() : 0;
-        int y = fluid.has("y") ? fluid.get("y").getAsInt() : 0;
-        int z = fluid.has("z") ? fluid.get("z").getAsInt() : 0;
-
-        prefab.addFluidAtLocalPos(x, y, z, fluidId, (byte) level);
+        int[] rotated = SectionSlicer.rotateLocalXZ(compiled.getFluidX(i), compiled.getFluidZ(i), normalized);
+        prefab.addFluidAtLocalPos(rotated[0], compiled.getFluidY(i), rotated[1], fluidId,
+            (byte) compiled.getFluidLevel(i));
         added++;
       }
 
-      if (added > 0) {
+      if (added > 0 && normalized == 0) {
         log.info("Injected %d fluids into prefab %s", added, modRelativePath);
+      } else if (added > 0) {
+        log.info("[FLUIDS] Rehydrated %d fluids into %s after rotation %d",
+            added, modRelativePath, normalized);
       }
     } catch (Exception e) {
       log.warn("Failed to inject fluids for prefab %s: %s", modRelativePath, e.getMessage());
     }
   }
 
-  private void hydrateFluidsFromJson(
-      @Nonnull BlockSelection prefab,
-      @Nonnull String jsonContent,
-      @Nonnull String modRelativePath,
-      int rotationDegrees) {
-    int normalized = ((rotationDegrees % 360) + 360) % 360;
-    if (normalized == 0) {
-      hydrateFluidsFromJson(prefab, jsonContent, modRelativePath);
-      return;
+  /**
+   * Gets a prefab's compiled form from the catalog, compiling it when the
+   * source file changed. A prefab that needs sanitizing is never loaded from
+   * its original file: when its sanitized copy is missing and cannot be
+   * rewritten, the load fails.
+   *
+   * @return The compiled prefab and the JSON file the server should load
+   */
+  @Nonnull
+  private CompiledSource compile(@Nonnull String modRelativePath) throws IOException {
+    String prefabEntryPath = "Server/Prefabs/" + modRelativePath + ".prefab.json";
+    Path prefabPath = resolveAssetPrefab(prefabEntryPath);
+    if (prefabPath == null) {
+      throw new PrefabLoadException("Prefab file not found in assets at: " + prefabEntryPath);
     }
-    try {
-      if (prefab.getFluidCount() > 0) {
-        return;
-      }
-
-      JsonObject root = JsonParser.parseString(jsonContent).getAsJsonObject();
-      JsonArray fluids = root.getAsJsonArray("fluids");
-      if (fluids == null || fluids.isEmpty()) {
-        return;
-      }
-
-      int added = 0;
-      for (JsonElement element : fluids) {
-        if (!element.isJsonObject()) {
-          continue;
-        }
-        JsonObject fluid = element.getAsJsonObject();
-        String name = fluid.has("name") ? fluid.get("name").getAsString() : "Empty";
-        if ("Empty".equalsIgnoreCase(name)) {
-          continue;
-        }
-
-        int level = fluid.has("level") ? fluid.get("level").getAsInt() : 0;
-        int fluidId = Fluid.getFluidIdOrUnknown(name, "Prefab fluid %s", name);
-        if (fluidId == Fluid.EMPTY_ID) {
-          continue;
-        }
-
-        int x = fluid.has("x") ? fluid.get("x").getAsInt() : 0;
-        int y = fluid.has("y") ? fluid.get("y").getAsInt() : 0;
-        int z = fluid.has("z") ? fluid.get("z").getAsInt() : 0;
-
-        int[] rotated = rotateLocalXZ(x, z, normalized);
-        prefab.addFluidAtLocalPos(rotated[0], y, rotated[1], fluidId, (byte) level);
-        added++;
-      }
 
-      if (added > 0) {
-        log.info("[FLUIDS] Rehydrated %d fluids into %s after rotation %d",
-            added, modRelativePath, normalized);
-      }
-    } catch (Exception e) {
-      log.warn("Failed to inject rotated fluids for prefab %s: %s", modRelativePath, e.getMessage());
+    CompiledPrefab compiled = catalog.get(modRelativePath, prefabPath, prefabCompiler);
+    if (!compiled.isSanitized()) {
+      return new CompiledSource(compiled, prefabPath);
+    }
+    Path sanitizedPath = sanitizedStore.find(compiled.getContentHash());
+    if (sanitizedPath == null) {
+      // Deleted since the catalog accepted it; compiling again rewrites it
+      catalog.invalidate(modRelativePath);
+      compiled = catalog.get(modRelativePath, prefabPath, prefabCompiler);
+      sanitizedPath = sanitizedStore.find(compiled.getContentHash());
+    }
+    if (sanitizedPath == null) {
+      throw new PrefabLoadException("Sanitized copy of " + modRelativePath + " is unavailable");
     }
+    return new CompiledSource(compiled, sanitizedPath);
   }
 
-  private int[] rotateLocalXZ(int x, int z, int rotationDegrees) {
-    int normalized = ((rotationDegrees % 360) + 360) % 360;
-    return switch (normalized) {
-      case 90 -> new int[] { -z, x };
-      case 180 -> new int[] { -x, -z };
-      case 270 -> new int[] { z, -x };
-      default -> new int[] { x, z };
-    };
-  }
+  /**
+   * Analyzes a prefab in one pass, storing the sanitized JSON (see
+   * {@link SanitizedPrefabStore}) only when it differs from the source.
+   */
+  @Nonnull
+  private PrefabAnalysis analyzePrefab(@Nonnull String modRelativePath, @Nonnull byte[] source,
+      @Nonnull byte[] contentHash) throws IOException {
+    StringWriter sanitizedJson = new StringWriter(source.length);
+    PrefabAnalysis analysis;
+    try (Reader reader = new InputStreamReader(new ByteArrayInputStream(source), StandardCharsets.UTF_8)) {
+      analysis = PrefabAnalysis.analyze(reader, sanitizedJson);
+    }
 
-  private int sanitizeItemContainers(@Nonnull JsonObject root) {
-    return sanitizeItemContainers((JsonElement) root);
+    List<PrefabAnalysis.FrozenEntity> frozen = analysis.getFrozenEntities();
+    if (!frozen.isEmpty() || analysis.getKeptEntityCount() > 0) {
+      log.info("[EXTRACT] Prefab %s: %d frozen entities removed, %d other entities kept", modRelativePath,
+          frozen.size(), analysis.getKeptEntityCount());
+    }
+    if (!frozen.isEmpty()) {
+      log.info("[EXTRACT] Extracted enemy entities: %s",
+          frozen.stream().map(PrefabAnalysis.FrozenEntity::getModelId).toList());
+    }
+
+    if (analysis.needsSanitizing()
+        && sanitizedStore.put(modRelativePath, contentHash, sanitizedJson.toString())) {
+      log.warn("[PREFAB] Sanitized %d item(s) with zero MaxDurability in %s",
+          frozen.size() + analysis.getSanitizedItemStacks(), modRelativePath);
+      log.fine("[SANITIZE] Extracted prefab %s (removed %d entities, %d item stacks)",
+          modRelativePath, frozen.size(), analysis.getSanitizedItemStacks());
+    }
+    return analysis;
   }
 
-  private int sanitizeItemContainers(@Nonnull JsonElement element) {
-    if (element.isJsonObject()) {
-      JsonObject obj = element.getAsJsonObject();
-      int updated = 0;
-      if (obj.has("ItemContainer") && obj.get("ItemContainer").isJsonObject()) {
-        JsonObject container = obj.getAsJsonObject("ItemContainer");
-        if (container != null) {
-          updated += sanitizeItemContainer(container);
-        }
-      }
-      for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
-        JsonElement value = entry.getValue();
-        if (value != null) {
-          updated += sanitizeItemContainers(value);
-        }
-      }
-      return updated;
-    }
-    if (element.isJsonArray()) {
-      int updated = 0;
-      JsonArray array = element.getAsJsonArray();
-      for (JsonElement child : array) {
-        if (child != null) {
-          updated += sanitizeItemContainers(child);
-        }
-      }
-      return updated;
+  @Nonnull
+  private static CompiledPrefab compilePrefab(@Nonnull PrefabAnalysis analysis, @Nonnull byte[] contentHash,
+      boolean sanitized) {
+    CompiledPrefab.Builder builder = new CompiledPrefab.Builder(contentHash)
+        .sanitized(sanitized)
+        .sliceable(analysis.getDetailedBlockCount() == 0 && analysis.getKeptEntityCount() == 0
+            && !analysis.hasAnchorOffset())
+        .bounds(analysis.getBounds());
+    for (int i = 0; i < analysis.getBlockCount(); i++) {
+      builder.addBlock(analysis.getBlockX(i), analysis.getBlockY(i), analysis.getBlockZ(i),
+          analysis.getBlockName(i), analysis.getBlockRotation(i), analysis.getBlockFiller(i));
     }
-    return 0;
+    for (int i = 0; i < analysis.getFluidCount(); i++) {
+      builder.addFluid(analysis.getFluidX(i), analysis.getFluidY(i), analysis.getFluidZ(i),
+          analysis.getFluidName(i), analysis.getFluidLevel(i));
+    }
+    for (PrefabAnalysis.FrozenEntity entity : analysis.getFrozenEntities()) {
+      builder.addEntity(entity.getModelId(), entity.getX(), entity.getY(), entity.getZ(),
+          entity.getPitch(), entity.getYaw(), entity.getRoll());
+    }
+    return builder.build();
   }
 
-  private int sanitizeItemContainer(@Nonnull JsonObject container) {
-    JsonObject items = container.getAsJsonObject("Items");
-    if (items == null) {
-      return 0;
+  @Nonnull
+  private static List<PrefabEntityDefinition> toEntityDefinitions(@Nonnull CompiledPrefab compiled) {
+    if (compiled.getEntityCount() == 0) {
+      return List.of();
     }
-    int updated = 0;
-    for (Map.Entry<String, JsonElement> entry : items.entrySet()) {
-      if (!entry.getValue().isJsonObject()) {
-        continue;
-      }
-      JsonObject item = entry.getValue().getAsJsonObject();
-      if (!item.has("MaxDurability") || !item.get("MaxDurability").isJsonPrimitive()) {
-        continue;
-      }
-      double max = item.get("MaxDurability").getAsDouble();
-      if (max <= 0.0) {
-        item.addProperty("MaxDurability", 1.0);
-        max = 1.0;
-        updated++;
-      }
-      if (item.has("Durability") && item.get("Durability").isJsonPrimitive()) {
-        double durability = item.get("Durability").getAsDouble();
-        double clamped = Math.min(Math.max(0.0, durability), max);
-        if (clamped != durability) {
-          item.addProperty("Durability", clamped);
-          updated++;
-        }
-      }
+    List<PrefabEntityDefinition> definitions = new ArrayList<>(compiled.getEntityCount());
+    for (int i = 0; i < compiled.getEntityCount(); i++) {
+      definitions.add(new PrefabEntityDefinition(
+          compiled.getEntityModel(i),
+          new Vector3d(compiled.getEntityPosition(i, 0), compiled.getEntityPosition(i, 1),
+              compiled.getEntityPosition(i, 2)),
+          new Vector3f(compiled.getEntityRotation(i, 0), compiled.getEntityRotation(i, 1),
+              compiled.getEntityRotation(i, 2))));
     }
-    return updated;
+    return definitions;
   }
 
-  private Path writeSanitizedPrefab(
-      @Nonnull String modRelativePath,
-      @Nonnull Path originalPath,
-      @Nonnull JsonObject root,
-      int sanitizedItems) {
-    try {
-      Path cached = sanitizedPrefabCache.get(modRelativePath);
-      if (cached != null && Files.exists(cached)) {
-        return cached;
-      }
-      Path sanitizedRoot = Path.of("build", "prefab-sanitized");
-      Path sanitizedPath = sanitizedRoot.resolve(modRelativePath + ".prefab.json");
-      Path parent = sanitizedPath.getParent();
-      if (parent != null) {
-        Files.createDirectories(parent);
-      }
-      Files.writeString(sanitizedPath, root.toString(), StandardCharsets.UTF_8);
-      sanitizedPrefabCache.put(modRelativePath, sanitizedPath);
-      log.warn("[PREFAB] Sanitized %d item(s) with zero MaxDurability in %s", sanitizedItems, modRelativePath);
-      return sanitizedPath;
-    } catch (IOException e) {
-      log.warn("[PREFAB] Failed to write sanitized prefab for %s: %s", modRelativePath, e.getMessage());
-      return originalPath;
+  @Nonnull
+  private static List<List<PrefabEntityDefinition>> buildRotatedEntities(@Nonnull CompiledPrefab compiled) {
+    List<PrefabEntityDefinition> base = toEntityDefinitions(compiled);
+    if (base.isEmpty()) {
+      return List.of();
     }
+    return List.of(base, rotateEntities(base, 90), rotateEntities(base, 180), rotateEntities(base, 270));
   }
 
-  /**
-   * Spawns a dungeon tile into the world.
-   * This includes the main tile prefab only (gates are off by default).
-   * MUST be called from the world thread.
-   * 
-   * NOTE: If prefabs aren't aligning correctly, use PrefabMetadata to read
-   * anchor points from the .prefab.json files and adjust placement accordingly.
-   * 
-   * @param tile   The tile to spawn
-   * @param world  The world to spawn into
-   * @param worldX World X coordinate for tile origin (grid position)
-   * @param worldY World Y coordinate for tile origin
-   * @param worldZ World Z coordinate for tile origin (grid position)
-   */
-  public void spawnTile(
-      @Nonnull DungeonTile tile,
-      @Nonnull World world,
-      int worldX,
-      int worldY,
-      int worldZ) {
-    spawnTile(tile, world, worldX, worldY, worldZ, false);
+  @Nonnull
+  private static List<PrefabEntityDefinition> rotateEntities(@Nonnull List<PrefabEntityDefinition> base,
+      int rotationDegrees) {
+    List<PrefabEntityDefinition> rotated = new ArrayList<>(base.size());
+    for (PrefabEntityDefinition def : base) {
+      rotated.add(new PrefabEntityDefinition(def.getModelId(), rotatePosition(def.getPosition(), rotationDegrees),
+          rotateRotation(def.getRotation(), rotationDegrees)));
+    }
+    return List.copyOf(rotated);
   }
 
   /**
-   * Spawns a dungeon tile into the world.
-   * This includes the main tile prefab and optionally gates.
-   * MUST be called from the world thread.
+   * Spawns a dungeon tile without blocking the world thread. The prefab is
+   * resolved, loaded, rotated and its entities planned off the world thread,
+   * without a spawn worker ever waiting on a load; only block placement and
+   * entity spawns are scheduled on the world thread, spread over ticks under
+   * the configured block budget (nearest rooms to a player first). May be
+   * called from any thread.
    * 
    * @param tile       The tile to spawn
    * @param world      The world to spawn into
@@ -558,182 +436,434 @@ public class PrefabSpawner {
    * @param worldY     World Y coordinate for tile origin
    * @param worldZ     World Z coordinate for tile origin (grid position)
    * @param spawnGates Whether to spawn gates for this tile
+   * @return Future completing on the world thread once the tile is placed (or
+   *         skipped for being out of bounds), or exceptionally on failure
    */
-  public void spawnTile(
+  @Nonnull
+  public CompletableFuture<Void> spawnTileAsync(
       @Nonnull DungeonTile tile,
       @Nonnull World world,
       int worldX,
       int worldY,
       int worldZ,
       boolean spawnGates) {
+    CompletableFuture<Void> placed = new CompletableFuture<>();
+    CompletableFuture<PreparedTile> preparing;
     try {
-      log.info("Spawning tile at world coords (%d, %d, %d): %s",
-          worldX, worldY, worldZ, tile.getPrefabPath());
-
-      PrefabInspector.PrefabDimensions tileDims = inspector.getPrefabDimensions(tile.getPrefabPath());
-      int tileBaseY = worldY + ROOM_Y_OFFSET;
-      int tileMinY = tileBaseY + tileDims.minY;
-      int tileMaxY = tileBaseY + tileDims.maxY;
-      if (!isWithinWorldBounds(tileMinY, tileMaxY)) {
-        log.warn("Skipping tile %s at (%d, %d, %d) - Y bounds [%d,%d] exceed world limits [%d,%d]",
-            tile.getPrefabPath(), worldX, worldY, worldZ, tileMinY, tileMaxY,
-            config.getWorldMinY(), config.getWorldMaxY());
+      preparing = CompletableFuture.supplyAsync(
+          () -> prepareTile(tile, worldX, worldY, worldZ, spawnGates), spawnWorkers)
+          .thenCompose(prepared -> prepared);
+    } catch (RejectedExecutionException e) {
+      placed.completeExceptionally(e);
+      return placed;
+    }
+    preparing.whenComplete((prepared, error) -> {
+      if (error != null) {
+        log.error("Failed to prepare tile at (%d, %d, %d): %s",
+            worldX, worldY, worldZ, error.getMessage());
+        placed.completeExceptionally(error);
+        return;
+      }
+      if (prepared == null) {
+        placed.complete(null);
+        return;
+      }
+      PlacementScheduler scheduler = placements;
+      if (scheduler != null) {
+        schedulePlacement(scheduler, world, prepared, placed);
         return;
       }
+      try {
+        world.execute(() -> {
+          try {
+            placeTile(world, prepared);
+            placed.complete(null);
+          } catch (Exception e) {
+            log.error("Failed to place tile at (%d, %d, %d): %s",
+                worldX, worldY, worldZ, e.getMessage());
+            placed.completeExceptionally(e);
+          }
+        });
+      } catch (Exception e) {
+        placed.completeExceptionally(e);
+      }
+    });
+    return placed;
+  }
 
-      // Load the tile's prefab
-      BlockSelection tilePrefab = loadPrefab(tile.getPrefabPath()).join();
+  /**
+   * Sets how player positions are looked up for placement priority.
+   */
+  public void setPlayerLocator(@Nonnull PlayerLocator playerLocator) {
+    this.playerLocator = Objects.requireNonNull(playerLocator, "playerLocator");
+  }
 
-      // Apply rotation based on tile rotation (Y-axis)
-      BlockSelection rotatedPrefab = tilePrefab.cloneSelection()
-          .rotate(Axis.Y, tile.getRotation());
-      if (rotatedPrefab.getFluidCount() == 0 && tilePrefab.getFluidCount() > 0) {
-        String jsonContent = prefabJsonCache.get(tile.getPrefabPath());
-        if (jsonContent != null) {
-          hydrateFluidsFromJson(rotatedPrefab, jsonContent, tile.getPrefabPath(), tile.getRotation());
-        }
+  /**
+   * Queues a prepared tile as placement jobs at the tile's center: one per
+   * sliced section and one per prefab placed whole, so they run in order. The
+   * last job spawns the tile's entities; once a job fails, the rest are
+   * skipped.
+   */
+  private void schedulePlacement(@Nonnull PlacementScheduler scheduler, @Nonnull World world,
+      @Nonnull PreparedTile prepared, @Nonnull CompletableFuture<Void> placed) {
+    List<PreparedPlacement> tilePlacements = tilePlacements(prepared);
+    List<PrefabHook> hooks = PrefabHookRegistry.getHooks();
+    List<Ref<EntityStore>> spawned = new ArrayList<>();
+    AtomicBoolean failed = new AtomicBoolean();
+    List<Runnable> steps = new ArrayList<>();
+    List<Integer> stepBlocks = new ArrayList<>();
+    for (PreparedPlacement placement : tilePlacements) {
+      if (placement.slices.isEmpty()) {
+        steps.add(() -> writePlacement(world, placement, placement.selection, hooks, spawned, true, true));
+        stepBlocks.add(blockCount(placement));
+        continue;
       }
+      int last = placement.slices.size() - 1;
+      for (int i = 0; i <= last; i++) {
+        PlacementSlice slice = placement.slices.get(i);
+        boolean first = i == 0;
+        boolean end = i == last;
+        steps.add(() -> writePlacement(world, placement, slice.selection, hooks, spawned, first, end));
+        stepBlocks.add(slice.blockCount);
+      }
+    }
+    Runnable lastStep = steps.get(steps.size() - 1);
+    steps.set(steps.size() - 1, () -> {
+      lastStep.run();
+      finishPlacements(world, tilePlacements, spawned);
+      log.info("Successfully spawned tile at (%d, %d, %d)", prepared.worldX, prepared.worldY, prepared.worldZ);
+    });
 
-      // Write prefab to world at the specified coordinates
-      Vector3i tileOrigin = new Vector3i(worldX, tileBaseY, worldZ);
-      PrefabPlaceContext placeContext = new PrefabPlaceContext(world, tile.getPrefabPath(), tileOrigin,
-          tile.getRotation(), false, rotatedPrefab);
-      for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-        hook.beforePlace(placeContext);
+    double half = config.getTileSize() / 2.0;
+    String worldName = world.getName();
+    CompletableFuture<?>[] jobs = new CompletableFuture<?>[steps.size()];
+    for (int i = 0; i < jobs.length; i++) {
+      Runnable step = steps.get(i);
+      CompletableFuture<Void> job = new CompletableFuture<>();
+      jobs[i] = job;
+      scheduler.submit(worldName, prepared.worldX + half, prepared.worldZ + half, stepBlocks.get(i), () -> {
+        if (failed.get()) {
+          return;
+        }
+        try {
+          step.run();
+        } catch (RuntimeException e) {
+          failed.set(true);
+          throw e;
+        }
+      }, job);
+    }
+    placementWorlds.put(worldName, world);
+    CompletableFuture.allOf(jobs).whenComplete((ignored, error) -> {
+      if (error == null) {
+        placed.complete(null);
+        return;
       }
+      Throwable cause = error instanceof CompletionException && error.getCause() != null
+          ? error.getCause()
+          : error;
+      log.error("Failed to place tile at (%d, %d, %d): %s",
+          prepared.worldX, prepared.worldY, prepared.worldZ, cause.getMessage());
+      placed.completeExceptionally(cause);
+    });
+  }
 
-      rotatedPrefab.place(
-          ConsoleSender.INSTANCE,
-          world,
-          tileOrigin,
-          null,
-          entityRef -> {
-            if (entityRef != null) {
-              for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-                hook.onSpawnEntity(world, tile.getPrefabPath(), entityRef);
-              }
-            }
-            unfreezeSpawnedEntity(world, entityRef);
-          });
+  private int blockCount(@Nonnull PreparedPlacement placement) {
+    CompiledPrefab compiled = getCompiledPrefab(placement.prefabPath);
+    return compiled == null ? 1 : compiled.getBlockCount();
+  }
 
-      for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-        hook.afterPlace(placeContext);
+  /**
+   * Schedules one budgeted drain on every world with queued placements.
+   */
+  private void tickPlacements() {
+    PlacementScheduler scheduler = placements;
+    if (scheduler == null) {
+      return;
+    }
+    for (String worldName : placementWorlds.keySet()) {
+      World world = placementWorlds.computeIfPresent(worldName,
+          (name, current) -> scheduler.hasPending(name) ? current : null);
+      if (world == null || !scheduler.markScheduled(worldName)) {
+        continue;
       }
-      spawnPrefabEntities(world, tile.getPrefabPath(), tileOrigin, tile.getRotation(),
-          new RoomCoordinate(tile.getGridX(), tile.getGridZ()));
-
-      if (spawnGates) {
-        // Spawn gates: blocked gates always; interior gates only once per edge
-        for (CardinalDirection direction : CardinalDirection.all()) {
-          if (direction == null) {
-            continue;
-          }
-          String gatePath = tile.getGate(direction);
-          if (gatePath == null) {
-            continue;
-          }
+      try {
+        world.execute(() -> scheduler.drain(worldName, locatePlayers(world)));
+      } catch (Exception e) {
+        log.warn("[PLACEMENT] Dropping placements for %s: %s", worldName, e.getMessage());
+        scheduler.releaseScheduled(worldName);
+        placementWorlds.remove(worldName);
+        scheduler.cancel(worldName);
+      }
+    }
+  }
 
-          if (!shouldSpawnGate(tile, direction, gatePath)) {
-            continue;
-          }
+  @Nonnull
+  private double[] locatePlayers(@Nonnull World world) {
+    try {
+      return playerLocator.locate(world);
+    } catch (Exception e) {
+      log.fine("[PLACEMENT] Player lookup failed for %s: %s", world.getName(), e.getMessage());
+      return new double[0];
+    }
+  }
+
+  /**
+   * Resolves a tile (and its gates) and starts loading and rotating their
+   * prefabs. Does not touch the world or wait on a load, so it can run on any
+   * thread; loads complete on their own and the rest of the preparation
+   * continues on the spawn workers.
+   *
+   * @return Future of the prepared tile, completing with null when the tile
+   *         lies outside the world bounds
+   */
+  @Nonnull
+  private CompletableFuture<PreparedTile> prepareTile(
+      @Nonnull DungeonTile tile,
+      int worldX,
+      int worldY,
+      int worldZ,
+      boolean spawnGates) {
+    log.info("Spawning tile at world coords (%d, %d, %d): %s",
+        worldX, worldY, worldZ, tile.getPrefabPath());
+
+    PrefabInspector.PrefabDimensions tileDims = getPrefabDimensions(tile.getPrefabPath());
+    int tileBaseY = worldY + ROOM_Y_OFFSET;
+    int tileMinY = tileBaseY + tileDims.minY;
+    int tileMaxY = tileBaseY + tileDims.maxY;
+    if (!isWithinWorldBounds(tileMinY, tileMaxY)) {
+      log.warn("Skipping tile %s at (%d, %d, %d) - Y bounds [%d,%d] exceed world limits [%d,%d]",
+          tile.getPrefabPath(), worldX, worldY, worldZ, tileMinY, tileMaxY,
+          config.getWorldMinY(), config.getWorldMaxY());
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Vector3i tileOrigin = new Vector3i(worldX, tileBaseY, worldZ);
+    CompletableFuture<PreparedPlacement> placement = preparePlacement(tile.getPrefabPath(), tileOrigin,
+        tile.getRotation(), false, new RoomCoordinate(tile.getGridX(), tile.getGridZ()));
 
-          spawnGate(gatePath, direction, world, worldX, worldY, worldZ);
+    List<CompletableFuture<PreparedPlacement>> gates = new ArrayList<>();
+    if (spawnGates) {
+      // Spawn gates: blocked gates always; interior gates only once per edge
+      for (CardinalDirection direction : CardinalDirection.all()) {
+        if (direction == null) {
+          continue;
+        }
+        String gatePath = tile.getGate(direction);
+        if (gatePath == null) {
+          continue;
         }
-      }
 
-      log.info("Successfully spawned tile at (%d, %d, %d)", worldX, worldY, worldZ);
+        if (!shouldSpawnGate(tile, direction, gatePath)) {
+          continue;
+        }
 
-    } catch (Exception e) {
-      log.error("Failed to spawn tile at (%d, %d, %d): %s",
-          worldX, worldY, worldZ, e.getMessage());
-      throw new RuntimeException("Failed to spawn tile", e);
+        CompletableFuture<PreparedPlacement> gate = prepareGate(gatePath, direction, worldX, worldY, worldZ);
+        if (gate != null) {
+          gates.add(gate);
+        }
+      }
+    }
+
+    CompletableFuture<?>[] loads = new CompletableFuture<?>[1 + gates.size()];
+    loads[0] = placement;
+    for (int i = 0; i < gates.size(); i++) {
+      loads[i + 1] = gates.get(i);
     }
+    return CompletableFuture.allOf(loads).thenApply(ignored -> {
+      List<PreparedPlacement> preparedGates = new ArrayList<>(gates.size());
+      for (CompletableFuture<PreparedPlacement> gate : gates) {
+        preparedGates.add(gate.join());
+      }
+      return new PreparedTile(placement.join(), preparedGates, worldX, worldY, worldZ);
+    });
   }
 
   /**
-   * Spawns a gate prefab at the specified location and direction.
-   * MUST be called from the world thread.
-   * 
-   * @param gatePath   Full mod path to gate prefab
-   * @param direction  Direction the gate faces (the wall it's on)
-   * @param world      The world to spawn into
-   * @param tileWorldX World X of the parent tile
-   * @param tileWorldY World Y of the parent tile
-   * @param tileWorldZ World Z of the parent tile
+   * @return Future of the prepared gate, or null when it lies outside the world
+   *         bounds
    */
-  public void spawnGate(
+  @Nullable
+  private CompletableFuture<PreparedPlacement> prepareGate(
       @Nonnull String gatePath,
       @Nonnull CardinalDirection direction,
-      @Nonnull World world,
       int tileWorldX,
       int tileWorldY,
       int tileWorldZ) {
-    try {
-      log.info("Spawning gate %s facing %s", gatePath, direction);
-
-      // Inspect the gate prefab to determine its dimensions
-      PrefabInspector.PrefabDimensions gateDims = inspector.getPrefabDimensions(gatePath);
-
-      // Calculate optimal placement based on gate dimensions
-      int[] placement = calculateGatePlacement(direction, gateDims);
-      int rotationDegrees = placement[0];
-      int offsetX = placement[1];
-      int offsetZ = placement[2];
-
-      // Calculate gate position based on direction and inspected dimensions
-      int gateX = tileWorldX + offsetX;
-      int gateZ = tileWorldZ + offsetZ;
-      int gateY = tileWorldY + GATE_Y_OFFSET - gateDims.minY;
-      int gateMinY = gateY + gateDims.minY;
-      int gateMaxY = gateY + gateDims.maxY;
-      if (!isWithinWorldBounds(gateMinY, gateMaxY)) {
-        log.warn("Skipping gate %s at (%d, %d, %d) - Y bounds [%d,%d] exceed world limits [%d,%d]",
-            gatePath, gateX, gateY, gateZ, gateMinY, gateMaxY,
-            config.getWorldMinY(), config.getWorldMaxY());
-        return;
-      }
+    log.info("Spawning gate %s facing %s", gatePath, direction);
+
+    // Inspect the gate prefab to determine its dimensions
+    PrefabInspector.PrefabDimensions gateDims = getPrefabDimensions(gatePath);
+
+    // Calculate optimal placement based on gate dimensions
+    int[] placement = calculateGatePlacement(direction, gateDims);
+    int rotationDegrees = placement[0];
+    int offsetX = placement[1];
+    int offsetZ = placement[2];
+
+    // Calculate gate position based on direction and inspected dimensions
+    int gateX = tileWorldX + offsetX;
+    int gateZ = tileWorldZ + offsetZ;
+    int gateY = tileWorldY + GATE_Y_OFFSET - gateDims.minY;
+    int gateMinY = gateY + gateDims.minY;
+    int gateMaxY = gateY + gateDims.maxY;
+    if (!isWithinWorldBounds(gateMinY, gateMaxY)) {
+      log.warn("Skipping gate %s at (%d, %d, %d) - Y bounds [%d,%d] exceed world limits [%d,%d]",
+          gatePath, gateX, gateY, gateZ, gateMinY, gateMaxY,
+          config.getWorldMinY(), config.getWorldMaxY());
+      return null;
+    }
 
-      // Load and rotate gate prefab
-      BlockSelection gatePrefab = loadPrefab(gatePath).join();
+    return preparePlacement(gatePath, new Vector3i(gateX, gateY, gateZ), rotationDegrees, true, null);
+  }
 
-      BlockSelection rotatedGate = gatePrefab.cloneSelection()
-          .rotate(Axis.Y, rotationDegrees);
+  /**
+   * Loads a prefab, then rotates it, plans its entities and, when it is too
+   * large for one tick's budget, slices it on the spawn workers.
+   */
+  @Nonnull
+  private CompletableFuture<PreparedPlacement> preparePlacement(@Nonnull String prefabPath,
+      @Nonnull Vector3i origin, int rotationDegrees, boolean gate, @Nullable RoomCoordinate room) {
+    return loadPrefab(prefabPath).thenApplyAsync(prefab -> new PreparedPlacement(prefabPath,
+        getRotatedVariant(prefabPath, prefab, rotationDegrees), origin, rotationDegrees, gate, room,
+        planPrefabEntities(prefabPath, origin, rotationDegrees),
+        slicePlacement(prefabPath, origin, rotationDegrees)), spawnWorkers);
+  }
 
-      // Write gate to world
-      Vector3i gateOrigin = new Vector3i(gateX, gateY, gateZ);
-      PrefabPlaceContext gateContext = new PrefabPlaceContext(world, gatePath, gateOrigin, rotationDegrees, true,
-          rotatedGate);
-      for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-        hook.beforePlace(gateContext);
+  /**
+   * Cuts a prefab larger than the placement block budget into one selection
+   * per chunk section it covers, built from its compiled blocks and rotated
+   * like the whole prefab, so its placement can be spread over several ticks.
+   *
+   * @return The slices bottom-up, or an empty list when the prefab is placed
+   *         whole
+   */
+  @Nonnull
+  private List<PlacementSlice> slicePlacement(@Nonnull String prefabPath, @Nonnull Vector3i origin,
+      int rotationDegrees) {
+    PlacementScheduler scheduler = placements;
+    CompiledPrefab compiled = getCompiledPrefab(prefabPath);
+    if (scheduler == null || compiled == null || !compiled.isSliceable()
+        || compiled.getBlockCount() <= scheduler.getBlocksPerTick()) {
+      return List.of();
+    }
+    int normalized = ((rotationDegrees % 360) + 360) % 360;
+    Map<String, Integer> blockIds = new HashMap<>();
+    List<SectionSlicer.Section> sections = SectionSlicer.slice(compiled, origin.x, origin.y, origin.z,
+        normalized);
+    List<PlacementSlice> slices = new ArrayList<>(sections.size());
+    for (SectionSlicer.Section section : sections) {
+      BlockSelection selection = new BlockSelection();
+      for (int j = 0; j < section.getBlockCount(); j++) {
+        int i = section.getBlock(j);
+        int blockId = blockIds.computeIfAbsent(compiled.getBlockName(i),
+            name -> BlockType.getBlockIdOrUnknown(name, "Prefab block %s", name));
+        selection.addBlockAtWorldPos(compiled.getBlockX(i), compiled.getBlockY(i), compiled.getBlockZ(i),
+            blockId, compiled.getBlockRotation(i), compiled.getBlockFiller(i), 0);
+      }
+      if (normalized != 0) {
+        selection = selection.rotate(Axis.Y, normalized);
+      }
+      // Fluids go in after rotation, which does not carry them over
+      for (int j = 0; j < section.getFluidCount(); j++) {
+        int i = section.getFluid(j);
+        String name = compiled.getFluidName(i);
+        if ("Empty".equalsIgnoreCase(name)) {
+          continue;
+        }
+        int fluidId = Fluid.getFluidIdOrUnknown(name, "Prefab fluid %s", name);
+        if (fluidId == Fluid.EMPTY_ID) {
+          continue;
+        }
+        int[] rotated = SectionSlicer.rotateLocalXZ(compiled.getFluidX(i), compiled.getFluidZ(i), normalized);
+        selection.addFluidAtLocalPos(rotated[0], compiled.getFluidY(i), rotated[1], fluidId,
+            (byte) compiled.getFluidLevel(i));
       }
+      slices.add(new PlacementSlice(selection, section.getBlockCount()));
+    }
+    return List.copyOf(slices);
+  }
 
-      rotatedGate.place(
-          ConsoleSender.INSTANCE,
-          world,
-          gateOrigin,
-          null,
-          entityRef -> {
-            log.info("Spawned entity in gate: %s", entityRef);
-            if (entityRef != null) {
-              for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-                hook.onSpawnEntity(world, gatePath, entityRef);
-              }
-              unfreezeSpawnedEntity(world, entityRef);
-            }
-          });
+  /**
+   * Writes a prepared tile and its gates into the world. MUST be called from
+   * the world thread.
+   */
+  private void placeTile(@Nonnull World world, @Nonnull PreparedTile prepared) {
+    place(world, tilePlacements(prepared));
+    log.info("Successfully spawned tile at (%d, %d, %d)", prepared.worldX, prepared.worldY, prepared.worldZ);
+  }
 
-      for (PrefabHook hook : PrefabHookRegistry.getHooks()) {
-        hook.afterPlace(gateContext);
+  @Nonnull
+  private static List<PreparedPlacement> tilePlacements(@Nonnull PreparedTile prepared) {
+    List<PreparedPlacement> placements = new ArrayList<>(1 + prepared.gates.size());
+    placements.add(prepared.tile);
+    placements.addAll(prepared.gates);
+    return placements;
+  }
+
+  /**
+   * Writes placements into the world as one batch: block entities they carry
+   * are unfrozen by a single sweep and their extracted entities are spawned
+   * from a single world task.
+   */
+  private void place(@Nonnull World world, @Nonnull List<PreparedPlacement> placements) {
+    List<PrefabHook> hooks = PrefabHookRegistry.getHooks();
+    List<Ref<EntityStore>> spawned = new ArrayList<>();
+    for (PreparedPlacement prepared : placements) {
+      writePlacement(world, prepared, prepared.selection, hooks, spawned, true, true);
+    }
+    finishPlacements(world, placements, spawned);
+  }
+
+  /**
+   * Writes a placement, or one slice of it, into the world. Hooks see the
+   * whole placement: {@code beforePlace} runs with its first slice and
+   * {@code afterPlace} with its last. MUST be called from the world thread.
+   */
+  private void writePlacement(@Nonnull World world, @Nonnull PreparedPlacement prepared,
+      @Nonnull BlockSelection selection, @Nonnull List<PrefabHook> hooks, @Nonnull List<Ref<EntityStore>> spawned,
+      boolean first, boolean last) {
+    String prefabPath = prepared.prefabPath;
+    PrefabPlaceContext placeContext = new PrefabPlaceContext(world, prefabPath, prepared.origin,
+        prepared.rotationDegrees, prepared.gate, prepared.selection);
+    if (first) {
+      for (PrefabHook hook : hooks) {
+        hook.beforePlace(placeContext);
       }
-      spawnPrefabEntities(world, gatePath, gateOrigin, rotationDegrees, null);
+    }
 
-      log.info("Successfully spawned gate at (%d, %d, %d) facing %s with %d degree rotation (dims: %s)",
-          gateX, gateY, gateZ, direction, rotationDegrees, gateDims);
+    selection.place(
+        ConsoleSender.INSTANCE,
+        world,
+        prepared.origin,
+        null,
+        entityRef -> {
+          if (entityRef == null) {
+            return;
+          }
+          for (PrefabHook hook : hooks) {
+            hook.onSpawnEntity(world, prefabPath, entityRef);
+          }
+          spawned.add(entityRef);
+        });
 
-    } catch (Exception e) {
-      log.error("Failed to spawn gate %s: %s", gatePath, e.getMessage());
-      throw new RuntimeException("Failed to spawn gate", e);
+    if (last) {
+      for (PrefabHook hook : hooks) {
+        hook.afterPlace(placeContext);
+      }
+    }
+  }
+
+  /**
+   * Unfreezes the block entities a batch of placements spawned and spawns
+   * their extracted entities. MUST be called from the world thread.
+   */
+  private void finishPlacements(@Nonnull World world, @Nonnull List<PreparedPlacement> placements,
+      @Nonnull List<Ref<EntityStore>> spawned) {
+    if (!spawned.isEmpty()) {
+      scheduleUnfreezeSweep(world, spawned, UNFREEZE_SWEEPS);
     }
+    spawnPlannedEntities(world, placements);
   }
 
   private boolean isWithinWorldBounds(int minY, int maxY) {
@@ -796,143 +926,377 @@ public class PrefabSpawner {
     return new int[] { rotationDegrees, offsetX, offsetZ };
   }
 
+  /**
+   * Builds and caches the rotated variant of a prefab ahead of its placement,
+   * off the world thread. Used for rooms the lookahead planner has already
+   * decided.
+   *
+   * @return Future completing once the variant is cached (or failed to load)
+   */
+  @Nonnull
+  public CompletableFuture<Void> prewarmVariant(@Nonnull String prefabPath, int rotationDegrees) {
+    if (variantCache.getBudgetBytes() == 0 || variantCache.contains(prefabPath, rotationDegrees)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return loadPrefab(prefabPath)
+        .thenAccept(prefab -> getRotatedVariant(prefabPath, prefab, rotationDegrees))
+        .exceptionally(error -> {
+          log.fine("[VARIANTS] Prewarm failed for %s@%d: %s", prefabPath, rotationDegrees, error.getMessage());
+          return null;
+        });
+  }
+
+  @Nonnull
+  public RotationVariantCache<BlockSelection> getVariantCache() {
+    return variantCache;
+  }
+
+  /**
+   * Gets a ready-to-place copy of a prefab rotated about Y with its fluids
+   * restored, building and caching it on the first request.
+   */
+  @Nonnull
+  private BlockSelection getRotatedVariant(@Nonnull String prefabPath, @Nonnull BlockSelection prefab,
+      int rotationDegrees) {
+    BlockSelection cached = variantCache.get(prefabPath, rotationDegrees);
+    if (cached != null) {
+      return cached;
+    }
+    BlockSelection rotated = prefab.cloneSelection().rotate(Axis.Y, rotationDegrees);
+    CompiledPrefab compiled = getCompiledPrefab(prefabPath);
+    if (rotated.getFluidCount() == 0 && prefab.getFluidCount() > 0 && compiled != null) {
+      hydrateFluids(rotated, compiled, prefabPath, rotationDegrees);
+    }
+    return variantCache.put(prefabPath, rotationDegrees, rotated,
+        estimateSelectionBytes(prefabPath, variantCache.getBudgetBytes()));
+  }
+
+  /**
+   * Stops the spawn workers; queued asynchronous spawns are dropped.
+   */
+  public void shutdown() {
+    preloader.shutdown();
+    spawnWorkers.shutdownNow();
+    if (placementTicker != null) {
+      placementTicker.shutdownNow();
+    }
+    if (placements != null) {
+      placements.cancelAll();
+    }
+    placementWorlds.clear();
+    catalog.save();
+    clearCaches();
+    CacheMetrics.unregister(prefabCache);
+    CacheMetrics.unregister(variantCache.getCache());
+    CacheMetrics.unregister(catalog.getResidentCache());
+  }
+
   public void clearCaches() {
     prefabCache.clear();
-    inspector.clearCache();
+    variantCache.clear();
+    catalog.clearResident();
+  }
+
+  /**
+   * Checks every prefab against its file again on next use, after asset packs
+   * changed. Prefabs whose content is unchanged keep their catalog entries.
+   */
+  public void revalidatePrefabs() {
+    catalog.revalidate();
+    prefabCache.clear();
+    variantCache.clear();
   }
 
+  /**
+   * Drops everything cached for one prefab after its file changed.
+   */
+  public void revalidatePrefab(@Nonnull String prefabPath) {
+    PrefabPathIndex.get().invalidate(prefabPath);
+    catalog.revalidate(prefabPath);
+    prefabCache.invalidate(prefabPath);
+    variantCache.invalidate(prefabPath);
+  }
+
+  /**
+   * Gets the preloader that loads likely prefabs into the prefab cache before
+   * their first spawn.
+   */
+  @Nonnull
+  public PrefabPreloader getPreloader() {
+    return preloader;
+  }
+
+  @Nonnull
+  public PrefabCatalog getCatalog() {
+    return catalog;
+  }
+
+  /**
+   * Gets a prefab's dimensions from its catalog bounds, or the default door
+   * dimensions when the prefab is unavailable.
+   */
   @Nonnull
   public PrefabInspector.PrefabDimensions getPrefabDimensions(@Nonnull String prefabPath) {
-    return inspector.getPrefabDimensions(prefabPath);
+    PrefabBounds bounds = catalog.getBounds(prefabPath);
+    if (bounds == null) {
+      CompiledPrefab compiled = getCompiledPrefab(prefabPath);
+      bounds = compiled == null ? null : compiled.getBounds();
+    }
+    return PrefabInspector.PrefabDimensions.fromBounds(bounds);
   }
 
+  /**
+   * Gets the walkable cells of a prefab at a rotation, computed once per
+   * catalog entry.
+   *
+   * @return The surface, empty when the prefab JSON is unavailable
+   */
+  @Nonnull
+  public WalkableSurface getWalkableSurface(@Nonnull String prefabPath, int rotationDegrees) {
+    CompiledPrefab compiled = getCompiledPrefab(prefabPath);
+    if (compiled == null) {
+      return WalkableSurface.empty();
+    }
+    WalkableSurface[] surfaces = catalog.derive(compiled, WALKABLE_SURFACES);
+    int normalized = ((rotationDegrees % 360) + 360) % 360;
+    return surfaces[(normalized / 90) & 3];
+  }
+
+  @Nonnull
+  private static WalkableSurface[] buildWalkableSurfaces(@Nonnull CompiledPrefab compiled) {
+    WalkableSurface base = compiled.buildWalkableSurface(PrefabSpawner::classifyBlock);
+    return new WalkableSurface[] { base, base.rotated(90), base.rotated(180), base.rotated(270) };
+  }
+
+  /**
+   * Classifies a prefab block by its block type, like the controller's world
+   * scan: empty material or draw type and foliage are passable, a block type
+   * that is not loaded is neither ground nor headroom.
+   */
+  @Nonnull
+  private static WalkableSurface.BlockClass classifyBlock(@Nonnull String blockName) {
+    if (blockName.isBlank()) {
+      return WalkableSurface.BlockClass.PASSABLE;
+    }
+    BlockType block = BlockType.getAssetMap().getAsset(blockName);
+    if (block == null) {
+      return WalkableSurface.BlockClass.BLOCKING;
+    }
+    if (block.getMaterial() == BlockMaterial.Empty || block.getDrawType() == DrawType.Empty
+        || WalkableSurface.isFoliage(block.getId())) {
+      return WalkableSurface.BlockClass.PASSABLE;
+    }
+    return WalkableSurface.BlockClass.SOLID;
+  }
+
+  /**
+   * Gets the compiled form of a prefab, compiling it without loading the
+   * server selection when the catalog does not have it yet.
+   *
+   * @return The compiled prefab, or null when its JSON is unavailable
+   */
   @Nullable
-  public String getPrefabJson(@Nonnull String prefabPath) {
-    String cached = prefabJsonCache.get(prefabPath);
-    if (cached != null) {
-      return cached;
+  public CompiledPrefab getCompiledPrefab(@Nonnull String prefabPath) {
+    CompiledPrefab resident = catalog.peek(prefabPath);
+    if (resident != null) {
+      return resident;
     }
-    String prefabEntryPath = "Server/Prefabs/" + prefabPath + ".prefab.json";
-    Path prefabPathResolved = resolveAssetPrefab(prefabEntryPath, prefabPath);
-    if (prefabPathResolved == null || !Files.exists(prefabPathResolved)) {
+    try {
+      return compile(prefabPath).compiled;
+    } catch (PrefabLoadException e) {
+      log.fine("Prefab %s unavailable: %s", prefabPath, e.getMessage());
       return null;
-    }
-    StringBuilder jsonBuilder = new StringBuilder();
-    try (BufferedReader reader = Files.newBufferedReader(prefabPathResolved, StandardCharsets.UTF_8)) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        jsonBuilder.append(line).append('\n');
-      }
-    } catch (IOException e) {
-      log.warn("Failed to read prefab JSON for %s: %s", prefabPath, e.getMessage());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to compile prefab %s: %s", prefabPath, e.getMessage());
       return null;
     }
-    String json = jsonBuilder.toString();
-    if (!json.isBlank()) {
-      prefabJsonCache.put(prefabPath, json);
-    }
-    return json;
   }
 
-  private void unfreezeSpawnedEntity(@Nonnull World world, @Nullable Ref<EntityStore> entityRef) {
-    if (entityRef == null) {
-      return;
+  /**
+   * Gets the content hash of a prefab's current source, without loading its
+   * compiled form when the file is unchanged since it was last compiled.
+   *
+   * @return The SHA-256 of the prefab JSON, or null when it is unavailable
+   */
+  @Nullable
+  public byte[] getContentHash(@Nonnull String prefabPath) {
+    String prefabEntryPath = "Server/Prefabs/" + prefabPath + ".prefab.json";
+    Path source = resolveAssetPrefab(prefabEntryPath);
+    if (source == null) {
+      log.fine("Prefab %s unavailable: not found in assets at %s", prefabPath, prefabEntryPath);
+      return null;
+    }
+    try {
+      return catalog.contentHash(prefabPath, source, prefabCompiler);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to hash prefab %s: %s", prefabPath, e.getMessage());
+      return null;
     }
-    attemptUnfreeze(world, entityRef, 3);
   }
 
-  private void attemptUnfreeze(@Nonnull World world, @Nonnull Ref<EntityStore> entityRef, int remainingAttempts) {
-    boolean success = PrefabEntityUtils.tryUnfreezePrefabEntity(entityRef, log.getLogger());
-    if (success || remainingAttempts <= 0) {
-      return;
+  /**
+   * Unfreezes a batch of placed entities on the next world task, carrying the
+   * ones that are not ready yet over to the following sweep.
+   */
+  private void scheduleUnfreezeSweep(@Nonnull World world, @Nonnull List<Ref<EntityStore>> pending,
+      int remainingSweeps) {
+    try {
+      world.execute(() -> {
+        List<Ref<EntityStore>> retry = new ArrayList<>();
+        for (Ref<EntityStore> entityRef : pending) {
+          if (!PrefabEntityUtils.tryUnfreezePrefabEntity(entityRef, log.getLogger())) {
+            retry.add(entityRef);
+          }
+        }
+        if (retry.isEmpty()) {
+          return;
+        }
+        if (remainingSweeps > 1) {
+          scheduleUnfreezeSweep(world, retry, remainingSweeps - 1);
+        } else {
+          log.fine("[PREFAB-ENTITIES] %d entities still frozen after %d sweeps", retry.size(), UNFREEZE_SWEEPS);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      log.fine("[PREFAB-ENTITIES] Unfreeze sweep rejected for %s: %s", world.getName(), e.getMessage());
     }
-    world.execute(() -> attemptUnfreeze(world, entityRef, remainingAttempts - 1));
   }
 
-  private void spawnPrefabEntities(@Nonnull World world, @Nonnull String prefabPath, @Nonnull Vector3i origin,
-      int rotationDegrees, @Nullable RoomCoordinate room) {
-    List<PrefabEntityDefinition> entities = prefabEntityCache.get(prefabPath);
-    if (entities == null) {
-      log.fine("No prefab entities cached for %s", prefabPath);
-      return;
+  /**
+   * Works out where a prefab's extracted entities land for a placement. Pure
+   * computation over the entity cache, so it runs while the tile is prepared.
+   */
+  @Nonnull
+  private List<PlannedEntity> planPrefabEntities(@Nonnull String prefabPath, @Nonnull Vector3i origin,
+      int rotationDegrees) {
+    CompiledPrefab compiled = getCompiledPrefab(prefabPath);
+    if (compiled == null) {
+      log.fine("No compiled prefab for %s", prefabPath);
+      return List.of();
     }
-    if (entities.isEmpty()) {
+    List<List<PrefabEntityDefinition>> layouts = catalog.derive(compiled, ROTATED_ENTITIES);
+    if (layouts.isEmpty()) {
       log.fine("Prefab %s has no entities to spawn", prefabPath);
-      return;
+      return List.of();
     }
-    log.info("[PREFAB-ENTITIES] Spawning %d entities from %s at %s", entities.size(), prefabPath, origin);
-      NPCPlugin npcPlugin = NPCPlugin.get();
+    int normalized = ((rotationDegrees % 360) + 360) % 360;
+    List<PrefabEntityDefinition> entities = layouts.get((normalized / 90) & 3);
+    List<PlannedEntity> planned = new ArrayList<>(entities.size());
+    for (PrefabEntityDefinition def : entities) {
+      Vector3d local = def.getPosition();
+      Vector3d worldPos = new Vector3d(origin.x + local.x, origin.y + local.y, origin.z + local.z);
+      planned.add(new PlannedEntity(def.getModelId(), worldPos, def.getRotation()));
+    }
+    return planned;
+  }
+
+  /**
+   * Spawns the extracted entities of a batch of placements. Spawn requests and
+   * the furniture events that go with them are dispatched from one world task;
+   * the spawned events follow in one more task once every request has a result
+   * (see {@link EntitySpawnBatch}).
+   */
+  private void spawnPlannedEntities(@Nonnull World world, @Nonnull List<PreparedPlacement> placements) {
+    EntitySpawnBatch batch = new EntitySpawnBatch();
+    NPCPlugin npcPlugin = null;
+    for (PreparedPlacement placement : placements) {
+      if (placement.entities.isEmpty()) {
+        continue;
+      }
+      String prefabPath = placement.prefabPath;
+      log.info("[PREFAB-ENTITIES] Spawning %d entities from %s", placement.entities.size(), prefabPath);
       if (npcPlugin == null) {
-        log.warn("[PREFAB-ENTITIES] NPCPlugin not available - cannot spawn entities");
-        return;
+        npcPlugin = NPCPlugin.get();
+        if (npcPlugin == null) {
+          log.warn("[PREFAB-ENTITIES] NPCPlugin not available - cannot spawn entities");
+          return;
+        }
       }
-      for (PrefabEntityDefinition def : entities) {
-        if (def == null) {
+      for (PlannedEntity entity : placement.entities) {
+        String modelId = entity.modelId;
+        if (!npcPlugin.hasRoleName(modelId)) {
+          log.warn("[PREFAB-ENTITIES] Skipping NPC %s (no role registered)", modelId);
           continue;
         }
-        String modelId = def.getModelId();
-      if (!npcPlugin.hasRoleName(modelId)) {
-        log.warn("[PREFAB-ENTITIES] Skipping NPC %s (no role registered)", modelId);
-        continue;
+        Vector3d worldPos = entity.position;
+        log.fine("[PREFAB-ENTITIES] Spawning %s at (%.1f, %.1f, %.1f)", modelId, worldPos.x, worldPos.y,
+            worldPos.z);
+        addFurnitureEvents(batch, world, prefabPath, modelId, worldPos);
+        NpcSpawnRequestedEvent request = new NpcSpawnRequestedEvent(
+            world,
+            placement.room,
+            modelId,
+            modelId,
+            worldPos,
+            entity.rotation,
+            prefabPath);
+        batch.addRequest(request);
       }
-      Vector3d rotated = rotatePosition(def.getPosition(), rotationDegrees);
-      Vector3d worldPos = new Vector3d(origin.x + rotated.x, origin.y + rotated.y, origin.z + rotated.z);
-      Vector3f rotation = rotateRotation(def.getRotation(), rotationDegrees);
-      log.info("[PREFAB-ENTITIES] Spawning %s at (%.1f, %.1f, %.1f)", modelId, worldPos.x, worldPos.y, worldPos.z);
-      maybeEmitChestSpawned(world, prefabPath, modelId, worldPos);
-      NpcSpawnRequestedEvent request = new NpcSpawnRequestedEvent(
-          world,
-          room,
-          modelId,
-          modelId,
-          worldPos,
-          Objects.requireNonNull(rotation, "rotation"),
-          prefabPath);
-      WorldEventQueue.get().dispatch(world, request);
-      NpcSpawnResult result = request.getResult().getNow(null);
-      if (result != null && result.isSuccess() && result.getEntityId() != null) {
-        UUID uuid = result.getEntityId();
-        log.info("[PREFAB-ENTITIES] Successfully spawned %s", modelId);
-        WorldEventQueue.get().dispatch(world,
-            new PrefabEntitySpawnedEvent(world, modelId, worldPos, prefabPath));
-
-        if (room != null) {
-          int defaultPoints = getDefaultPointsForEntity(modelId);
-          log.info("[PREFAB-ENTITIES] Dispatching EntitySpawnedEvent for %s (%s) in room (%d, %d) with %d points",
-              modelId, uuid, room.getX(), room.getZ(), defaultPoints);
-          WorldEventQueue.get().dispatch(world,
-              new EntitySpawnedEvent(world, uuid, room, modelId, defaultPoints, worldPos));
-        } else {
-          log.fine("[PREFAB-ENTITIES] Spawned %s but room is null - no EntitySpawnedEvent", modelId);
-        }
-      } else {
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    batch.dispatch((events, failed) -> WorldEventQueue.get().dispatchAll(world, events, failed),
+        ENTITY_SPAWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        .thenAccept(requests -> {
+          if (!requests.isEmpty()) {
+            dispatchSpawnedEvents(world, requests);
+          }
+        });
+  }
+
+  private void dispatchSpawnedEvents(@Nonnull World world, @Nonnull List<NpcSpawnRequestedEvent> requests) {
+    List<IEvent<Void>> events = new ArrayList<>(requests.size() * 2);
+    int failed = 0;
+    for (NpcSpawnRequestedEvent request : requests) {
+      String modelId = request.getModelId();
+      Vector3d worldPos = request.getPosition();
+      CompletableFuture<NpcSpawnResult> pending = request.getResult();
+      // Unanswered at the timeout or failed exceptionally: counted as failed
+      NpcSpawnResult result = pending.isDone() && !pending.isCompletedExceptionally() ? pending.getNow(null) : null;
+      if (result == null || !result.isSuccess() || result.getEntityId() == null) {
+        failed++;
         log.warn("[PREFAB-ENTITIES] Failed to spawn %s at (%.1f, %.1f, %.1f)", modelId, worldPos.x, worldPos.y,
             worldPos.z);
+        continue;
+      }
+      UUID uuid = result.getEntityId();
+      String prefabPath = Objects.requireNonNull(request.getPrefabPath(), "prefabPath");
+      events.add(new PrefabEntitySpawnedEvent(world, modelId, worldPos, prefabPath));
+
+      RoomCoordinate room = request.getRoom();
+      if (room != null) {
+        int defaultPoints = getDefaultPointsForEntity(modelId);
+        log.fine("[PREFAB-ENTITIES] Dispatching EntitySpawnedEvent for %s (%s) in room (%d, %d) with %d points",
+            modelId, uuid, room.getX(), room.getZ(), defaultPoints);
+        events.add(new EntitySpawnedEvent(world, uuid, room, modelId, defaultPoints, worldPos));
+      } else {
+        log.fine("[PREFAB-ENTITIES] Spawned %s but room is null - no EntitySpawnedEvent", modelId);
       }
     }
+    log.info("[PREFAB-ENTITIES] Spawned %d/%d entities", requests.size() - failed, requests.size());
+    WorldEventQueue.get().dispatchAll(world, events);
   }
 
-  private void maybeEmitChestSpawned(@Nonnull World world, @Nonnull String prefabPath, @Nonnull String modelId,
-      @Nonnull Vector3d worldPos) {
+  private void addFurnitureEvents(@Nonnull EntitySpawnBatch batch, @Nonnull World world,
+      @Nonnull String prefabPath, @Nonnull String modelId, @Nonnull Vector3d worldPos) {
     String lower = modelId.toLowerCase();
     if (!lower.contains("furniture_")) {
       return;
     }
     // Emit LootableEntitySpawned only for chests
     if (lower.contains("chest")) {
-      WorldEventQueue.get().dispatch(world,
-          new LootableEntitySpawnedEvent(world, worldPos, modelId, prefabPath));
+      batch.add(new LootableEntitySpawnedEvent(world, worldPos, modelId, prefabPath));
       // Also emit legacy ChestSpawned for backward compatibility
-      WorldEventQueue.get().dispatch(world,
-          new ChestSpawnedEvent(world, worldPos, modelId, prefabPath));
+      batch.add(new ChestSpawnedEvent(world, worldPos, modelId, prefabPath));
     } else {
       // Emit EntityReplaced for other furniture (torches, doors, etc.)
-      WorldEventQueue.get().dispatch(world,
-          new EntityReplacedEvent(world, worldPos, modelId, prefabPath));
+      batch.add(new EntityReplacedEvent(world, worldPos, modelId, prefabPath));
     }
   }
 
-  private Vector3d rotatePosition(@Nonnull Vector3d position, int rotationDegrees) {
+  @Nonnull
+  private static Vector3d rotatePosition(@Nonnull Vector3d position, int rotationDegrees) {
     int normalized = ((rotationDegrees % 360) + 360) % 360;
     double x = position.x;
     double z = position.z;
@@ -944,7 +1308,8 @@ public class PrefabSpawner {
     };
   }
 
-  private Vector3f rotateRotation(@Nonnull Vector3f rotation, int rotationDegrees) {
+  @Nonnull
+  private static Vector3f rotateRotation(@Nonnull Vector3f rotation, int rotationDegrees) {
     int normalized = ((rotationDegrees % 360) + 360) % 360;
     float yaw = rotation.y + (float) Math.toRadians(normalized);
     return new Vector3f(rotation.x, yaw, rotation.z);
@@ -1028,6 +1393,137 @@ public class PrefabSpawner {
     }
   }
 
+  /**
+   * Compiles prefabs for the catalog, storing their sanitized JSON, and only
+   * accepts sanitized prefabs whose sanitized copy is still stored. A prefab
+   * whose sanitized copy cannot be stored fails to compile.
+   */
+  private final class SanitizingCompiler implements PrefabCatalog.Compiler {
+    @Nonnull
+    @Override
+    public CompiledPrefab compile(@Nonnull String prefabPath, @Nonnull byte[] source, @Nonnull byte[] contentHash)
+        throws IOException {
+      PrefabAnalysis analysis = analyzePrefab(prefabPath, source, contentHash);
+      boolean sanitized = analysis.needsSanitizing();
+      if (sanitized && !sanitizedStore.contains(contentHash)) {
+        throw new PrefabLoadException("Could not store the sanitized copy of " + prefabPath);
+      }
+      variantCache.invalidate(prefabPath);
+      return compilePrefab(analysis, contentHash, sanitized);
+    }
+
+    @Override
+    public boolean accepts(@Nonnull String prefabPath, @Nonnull CompiledPrefab compiled) {
+      return !compiled.isSanitized() || sanitizedStore.contains(compiled.getContentHash());
+    }
+  }
+
+  /**
+   * Preloads prefabs into the selection cache, sized by their catalog record.
+   */
+  private final class CacheLoader implements PrefabPreloader.Loader {
+    @Override
+    public boolean isLoaded(@Nonnull String prefabPath) {
+      return prefabCache.contains(prefabPath);
+    }
+
+    @Override
+    public long sourceBytes(@Nonnull String prefabPath) {
+      return catalog.getSourceSize(prefabPath);
+    }
+
+    @Override
+    public void load(@Nonnull String prefabPath) {
+      prefabCache.get(prefabPath, PrefabSpawner.this::readPrefab);
+    }
+  }
+
+  /**
+   * A compiled prefab and the JSON file the server loads for it.
+   */
+  private static final class CompiledSource {
+    private final CompiledPrefab compiled;
+    private final Path jsonPath;
+
+    private CompiledSource(@Nonnull CompiledPrefab compiled, @Nonnull Path jsonPath) {
+      this.compiled = compiled;
+      this.jsonPath = jsonPath;
+    }
+  }
+
+  /**
+   * Prefab rotated and positioned for placement, with its entities planned.
+   */
+  private static final class PreparedPlacement {
+    private final String prefabPath;
+    private final BlockSelection selection;
+    private final Vector3i origin;
+    private final int rotationDegrees;
+    private final boolean gate;
+    private final @Nullable RoomCoordinate room;
+    private final List<PlannedEntity> entities;
+    /** Section slices written in place of {@link #selection}; empty when placed whole. */
+    private final List<PlacementSlice> slices;
+
+    private PreparedPlacement(@Nonnull String prefabPath, @Nonnull BlockSelection selection,
+        @Nonnull Vector3i origin, int rotationDegrees, boolean gate, @Nullable RoomCoordinate room,
+        @Nonnull List<PlannedEntity> entities, @Nonnull List<PlacementSlice> slices) {
+      this.prefabPath = prefabPath;
+      this.selection = selection;
+      this.origin = origin;
+      this.rotationDegrees = rotationDegrees;
+      this.gate = gate;
+      this.room = room;
+      this.entities = entities;
+      this.slices = slices;
+    }
+  }
+
+  private static final class PlacementSlice {
+    private final BlockSelection selection;
+    private final int blockCount;
+
+    private PlacementSlice(@Nonnull BlockSelection selection, int blockCount) {
+      this.selection = selection;
+      this.blockCount = blockCount;
+    }
+  }
+
+  /**
+   * Tile placement plus the gates spawned with it.
+   */
+  private static final class PreparedTile {
+    private final PreparedPlacement tile;
+    private final List<PreparedPlacement> gates;
+    private final int worldX;
+    private final int worldY;
+    private final int worldZ;
+
+    private PreparedTile(@Nonnull PreparedPlacement tile, @Nonnull List<PreparedPlacement> gates, int worldX,
+        int worldY, int worldZ) {
+      this.tile = tile;
+      this.gates = gates;
+      this.worldX = worldX;
+      this.worldY = worldY;
+      this.worldZ = worldZ;
+    }
+  }
+
+  /**
+   * Extracted prefab entity with its world position and rotation resolved.
+   */
+  private static final class PlannedEntity {
+    private final String modelId;
+    private final Vector3d position;
+    private final Vector3f rotation;
+
+    private PlannedEntity(@Nonnull String modelId, @Nonnull Vector3d position, @Nonnull Vector3f rotation) {
+      this.modelId = modelId;
+      this.position = position;
+      this.rotation = rotation;
+    }
+  }
+
   /**
    * Exception thrown when prefab loading fails.
    */
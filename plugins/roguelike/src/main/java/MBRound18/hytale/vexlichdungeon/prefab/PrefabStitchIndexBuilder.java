@@ -13,11 +13,21 @@ public final class PrefabStitchIndexBuilder {
   @Nullable
   public static StitchIndex build(@Nonnull PrefabDiscovery discovery, @Nonnull PrefabSpawner spawner,
       @Nonnull LoggingHelper log) {
+    return build(discovery, spawner, log, null);
+  }
+
+  /**
+   * Builds the stitch index from an edge index, re-analyzing only rooms that
+   * changed since {@code previous}.
+   */
+  @Nullable
+  public static StitchIndex build(@Nonnull PrefabDiscovery discovery, @Nonnull PrefabSpawner spawner,
+      @Nonnull LoggingHelper log, @Nullable PrefabEdgeIndex previous) {
     Objects.requireNonNull(discovery, "discovery");
     Objects.requireNonNull(spawner, "spawner");
     Objects.requireNonNull(log, "log");
 
-    PrefabEdgeIndex edgeIndex = PrefabEdgeIndexBuilder.build(discovery, spawner, log);
+    PrefabEdgeIndex edgeIndex = PrefabEdgeIndexBuilder.build(discovery, spawner, log, previous);
     if (edgeIndex == null) {
       return null;
     }
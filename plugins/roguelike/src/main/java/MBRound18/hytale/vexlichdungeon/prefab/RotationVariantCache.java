@@ -0,0 +1,142 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.hytale.shared.utilities.WeightedCache;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Least-recently-used cache of ready-to-place prefab variants, one slot per
+ * prefab and quarter turn, bounded by an estimated memory budget (see
+ * {@link WeightedCache}).
+ *
+ * <p>
+ * Values are built outside the cache (rotating a large room is the expensive
+ * part), so two threads may build the same variant; the first one stored wins
+ * and the other copy is dropped. Entries heavier than the whole budget are
+ * returned to the caller but never stored.
+ * </p>
+ *
+ * @param <V> Variant type, a rotated {@code BlockSelection} in the spawner
+ */
+public final class RotationVariantCache<V> {
+
+  private final WeightedCache<Key, Entry<V>> entries;
+
+  /**
+   * @param budgetBytes Memory budget in bytes; 0 disables caching
+   */
+  public RotationVariantCache(long budgetBytes) {
+    this.entries = new WeightedCache<>("prefab-variants", budgetBytes, (key, entry) -> entry.weight);
+  }
+
+  /**
+   * Gets a cached variant and marks it recently used.
+   */
+  @Nullable
+  public V get(@Nonnull String prefabPath, int rotationDegrees) {
+    Entry<V> entry = entries.getIfPresent(new Key(prefabPath, rotationDegrees));
+    return entry == null ? null : entry.value;
+  }
+
+  /**
+   * Whether a variant is cached, without touching its recency.
+   */
+  public boolean contains(@Nonnull String prefabPath, int rotationDegrees) {
+    return entries.contains(new Key(prefabPath, rotationDegrees));
+  }
+
+  /**
+   * Stores a variant unless another thread stored the same one first, then
+   * evicts the least recently used variants until the cache fits its budget.
+   *
+   * @param estimatedBytes Estimated retained size of {@code value}
+   * @return The cached variant (possibly the earlier one), or {@code value}
+   *         when it was too heavy to keep
+   */
+  @Nonnull
+  public V put(@Nonnull String prefabPath, int rotationDegrees, @Nonnull V value, long estimatedBytes) {
+    Objects.requireNonNull(value, "value");
+    return entries.putIfAbsent(new Key(prefabPath, rotationDegrees),
+        new Entry<>(value, Math.max(0L, estimatedBytes))).value;
+  }
+
+  /**
+   * Drops every rotation of a prefab.
+   */
+  public void invalidate(@Nonnull String prefabPath) {
+    entries.invalidateIf(key -> key.prefabPath.equals(prefabPath));
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getWeightBytes() {
+    return entries.getWeightBytes();
+  }
+
+  public long getBudgetBytes() {
+    return entries.getBudgetBytes();
+  }
+
+  public long getHits() {
+    return entries.getHits();
+  }
+
+  public long getMisses() {
+    return entries.getMisses();
+  }
+
+  public long getEvictions() {
+    return entries.getEvictions();
+  }
+
+  /**
+   * The underlying cache, for metrics.
+   */
+  @Nonnull
+  public WeightedCache<?, ?> getCache() {
+    return entries;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RotationVariantCache[variants=%d, weight=%d/%d bytes, hits=%d, misses=%d, evictions=%d]",
+        entries.size(), getWeightBytes(), getBudgetBytes(), getHits(), getMisses(), getEvictions());
+  }
+
+  private static final class Key {
+    private final String prefabPath;
+    private final int quarterTurns;
+
+    private Key(@Nonnull String prefabPath, int rotationDegrees) {
+      this.prefabPath = Objects.requireNonNull(prefabPath, "prefabPath");
+      this.quarterTurns = Math.floorMod(Math.floorDiv(rotationDegrees, 90), 4);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key key && quarterTurns == key.quarterTurns && prefabPath.equals(key.prefabPath);
+    }
+
+    @Override
+    public int hashCode() {
+      return prefabPath.hashCode() * 31 + quarterTurns;
+    }
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long weight;
+
+    private Entry(@Nonnull V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
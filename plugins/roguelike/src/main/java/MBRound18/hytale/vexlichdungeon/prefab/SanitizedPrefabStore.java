@@ -0,0 +1,86 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Sanitized prefab JSON keyed by the content hash of the source prefab.
+ *
+ * <p>
+ * Each sanitized copy is written once as {@code <hash>.prefab.json} next to
+ * the compiled artifacts and reused across restarts for as long as the
+ * source hashes the same. The server loads prefabs from files, so a copy that
+ * could not be written is not available at all.
+ * </p>
+ */
+final class SanitizedPrefabStore {
+  private final LoggingHelper log;
+  private final Path directory;
+
+  /**
+   * @param directory Directory holding the sanitized copies
+   */
+  SanitizedPrefabStore(@Nonnull LoggingHelper log, @Nonnull Path directory) {
+    this.log = Objects.requireNonNull(log, "log");
+    this.directory = Objects.requireNonNull(directory, "directory");
+  }
+
+  /**
+   * Gets the sanitized copy of a prefab's content, or null when none was
+   * written.
+   */
+  @Nullable
+  Path find(@Nonnull byte[] contentHash) {
+    Path path = pathFor(contentHash);
+    return Files.isRegularFile(path) ? path : null;
+  }
+
+  boolean contains(@Nonnull byte[] contentHash) {
+    return find(contentHash) != null;
+  }
+
+  /**
+   * Stores the sanitized copy of a prefab's content.
+   *
+   * @return Whether the copy is stored
+   */
+  boolean put(@Nonnull String prefabPath, @Nonnull byte[] contentHash, @Nonnull String json) {
+    Path path = pathFor(contentHash);
+    if (Files.isRegularFile(path)) {
+      return true;
+    }
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        writer.write(json);
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.fine("[SANITIZE] Stored sanitized prefab %s as %s", prefabPath, path.getFileName());
+      return true;
+    } catch (IOException e) {
+      log.warn("[PREFAB] Failed to write sanitized prefab for %s: %s", prefabPath, e.getMessage());
+      try {
+        Files.deleteIfExists(temp);
+      } catch (IOException ignored) {
+        // Best effort; the next write replaces it.
+      }
+      return false;
+    }
+  }
+
+  @Nonnull
+  Path pathFor(@Nonnull byte[] contentHash) {
+    String artifact = CompiledPrefab.fileName(contentHash);
+    return directory.resolve(artifact.substring(0, artifact.length() - CompiledPrefab.EXTENSION.length())
+        + ".prefab.json");
+  }
+}
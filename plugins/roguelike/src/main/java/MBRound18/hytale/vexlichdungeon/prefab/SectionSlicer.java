@@ -0,0 +1,137 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Cuts a compiled prefab into the chunk sections (16x16x16 world cells) it
+ * covers at a given origin and rotation, so a large placement can be written
+ * one section per job.
+ */
+final class SectionSlicer {
+
+  private static final int SECTION_SHIFT = 4;
+
+  private SectionSlicer() {
+  }
+
+  /**
+   * Slices a prefab.
+   *
+   * @param rotationDegrees Rotation about Y the prefab is placed with
+   * @return The sections holding blocks or fluids, bottom-up, then by X and Z
+   */
+  @Nonnull
+  static List<Section> slice(@Nonnull CompiledPrefab compiled, int originX, int originY, int originZ,
+      int rotationDegrees) {
+    Map<Long, Section> sections = new HashMap<>();
+    for (int i = 0; i < compiled.getBlockCount(); i++) {
+      int[] xz = rotateLocalXZ(compiled.getBlockX(i), compiled.getBlockZ(i), rotationDegrees);
+      section(sections, originX + xz[0], originY + compiled.getBlockY(i), originZ + xz[1]).addBlock(i);
+    }
+    for (int i = 0; i < compiled.getFluidCount(); i++) {
+      int[] xz = rotateLocalXZ(compiled.getFluidX(i), compiled.getFluidZ(i), rotationDegrees);
+      section(sections, originX + xz[0], originY + compiled.getFluidY(i), originZ + xz[1]).addFluid(i);
+    }
+    List<Section> ordered = new ArrayList<>(sections.values());
+    ordered.sort(Comparator.comparingInt(Section::getSectionY)
+        .thenComparingInt(Section::getSectionX)
+        .thenComparingInt(Section::getSectionZ));
+    return ordered;
+  }
+
+  /**
+   * Rotates a prefab-local XZ position about Y the way the server rotates a
+   * selection.
+   */
+  @Nonnull
+  static int[] rotateLocalXZ(int x, int z, int rotationDegrees) {
+    int normalized = ((rotationDegrees % 360) + 360) % 360;
+    return switch (normalized) {
+      case 90 -> new int[] { -z, x };
+      case 180 -> new int[] { -x, -z };
+      case 270 -> new int[] { z, -x };
+      default -> new int[] { x, z };
+    };
+  }
+
+  @Nonnull
+  private static Section section(@Nonnull Map<Long, Section> sections, int x, int y, int z) {
+    int sectionX = x >> SECTION_SHIFT;
+    int sectionY = y >> SECTION_SHIFT;
+    int sectionZ = z >> SECTION_SHIFT;
+    long key = ((sectionX & 0x1FFFFFL) << 42) | ((sectionY & 0x1FFFFFL) << 21) | (sectionZ & 0x1FFFFFL);
+    Section section = sections.get(key);
+    if (section == null) {
+      section = new Section(sectionX, sectionY, sectionZ);
+      sections.put(key, section);
+    }
+    return section;
+  }
+
+  /**
+   * Blocks and fluids of one section, as indexes into the compiled prefab.
+   */
+  static final class Section {
+    private final int sectionX;
+    private final int sectionY;
+    private final int sectionZ;
+    private int[] blocks = new int[64];
+    private int blockCount;
+    private int[] fluids = new int[0];
+    private int fluidCount;
+
+    private Section(int sectionX, int sectionY, int sectionZ) {
+      this.sectionX = sectionX;
+      this.sectionY = sectionY;
+      this.sectionZ = sectionZ;
+    }
+
+    int getSectionX() {
+      return sectionX;
+    }
+
+    int getSectionY() {
+      return sectionY;
+    }
+
+    int getSectionZ() {
+      return sectionZ;
+    }
+
+    int getBlockCount() {
+      return blockCount;
+    }
+
+    int getBlock(int index) {
+      return blocks[index];
+    }
+
+    int getFluidCount() {
+      return fluidCount;
+    }
+
+    int getFluid(int index) {
+      return fluids[index];
+    }
+
+    private void addBlock(int block) {
+      if (blockCount == blocks.length) {
+        blocks = Arrays.copyOf(blocks, blocks.length * 2);
+      }
+      blocks[blockCount++] = block;
+    }
+
+    private void addFluid(int fluid) {
+      if (fluidCount == fluids.length) {
+        fluids = Arrays.copyOf(fluids, Math.max(16, fluids.length * 2));
+      }
+      fluids[fluidCount++] = fluid;
+    }
+  }
+}
@@ -1,22 +1,48 @@
 package MBRound18.hytale.vexlichdungeon.prefab;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.BitSet;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 
+/**
+ * Block layout a room edge must contain for a stitch prefab to fit, as a dense
+ * grid of block ids (see {@link BlockPalette}) where
+ * {@link BlockPalette#EMPTY} cells match anything.
+ */
 final class StitchPattern {
   private final String id;
   private final int width;
   private final int height;
-  private final Map<Long, String> cells;
+  private final int[] cellU;
+  private final int[] cellV;
+  private final int[] cellIds;
 
-  StitchPattern(@Nonnull String id, int width, int height, @Nonnull Map<Long, String> cells) {
+  /**
+   * @param cells Block ids indexed {@code v * width + u}
+   */
+  StitchPattern(@Nonnull String id, int width, int height, @Nonnull int[] cells) {
     this.id = Objects.requireNonNull(id, "id");
     this.width = Math.max(0, width);
     this.height = Math.max(0, height);
-    this.cells = new HashMap<>(Objects.requireNonNull(cells, "cells"));
+    Objects.requireNonNull(cells, "cells");
+    int count = 0;
+    for (int i = 0; i < Math.min(cells.length, this.width * this.height); i++) {
+      if (cells[i] != BlockPalette.EMPTY) {
+        count++;
+      }
+    }
+    this.cellU = new int[count];
+    this.cellV = new int[count];
+    this.cellIds = new int[count];
+    int next = 0;
+    for (int i = 0; i < Math.min(cells.length, this.width * this.height); i++) {
+      if (cells[i] != BlockPalette.EMPTY) {
+        cellU[next] = i % this.width;
+        cellV[next] = i / this.width;
+        cellIds[next] = cells[i];
+        next++;
+      }
+    }
   }
 
   @Nonnull
@@ -32,12 +58,53 @@ final class StitchPattern {
     return height;
   }
 
-  @Nonnull
-  Map<Long, String> getCells() {
-    return Collections.unmodifiableMap(cells);
-  }
-
-  static long key(int u, int v) {
-    return (((long) v) << 32) | (u & 0xffffffffL);
+  /**
+   * Whether the pattern occurs anywhere in an edge slice.
+   *
+   * <p>
+   * Each pattern cell, shifted back by its own position, gives the set of
+   * slice offsets where that cell would match; the pattern fits wherever all
+   * of those sets agree. Offsets are indexed like slice cells, so a set is one
+   * range copy of the slice's positions for the cell's block.
+   * </p>
+   */
+  boolean matches(@Nonnull EdgeSlice slice) {
+    int sliceWidth = slice.getWidth();
+    int sliceHeight = slice.getHeight();
+    if (width <= 0 || height <= 0 || width > sliceWidth || height > sliceHeight) {
+      return false;
+    }
+    for (int blockId : cellIds) {
+      if (slice.positionsOf(blockId) == null) {
+        return false;
+      }
+    }
+    int maxU = sliceWidth - width;
+    int maxV = sliceHeight - height;
+    int offsets = maxV * sliceWidth + maxU + 1;
+    BitSet candidates = null;
+    for (int i = 0; i < cellIds.length; i++) {
+      int shift = cellV[i] * sliceWidth + cellU[i];
+      BitSet matching = Objects.requireNonNull(slice.positionsOf(cellIds[i]), "positions")
+          .get(shift, shift + offsets);
+      if (candidates == null) {
+        candidates = matching;
+      } else {
+        candidates.and(matching);
+      }
+      if (candidates.isEmpty()) {
+        return false;
+      }
+    }
+    if (candidates == null) {
+      return true;
+    }
+    // Offsets past maxU would wrap the pattern onto the next row.
+    for (int offset = candidates.nextSetBit(0); offset >= 0; offset = candidates.nextSetBit(offset + 1)) {
+      if (offset % sliceWidth <= maxU) {
+        return true;
+      }
+    }
+    return false;
   }
 }
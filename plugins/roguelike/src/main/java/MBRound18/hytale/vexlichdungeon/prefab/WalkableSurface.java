@@ -0,0 +1,336 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Cells of a prefab an enemy can stand on, computed once from the prefab's own
+ * block data.
+ *
+ * <p>
+ * A column is walkable at {@code y} when the block at {@code y - 1} is
+ * {@link BlockClass#SOLID} and the two blocks above it are
+ * {@link BlockClass#PASSABLE}, the same rule the world scan in the dungeon
+ * controller applies. Blocks are classified once per palette entry when the
+ * surface is built (see {@link BlockClassifier}), so picking cells never looks
+ * up block types. Only the lowest such cell of each
+ * column is kept, and cells well above the dominant floor level are dropped so
+ * wall tops and rafters are not picked. Coordinates are prefab-local and
+ * already rotated the way {@link PrefabSpawner} places the prefab, so a world
+ * position is just the tile origin plus the cell.
+ * </p>
+ */
+public final class WalkableSurface {
+
+  /**
+   * Highest step above the dominant floor level that still counts as floor.
+   */
+  public static final int MAX_FLOOR_STEP = 3;
+
+  private static final WalkableSurface EMPTY = new WalkableSurface(new int[0], new int[0], new int[0]);
+  private static final String[] FOLIAGE = {
+      "grass", "plant", "flower", "mushroom", "fern", "bush", "leaves", "sapling"
+  };
+
+  /**
+   * How a block affects where an enemy can stand.
+   */
+  public enum BlockClass {
+    /** Empty, air-like or foliage: an enemy can stand in it. */
+    PASSABLE,
+    /** Ground an enemy can stand on; also blocks headroom. */
+    SOLID,
+    /** Cannot be stood on nor in, e.g. a block type that is not loaded. */
+    BLOCKING
+  }
+
+  /**
+   * Classifies prefab blocks by name.
+   */
+  @FunctionalInterface
+  public interface BlockClassifier {
+    @Nonnull
+    BlockClass classify(@Nonnull String blockName);
+  }
+
+  private final int[] xs;
+  private final int[] ys;
+  private final int[] zs;
+
+  private WalkableSurface(int[] xs, int[] ys, int[] zs) {
+    this.xs = xs;
+    this.ys = ys;
+    this.zs = zs;
+  }
+
+  @Nonnull
+  public static WalkableSurface empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Whether a block id is foliage enemies can stand in.
+   */
+  public static boolean isFoliage(@Nullable String blockId) {
+    if (blockId == null) {
+      return false;
+    }
+    String key = blockId.toLowerCase(Locale.ROOT);
+    for (String foliage : FOLIAGE) {
+      if (key.contains(foliage)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return xs.length;
+  }
+
+  public boolean isEmpty() {
+    return xs.length == 0;
+  }
+
+  public int x(int cell) {
+    return xs[cell];
+  }
+
+  /**
+   * Y of the cell an enemy stands in, one above the supporting block.
+   */
+  public int y(int cell) {
+    return ys[cell];
+  }
+
+  public int z(int cell) {
+    return zs[cell];
+  }
+
+  /**
+   * Copy of this surface rotated about the Y axis.
+   *
+   * @param rotationDegrees Rotation in degrees (0, 90, 180, 270)
+   */
+  @Nonnull
+  public WalkableSurface rotated(int rotationDegrees) {
+    int normalized = ((rotationDegrees % 360) + 360) % 360;
+    if (normalized == 0 || isEmpty()) {
+      return this;
+    }
+    int[] rx = new int[xs.length];
+    int[] rz = new int[zs.length];
+    for (int i = 0; i < xs.length; i++) {
+      int x = xs[i];
+      int z = zs[i];
+      switch (normalized) {
+        case 90 -> {
+          rx[i] = -z;
+          rz[i] = x;
+        }
+        case 180 -> {
+          rx[i] = -x;
+          rz[i] = -z;
+        }
+        case 270 -> {
+          rx[i] = z;
+          rz[i] = -x;
+        }
+        default -> {
+          rx[i] = x;
+          rz[i] = z;
+        }
+      }
+    }
+    return new WalkableSurface(rx, ys, rz);
+  }
+
+  /**
+   * Picks cells spread over the surface. Cells are visited in a random order
+   * and taken when they are at least {@code spacing} blocks (horizontally)
+   * away from every cell picked so far; when that cannot fill the request the
+   * spacing is halved and the scan repeats, and only once every cell is used
+   * are cells handed out a second time.
+   *
+   * @param count   Number of cells wanted
+   * @param spacing Preferred minimum distance between picked cells
+   * @param random  Random source, typically the room's spawn-position stream
+   * @return Cell indices, {@code count} long unless the surface is empty
+   */
+  @Nonnull
+  public int[] pickSpread(int count, int spacing, @Nonnull RandomGenerator random) {
+    Objects.requireNonNull(random, "random");
+    int n = xs.length;
+    if (n == 0 || count <= 0) {
+      return new int[0];
+    }
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+
+    int[] picked = new int[count];
+    boolean[] used = new boolean[n];
+    int found = 0;
+    int current = Math.max(0, spacing);
+    while (found < count) {
+      long minDistance = (long) current * current;
+      for (int i = 0; i < n && found < count; i++) {
+        int cell = order[i];
+        if (!used[cell] && farEnough(cell, picked, found, minDistance)) {
+          used[cell] = true;
+          picked[found++] = cell;
+        }
+      }
+      if (current == 0) {
+        break;
+      }
+      current /= 2;
+    }
+    for (int i = 0; found < count; i++) {
+      picked[found++] = order[i % n];
+    }
+    return picked;
+  }
+
+  private boolean farEnough(int cell, int[] picked, int found, long minDistance) {
+    for (int i = 0; i < found; i++) {
+      long dx = xs[cell] - xs[picked[i]];
+      long dz = zs[cell] - zs[picked[i]];
+      if (dx * dx + dz * dz < minDistance) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "WalkableSurface{cells=" + xs.length + "}";
+  }
+
+  /**
+   * Collects the blocks of one prefab. Blocks that are not added count as
+   * passable.
+   */
+  public static final class Builder {
+    private int[] bx = new int[64];
+    private int[] by = new int[64];
+    private int[] bz = new int[64];
+    private boolean[] solid = new boolean[64];
+    private int count;
+
+    /**
+     * Adds a block; passable blocks are ignored.
+     */
+    @Nonnull
+    public Builder add(int x, int y, int z, @Nonnull BlockClass blockClass) {
+      if (blockClass == BlockClass.PASSABLE) {
+        return this;
+      }
+      if (count == bx.length) {
+        int grown = count * 2;
+        bx = Arrays.copyOf(bx, grown);
+        by = Arrays.copyOf(by, grown);
+        bz = Arrays.copyOf(bz, grown);
+        solid = Arrays.copyOf(solid, grown);
+      }
+      bx[count] = x;
+      by[count] = y;
+      bz[count] = z;
+      solid[count] = blockClass == BlockClass.SOLID;
+      count++;
+      return this;
+    }
+
+    @Nonnull
+    public WalkableSurface build() {
+      if (count == 0) {
+        return EMPTY;
+      }
+      // Sort non-passable blocks by column, then by height, packed into one
+      // long each: x and z in the high halves, y above a solid flag below.
+      long[] packed = new long[count];
+      for (int i = 0; i < count; i++) {
+        packed[i] = ((long) (bx[i] & 0xFFFF) << 48)
+            | ((long) (bz[i] & 0xFFFF) << 32)
+            | (((by[i] + 0x40000000L) & 0x7FFFFFFFL) << 1)
+            | (solid[i] ? 1L : 0L);
+      }
+      Arrays.sort(packed);
+
+      int[] cx = new int[count];
+      int[] cy = new int[count];
+      int[] cz = new int[count];
+      int cells = 0;
+      int i = 0;
+      while (i < count) {
+        long column = packed[i] >>> 32;
+        int end = i;
+        while (end < count && (packed[end] >>> 32) == column) {
+          end++;
+        }
+        for (int k = i; k < end; k++) {
+          if ((packed[k] & 1L) == 0) {
+            continue;
+          }
+          int y = unpackY(packed[k]);
+          int above = k + 1 < end ? unpackY(packed[k + 1]) : Integer.MAX_VALUE;
+          if ((long) above - y > 2) {
+            cx[cells] = (short) (packed[k] >>> 48);
+            cz[cells] = (short) (packed[k] >>> 32);
+            cy[cells] = y + 1;
+            cells++;
+            break;
+          }
+        }
+        i = end;
+      }
+      return filterFloor(cx, cy, cz, cells);
+    }
+
+    private static int unpackY(long packed) {
+      return (int) (((packed & 0xFFFFFFFFL) >>> 1) - 0x40000000L);
+    }
+
+    @Nonnull
+    private static WalkableSurface filterFloor(int[] cx, int[] cy, int[] cz, int cells) {
+      int[] heights = Arrays.copyOf(cy, cells);
+      Arrays.sort(heights);
+      int floor = heights[0];
+      int best = 0;
+      for (int i = 0; i < cells;) {
+        int run = i;
+        while (run < cells && heights[run] == heights[i]) {
+          run++;
+        }
+        if (run - i > best) {
+          best = run - i;
+          floor = heights[i];
+        }
+        i = run;
+      }
+
+      int kept = 0;
+      for (int i = 0; i < cells; i++) {
+        if (cy[i] <= floor + MAX_FLOOR_STEP) {
+          cx[kept] = cx[i];
+          cy[kept] = cy[i];
+          cz[kept] = cz[i];
+          kept++;
+        }
+      }
+      return new WalkableSurface(Arrays.copyOf(cx, kept), Arrays.copyOf(cy, kept), Arrays.copyOf(cz, kept));
+    }
+  }
+}
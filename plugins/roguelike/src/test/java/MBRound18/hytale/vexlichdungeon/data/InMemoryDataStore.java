@@ -0,0 +1,58 @@
+package MBRound18.hytale.vexlichdungeon.data;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.nio.file.Path;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * {@link DataStore} that never touches disk: config and spawn pool are given
+ * up front and every save is a no-op, so instance bookkeeping stays in memory.
+ */
+public final class InMemoryDataStore extends DataStore {
+  private final DungeonConfig config;
+  private final SpawnPool spawnPool;
+
+  public InMemoryDataStore(@Nonnull LoggingHelper log, @Nonnull DungeonConfig config,
+      @Nonnull SpawnPool spawnPool) {
+    super(log, Path.of("in-memory"));
+    this.config = Objects.requireNonNull(config, "config");
+    this.spawnPool = Objects.requireNonNull(spawnPool, "spawnPool");
+  }
+
+  @Override
+  public void initialize() {
+  }
+
+  @Nonnull
+  @Override
+  public DungeonConfig getConfig() {
+    return config;
+  }
+
+  @Nonnull
+  @Override
+  public SpawnPool getSpawnPool() {
+    return spawnPool;
+  }
+
+  @Override
+  public void saveConfig() {
+  }
+
+  @Override
+  public void saveSpawnPool() {
+  }
+
+  @Override
+  public void saveInstances() {
+  }
+
+  @Override
+  public void savePortalPlacements() {
+  }
+
+  @Override
+  public synchronized void saveArchives() {
+  }
+}
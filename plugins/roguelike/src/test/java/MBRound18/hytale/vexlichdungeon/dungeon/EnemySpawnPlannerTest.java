@@ -0,0 +1,81 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.vexlichdungeon.data.SpawnPool;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPoolConfig;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPoolEntry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class EnemySpawnPlannerTest {
+
+  private static SpawnPool pool(Map<String, List<SpawnPoolEntry>> ranges) {
+    SpawnPoolConfig config = new SpawnPoolConfig();
+    config.setRanges(ranges);
+    return config.toSpawnPool();
+  }
+
+  private static SpawnPoolEntry weighted(String enemy, int points, int weight) {
+    SpawnPoolEntry entry = new SpawnPoolEntry(enemy, points);
+    entry.setWeight(weight);
+    return entry;
+  }
+
+  @Test
+  public void rangeFor_usesFirstConfiguredRangeWhenRangesOverlap() {
+    Map<String, List<SpawnPoolEntry>> ranges = new LinkedHashMap<>();
+    ranges.put("0..100", List.of(new SpawnPoolEntry("Low", 1)));
+    ranges.put("50..500", List.of(new SpawnPoolEntry("High", 1)));
+    SpawnPool pool = pool(ranges);
+
+    assertEquals(0, pool.rangeFor(75).getMinScore());
+    assertEquals(50, pool.rangeFor(101).getMinScore());
+    assertEquals(50, pool.rangeFor(500).getMinScore());
+    assertNull(pool.rangeFor(501));
+    assertNull(pool.rangeFor(-1));
+  }
+
+  @Test
+  public void planEnemies_staysWithinBudgetAndSkipsUnweightedEntries() {
+    Map<String, List<SpawnPoolEntry>> ranges = new LinkedHashMap<>();
+    ranges.put("0..1000", List.of(new SpawnPoolEntry("Skeleton", 1), new SpawnPoolEntry("Archer", 5),
+        weighted("Disabled", 2, 0), new SpawnPoolEntry("Golem", 400)));
+    SpawnPool pool = pool(ranges);
+    EnemySpawnPlanner planner = new EnemySpawnPlanner(1L);
+
+    for (int seed = 0; seed < 50; seed++) {
+      List<SpawnPoolEntry> plan = planner.planEnemies(pool, 37, new SplittableRandom(seed));
+      int spent = 0;
+      for (SpawnPoolEntry entry : plan) {
+        assertTrue("picks share the pool's entries", pool.rangeFor(37).getEntries().contains(entry));
+        assertNotEquals("Disabled", entry.getEnemy());
+        assertNotEquals("Golem", entry.getEnemy());
+        spent += entry.getPoints();
+      }
+      assertEquals(37, spent);
+    }
+  }
+
+  @Test
+  public void pick_followsWeights() {
+    SpawnPool.SpawnRange range = new SpawnPool.SpawnRange(0, 100,
+        List.of(weighted("Common", 1, 3), weighted("Rare", 1, 1)));
+    SplittableRandom random = new SplittableRandom(9L);
+    int rare = 0;
+    int draws = 20000;
+    for (int i = 0; i < draws; i++) {
+      if ("Rare".equals(range.pick(10, random).getEnemy())) {
+        rare++;
+      }
+    }
+    assertEquals(0.25, rare / (double) draws, 0.02);
+    assertNull(range.pick(0, random));
+  }
+}
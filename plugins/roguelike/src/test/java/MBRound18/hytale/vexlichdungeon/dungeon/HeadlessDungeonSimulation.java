@@ -0,0 +1,500 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import MBRound18.ImmortalEngine.api.prefab.PrefabInspector;
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import MBRound18.hytale.vexlichdungeon.data.DungeonConfig;
+import MBRound18.hytale.vexlichdungeon.data.InMemoryDataStore;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPool;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPoolConfig;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPoolEntry;
+import MBRound18.hytale.vexlichdungeon.engine.PortalEngineAdapter;
+import MBRound18.hytale.vexlichdungeon.events.EntitySpawnedEvent;
+import MBRound18.hytale.vexlichdungeon.events.NpcSpawnRequestedEvent;
+import MBRound18.hytale.vexlichdungeon.events.NpcSpawnResult;
+import MBRound18.hytale.vexlichdungeon.events.RoomEnemiesSpawnRequestedEvent;
+import MBRound18.hytale.vexlichdungeon.events.RoomEnteredEvent;
+import MBRound18.hytale.vexlichdungeon.events.RoomGeneratedEvent;
+import MBRound18.hytale.vexlichdungeon.events.RoomTileSpawnRequestedEvent;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPool;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabSpawner;
+import MBRound18.hytale.vexlichdungeon.prefab.WalkableSurface;
+import com.hypixel.hytale.event.IEvent;
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.accessor.BlockAccessor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Runs {@link RoguelikeDungeonController} against a fake world with no server.
+ *
+ * <p>
+ * Simulated players walk the room grid one cell per step, each on its own
+ * seeded path that prefers cells it has not visited yet. Every step moves all
+ * players, calls {@code pollWorld} and then handles the enemy spawn requests
+ * the way the world-thread handlers would, answering every NPC spawn with a
+ * fresh entity id. Events never reach an event bus; they are counted and, for
+ * the requests the controller waits on, answered inline. The world bridge,
+ * spawner and prefab pool are shared with the controller's unit tests.
+ * </p>
+ *
+ * <p>
+ * Allocation is measured on the calling thread only, so work done by the
+ * lookahead planner's workers is not included in bytes per room entry.
+ * </p>
+ *
+ * <p>
+ * The spawner keeps its artifacts in a temporary directory and is shut down,
+ * with the controller, when the run ends.
+ * </p>
+ */
+public final class HeadlessDungeonSimulation {
+
+  private static final int[][] STEPS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+
+  private final int players;
+  private final int steps;
+  private final long seed;
+
+  /**
+   * @param players Number of simulated players
+   * @param steps   Grid steps each player takes
+   * @param seed    Run seed for the controller and the walks
+   */
+  public HeadlessDungeonSimulation(int players, int steps, long seed) {
+    if (players <= 0 || steps <= 0) {
+      throw new IllegalArgumentException("players and steps must be positive");
+    }
+    this.players = players;
+    this.steps = steps;
+    this.seed = seed;
+  }
+
+  @Nonnull
+  public Report run() {
+    LoggingHelper log = new LoggingHelper("VexSimulation");
+    GenerationConfig config = new GenerationConfig()
+        .setSeed(seed)
+        .setUseStitchPattern(false);
+    DungeonConfig dungeonConfig = DungeonConfig.createDefault();
+    dungeonConfig.setMaxPlayersPerInstance(0);
+    InMemoryDataStore dataStore = new InMemoryDataStore(log, dungeonConfig, spawnPool());
+    InMemoryPrefabPool pool = new InMemoryPrefabPool(32, 8, 4);
+    DungeonGenerator generator = new DungeonGenerator(config, log, pool);
+    World world = new World("vex-simulation-" + seed);
+    FakeWorldBridge bridge = new FakeWorldBridge();
+    Path artifacts = createTempDirectory();
+    FlatPrefabSpawner spawner = new FlatPrefabSpawner(log, config, artifacts);
+    RoguelikeDungeonController controller = new RoguelikeDungeonController(log, generator, pool,
+        spawner, dataStore, new PortalEngineAdapter(), log, null, null, bridge);
+
+    List<Walker> walkers = new ArrayList<>(players);
+    for (int i = 0; i < players; i++) {
+      Walker walker = new Walker(new PlayerRef("Sim_" + i, new UUID(seed, i)), new SplittableRandom(seed + i));
+      walkers.add(walker);
+      bridge.players.add(walker.player);
+      bridge.positions.put(walker.player.getUuid(), toWorld(generator, 0, 0));
+    }
+
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    boolean measureAllocation = threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    long[] pollNanos = new long[steps];
+    long allocated = 0;
+    long started = System.nanoTime();
+    try {
+      controller.initializeWorld(world);
+      controller.pollWorld(world);
+      for (int step = 0; step < steps; step++) {
+        for (Walker walker : walkers) {
+          walker.advance();
+          bridge.positions.put(walker.player.getUuid(), toWorld(generator, walker.x, walker.z));
+        }
+        long allocatedBefore = measureAllocation ? threads.getCurrentThreadAllocatedBytes() : 0;
+        long pollStart = System.nanoTime();
+        controller.pollWorld(world);
+        pollNanos[step] = System.nanoTime() - pollStart;
+        RoomEnemiesSpawnRequestedEvent request;
+        while ((request = bridge.enemyRequests.poll()) != null) {
+          controller.spawnEnemiesForRoomRequest(world, request.getRoomX(), request.getRoomZ());
+        }
+        EntitySpawnedEvent spawned;
+        while ((spawned = bridge.spawnedEntities.poll()) != null) {
+          controller.trackEntitySpawned(spawned);
+        }
+        if (measureAllocation) {
+          allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+      }
+    } finally {
+      controller.shutdown();
+      spawner.shutdown();
+      deleteRecursively(artifacts);
+    }
+    long elapsed = System.nanoTime() - started;
+
+    Arrays.sort(pollNanos);
+    return new Report(players, steps, elapsed, bridge.count(RoomEnteredEvent.class),
+        bridge.count(RoomGeneratedEvent.class), bridge.count(NpcSpawnRequestedEvent.class), bridge.events,
+        percentile(pollNanos, 0.50), percentile(pollNanos, 0.99), measureAllocation ? allocated : -1L,
+        Map.copyOf(bridge.eventCounts));
+  }
+
+  static Vector3d toWorld(@Nonnull DungeonGenerator generator, int gridX, int gridZ) {
+    int[] worldPos = generator.gridToWorld(gridX, gridZ);
+    return new Vector3d(worldPos[0], generator.getSpawnCenterY(), worldPos[1]);
+  }
+
+  @Nonnull
+  static Path createTempDirectory() {
+    try {
+      return Files.createTempDirectory("vex-simulation");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static void deleteRecursively(@Nonnull Path root) {
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static long percentile(long[] sorted, double fraction) {
+    int index = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+  }
+
+  @Nonnull
+  static SpawnPool spawnPool() {
+    Map<String, List<SpawnPoolEntry>> ranges = new LinkedHashMap<>();
+    ranges.put("0..100", List.of(new SpawnPoolEntry("Sim_Skeleton", 2), new SpawnPoolEntry("Sim_Archer", 3)));
+    ranges.put("101..100000", List.of(new SpawnPoolEntry("Sim_Knight", 5), new SpawnPoolEntry("Sim_Wraith", 8)));
+    SpawnPoolConfig config = new SpawnPoolConfig();
+    config.setRanges(ranges);
+    return config.toSpawnPool();
+  }
+
+  /**
+   * One player's scripted walk. Each step goes to a neighbouring cell, picking
+   * among unvisited ones first.
+   */
+  private static final class Walker {
+    private final PlayerRef player;
+    private final SplittableRandom random;
+    private final Set<Long> visited = new HashSet<>();
+    private int x;
+    private int z;
+
+    private Walker(@Nonnull PlayerRef player, @Nonnull SplittableRandom random) {
+      this.player = player;
+      this.random = random;
+      visited.add(GridKeys.pack(0, 0));
+    }
+
+    private void advance() {
+      int offset = random.nextInt(STEPS.length);
+      int[] chosen = STEPS[offset];
+      for (int i = 0; i < STEPS.length; i++) {
+        int[] candidate = STEPS[(offset + i) % STEPS.length];
+        if (!visited.contains(GridKeys.pack(x + candidate[0], z + candidate[1]))) {
+          chosen = candidate;
+          break;
+        }
+      }
+      x += chosen[0];
+      z += chosen[1];
+      visited.add(GridKeys.pack(x, z));
+    }
+  }
+
+  /**
+   * Stands in for the live world: counts events, places tiles and answers NPC
+   * spawns inline, and queues the requests the world-thread handlers would
+   * pick up. With {@link #holdTiles} set, tile requests are queued instead of
+   * placed.
+   */
+  static final class FakeWorldBridge implements RoguelikeDungeonController.WorldBridge {
+    final List<PlayerRef> players = new ArrayList<>();
+    final Map<UUID, Vector3d> positions = new HashMap<>();
+    final ArrayDeque<RoomTileSpawnRequestedEvent> tileRequests = new ArrayDeque<>();
+    final ArrayDeque<RoomEnemiesSpawnRequestedEvent> enemyRequests = new ArrayDeque<>();
+    final ArrayDeque<EntitySpawnedEvent> spawnedEntities = new ArrayDeque<>();
+    private final Map<String, Long> eventCounts = new HashMap<>();
+    boolean holdTiles;
+    private long events;
+    private long nextEntity;
+
+    @Override
+    public void dispatch(@Nonnull World world, @Nonnull IEvent<Void> event) {
+      events++;
+      eventCounts.merge(event.getClass().getSimpleName(), 1L, Long::sum);
+      if (event instanceof RoomTileSpawnRequestedEvent request) {
+        if (holdTiles) {
+          tileRequests.add(request);
+        } else {
+          request.getResult().complete(null);
+        }
+      } else if (event instanceof NpcSpawnRequestedEvent request) {
+        request.getResult().complete(new NpcSpawnResult(true, new UUID(-1L, nextEntity++), null));
+      } else if (event instanceof RoomEnemiesSpawnRequestedEvent request) {
+        enemyRequests.add(request);
+      } else if (event instanceof EntitySpawnedEvent spawned) {
+        spawnedEntities.add(spawned);
+      }
+    }
+
+    @Nonnull
+    @Override
+    public Collection<PlayerRef> players(@Nonnull World world) {
+      return players;
+    }
+
+    @Nullable
+    @Override
+    public Vector3d position(@Nonnull PlayerRef playerRef) {
+      return positions.get(playerRef.getUuid());
+    }
+
+    @Nonnull
+    @Override
+    public String displayName(@Nonnull PlayerRef playerRef) {
+      return playerRef.getUsername();
+    }
+
+    @Override
+    public void trackParticipants(@Nonnull World world) {
+    }
+
+    @Nullable
+    @Override
+    public BlockAccessor chunk(@Nonnull World world, long chunkKey) {
+      return null;
+    }
+
+    private long count(@Nonnull Class<?> eventClass) {
+      return eventCounts.getOrDefault(eventClass.getSimpleName(), 0L);
+    }
+  }
+
+  /**
+   * Spawner that never loads prefabs: every room is a flat 16x16 floor.
+   */
+  static final class FlatPrefabSpawner extends PrefabSpawner {
+    private final WalkableSurface floor;
+    private final PrefabInspector.PrefabDimensions dimensions = new PrefabInspector.PrefabDimensions();
+
+    FlatPrefabSpawner(@Nonnull LoggingHelper log, @Nonnull GenerationConfig config,
+        @Nonnull Path artifacts) {
+      super(log, config, null, artifacts);
+      WalkableSurface.Builder builder = new WalkableSurface.Builder();
+      for (int x = 0; x < 16; x++) {
+        for (int z = 0; z < 16; z++) {
+          builder.add(x, 0, z, WalkableSurface.BlockClass.SOLID);
+        }
+      }
+      this.floor = builder.build();
+      dimensions.maxX = 15;
+      dimensions.maxY = 8;
+      dimensions.maxZ = 15;
+      dimensions.width = 16;
+      dimensions.depth = 16;
+    }
+
+    @Nonnull
+    @Override
+    public PrefabInspector.PrefabDimensions getPrefabDimensions(@Nonnull String prefabPath) {
+      return dimensions;
+    }
+
+    @Nonnull
+    @Override
+    public WalkableSurface getWalkableSurface(@Nonnull String prefabPath, int rotationDegrees) {
+      return floor.rotated(rotationDegrees);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> prewarmVariant(@Nonnull String prefabPath, int rotationDegrees) {
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  /**
+   * Fixed prefab catalog with generated names.
+   */
+  static final class InMemoryPrefabPool implements PrefabPool {
+    private final List<String> rooms = new ArrayList<>();
+    private final List<String> hallways = new ArrayList<>();
+    private final List<String> events = new ArrayList<>();
+    private final SplittableRandom picks = new SplittableRandom(11L);
+
+    InMemoryPrefabPool(int roomCount, int hallwayCount, int eventCount) {
+      for (int i = 0; i < roomCount; i++) {
+        rooms.add("Dungeon/Rooms/Sim_Room_" + i);
+      }
+      for (int i = 0; i < hallwayCount; i++) {
+        hallways.add("Dungeon/Hallways/Sim_Hallway_" + i);
+      }
+      for (int i = 0; i < eventCount; i++) {
+        events.add("Event/Sim_Event_" + i);
+      }
+    }
+
+    @Override
+    public String getRandomRoom() {
+      return rooms.get(picks.nextInt(rooms.size()));
+    }
+
+    @Override
+    public String getRandomHallway() {
+      return hallways.get(picks.nextInt(hallways.size()));
+    }
+
+    @Override
+    public String getRandomGate() {
+      return null;
+    }
+
+    @Override
+    public String getBlockedGate() {
+      return null;
+    }
+
+    @Override
+    public List<String> getAllRooms() {
+      return new ArrayList<>(rooms);
+    }
+
+    @Override
+    public List<String> getAllHallways() {
+      return new ArrayList<>(hallways);
+    }
+
+    @Override
+    public List<String> getAllDungeonPrefabs() {
+      List<String> all = new ArrayList<>(rooms);
+      all.addAll(hallways);
+      return all;
+    }
+
+    @Override
+    public List<String> getAllEventPrefabs() {
+      return new ArrayList<>(events);
+    }
+  }
+
+  /**
+   * Throughput and latency of one simulation run.
+   */
+  public static final class Report {
+    private final int players;
+    private final int steps;
+    private final long elapsedNanos;
+    private final long roomEntries;
+    private final long roomsGenerated;
+    private final long npcSpawns;
+    private final long events;
+    private final long pollP50Nanos;
+    private final long pollP99Nanos;
+    private final long allocatedBytes;
+    private final Map<String, Long> eventCounts;
+
+    private Report(int players, int steps, long elapsedNanos, long roomEntries, long roomsGenerated,
+        long npcSpawns, long events, long pollP50Nanos, long pollP99Nanos, long allocatedBytes,
+        @Nonnull Map<String, Long> eventCounts) {
+      this.players = players;
+      this.steps = steps;
+      this.elapsedNanos = elapsedNanos;
+      this.roomEntries = roomEntries;
+      this.roomsGenerated = roomsGenerated;
+      this.npcSpawns = npcSpawns;
+      this.events = events;
+      this.pollP50Nanos = pollP50Nanos;
+      this.pollP99Nanos = pollP99Nanos;
+      this.allocatedBytes = allocatedBytes;
+      this.eventCounts = eventCounts;
+    }
+
+    public long getRoomEntries() {
+      return roomEntries;
+    }
+
+    public long getRoomsGenerated() {
+      return roomsGenerated;
+    }
+
+    public long getNpcSpawns() {
+      return npcSpawns;
+    }
+
+    public long getEvents() {
+      return events;
+    }
+
+    public long getPollP99Nanos() {
+      return pollP99Nanos;
+    }
+
+    public double getRoomsPerSecond() {
+      return perSecond(roomsGenerated);
+    }
+
+    public double getEventsPerSecond() {
+      return perSecond(events);
+    }
+
+    /**
+     * Bytes allocated on the simulating thread per room entry, or -1 when the
+     * JVM cannot measure it.
+     */
+    public long getBytesPerRoomEntry() {
+      if (allocatedBytes < 0 || roomEntries == 0) {
+        return -1L;
+      }
+      return allocatedBytes / roomEntries;
+    }
+
+    @Nonnull
+    public Map<String, Long> getEventCounts() {
+      return eventCounts;
+    }
+
+    private double perSecond(long count) {
+      return elapsedNanos <= 0 ? 0.0 : count * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "players=%d steps=%d elapsed=%.1fms rooms=%d (%.0f/s) entries=%d events=%d (%.0f/s) npcs=%d "
+              + "pollWorld p50=%.1fus p99=%.1fus alloc/entry=%dB",
+          players, steps, elapsedNanos / 1_000_000.0, roomsGenerated, getRoomsPerSecond(), roomEntries, events,
+          getEventsPerSecond(), npcSpawns, pollP50Nanos / 1_000.0, pollP99Nanos / 1_000.0, getBytesPerRoomEntry());
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+
+  @Test
+  public void get_returnsMissingValueForAbsentKeys() {
+    LongIntHashMap map = new LongIntHashMap();
+    assertEquals(-1, map.get(GridKeys.pack(0, 0), -1));
+    map.put(GridKeys.pack(0, 0), 0);
+    assertEquals(0, map.get(GridKeys.pack(0, 0), -1));
+    assertEquals(7, map.get(GridKeys.pack(0, 1), 7));
+    assertFalse(map.containsKey(GridKeys.NONE));
+  }
+
+  @Test
+  public void put_growsPastInitialCapacityAndKeepsEntries() {
+    LongIntHashMap map = new LongIntHashMap(4);
+    for (int x = -20; x < 20; x++) {
+      for (int z = -20; z < 20; z++) {
+        map.put(GridKeys.pack(x, z), x * 100 + z);
+      }
+    }
+    assertEquals(1600, map.size());
+    for (int x = -20; x < 20; x++) {
+      for (int z = -20; z < 20; z++) {
+        assertEquals(x * 100 + z, map.get(GridKeys.pack(x, z), Integer.MIN_VALUE));
+      }
+    }
+    map.put(GridKeys.pack(3, 3), 1);
+    assertEquals(1600, map.size());
+    assertEquals(1, map.get(GridKeys.pack(3, 3), -1));
+  }
+
+  @Test
+  public void remove_keepsCollidingEntriesReachable() {
+    LongIntHashMap map = new LongIntHashMap(4);
+    Map<Long, Integer> expected = new HashMap<>();
+    SplittableRandom random = new SplittableRandom(42L);
+    // A key range small enough that probe runs collide, wrap and get reused
+    // after removals.
+    for (int i = 0; i < 20_000; i++) {
+      long key = GridKeys.pack(random.nextInt(-16, 16), random.nextInt(-16, 16));
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key) != null, map.remove(key));
+      } else {
+        map.put(key, i);
+        expected.put(key, i);
+      }
+      if (i % 1000 == 0) {
+        assertMatches(expected, map);
+      }
+    }
+    assertMatches(expected, map);
+    for (Long key : expected.keySet()) {
+      assertTrue(map.remove(key));
+    }
+    assertEquals(0, map.size());
+    assertFalse(map.remove(GridKeys.pack(0, 0)));
+  }
+
+  private static void assertMatches(Map<Long, Integer> expected, LongIntHashMap map) {
+    assertEquals(expected.size(), map.size());
+    for (int x = -16; x < 16; x++) {
+      for (int z = -16; z < 16; z++) {
+        long key = GridKeys.pack(x, z);
+        Integer value = expected.get(key);
+        assertEquals(value != null, map.containsKey(key));
+        assertEquals(value != null ? value.intValue() : -1, map.get(key, -1));
+      }
+    }
+  }
+}
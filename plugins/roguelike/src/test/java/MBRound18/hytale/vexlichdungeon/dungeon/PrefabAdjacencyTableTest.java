@@ -0,0 +1,85 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.ImmortalEngine.api.prefab.StitchIndex;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class PrefabAdjacencyTableTest {
+
+  private static final StitchIndex INDEX = new StitchIndex(Map.of(
+      "Stitch/A", List.of("Rooms/One", "Rooms/Two", "Event/Safe"),
+      "Stitch/B", List.of("Rooms/One", "Rooms/Three")));
+
+  private static final PrefabAdjacencyTable TABLE = PrefabAdjacencyTable.build(INDEX,
+      Set.of("Rooms/One", "Rooms/Two", "Rooms/Three"),
+      List.of("Rooms/One", "Rooms/Two", "Rooms/Three", "Rooms/Four"),
+      List.of("Event/Safe", "Event/Other"));
+
+  @Test
+  public void sampleRoom_onlyReturnsRoomsSharingAStitch() {
+    Random random = new Random(1);
+    for (int i = 0; i < 500; i++) {
+      String room = TABLE.sampleRoom("Rooms/Two", random);
+      assertTrue(room, room.equals("Rooms/One") || room.equals("Rooms/Two"));
+    }
+  }
+
+  @Test
+  public void sampleRoom_weightsBySharedStitches() {
+    // Rooms/One shares both stitches with itself, so it should win about half
+    // of the draws (2 of 4 weight units).
+    Random random = new Random(7);
+    int self = 0;
+    int draws = 20000;
+    for (int i = 0; i < draws; i++) {
+      if ("Rooms/One".equals(TABLE.sampleRoom("Rooms/One", random))) {
+        self++;
+      }
+    }
+    assertEquals(0.5, self / (double) draws, 0.02);
+  }
+
+  @Test
+  public void sampleEvent_fallsBackToAllEventsForUnknownSource() {
+    Random random = new Random(3);
+    boolean sawOther = false;
+    for (int i = 0; i < 200; i++) {
+      sawOther |= "Event/Other".equals(TABLE.sampleEvent("Base/Unknown", random));
+    }
+    assertTrue(sawOther);
+  }
+
+  @Test
+  public void sampling_isDeterministicForASeed() {
+    Random first = new Random(42);
+    Random second = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(TABLE.sampleRoom("Rooms/One", first), TABLE.sampleRoom("Rooms/One", second));
+    }
+  }
+
+  @Test
+  public void rankByReach_ordersPrefabsByExpectedSelections() {
+    List<String> ranked = TABLE.rankByReach("Rooms/Two", 0.2, 3);
+
+    assertEquals("Rooms/Two", ranked.get(0));
+    assertEquals("Rooms/One", ranked.get(1));
+    assertTrue(ranked.indexOf("Event/Safe") >= 0);
+    assertTrue(ranked.indexOf("Rooms/Three") > ranked.indexOf("Rooms/One"));
+    assertEquals(-1, ranked.indexOf("Rooms/Four"));
+    assertEquals(List.of("Base/Unknown", "Rooms/Four", "Rooms/One", "Rooms/Three", "Rooms/Two"),
+        TABLE.rankByReach("Base/Unknown", 0.0, 1));
+  }
+
+  @Test
+  public void emptyTable_returnsNull() {
+    assertNull(PrefabAdjacencyTable.empty().sampleRoom("Rooms/One", new Random(1)));
+  }
+}
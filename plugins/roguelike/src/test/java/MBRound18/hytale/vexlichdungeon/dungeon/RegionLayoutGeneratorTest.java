@@ -0,0 +1,87 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class RegionLayoutGeneratorTest {
+
+  private static final RegionLayoutGenerator GENERATOR = new RegionLayoutGenerator(
+      List.of("Rooms/One", "Rooms/Two"), List.of("Hallway/Straight"), "Base/Courtyard", 0.7, 42L);
+
+  @Test
+  public void stream_matchesSerialLayoutForAnyRegionSize() throws InterruptedException {
+    List<String> serial = new ArrayList<>();
+    GENERATOR.generate(6, true, tile -> serial.add(describe(tile)));
+    assertEquals(13 * 13, serial.size());
+
+    for (int regionSize : new int[] { 1, 4, 32 }) {
+      List<String> streamed = new ArrayList<>();
+      for (DungeonTile tile : collect(GENERATOR.stream(6, regionSize, true, ForkJoinPool.commonPool(), null))) {
+        streamed.add(describe(tile));
+      }
+      assertEquals(new HashSet<>(serial), new HashSet<>(streamed));
+    }
+  }
+
+  @Test
+  public void stream_publishesNearestRingsFirst() throws InterruptedException {
+    List<DungeonTile> tiles = collect(GENERATOR.stream(8, 3, true, ForkJoinPool.commonPool(), null));
+    assertEquals(DungeonTile.TileType.BASE, tiles.get(0).getType());
+    for (int i = 1; i < tiles.size(); i++) {
+      assertTrue(ring(tiles.get(i - 1)) <= ring(tiles.get(i)));
+    }
+  }
+
+  @Test
+  public void decide_returnsNullWithoutPrefabs() {
+    RegionLayoutGenerator empty = new RegionLayoutGenerator(List.of(), List.of(), "Base/Courtyard", 0.5, 1L);
+    assertNull(empty.decide(1, 0));
+  }
+
+  private static List<DungeonTile> collect(Flow.Publisher<DungeonTile> publisher) throws InterruptedException {
+    List<DungeonTile> tiles = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+    publisher.subscribe(new Flow.Subscriber<DungeonTile>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(DungeonTile tile) {
+        tiles.add(tile);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        done.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        done.countDown();
+      }
+    });
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    return tiles;
+  }
+
+  private static int ring(DungeonTile tile) {
+    return Math.max(Math.abs(tile.getGridX()), Math.abs(tile.getGridZ()));
+  }
+
+  private static String describe(DungeonTile tile) {
+    return tile.getGridX() + "," + tile.getGridZ() + ":" + tile.getPrefabPath() + "@" + tile.getRotation();
+  }
+}
@@ -0,0 +1,30 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import org.junit.Test;
+
+/**
+ * Small headless run of the controller. Scale it up with
+ * {@code -Pvex.sim.players=} and {@code -Pvex.sim.steps=} for load testing;
+ * the run's numbers are logged as a {@code [SIM]} line.
+ */
+public class RoguelikeDungeonControllerLoadTest {
+  @Test
+  public void simulation_walksEveryPlayerIntoANewRoomEachStep() {
+    int players = Integer.getInteger("vex.sim.players", 4);
+    int steps = Integer.getInteger("vex.sim.steps", 40);
+
+    HeadlessDungeonSimulation.Report report = new HeadlessDungeonSimulation(players, steps, 42L).run();
+    new LoggingHelper("VexSimulation").info("[SIM] %s", report);
+
+    // The opening poll enters the base room once per player.
+    assertEquals((long) players * (steps + 1), report.getRoomEntries());
+    assertTrue(report.getRoomsGenerated() > steps);
+    assertTrue(report.getNpcSpawns() > 0);
+    assertTrue(report.getPollP99Nanos() > 0);
+    assertTrue(report.getRoomsPerSecond() > 0);
+  }
+}
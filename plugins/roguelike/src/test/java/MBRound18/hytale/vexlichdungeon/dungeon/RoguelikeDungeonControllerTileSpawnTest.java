@@ -0,0 +1,115 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import MBRound18.hytale.vexlichdungeon.data.DungeonConfig;
+import MBRound18.hytale.vexlichdungeon.data.InMemoryDataStore;
+import MBRound18.hytale.vexlichdungeon.engine.PortalEngineAdapter;
+import MBRound18.hytale.vexlichdungeon.events.RoomEnemiesSpawnRequestedEvent;
+import MBRound18.hytale.vexlichdungeon.events.RoomTileSpawnRequestedEvent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.nio.file.Path;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+
+/**
+ * Enemy spawn requests wait for the tile of the room they spawn in.
+ */
+public class RoguelikeDungeonControllerTileSpawnTest {
+
+  @Test
+  public void enemies_waitUntilTheRoomTileIsPlaced() {
+    try (Fixture fixture = new Fixture()) {
+      fixture.enter(1, 0);
+      assertTrue(fixture.bridge.enemyRequests.isEmpty());
+
+      fixture.tileAt(1, 0).getResult().complete(null);
+
+      assertEquals(1, fixture.bridge.enemyRequests.size());
+      RoomEnemiesSpawnRequestedEvent request = fixture.bridge.enemyRequests.poll();
+      assertEquals(1, request.getRoomX());
+      assertEquals(0, request.getRoomZ());
+    }
+  }
+
+  @Test
+  public void enemies_skippedWhenTheRoomTileFails() {
+    try (Fixture fixture = new Fixture()) {
+      fixture.enter(0, 1);
+      fixture.tileAt(0, 1).getResult().completeExceptionally(new IllegalStateException("placement failed"));
+
+      assertTrue(fixture.bridge.enemyRequests.isEmpty());
+    }
+  }
+
+  @Test
+  public void enemies_requestedAtOnceWhenTheTileIsAlreadyPlaced() {
+    try (Fixture fixture = new Fixture()) {
+      fixture.tileAt(-1, 0).getResult().complete(null);
+      fixture.enter(-1, 0);
+
+      assertEquals(1, fixture.bridge.enemyRequests.size());
+    }
+  }
+
+  /**
+   * A controller over one initialized world whose tile requests are held, with
+   * one player standing in the base room.
+   */
+  private static final class Fixture implements AutoCloseable {
+    private final HeadlessDungeonSimulation.FakeWorldBridge bridge = new HeadlessDungeonSimulation.FakeWorldBridge();
+    private final Path artifacts = HeadlessDungeonSimulation.createTempDirectory();
+    private final HeadlessDungeonSimulation.FlatPrefabSpawner spawner;
+    private final DungeonGenerator generator;
+    private final RoguelikeDungeonController controller;
+    private final World world = new World("vex-tile-spawn-test");
+    private final PlayerRef player = new PlayerRef("Tester", new UUID(7L, 7L));
+
+    private Fixture() {
+      LoggingHelper log = new LoggingHelper("VexTileSpawnTest");
+      GenerationConfig config = new GenerationConfig()
+          .setSeed(7L)
+          .setUseStitchPattern(false);
+      DungeonConfig dungeonConfig = DungeonConfig.createDefault();
+      dungeonConfig.setMaxPlayersPerInstance(0);
+      HeadlessDungeonSimulation.InMemoryPrefabPool pool = new HeadlessDungeonSimulation.InMemoryPrefabPool(8, 2, 2);
+      generator = new DungeonGenerator(config, log, pool);
+      spawner = new HeadlessDungeonSimulation.FlatPrefabSpawner(log, config, artifacts);
+      controller = new RoguelikeDungeonController(log, generator, pool, spawner,
+          new InMemoryDataStore(log, dungeonConfig, HeadlessDungeonSimulation.spawnPool()),
+          new PortalEngineAdapter(), log, null, null, bridge);
+
+      bridge.holdTiles = true;
+      bridge.players.add(player);
+      bridge.positions.put(player.getUuid(), HeadlessDungeonSimulation.toWorld(generator, 0, 0));
+      controller.initializeWorld(world);
+      controller.pollWorld(world);
+    }
+
+    private void enter(int gridX, int gridZ) {
+      bridge.positions.put(player.getUuid(), HeadlessDungeonSimulation.toWorld(generator, gridX, gridZ));
+      controller.pollWorld(world);
+    }
+
+    @Nonnull
+    private RoomTileSpawnRequestedEvent tileAt(int gridX, int gridZ) {
+      for (RoomTileSpawnRequestedEvent request : bridge.tileRequests) {
+        if (request.getTile().getGridX() == gridX && request.getTile().getGridZ() == gridZ) {
+          return request;
+        }
+      }
+      throw new AssertionError("No tile requested at (" + gridX + ", " + gridZ + ")");
+    }
+
+    @Override
+    public void close() {
+      controller.shutdown();
+      spawner.shutdown();
+      HeadlessDungeonSimulation.deleteRecursively(artifacts);
+    }
+  }
+}
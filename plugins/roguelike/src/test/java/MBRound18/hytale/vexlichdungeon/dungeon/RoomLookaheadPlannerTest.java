@@ -0,0 +1,160 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.Test;
+
+public class RoomLookaheadPlannerTest {
+
+  private static final String WORLD = "vex-lookahead-test";
+
+  private final LoggingHelper log = new LoggingHelper("RoomLookaheadPlannerTest");
+
+  @Test
+  public void take_claimsEachPlannedTileOnce() throws Exception {
+    RoomLookaheadPlanner planner = new RoomLookaheadPlanner(log, 1, 1);
+    try {
+      planner.recordPlaced(WORLD, tile(0, 0));
+      planner.scheduleAround(WORLD, 0, 0, RoomLookaheadPlannerTest::room);
+      awaitTrue(() -> planner.peek(WORLD, 1, 0) != null);
+
+      DungeonTile planned = planner.take(WORLD, 1, 0);
+      assertNotNull(planned);
+      assertEquals(1, planned.getGridX());
+      assertNull(planner.take(WORLD, 1, 0));
+      assertSame(planned, planner.peek(WORLD, 1, 0));
+
+      // Placed tiles are never handed out as plans.
+      assertNull(planner.take(WORLD, 0, 0));
+      assertNull(planner.take(WORLD, 5, 5));
+      assertNull(planner.take("other-world", 1, 0));
+    } finally {
+      planner.shutdown();
+    }
+  }
+
+  @Test
+  public void recordPlaced_dropsPlansChosenAgainstAReplacedTile() throws Exception {
+    RoomLookaheadPlanner planner = new RoomLookaheadPlanner(log, 2, 1);
+    try {
+      planner.recordPlaced(WORLD, tile(0, 0));
+      planner.scheduleAround(WORLD, 0, 0, RoomLookaheadPlannerTest::room);
+      awaitTrue(() -> planner.peek(WORLD, 2, 0) != null && planner.peek(WORLD, -2, 0) != null
+          && planner.peek(WORLD, 0, 2) != null && planner.peek(WORLD, 0, -2) != null);
+      assertNotNull(planner.peek(WORLD, 2, 0));
+
+      DungeonTile replacement = tile(1, 0);
+      planner.recordPlaced(WORLD, replacement);
+
+      assertSame(replacement, planner.peek(WORLD, 1, 0));
+      assertNull(planner.peek(WORLD, 2, 0));
+      assertNull(planner.peek(WORLD, 1, 1));
+      assertNotNull(planner.peek(WORLD, -1, 0));
+    } finally {
+      planner.shutdown();
+    }
+  }
+
+  @Test
+  public void scheduleAround_coalescesCentersWhilePlanning() throws Exception {
+    RoomLookaheadPlanner planner = new RoomLookaheadPlanner(log, 1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Long> plannedCells = new CopyOnWriteArrayList<>();
+    RoomLookaheadPlanner.TilePlanner blocking = (x, z, source, neighbors) -> {
+      started.countDown();
+      await(release);
+      plannedCells.add(GridKeys.pack(x, z));
+      return room(x, z, source, neighbors);
+    };
+    try {
+      planner.recordPlaced(WORLD, tile(0, 0));
+      planner.recordPlaced(WORLD, tile(10, 0));
+      planner.recordPlaced(WORLD, tile(20, 0));
+      planner.scheduleAround(WORLD, 0, 0, blocking);
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      planner.scheduleAround(WORLD, 10, 0, blocking);
+      planner.scheduleAround(WORLD, 20, 0, blocking);
+      release.countDown();
+
+      awaitTrue(() -> planner.peek(WORLD, 21, 0) != null && planner.peek(WORLD, 19, 0) != null
+          && planner.peek(WORLD, 20, 1) != null && planner.peek(WORLD, 20, -1) != null);
+      for (long cell : plannedCells) {
+        assertTrue("center (10, 0) was superseded", Math.abs(GridKeys.x(cell) - 10) > 1);
+      }
+      assertEquals(8, plannedCells.size());
+    } finally {
+      planner.shutdown();
+    }
+  }
+
+  @Test
+  public void invalidatePlanned_dropsPlansStillInFlight() throws Exception {
+    RoomLookaheadPlanner planner = new RoomLookaheadPlanner(log, 1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    RoomLookaheadPlanner.TilePlanner blocking = (x, z, source, neighbors) -> {
+      if (x == -1 && z == 0) {
+        started.countDown();
+        await(release);
+      }
+      return room(x, z, source, neighbors);
+    };
+    try {
+      planner.recordPlaced(WORLD, tile(0, 0));
+      planner.scheduleAround(WORLD, 0, 0, blocking);
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      planner.invalidatePlanned();
+      release.countDown();
+
+      // (-1, 0) is planned first; the others follow on the same worker.
+      awaitTrue(() -> planner.peek(WORLD, 1, 0) != null);
+      assertNull(planner.peek(WORLD, -1, 0));
+      assertNull(planner.take(WORLD, -1, 0));
+      assertNotNull(planner.take(WORLD, 1, 0));
+    } finally {
+      planner.shutdown();
+    }
+  }
+
+  private static DungeonTile room(int gridX, int gridZ, DungeonTile source,
+      TileConstraintSolver.Neighbors neighbors) {
+    return tile(gridX, gridZ);
+  }
+
+  private static DungeonTile tile(int gridX, int gridZ) {
+    return new DungeonTile(gridX, gridZ, "Rooms/Room_" + gridX + "_" + gridZ, 0, DungeonTile.TileType.ROOM);
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Timed out waiting for the planner");
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(5, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Timed out waiting for the test");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
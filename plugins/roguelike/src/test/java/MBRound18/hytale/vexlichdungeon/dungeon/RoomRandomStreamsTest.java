@@ -0,0 +1,68 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class RoomRandomStreamsTest {
+
+  @Test
+  public void forRoom_isReproducibleForSameKey() {
+    RoomRandomStreams first = new RoomRandomStreams(1234L);
+    RoomRandomStreams second = new RoomRandomStreams(1234L);
+    SplittableRandom a = first.forRoom(3, -7, RoomRandomStreams.Purpose.PREFAB);
+    SplittableRandom b = second.forRoom(3, -7, RoomRandomStreams.Purpose.PREFAB);
+    for (int i = 0; i < 32; i++) {
+      assertEquals(a.nextLong(), b.nextLong());
+    }
+  }
+
+  @Test
+  public void forRoom_doesNotDependOnRollOrder() {
+    RoomRandomStreams streams = new RoomRandomStreams(99L);
+    long before = streams.forRoom(1, 0, RoomRandomStreams.Purpose.ENEMIES).nextLong();
+    for (int i = 0; i < 10; i++) {
+      streams.forRoom(i, i, RoomRandomStreams.Purpose.ENEMIES).nextLong();
+    }
+    assertEquals(before, streams.forRoom(1, 0, RoomRandomStreams.Purpose.ENEMIES).nextLong());
+  }
+
+  @Test
+  public void seedFor_separatesRoomsPurposesAndRuns() {
+    RoomRandomStreams streams = new RoomRandomStreams(5L);
+    long base = streams.seedFor(0, 0, RoomRandomStreams.Purpose.PREFAB);
+    assertNotEquals(base, streams.seedFor(0, 1, RoomRandomStreams.Purpose.PREFAB));
+    assertNotEquals(base, streams.seedFor(1, 0, RoomRandomStreams.Purpose.PREFAB));
+    assertNotEquals(base, streams.seedFor(0, 0, RoomRandomStreams.Purpose.ROTATION));
+    assertNotEquals(base, new RoomRandomStreams(6L).seedFor(0, 0, RoomRandomStreams.Purpose.PREFAB));
+  }
+
+  @Test
+  public void runSeed_givesEachWorldItsOwnRollsForTheSameCell() {
+    long createdAt = 1_700_000_000_000L;
+    RoomRandomStreams first = new RoomRandomStreams(RoomRandomStreams.runSeed(42L, "vex-instance-a", createdAt));
+    RoomRandomStreams second = new RoomRandomStreams(RoomRandomStreams.runSeed(42L, "vex-instance-b", createdAt));
+    RoomRandomStreams reused = new RoomRandomStreams(
+        RoomRandomStreams.runSeed(42L, "vex-instance-a", createdAt + 1));
+    assertEquals(first.getSeed(), RoomRandomStreams.runSeed(42L, "vex-instance-a", createdAt));
+
+    int samePrefab = 0;
+    for (int x = -3; x <= 3; x++) {
+      for (int z = -3; z <= 3; z++) {
+        for (RoomRandomStreams.Purpose purpose : RoomRandomStreams.Purpose.values()) {
+          assertNotEquals(first.seedFor(x, z, purpose), second.seedFor(x, z, purpose));
+          assertNotEquals(first.seedFor(x, z, purpose), reused.seedFor(x, z, purpose));
+        }
+        if (first.forRoom(x, z, RoomRandomStreams.Purpose.PREFAB).nextInt(32)
+            == second.forRoom(x, z, RoomRandomStreams.Purpose.PREFAB).nextInt(32)) {
+          samePrefab++;
+        }
+      }
+    }
+    // Out of 32 prefabs, independent rolls agree on about 1 in 32 of the 49 cells.
+    assertTrue("prefab rolls agree in " + samePrefab + " cells", samePrefab < 10);
+  }
+}
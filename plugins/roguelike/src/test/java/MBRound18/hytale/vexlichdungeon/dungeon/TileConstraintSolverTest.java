@@ -0,0 +1,309 @@
+package MBRound18.hytale.vexlichdungeon.dungeon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndex;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.random.RandomGenerator;
+import org.junit.Test;
+
+public class TileConstraintSolverTest {
+
+  private static final CardinalDirection[] DIRECTIONS = CardinalDirection.all();
+  private static final String[] STITCHES = { "A", "B", "C", "D", "E" };
+
+  @Test
+  public void solve_returnsNoneWithoutIndexedNeighboursOrCandidates() {
+    PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
+    builder.addMatches("Rooms/Left", 0, CardinalDirection.EAST, Set.of("A"));
+    builder.addMatches("Rooms/Right", 0, CardinalDirection.WEST, Set.of("B"));
+    TileConstraintSolver solver = TileConstraintSolver.build(builder.build(), Set.of("Rooms/Left", "Rooms/Right"));
+    assertNotNull(solver);
+
+    assertEquals(TileConstraintSolver.NONE,
+        solver.solve(0, 0, null, (x, z) -> null, TileConstraintSolver.Kind.ROOM, new SplittableRandom(1L)));
+
+    // Rooms/Left exposes A to the east; nothing exposes A to the west.
+    Map<Long, DungeonTile> placed = new HashMap<>();
+    place(placed, -1, 0, "Rooms/Left", 0);
+    assertEquals(TileConstraintSolver.NONE, solver.solve(0, 0, placed.get(GridKeys.pack(-1, 0)),
+        lookup(placed), TileConstraintSolver.Kind.ROOM, new SplittableRandom(1L)));
+  }
+
+  @Test
+  public void solve_picksTheOnlyCandidateForAnyRoll() {
+    PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
+    builder.addMatches("Rooms/Hub", 0, CardinalDirection.EAST, Set.of("A"));
+    builder.addMatches("Rooms/Match", 90, CardinalDirection.WEST, Set.of("A"));
+    builder.addMatches("Rooms/Match", 0, CardinalDirection.WEST, Set.of("B"));
+    builder.addMatches("Rooms/Other", 0, CardinalDirection.NORTH, Set.of("A"));
+    Set<String> rooms = Set.of("Rooms/Hub", "Rooms/Match", "Rooms/Other");
+    TileConstraintSolver solver = TileConstraintSolver.build(builder.build(), rooms);
+    assertNotNull(solver);
+
+    Map<Long, DungeonTile> placed = new HashMap<>();
+    place(placed, -1, 0, "Rooms/Hub", 0);
+    for (long seed = 0; seed < 16; seed++) {
+      int variant = solver.solve(0, 0, null, lookup(placed), TileConstraintSolver.Kind.ROOM,
+          new SplittableRandom(seed));
+      assertEquals("Rooms/Match", solver.getPrefab(variant));
+      assertEquals(90, solver.getRotation(variant));
+    }
+  }
+
+  @Test
+  public void solve_honoursANeighbourInEachDirection() {
+    // Each direction gets its own stitch, so only a room exposing the right
+    // stitch toward that side fits.
+    PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
+    Set<String> rooms = new HashSet<>();
+    for (CardinalDirection direction : DIRECTIONS) {
+      String stitch = direction.name();
+      builder.addMatches("Rooms/Wall_" + stitch, 0, direction.getOpposite(), Set.of(stitch));
+      builder.addMatches("Rooms/Fits_" + stitch, 0, direction, Set.of(stitch));
+      rooms.add("Rooms/Wall_" + stitch);
+      rooms.add("Rooms/Fits_" + stitch);
+    }
+    TileConstraintSolver solver = TileConstraintSolver.build(builder.build(), rooms);
+    assertNotNull(solver);
+
+    for (CardinalDirection direction : DIRECTIONS) {
+      Map<Long, DungeonTile> placed = new HashMap<>();
+      place(placed, direction.getOffsetX(), direction.getOffsetZ(), "Rooms/Wall_" + direction.name(), 0);
+      Set<String> chosen = new TreeSet<>();
+      for (int variant : enumerate(solver, 0, 0, null, placed, TileConstraintSolver.Kind.ROOM)) {
+        chosen.add(solver.getPrefab(variant));
+      }
+      assertEquals(direction.name(), Set.of("Rooms/Fits_" + direction.name()), chosen);
+    }
+  }
+
+  @Test
+  public void solve_matchesBruteForceCompatibility() {
+    SplittableRandom random = new SplittableRandom(7L);
+    for (int round = 0; round < 40; round++) {
+      PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
+      Set<String> rooms = new HashSet<>();
+      // Enough variants that the bitsets span more than one word.
+      for (int p = 0; p < 24; p++) {
+        String prefab = (p < 20 ? "Rooms/Room_" : "Event/Event_") + p;
+        if (p < 18) {
+          rooms.add(prefab);
+        }
+        for (int rotation = 0; rotation < 360; rotation += 90) {
+          if (random.nextInt(4) == 0) {
+            continue;
+          }
+          for (CardinalDirection edge : DIRECTIONS) {
+            Set<String> stitches = new HashSet<>();
+            for (String stitch : STITCHES) {
+              if (random.nextInt(4) == 0) {
+                stitches.add(stitch);
+              }
+            }
+            builder.addMatches(prefab, rotation, edge, stitches);
+          }
+        }
+      }
+      PrefabEdgeIndex index = builder.build();
+      TileConstraintSolver solver = TileConstraintSolver.build(index, rooms);
+      assertNotNull(solver);
+      BruteForce brute = new BruteForce(index, rooms);
+
+      for (int trial = 0; trial < 25; trial++) {
+        Map<Long, DungeonTile> placed = new HashMap<>();
+        for (int x = -2; x <= 2; x++) {
+          for (int z = -2; z <= 2; z++) {
+            if ((x != 0 || z != 0) && random.nextInt(3) == 0) {
+              String[] variant = brute.variants.get(random.nextInt(brute.variants.size()));
+              place(placed, x, z, variant[0], Integer.parseInt(variant[1]));
+            }
+          }
+        }
+        CardinalDirection from = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        DungeonTile source = placed.get(GridKeys.pack(from.getOffsetX(), from.getOffsetZ()));
+        TileConstraintSolver.Kind kind = random.nextInt(4) == 0
+            ? TileConstraintSolver.Kind.EVENT
+            : TileConstraintSolver.Kind.ROOM;
+
+        Set<String> expected = brute.solve(source, placed, kind);
+        Set<String> actual = new TreeSet<>();
+        for (int variant : enumerate(solver, 0, 0, source, placed, kind)) {
+          actual.add(solver.getPrefab(variant) + "@" + solver.getRotation(variant));
+        }
+        assertEquals("round " + round + " trial " + trial, expected, actual);
+      }
+    }
+  }
+
+  /**
+   * Collects every variant the solver can return by steering its pick.
+   */
+  private static List<Integer> enumerate(TileConstraintSolver solver, int gridX, int gridZ, DungeonTile source,
+      Map<Long, DungeonTile> placed, TileConstraintSolver.Kind kind) {
+    FixedPick pick = new FixedPick();
+    List<Integer> variants = new ArrayList<>();
+    int first = solver.solve(gridX, gridZ, source, lookup(placed), kind, pick);
+    if (first == TileConstraintSolver.NONE) {
+      return variants;
+    }
+    int bound = pick.lastBound;
+    for (int i = 0; i < bound; i++) {
+      pick.next = i;
+      variants.add(solver.solve(gridX, gridZ, source, lookup(placed), kind, pick));
+    }
+    return variants;
+  }
+
+  private static TileConstraintSolver.Neighbors lookup(Map<Long, DungeonTile> placed) {
+    return (x, z) -> placed.get(GridKeys.pack(x, z));
+  }
+
+  private static void place(Map<Long, DungeonTile> placed, int x, int z, String prefab, int rotation) {
+    placed.put(GridKeys.pack(x, z), new DungeonTile(x, z, prefab, rotation, DungeonTile.TileType.ROOM));
+  }
+
+  private static final class FixedPick implements RandomGenerator {
+    private int next;
+    private int lastBound;
+
+    @Override
+    public long nextLong() {
+      return 0L;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+      lastBound = bound;
+      return next;
+    }
+  }
+
+  /**
+   * Reference solver that checks edge stitches pair by pair.
+   */
+  private static final class BruteForce {
+    private final PrefabEdgeIndex index;
+    private final List<String[]> variants = new ArrayList<>();
+
+    private BruteForce(PrefabEdgeIndex index, Set<String> rooms) {
+      this.index = index;
+      for (String prefab : new TreeSet<>(index.getPrefabs())) {
+        if (!prefab.startsWith("Event/") && !rooms.contains(prefab)) {
+          continue;
+        }
+        for (int rotation : new TreeSet<>(index.getRotations(prefab))) {
+          variants.add(new String[] { prefab, Integer.toString(rotation) });
+        }
+      }
+    }
+
+    /** Whether {@code a} may have {@code b} on its {@code edge} side. */
+    private boolean fits(String[] a, CardinalDirection edge, String[] b) {
+      Set<String> shared = new HashSet<>(index.getStitchesForEdge(a[0], Integer.parseInt(a[1]), edge));
+      shared.retainAll(index.getStitchesForEdge(b[0], Integer.parseInt(b[1]), edge.getOpposite()));
+      return !shared.isEmpty();
+    }
+
+    private String[] variantOf(DungeonTile tile) {
+      if (tile == null) {
+        return null;
+      }
+      for (String[] variant : variants) {
+        if (variant[0].equals(tile.getPrefabPath()) && Integer.parseInt(variant[1]) == tile.getRotation()) {
+          return variant;
+        }
+      }
+      return null;
+    }
+
+    /** Variants that fit every indexed tile around a cell, or null when no indexed tile is around it. */
+    private List<String[]> fitting(int x, int z, Map<Long, DungeonTile> placed, long skip) {
+      List<String[]> result = new ArrayList<>();
+      boolean constrained = false;
+      for (String[] candidate : variants) {
+        boolean ok = true;
+        for (CardinalDirection direction : DIRECTIONS) {
+          long key = GridKeys.pack(x + direction.getOffsetX(), z + direction.getOffsetZ());
+          if (key == skip) {
+            continue;
+          }
+          String[] neighbor = variantOf(placed.get(key));
+          if (neighbor == null) {
+            continue;
+          }
+          constrained = true;
+          ok &= fits(candidate, direction, neighbor);
+        }
+        if (ok) {
+          result.add(candidate);
+        }
+      }
+      return constrained ? result : null;
+    }
+
+    private static boolean matches(String[] variant, TileConstraintSolver.Kind kind) {
+      return variant[0].startsWith("Event/") == (kind == TileConstraintSolver.Kind.EVENT);
+    }
+
+    private Set<String> solve(DungeonTile source, Map<Long, DungeonTile> placed, TileConstraintSolver.Kind kind) {
+      List<String[]> domain = fitting(0, 0, placed, GridKeys.NONE);
+      if (domain == null) {
+        return Set.of();
+      }
+      domain.removeIf(variant -> !matches(variant, kind));
+      if (!domain.isEmpty()) {
+        List<String[]> checked = new ArrayList<>(domain);
+        for (CardinalDirection direction : DIRECTIONS) {
+          int ex = direction.getOffsetX();
+          int ez = direction.getOffsetZ();
+          if (placed.containsKey(GridKeys.pack(ex, ez))) {
+            continue;
+          }
+          List<String[]> support = fitting(ex, ez, placed, GridKeys.pack(0, 0));
+          if (support == null || support.isEmpty()) {
+            continue;
+          }
+          checked.removeIf(candidate -> support.stream().noneMatch(s -> fits(candidate, direction, s)));
+        }
+        return keys(checked.isEmpty() ? domain : checked);
+      }
+      String[] from = variantOf(source);
+      if (from == null) {
+        return Set.of();
+      }
+      CardinalDirection toward = null;
+      for (CardinalDirection direction : DIRECTIONS) {
+        if (direction.getOffsetX() == source.getGridX() && direction.getOffsetZ() == source.getGridZ()) {
+          toward = direction;
+        }
+      }
+      if (toward == null) {
+        return Set.of();
+      }
+      List<String[]> relaxed = new ArrayList<>();
+      for (String[] candidate : variants) {
+        if (matches(candidate, kind) && fits(candidate, toward, from)) {
+          relaxed.add(candidate);
+        }
+      }
+      return keys(relaxed);
+    }
+
+    private static Set<String> keys(List<String[]> variants) {
+      Set<String> keys = new TreeSet<>();
+      for (String[] variant : variants) {
+        keys.add(variant[0] + "@" + variant[1]);
+      }
+      return keys;
+    }
+  }
+}
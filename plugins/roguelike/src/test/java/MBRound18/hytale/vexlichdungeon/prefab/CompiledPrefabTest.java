@@ -0,0 +1,76 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+
+public class CompiledPrefabTest {
+
+  @Test
+  public void writeThenRead_roundTripsEveryTable() throws Exception {
+    byte[] hash = CompiledPrefab.contentHash("{\"blocks\":[]}".getBytes(StandardCharsets.UTF_8));
+    CompiledPrefab compiled = new CompiledPrefab.Builder(hash)
+        .sanitized(true)
+        .sliceable(true)
+        .addBlock(0, 0, 0, "Rock_Stone")
+        .addBlock(-3, 2, 7, "Rock_Stone", 9, 3)
+        .addBlock(1, 1, 1, "Furniture_Crate")
+        .addFluid(4, 1, -2, "Lava", 6)
+        .addEntity("Skeleton_Archer", 1.5, 2.0, -3.25, 0.1f, 1.57f, 0f)
+        .build();
+
+    Path dir = Files.createTempDirectory("compiled-prefab");
+    Path file = dir.resolve(CompiledPrefab.fileName(hash));
+    compiled.write(file);
+    CompiledPrefab read = CompiledPrefab.read(file);
+
+    assertTrue(read.hasContentHash(hash));
+    assertArrayEquals(hash, read.getContentHash());
+    assertTrue(read.isSanitized());
+    assertTrue(read.isSliceable());
+    assertEquals(3, read.getBlockCount());
+    assertEquals(-3, read.getBlockX(1));
+    assertEquals(2, read.getBlockY(1));
+    assertEquals(7, read.getBlockZ(1));
+    assertEquals("Rock_Stone", read.getBlockName(1));
+    assertEquals(9, read.getBlockRotation(1));
+    assertEquals(3, read.getBlockFiller(1));
+    assertEquals(0, read.getBlockRotation(2));
+    assertEquals("Furniture_Crate", read.getBlockName(2));
+    assertEquals(1, read.getFluidCount());
+    assertEquals("Lava", read.getFluidName(0));
+    assertEquals(6, read.getFluidLevel(0));
+    assertEquals(-2, read.getFluidZ(0));
+    assertEquals(1, read.getEntityCount());
+    assertEquals("Skeleton_Archer", read.getEntityModel(0));
+    assertEquals(-3.25, read.getEntityPosition(0, 2), 0.0);
+    assertEquals(1.57f, read.getEntityRotation(0, 1), 0.0f);
+  }
+
+  @Test
+  public void read_rejectsMissingOrCorruptFiles() throws Exception {
+    Path dir = Files.createTempDirectory("compiled-prefab");
+    assertNull(CompiledPrefab.read(dir.resolve("missing" + CompiledPrefab.EXTENSION)));
+
+    Path corrupt = dir.resolve("corrupt" + CompiledPrefab.EXTENSION);
+    Files.write(corrupt, new byte[] { 'V', 'X', 'P', 'F', 0, 0 });
+    assertNull(CompiledPrefab.read(corrupt));
+  }
+
+  @Test
+  public void contentHash_changesWithSource() {
+    byte[] a = CompiledPrefab.contentHash("a".getBytes(StandardCharsets.UTF_8));
+    byte[] b = CompiledPrefab.contentHash("b".getBytes(StandardCharsets.UTF_8));
+    CompiledPrefab compiled = new CompiledPrefab.Builder(a).build();
+    assertTrue(compiled.hasContentHash(a));
+    assertFalse(compiled.hasContentHash(b));
+    assertTrue(CompiledPrefab.fileName(a).endsWith(CompiledPrefab.EXTENSION));
+  }
+}
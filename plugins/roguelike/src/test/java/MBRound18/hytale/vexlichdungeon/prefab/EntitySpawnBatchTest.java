@@ -0,0 +1,84 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.vexlichdungeon.events.EntityReplacedEvent;
+import MBRound18.hytale.vexlichdungeon.events.NpcSpawnRequestedEvent;
+import MBRound18.hytale.vexlichdungeon.events.NpcSpawnResult;
+import com.hypixel.hytale.event.IEvent;
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.hypixel.hytale.math.vector.Vector3f;
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class EntitySpawnBatchTest {
+
+  private final World world = new World("vex-batch-test");
+
+  @Test
+  public void dispatch_sendsTheBatchInOrderAndWaitsForEveryResult() throws Exception {
+    EntitySpawnBatch batch = new EntitySpawnBatch();
+    NpcSpawnRequestedEvent skeleton = request("Skeleton");
+    EntityReplacedEvent torch = new EntityReplacedEvent(world, new Vector3d(1, 0, 1), "Furniture_Torch", "Rooms/A");
+    NpcSpawnRequestedEvent archer = request("Archer");
+    batch.addRequest(skeleton);
+    batch.add(torch);
+    batch.addRequest(archer);
+
+    List<List<IEvent<Void>>> dispatched = new ArrayList<>();
+    CompletableFuture<List<NpcSpawnRequestedEvent>> spawned = batch.dispatch(
+        (events, failed) -> dispatched.add(events), 5, TimeUnit.SECONDS);
+
+    assertEquals(List.of(List.of(skeleton, torch, archer)), dispatched);
+    skeleton.getResult().complete(NpcSpawnResult.success(new UUID(1L, 1L)));
+    assertFalse(spawned.isDone());
+    archer.getResult().complete(NpcSpawnResult.success(new UUID(1L, 2L)));
+    assertEquals(List.of(skeleton, archer), spawned.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void dispatch_answersRequestsWhoseDispatchFailed() throws Exception {
+    EntitySpawnBatch batch = new EntitySpawnBatch();
+    NpcSpawnRequestedEvent broken = request("Skeleton");
+    NpcSpawnRequestedEvent fine = request("Archer");
+    batch.addRequest(broken);
+    batch.addRequest(fine);
+
+    CompletableFuture<List<NpcSpawnRequestedEvent>> spawned = batch.dispatch((events, failed) -> {
+      failed.accept(events.get(0));
+      fine.getResult().complete(NpcSpawnResult.success(new UUID(2L, 1L)));
+    }, 5, TimeUnit.SECONDS);
+
+    assertEquals(List.of(broken, fine), spawned.get(5, TimeUnit.SECONDS));
+    assertFalse(broken.getResult().getNow(null).isSuccess());
+    assertTrue(fine.getResult().getNow(null).isSuccess());
+  }
+
+  @Test
+  public void dispatch_stopsWaitingAfterTheTimeout() throws Exception {
+    EntitySpawnBatch batch = new EntitySpawnBatch();
+    NpcSpawnRequestedEvent lost = request("Skeleton");
+    NpcSpawnRequestedEvent failed = request("Archer");
+    batch.addRequest(lost);
+    batch.addRequest(failed);
+
+    CompletableFuture<List<NpcSpawnRequestedEvent>> spawned = batch.dispatch((events, onFailure) -> {
+      failed.getResult().completeExceptionally(new IllegalStateException("listener threw"));
+    }, 20, TimeUnit.MILLISECONDS);
+
+    assertEquals(List.of(lost, failed), spawned.get(5, TimeUnit.SECONDS));
+    assertFalse(lost.getResult().isDone());
+  }
+
+  private NpcSpawnRequestedEvent request(String modelId) {
+    return new NpcSpawnRequestedEvent(world, null, modelId, modelId, new Vector3d(0, 0, 0), new Vector3f(0, 0, 0),
+        "Rooms/A");
+  }
+}
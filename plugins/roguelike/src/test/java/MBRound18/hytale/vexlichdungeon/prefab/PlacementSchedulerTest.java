@@ -0,0 +1,90 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Test;
+
+public class PlacementSchedulerTest {
+
+  @Test
+  public void drain_placesNearestFirstWithinBudget() {
+    PlacementScheduler scheduler = new PlacementScheduler(100, false, 30);
+    List<String> order = new ArrayList<>();
+    submit(scheduler, "far", 200, 60, order);
+    submit(scheduler, "near", 10, 60, order);
+    submit(scheduler, "mid", 50, 30, order);
+
+    double[] player = { 0, 0 };
+    assertEquals(90, scheduler.drain("world", player));
+    assertEquals(List.of("near", "mid"), order);
+    assertEquals(60, scheduler.drain("world", player));
+    assertEquals(List.of("near", "mid", "far"), order);
+    assertFalse(scheduler.hasPending("world"));
+  }
+
+  @Test
+  public void drain_runsOversizedPlacementAlone() {
+    PlacementScheduler scheduler = new PlacementScheduler(100, false, 30);
+    List<String> order = new ArrayList<>();
+    submit(scheduler, "huge", 0, 500, order);
+    submit(scheduler, "small", 5, 10, order);
+    assertEquals(500, scheduler.drain("world", new double[] { 0, 0 }));
+    assertEquals(1, scheduler.pendingCount("world"));
+  }
+
+  @Test
+  public void drain_defersHiddenPlacementsWhenVisibleWorkRan() {
+    PlacementScheduler scheduler = new PlacementScheduler(1000, true, 30);
+    List<String> order = new ArrayList<>();
+    submit(scheduler, "visible", 10, 10, order);
+    submit(scheduler, "hidden", 100, 10, order);
+    assertEquals(10, scheduler.drain("world", new double[] { 0, 0 }));
+    assertEquals(10, scheduler.drain("world", new double[] { 0, 0 }));
+    assertEquals(List.of("visible", "hidden"), order);
+  }
+
+  @Test
+  public void markScheduled_allowsOneDrainAtATime() {
+    PlacementScheduler scheduler = new PlacementScheduler(100, false, 30);
+    submit(scheduler, "a", 0, 10, new ArrayList<>());
+    assertTrue(scheduler.markScheduled("world"));
+    assertFalse(scheduler.markScheduled("world"));
+    scheduler.drain("world", new double[0]);
+    assertFalse(scheduler.markScheduled("other"));
+  }
+
+  @Test
+  public void markScheduled_recoversFromReleasedOrStaleClaims() {
+    PlacementScheduler scheduler = new PlacementScheduler(100, false, 30);
+    submit(scheduler, "a", 0, 10, new ArrayList<>());
+    assertTrue(scheduler.markScheduled("world", 1_000L));
+    scheduler.releaseScheduled("world");
+    assertTrue(scheduler.markScheduled("world", 2_000L));
+
+    // The drain was never run: the claim is taken over once it times out.
+    long later = 2_000L + PlacementScheduler.CLAIM_TIMEOUT_NANOS;
+    assertFalse(scheduler.markScheduled("world", later - 1));
+    assertTrue(scheduler.markScheduled("world", later));
+    assertFalse(scheduler.markScheduled("world", later + 1));
+  }
+
+  @Test
+  public void cancel_failsQueuedPlacements() {
+    PlacementScheduler scheduler = new PlacementScheduler(100, false, 30);
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    scheduler.submit("world", 0, 0, 10, () -> {
+    }, done);
+    scheduler.cancel("world");
+    assertTrue(done.isCompletedExceptionally());
+    assertEquals(0, scheduler.drain("world", new double[0]));
+  }
+
+  private static void submit(PlacementScheduler scheduler, String name, double x, int blocks, List<String> order) {
+    scheduler.submit("world", x, 0, blocks, () -> order.add(name), new CompletableFuture<>());
+  }
+}
@@ -0,0 +1,112 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.ImmortalEngine.api.prefab.PrefabBounds;
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class PrefabCatalogTest {
+
+  private final LoggingHelper log = new LoggingHelper("PrefabCatalogTest");
+
+  @Test
+  public void get_compilesOnceAndSurvivesRestart() throws Exception {
+    Path dir = Files.createTempDirectory("prefab-catalog");
+    Path source = writePrefab(dir, "Room.prefab.json", "room-a");
+    CountingCompiler compiler = new CountingCompiler();
+
+    PrefabCatalog catalog = new PrefabCatalog(log, dir, 1 << 20);
+    CompiledPrefab first = catalog.get("Rooms/Room", source, compiler);
+    assertSame(first, catalog.get("Rooms/Room", source, compiler));
+    assertEquals(1, compiler.compiles.get());
+    assertEquals(1L, catalog.getHits());
+    catalog.save();
+
+    PrefabCatalog restarted = new PrefabCatalog(log, dir, 1 << 20);
+    assertEquals(1, restarted.getPrefabCount());
+    assertNull(restarted.getBounds("Rooms/Room"));
+    CompiledPrefab reloaded = restarted.get("Rooms/Room", source, compiler);
+    assertEquals(1, compiler.compiles.get());
+    assertTrue(reloaded.hasContentHash(first.getContentHash()));
+    PrefabBounds bounds = restarted.getBounds("Rooms/Room");
+    assertNotNull(bounds);
+    assertEquals(4, bounds.getMaxX());
+  }
+
+  @Test
+  public void revalidate_recompilesOnlyChangedPrefabs() throws Exception {
+    Path dir = Files.createTempDirectory("prefab-catalog");
+    Path room = writePrefab(dir, "Room.prefab.json", "room-a");
+    Path hall = writePrefab(dir, "Hall.prefab.json", "hall-a");
+    CountingCompiler compiler = new CountingCompiler();
+    PrefabCatalog catalog = new PrefabCatalog(log, dir, 1 << 20);
+    catalog.get("Room", room, compiler);
+    CompiledPrefab hallBefore = catalog.get("Hall", hall, compiler);
+    assertEquals(2, compiler.compiles.get());
+
+    writePrefab(dir, "Room.prefab.json", "room-b");
+    Files.setLastModifiedTime(room, FileTime.fromMillis(Files.getLastModifiedTime(room).toMillis() + 2000));
+    catalog.revalidate();
+
+    assertSame(hallBefore, catalog.get("Hall", hall, compiler));
+    catalog.get("Room", room, compiler);
+    assertEquals(3, compiler.compiles.get());
+  }
+
+  @Test
+  public void derive_cachesPerResidentEntryAndBudgetEvicts() throws Exception {
+    Path dir = Files.createTempDirectory("prefab-catalog");
+    CountingCompiler compiler = new CountingCompiler();
+    PrefabCatalog.Facet<Integer> blockCount = new PrefabCatalog.Facet<>("blocks", compiled -> {
+      compiler.derived.incrementAndGet();
+      return compiled.getBlockCount();
+    });
+    CompiledPrefab probe = new CompiledPrefab.Builder(CompiledPrefab.contentHash(new byte[0]))
+        .addBlock(0, 0, 0, "Rock_Stone")
+        .addBlock(4, 2, 1, "Rock_Stone")
+        .build();
+    PrefabCatalog catalog = new PrefabCatalog(log, null, probe.estimatedBytes() * 2);
+
+    CompiledPrefab room = catalog.get("Room", writePrefab(dir, "Room.prefab.json", "room"), compiler);
+    assertEquals(Integer.valueOf(2), catalog.derive(room, blockCount));
+    assertEquals(Integer.valueOf(2), catalog.derive(room, blockCount));
+    assertEquals(1, compiler.derived.get());
+
+    catalog.get("Hall", writePrefab(dir, "Hall.prefab.json", "hall"), compiler);
+    catalog.get("Gate", writePrefab(dir, "Gate.prefab.json", "gate"), compiler);
+    assertEquals(2, catalog.getResidentCount());
+    assertTrue(catalog.getWeightBytes() <= catalog.getBudgetBytes());
+    assertEquals(1L, catalog.getEvictions());
+    assertNull(catalog.peek("Room"));
+  }
+
+  private static Path writePrefab(Path dir, String name, String marker) throws Exception {
+    return Files.write(dir.resolve(name),
+        ("{\"marker\":\"" + marker + "\",\"blocks\":[]}").getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static final class CountingCompiler implements PrefabCatalog.Compiler {
+    private final AtomicInteger compiles = new AtomicInteger();
+    private final AtomicInteger derived = new AtomicInteger();
+
+    @Override
+    public CompiledPrefab compile(String prefabPath, byte[] source, byte[] contentHash) {
+      compiles.incrementAndGet();
+      return new CompiledPrefab.Builder(contentHash)
+          .bounds(new PrefabBounds(0, 4, 0, 2, 0, 1))
+          .addBlock(0, 0, 0, "Rock_Stone")
+          .addBlock(4, 2, 1, "Rock_Stone")
+          .build();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class PrefabDiscoveryIndexTest {
+
+  private final LoggingHelper log = new LoggingHelper("PrefabDiscoveryIndexTest");
+
+  @Test
+  public void update_tracksAddedChangedAndRemovedFiles() throws Exception {
+    Path root = Files.createTempDirectory("prefabs");
+    Path room = write(root, "Dungeon/Rooms/Vex_Room_A.prefab.json", "{\"a\":1}");
+    write(root, "Dungeon/Rooms/Other_Room.prefab.json", "{}");
+    write(root, "Stitch/Vex_Door.prefab.json", "{}");
+    PrefabDiscoveryIndex index = newIndex(root);
+
+    assertTrue(index.update(root, root));
+    assertEquals(List.of("Dungeon/Rooms/Vex_Room_A", "Stitch/Vex_Door"), List.copyOf(index.visible().keySet()));
+    assertEquals(PrefabCategory.ROOM, index.visible().get("Dungeon/Rooms/Vex_Room_A").getCategory());
+    assertFalse(index.update(root, root));
+
+    Files.writeString(room, "{\"a\":22}");
+    assertTrue(index.update(root, room));
+    Files.delete(root.resolve("Stitch/Vex_Door.prefab.json"));
+    assertTrue(index.update(root, root.resolve("Stitch")));
+    assertEquals(List.of("Dungeon/Rooms/Vex_Room_A"), List.copyOf(index.visible().keySet()));
+  }
+
+  @Test
+  public void saveAndLoad_restoresEntriesAndRootPrecedence() throws Exception {
+    Path assets = Files.createTempDirectory("assets");
+    Path unpacked = Files.createTempDirectory("unpacked");
+    Path dir = Files.createTempDirectory("prefab-cache");
+    write(assets, "Gates/Vex_Gate.prefab.json", "{\"asset\":true}");
+    write(unpacked, "Gates/Vex_Gate.prefab.json", "{\"unpacked\":true}");
+    write(unpacked, "Event/Vex_Shrine.prefab.json", "{}");
+    Map<Path, PrefabSource> roots = new LinkedHashMap<>();
+    roots.put(assets, PrefabSource.ASSET);
+    roots.put(unpacked, PrefabSource.UNPACKED);
+    PrefabDiscoveryIndex index = new PrefabDiscoveryIndex(log, path -> true);
+    index.setRoots(roots);
+    index.update(assets, assets);
+    index.update(unpacked, unpacked);
+    index.save(dir);
+
+    PrefabDiscoveryIndex loaded = new PrefabDiscoveryIndex(log, path -> true);
+    assertTrue(loaded.load(dir));
+
+    Map<String, PrefabDiscoveryIndex.Entry> visible = loaded.visible();
+    assertEquals(2, visible.size());
+    assertEquals(PrefabSource.ASSET, visible.get("Gates/Vex_Gate").getSource());
+    assertEquals(PrefabCategory.EVENT, visible.get("Event/Vex_Shrine").getCategory());
+    assertTrue(visible.get("Gates/Vex_Gate").sameContent(index.visible().get("Gates/Vex_Gate")));
+    loaded.setRoots(roots);
+    assertFalse(loaded.update(assets, assets));
+  }
+
+  private PrefabDiscoveryIndex newIndex(Path root) {
+    PrefabDiscoveryIndex index = new PrefabDiscoveryIndex(log, path -> path.contains("/Vex_"));
+    index.setRoots(Map.of(root, PrefabSource.UNPACKED));
+    return index;
+  }
+
+  private static Path write(Path root, String relative, String content) throws Exception {
+    Path file = root.resolve(relative);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+    return file;
+  }
+}
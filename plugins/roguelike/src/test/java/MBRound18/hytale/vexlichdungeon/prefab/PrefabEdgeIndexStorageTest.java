@@ -0,0 +1,44 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import MBRound18.hytale.vexlichdungeon.dungeon.CardinalDirection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import org.junit.Test;
+
+public class PrefabEdgeIndexStorageTest {
+
+  private final LoggingHelper log = new LoggingHelper("PrefabEdgeIndexStorageTest");
+
+  @Test
+  public void saveAndLoad_keepsMatchesAndContentHashes() throws Exception {
+    Path dir = Files.createTempDirectory("rooms-db");
+    byte[] roomHash = CompiledPrefab.contentHash(new byte[] { 1 });
+    byte[] hallHash = CompiledPrefab.contentHash(new byte[] { 2 });
+    byte[] stitchHash = CompiledPrefab.contentHash(new byte[] { 3 });
+    PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
+    builder.recordStitch("Stitch/Door", stitchHash);
+    builder.recordPrefab("Dungeon/Room", roomHash);
+    builder.recordPrefab("Dungeon/Hall", hallHash);
+    builder.addMatches("Dungeon/Room", 90, CardinalDirection.NORTH, Set.of("Stitch/Door"));
+
+    PrefabEdgeIndexStorage.save(dir, builder.build(), log);
+    PrefabEdgeIndex loaded = PrefabEdgeIndexStorage.load(dir, log);
+
+    assertNotNull(loaded);
+    assertEquals(Set.of("Stitch/Door"), loaded.getStitchesForEdge("Dungeon/Room", 90, CardinalDirection.NORTH));
+    assertTrue(loaded.getStitchesForEdge("Dungeon/Room", 0, CardinalDirection.NORTH).isEmpty());
+    assertArrayEquals(roomHash, loaded.getPrefabHash("Dungeon/Room"));
+    assertArrayEquals(hallHash, loaded.getPrefabHash("Dungeon/Hall"));
+    assertArrayEquals(stitchHash, loaded.getStitchHash("Stitch/Door"));
+    assertNull(loaded.getPrefabHash("Dungeon/Missing"));
+    assertEquals(Set.of("Dungeon/Room", "Dungeon/Hall"), loaded.getAnalyzedPrefabs());
+  }
+}
@@ -0,0 +1,82 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+
+public class PrefabPreloaderTest {
+
+  private final LoggingHelper log = new LoggingHelper("PrefabPreloaderTest");
+
+  @Test
+  public void preload_loadsRankedPrefabsWithinBudget() throws Exception {
+    FakeLoader loader = new FakeLoader(Map.of("Rooms/A", 400L, "Rooms/B", 400L, "Rooms/C", 400L),
+        Set.of("Rooms/Warm"));
+    PrefabPreloader preloader = new PrefabPreloader(log, loader, 2, 1000L);
+
+    PrefabPreloader.Progress progress = preloader
+        .preload(List.of("Rooms/Warm", "Rooms/A", "Rooms/B", "Rooms/C"), "test").get();
+
+    assertEquals(PrefabPreloader.State.COMPLETE, progress.getState());
+    assertEquals(Set.of("Rooms/A", "Rooms/B"), loader.loaded.keySet());
+    assertEquals(2, progress.getLoaded());
+    assertEquals(1, progress.getAlreadyLoaded());
+    assertEquals(1, progress.getDeferred());
+    assertEquals(800L, progress.getPlannedBytes());
+
+    PrefabPreloader.Progress again = preloader.preload(List.of("Rooms/A", "Rooms/B"), "again").get();
+    assertEquals(0, again.getLoaded());
+    assertEquals(2, again.getAlreadyLoaded());
+    preloader.shutdown();
+  }
+
+  @Test
+  public void preload_countsFailuresAndUnknownSizes() throws Exception {
+    FakeLoader loader = new FakeLoader(Map.of(), Set.of());
+    PrefabPreloader preloader = new PrefabPreloader(log, loader, 1, PrefabPreloader.UNKNOWN_SOURCE_BYTES * 2);
+
+    PrefabPreloader.Progress progress = preloader
+        .preload(List.of("Rooms/Missing", "Rooms/A", "Rooms/B"), "test").get();
+
+    assertEquals(1, progress.getLoaded());
+    assertEquals(1, progress.getFailed());
+    assertEquals(1, progress.getDeferred());
+    assertEquals(PrefabPreloader.State.COMPLETE, preloader.getProgress().getState());
+    preloader.shutdown();
+  }
+
+  private static final class FakeLoader implements PrefabPreloader.Loader {
+    private final Map<String, Long> sizes;
+    private final Set<String> warm;
+    private final Map<String, Boolean> loaded = new ConcurrentHashMap<>();
+
+    private FakeLoader(Map<String, Long> sizes, Set<String> warm) {
+      this.sizes = sizes;
+      this.warm = warm;
+    }
+
+    @Override
+    public boolean isLoaded(@Nonnull String prefabPath) {
+      return warm.contains(prefabPath) || loaded.containsKey(prefabPath);
+    }
+
+    @Override
+    public long sourceBytes(@Nonnull String prefabPath) {
+      return sizes.getOrDefault(prefabPath, -1L);
+    }
+
+    @Override
+    public void load(@Nonnull String prefabPath) {
+      if (prefabPath.endsWith("Missing")) {
+        throw new IllegalStateException("not found");
+      }
+      loaded.put(prefabPath, Boolean.TRUE);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RotationVariantCacheTest {
+
+  @Test
+  public void put_keepsFirstStoredVariant() {
+    RotationVariantCache<String> cache = new RotationVariantCache<>(100);
+    String first = cache.put("Rooms/A", 90, "first", 10);
+    String second = cache.put("Rooms/A", 450, "second", 10);
+    assertSame(first, second);
+    assertEquals("first", cache.get("Rooms/A", -270));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsedOverBudget() {
+    RotationVariantCache<String> cache = new RotationVariantCache<>(100);
+    cache.put("Rooms/A", 0, "a0", 40);
+    cache.put("Rooms/A", 90, "a90", 40);
+    cache.get("Rooms/A", 0);
+    cache.put("Rooms/B", 0, "b0", 40);
+
+    assertTrue(cache.contains("Rooms/A", 0));
+    assertFalse(cache.contains("Rooms/A", 90));
+    assertTrue(cache.contains("Rooms/B", 0));
+    assertEquals(80, cache.getWeightBytes());
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  public void put_skipsVariantsHeavierThanBudget() {
+    RotationVariantCache<String> cache = new RotationVariantCache<>(100);
+    assertEquals("huge", cache.put("Rooms/Huge", 0, "huge", 101));
+    assertNull(cache.get("Rooms/Huge", 0));
+    assertEquals(0, cache.getWeightBytes());
+  }
+
+  @Test
+  public void invalidate_dropsEveryRotation() {
+    RotationVariantCache<String> cache = new RotationVariantCache<>(1000);
+    for (int rotation = 0; rotation < 360; rotation += 90) {
+      cache.put("Rooms/A", rotation, "a" + rotation, 10);
+    }
+    cache.put("Rooms/B", 0, "b0", 10);
+    cache.invalidate("Rooms/A");
+    assertEquals(1, cache.size());
+    assertEquals(10, cache.getWeightBytes());
+  }
+}
@@ -0,0 +1,47 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import MBRound18.hytale.shared.utilities.LoggingHelper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+
+public class SanitizedPrefabStoreTest {
+
+  private final LoggingHelper log = new LoggingHelper("SanitizedPrefabStoreTest");
+
+  @Test
+  public void put_persistsByContentHash() throws Exception {
+    Path dir = Files.createTempDirectory("prefab-cache");
+    byte[] hash = CompiledPrefab.contentHash("{\"entities\":[1]}".getBytes(StandardCharsets.UTF_8));
+    SanitizedPrefabStore store = new SanitizedPrefabStore(log, dir);
+
+    assertFalse(store.contains(hash));
+    assertTrue(store.put("Dungeon/Rooms/Vex_Room", hash, "{\"entities\":[]}"));
+    assertTrue(store.contains(hash));
+
+    SanitizedPrefabStore restarted = new SanitizedPrefabStore(log, dir);
+    Path stored = restarted.find(hash);
+    assertNotNull(stored);
+    assertTrue(restarted.contains(hash));
+    assertEquals("{\"entities\":[]}", Files.readString(stored));
+    assertNull(restarted.find(CompiledPrefab.contentHash(new byte[] { 1 })));
+  }
+
+  @Test
+  public void put_reportsAWriteFailureAsUnavailable() throws Exception {
+    Path blocker = Files.createTempFile("prefab-cache", ".file");
+    byte[] hash = CompiledPrefab.contentHash(new byte[] { 2 });
+    SanitizedPrefabStore store = new SanitizedPrefabStore(log, blocker.resolve("sanitized"));
+
+    assertFalse(store.put("Dungeon/Rooms/Vex_Room", hash, "{}"));
+    assertFalse(store.contains(hash));
+    assertNull(store.find(hash));
+  }
+}
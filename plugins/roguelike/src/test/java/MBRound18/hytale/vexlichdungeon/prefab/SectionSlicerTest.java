@@ -0,0 +1,68 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import org.junit.Test;
+
+public class SectionSlicerTest {
+
+  @Test
+  public void slice_groupsBlocksAndFluidsByWorldSection() {
+    CompiledPrefab compiled = new CompiledPrefab.Builder(new byte[32])
+        .addBlock(0, 0, 0, "Rock_Stone")
+        .addBlock(15, 0, 0, "Rock_Stone")
+        .addBlock(16, 0, 0, "Rock_Stone")
+        .addBlock(0, 0, -1, "Rock_Stone")
+        .addFluid(17, 1, 2, "Water_Source", 8)
+        .build();
+
+    List<SectionSlicer.Section> sections = SectionSlicer.slice(compiled, 0, 64, 0, 0);
+
+    assertEquals(3, sections.size());
+    assertSection(sections.get(0), 0, 4, -1, 1, 0);
+    assertEquals(3, sections.get(0).getBlock(0));
+    assertSection(sections.get(1), 0, 4, 0, 2, 0);
+    assertEquals(0, sections.get(1).getBlock(0));
+    assertEquals(1, sections.get(1).getBlock(1));
+    assertSection(sections.get(2), 1, 4, 0, 1, 1);
+    assertEquals(2, sections.get(2).getBlock(0));
+    assertEquals(0, sections.get(2).getFluid(0));
+  }
+
+  @Test
+  public void slice_ordersSectionsBottomUp() {
+    CompiledPrefab compiled = new CompiledPrefab.Builder(new byte[32])
+        .addBlock(0, 20, 0, "Rock_Stone")
+        .addBlock(20, 0, 0, "Rock_Stone")
+        .addBlock(0, 0, 0, "Rock_Stone")
+        .build();
+
+    List<SectionSlicer.Section> sections = SectionSlicer.slice(compiled, 0, 0, 0, 0);
+
+    assertEquals(3, sections.size());
+    assertSection(sections.get(0), 0, 0, 0, 1, 0);
+    assertSection(sections.get(1), 1, 0, 0, 1, 0);
+    assertSection(sections.get(2), 0, 1, 0, 1, 0);
+  }
+
+  @Test
+  public void slice_placesBlocksWhereTheRotatedPrefabPutsThem() {
+    CompiledPrefab compiled = new CompiledPrefab.Builder(new byte[32])
+        .addBlock(20, 0, 3, "Rock_Stone")
+        .build();
+
+    // 90 degrees maps (x, z) to (-z, x)
+    assertSection(SectionSlicer.slice(compiled, 100, 0, 100, 90).get(0), 6, 0, 7, 1, 0);
+    assertSection(SectionSlicer.slice(compiled, 100, 0, 100, 180).get(0), 5, 0, 6, 1, 0);
+    assertSection(SectionSlicer.slice(compiled, 100, 0, 100, 270).get(0), 6, 0, 5, 1, 0);
+  }
+
+  private static void assertSection(SectionSlicer.Section section, int x, int y, int z, int blocks, int fluids) {
+    assertEquals(x, section.getSectionX());
+    assertEquals(y, section.getSectionY());
+    assertEquals(z, section.getSectionZ());
+    assertEquals(blocks, section.getBlockCount());
+    assertEquals(fluids, section.getFluidCount());
+  }
+}
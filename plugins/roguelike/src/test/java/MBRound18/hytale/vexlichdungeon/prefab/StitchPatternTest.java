@@ -0,0 +1,73 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StitchPatternTest {
+
+  private static final int STONE = BlockPalette.intern("Rock_Stone");
+  private static final int DOOR = BlockPalette.intern("Door_Iron");
+
+  @Test
+  public void matches_findsPatternAtAnyOffsetWithWildcards() {
+    EdgeSlice slice = slice(new String[] {
+        "S S S S S",
+        "S S D . S",
+        "S S D D S" });
+    // Pattern cells are listed bottom (v = 0) row first.
+    StitchPattern pattern = new StitchPattern("Stitch", 2, 2, new int[] {
+        DOOR, DOOR,
+        DOOR, BlockPalette.EMPTY });
+
+    assertTrue(pattern.matches(slice));
+  }
+
+  @Test
+  public void matches_rejectsMissingBlocksAndOversizedPatterns() {
+    EdgeSlice slice = slice(new String[] {
+        "S S S",
+        "S . S" });
+
+    assertFalse(new StitchPattern("Door", 1, 1, new int[] { DOOR }).matches(slice));
+    assertFalse(new StitchPattern("Wide", 4, 1, new int[] { STONE, STONE, STONE, STONE }).matches(slice));
+    assertFalse(new StitchPattern("Gap", 1, 2, new int[] { STONE, STONE }).matches(slice(new String[] {
+        "S .",
+        ". S" })));
+  }
+
+  @Test
+  public void matches_doesNotWrapAcrossRows() {
+    // The pair "S S" only exists split across the end of one row and the
+    // start of the next.
+    EdgeSlice slice = slice(new String[] {
+        ". . S",
+        "S . ." });
+
+    assertFalse(new StitchPattern("Pair", 2, 1, new int[] { STONE, STONE }).matches(slice));
+  }
+
+  /**
+   * Builds a slice from rows listed top (highest v) first; {@code S} is
+   * stone, {@code D} a door and {@code .} empty.
+   */
+  private static EdgeSlice slice(String[] rows) {
+    int height = rows.length;
+    int width = rows[0].split(" ").length;
+    EdgeSlice slice = new EdgeSlice(width, height);
+    for (int row = 0; row < height; row++) {
+      String[] cells = rows[row].split(" ");
+      for (int u = 0; u < width; u++) {
+        int v = height - 1 - row;
+        switch (cells[u]) {
+          case "S" -> slice.put(u, v, "Rock_Stone");
+          case "D" -> slice.put(u, v, "Door_Iron");
+          default -> {
+          }
+        }
+      }
+    }
+    return slice;
+  }
+}
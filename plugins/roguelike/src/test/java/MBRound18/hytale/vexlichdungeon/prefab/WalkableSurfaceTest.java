@@ -0,0 +1,102 @@
+package MBRound18.hytale.vexlichdungeon.prefab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static MBRound18.hytale.vexlichdungeon.prefab.WalkableSurface.BlockClass.BLOCKING;
+import static MBRound18.hytale.vexlichdungeon.prefab.WalkableSurface.BlockClass.PASSABLE;
+import static MBRound18.hytale.vexlichdungeon.prefab.WalkableSurface.BlockClass.SOLID;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class WalkableSurfaceTest {
+
+  @Test
+  public void build_keepsLowestStandableCellPerColumn() {
+    WalkableSurface surface = room(8, 8)
+        .add(2, 1, 2, SOLID) // one-block step, still headroom above
+        .add(3, 1, 3, PASSABLE) // passable blocks do not block
+        .add(4, 2, 4, SOLID) // one block gap below: stand on top instead
+        .build();
+
+    assertEquals(64, surface.size());
+    for (int i = 0; i < surface.size(); i++) {
+      int x = surface.x(i);
+      int z = surface.z(i);
+      int expected = x == 2 && z == 2 ? 2 : x == 4 && z == 4 ? 3 : 1;
+      assertEquals(expected, surface.y(i));
+    }
+  }
+
+  @Test
+  public void build_dropsWallTops() {
+    WalkableSurface.Builder builder = room(6, 6);
+    for (int y = 1; y <= 8; y++) {
+      builder.add(0, y, 0, SOLID);
+    }
+    WalkableSurface surface = builder.build();
+    assertEquals(35, surface.size());
+  }
+
+  @Test
+  public void build_neverStandsOnOrUnderBlockingBlocks() {
+    WalkableSurface surface = room(4, 4)
+        .add(1, 2, 1, BLOCKING) // no headroom under it
+        .add(6, 0, 6, BLOCKING) // never ground itself
+        .build();
+
+    assertEquals(15, surface.size());
+    for (int i = 0; i < surface.size(); i++) {
+      assertTrue(surface.x(i) != 1 || surface.z(i) != 1);
+    }
+  }
+
+  @Test
+  public void rotated_matchesSpawnerConvention() {
+    WalkableSurface surface = new WalkableSurface.Builder().add(3, 0, 1, SOLID).build();
+    WalkableSurface turned = surface.rotated(90);
+    assertEquals(-1, turned.x(0));
+    assertEquals(3, turned.z(0));
+    assertEquals(1, turned.y(0));
+    assertEquals(-3, surface.rotated(180).x(0));
+    assertEquals(1, surface.rotated(270).x(0));
+  }
+
+  @Test
+  public void pickSpread_keepsSpacingWhenRoomAllows() {
+    WalkableSurface surface = room(16, 16).build();
+    int[] cells = surface.pickSpread(12, 3, new SplittableRandom(5L));
+    assertEquals(12, cells.length);
+    Set<Integer> distinct = new HashSet<>();
+    for (int i = 0; i < cells.length; i++) {
+      distinct.add(cells[i]);
+      for (int j = 0; j < i; j++) {
+        int dx = surface.x(cells[i]) - surface.x(cells[j]);
+        int dz = surface.z(cells[i]) - surface.z(cells[j]);
+        assertTrue(dx * dx + dz * dz >= 9);
+      }
+    }
+    assertEquals(12, distinct.size());
+  }
+
+  @Test
+  public void pickSpread_fillsRequestOnTinySurface() {
+    WalkableSurface surface = room(2, 1).build();
+    int[] cells = surface.pickSpread(5, 3, new SplittableRandom(1L));
+    assertEquals(5, cells.length);
+    assertEquals(0, WalkableSurface.empty().pickSpread(5, 3, new SplittableRandom(1L)).length);
+  }
+
+  private static WalkableSurface.Builder room(int width, int depth) {
+    WalkableSurface.Builder builder = new WalkableSurface.Builder();
+    for (int x = 0; x < width; x++) {
+      for (int z = 0; z < depth; z++) {
+        builder.add(x, 0, z, SOLID);
+        builder.add(x, 3, z, PASSABLE);
+      }
+    }
+    return builder;
+  }
+}
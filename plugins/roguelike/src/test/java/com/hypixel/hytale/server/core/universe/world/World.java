@@ -0,0 +1,19 @@
+package com.hypixel.hytale.server.core.universe.world;
+
+import java.util.Objects;
+
+public class World {
+  private final String name;
+
+  public World(String name) {
+    this.name = Objects.requireNonNull(name, "name");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void execute(Runnable task) {
+    task.run();
+  }
+}
@@ -0,0 +1,49 @@
+package MBRound18.hytale.shared.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+
+/**
+ * Registry of named {@link WeightedCache}s so debug endpoints can report their
+ * counters without holding references to every owner.
+ */
+public final class CacheMetrics {
+  private static final Map<String, WeightedCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+  private CacheMetrics() {
+  }
+
+  /**
+   * Registers a cache under its name, replacing an earlier cache of the same
+   * name (e.g. after a plugin reload).
+   */
+  public static void register(@Nonnull WeightedCache<?, ?> cache) {
+    Objects.requireNonNull(cache, "cache");
+    caches.put(cache.getName(), cache);
+  }
+
+  /**
+   * Removes a cache if it is still the one registered under its name.
+   */
+  public static void unregister(@Nonnull WeightedCache<?, ?> cache) {
+    Objects.requireNonNull(cache, "cache");
+    caches.remove(cache.getName(), cache);
+  }
+
+  /**
+   * Snapshots every registered cache, sorted by name.
+   */
+  @Nonnull
+  public static List<WeightedCache.Stats> snapshot() {
+    List<WeightedCache.Stats> stats = new ArrayList<>();
+    for (WeightedCache<?, ?> cache : caches.values()) {
+      stats.add(cache.stats());
+    }
+    stats.sort((a, b) -> a.getName().compareTo(b.getName()));
+    return stats;
+  }
+}
@@ -0,0 +1,446 @@
+package MBRound18.hytale.shared.utilities;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Concurrent cache bounded by an estimated memory budget rather than an entry
+ * count.
+ *
+ * <p>
+ * Reads never take a lock: entries live in a {@link ConcurrentHashMap} and a
+ * hit only bumps the entry's access stamp. When a write pushes the cache over
+ * budget, the writer evicts the entries with the oldest stamps under a single
+ * eviction lock, so eviction order is least-recently-used. Concurrent misses
+ * for the same key through {@link #get(Object, Function)} share one load.
+ * Invalidating a key while it loads keeps that load's value out of the cache,
+ * though its callers still receive it. Entries heavier than the whole budget
+ * are returned but never stored.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public final class WeightedCache<K, V> {
+
+  /**
+   * Estimates the retained size of a cached value in bytes.
+   */
+  @FunctionalInterface
+  public interface Weigher<K, V> {
+    long weigh(@Nonnull K key, @Nonnull V value);
+  }
+
+  private final String name;
+  private final long budgetBytes;
+  private final Weigher<? super K, ? super V> weigher;
+  private final ConcurrentHashMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicLong weightBytes = new AtomicLong();
+  private final Object evictionLock = new Object();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder coalescedLoads = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param name        Name reported in metrics
+   * @param budgetBytes Memory budget in bytes; 0 disables caching
+   * @param weigher     Size estimate for each stored value
+   */
+  public WeightedCache(@Nonnull String name, long budgetBytes, @Nonnull Weigher<? super K, ? super V> weigher) {
+    if (budgetBytes < 0) {
+      throw new IllegalArgumentException("Budget cannot be negative: " + budgetBytes);
+    }
+    this.name = Objects.requireNonNull(name, "name");
+    this.budgetBytes = budgetBytes;
+    this.weigher = Objects.requireNonNull(weigher, "weigher");
+  }
+
+  /**
+   * Gets a cached value and marks it recently used.
+   */
+  @Nullable
+  public V getIfPresent(@Nonnull K key) {
+    Node<V> node = entries.get(key);
+    if (node == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    node.stamp = clock.incrementAndGet();
+    return node.value;
+  }
+
+  /**
+   * Gets a cached value, loading it on a miss. Concurrent misses for the same
+   * key wait for the first caller's load instead of loading again; a failed
+   * load is rethrown to every waiter and nothing is cached.
+   *
+   * @return The cached or loaded value, or null when the loader returned null
+   */
+  @Nullable
+  public V get(@Nonnull K key, @Nonnull Function<? super K, ? extends V> loader) {
+    Objects.requireNonNull(loader, "loader");
+    V cached = getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    CompletableFuture<V> claim = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = loading.putIfAbsent(key, claim);
+    if (inFlight != null) {
+      coalescedLoads.increment();
+      return await(inFlight);
+    }
+    try {
+      Node<V> raced = entries.get(key);
+      if (raced != null) {
+        claim.complete(raced.value);
+        return raced.value;
+      }
+      long start = System.nanoTime();
+      V value;
+      try {
+        value = loader.apply(key);
+      } finally {
+        loadNanos.add(System.nanoTime() - start);
+        loads.increment();
+      }
+      V stored = value == null ? null : storeLoaded(key, value, claim);
+      claim.complete(stored);
+      return stored;
+    } catch (RuntimeException | Error e) {
+      loadFailures.increment();
+      claim.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, claim);
+    }
+  }
+
+  /**
+   * Stores a loaded value unless the key was invalidated while it loaded.
+   * {@link #invalidate} drops the load's claim before the entry, so a store
+   * racing it either sees the claim gone or is removed with the entry.
+   */
+  @Nonnull
+  private V storeLoaded(@Nonnull K key, @Nonnull V value, @Nonnull CompletableFuture<V> claim) {
+    if (loading.get(key) != claim) {
+      return value;
+    }
+    V stored = putIfAbsent(key, value);
+    if (loading.get(key) != claim) {
+      Node<V> node = entries.get(key);
+      if (node != null && node.value == stored && entries.remove(key, node)) {
+        weightBytes.addAndGet(-node.weight);
+      }
+    }
+    return stored;
+  }
+
+  /**
+   * Whether a value is cached, without touching its recency or the counters.
+   */
+  public boolean contains(@Nonnull K key) {
+    return entries.containsKey(key);
+  }
+
+  /**
+   * Stores a value unless another thread stored one for the key first.
+   *
+   * @return The cached value (possibly the earlier one), or {@code value} when
+   *         it was too heavy to keep
+   */
+  @Nonnull
+  public V putIfAbsent(@Nonnull K key, @Nonnull V value) {
+    Objects.requireNonNull(value, "value");
+    Node<V> existing = entries.get(key);
+    if (existing != null) {
+      return existing.value;
+    }
+    long weight = Math.max(0L, weigher.weigh(key, value));
+    if (weight > budgetBytes) {
+      return value;
+    }
+    Node<V> node = new Node<>(value, weight, clock.incrementAndGet());
+    existing = entries.putIfAbsent(key, node);
+    if (existing != null) {
+      return existing.value;
+    }
+    if (weightBytes.addAndGet(weight) > budgetBytes) {
+      evict(key);
+    }
+    return value;
+  }
+
+  /**
+   * Stores a value, replacing any cached one.
+   */
+  public void put(@Nonnull K key, @Nonnull V value) {
+    Objects.requireNonNull(value, "value");
+    long weight = Math.max(0L, weigher.weigh(key, value));
+    if (weight > budgetBytes) {
+      invalidate(key);
+      return;
+    }
+    Node<V> node = new Node<>(value, weight, clock.incrementAndGet());
+    Node<V> previous = entries.put(key, node);
+    if (previous != null) {
+      weightBytes.addAndGet(-previous.weight);
+    }
+    if (weightBytes.addAndGet(weight) > budgetBytes) {
+      evict(key);
+    }
+  }
+
+  /**
+   * Drops a cached value; a load in flight for the key will not store its
+   * result.
+   */
+  public void invalidate(@Nonnull K key) {
+    loading.remove(key);
+    Node<V> removed = entries.remove(key);
+    if (removed != null) {
+      weightBytes.addAndGet(-removed.weight);
+    }
+  }
+
+  /**
+   * Drops every entry whose key matches.
+   */
+  public void invalidateIf(@Nonnull Predicate<? super K> matcher) {
+    Objects.requireNonNull(matcher, "matcher");
+    loading.keySet().removeIf(matcher);
+    for (K key : new ArrayList<>(entries.keySet())) {
+      if (matcher.test(key)) {
+        invalidate(key);
+      }
+    }
+  }
+
+  public void clear() {
+    loading.clear();
+    for (K key : new ArrayList<>(entries.keySet())) {
+      invalidate(key);
+    }
+  }
+
+  /**
+   * Evicts the least recently used entries, except the one just written,
+   * until the cache fits its budget.
+   */
+  private void evict(@Nonnull K written) {
+    synchronized (evictionLock) {
+      while (weightBytes.get() > budgetBytes) {
+        K eldestKey = null;
+        Node<V> eldest = null;
+        for (Map.Entry<K, Node<V>> entry : entries.entrySet()) {
+          Node<V> candidate = entry.getValue();
+          if (!entry.getKey().equals(written) && (eldest == null || candidate.stamp < eldest.stamp)) {
+            eldestKey = entry.getKey();
+            eldest = candidate;
+          }
+        }
+        if (eldest == null) {
+          return;
+        }
+        if (entries.remove(eldestKey, eldest)) {
+          weightBytes.addAndGet(-eldest.weight);
+          evictions.increment();
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private static <V> V await(@Nonnull CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  @Nonnull
+  public String getName() {
+    return name;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getWeightBytes() {
+    return weightBytes.get();
+  }
+
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  public long getCoalescedLoads() {
+    return coalescedLoads.sum();
+  }
+
+  /**
+   * Takes a point-in-time copy of the counters for reporting.
+   */
+  @Nonnull
+  public Stats stats() {
+    return new Stats(name, entries.size(), weightBytes.get(), budgetBytes, hits.sum(), misses.sum(),
+        loads.sum(), loadFailures.sum(), coalescedLoads.sum(), loadNanos.sum(), evictions.sum());
+  }
+
+  @Override
+  public String toString() {
+    return stats().toString();
+  }
+
+  private static final class Node<V> {
+    private final V value;
+    private final long weight;
+    private volatile long stamp;
+
+    private Node(@Nonnull V value, long weight, long stamp) {
+      this.value = value;
+      this.weight = weight;
+      this.stamp = stamp;
+    }
+  }
+
+  /**
+   * Counter snapshot of one cache.
+   */
+  public static final class Stats {
+    private final String name;
+    private final int size;
+    private final long weightBytes;
+    private final long budgetBytes;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadFailures;
+    private final long coalescedLoads;
+    private final long loadNanos;
+    private final long evictions;
+
+    private Stats(String name, int size, long weightBytes, long budgetBytes, long hits, long misses, long loads,
+        long loadFailures, long coalescedLoads, long loadNanos, long evictions) {
+      this.name = name;
+      this.size = size;
+      this.weightBytes = weightBytes;
+      this.budgetBytes = budgetBytes;
+      this.hits = hits;
+      this.misses = misses;
+      this.loads = loads;
+      this.loadFailures = loadFailures;
+      this.coalescedLoads = coalescedLoads;
+      this.loadNanos = loadNanos;
+      this.evictions = evictions;
+    }
+
+    @Nonnull
+    public String getName() {
+      return name;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public long getWeightBytes() {
+      return weightBytes;
+    }
+
+    public long getBudgetBytes() {
+      return budgetBytes;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    public long getLoads() {
+      return loads;
+    }
+
+    public long getLoadFailures() {
+      return loadFailures;
+    }
+
+    public long getCoalescedLoads() {
+      return coalescedLoads;
+    }
+
+    public long getLoadNanos() {
+      return loadNanos;
+    }
+
+    public long getEvictions() {
+      return evictions;
+    }
+
+    /**
+     * Fraction of lookups served from the cache, or 0 before any lookup.
+     */
+    public double getHitRate() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Mean wall time of one load in milliseconds, or 0 before any load.
+     */
+    public double getAverageLoadMillis() {
+      return loads == 0 ? 0.0 : loadNanos / 1_000_000.0 / loads;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s[entries=%d, weight=%d/%d bytes, hits=%d, misses=%d, hitRate=%.2f, loads=%d, coalesced=%d, failures=%d, avgLoad=%.2fms, evictions=%d]",
+          name, size, weightBytes, budgetBytes, hits, misses, getHitRate(), loads, coalescedLoads, loadFailures,
+          getAverageLoadMillis(), evictions);
+    }
+  }
+}
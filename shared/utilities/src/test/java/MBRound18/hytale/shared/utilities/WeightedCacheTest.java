@@ -0,0 +1,166 @@
+package MBRound18.hytale.shared.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class WeightedCacheTest {
+
+  @Test
+  void concurrentMissesForOneKeyShareOneLoad() throws Exception {
+    WeightedCache<String, String> cache = new WeightedCache<>("test", 1_000, (key, value) -> 10);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loaderCalls = new AtomicInteger();
+    int callers = 6;
+    ExecutorService pool = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(pool.submit(() -> cache.get("room", key -> {
+          loaderCalls.incrementAndGet();
+          await(release);
+          return new String("loaded");
+        })));
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (cache.getCoalescedLoads() < callers - 1 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      String first = results.get(0).get(5, TimeUnit.SECONDS);
+      for (Future<String> result : results) {
+        assertSame(first, result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(1, loaderCalls.get());
+    assertEquals(1, cache.getLoads());
+    assertEquals(callers - 1, cache.getCoalescedLoads());
+    assertTrue(cache.contains("room"));
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntriesOverBudget() {
+    WeightedCache<String, String> cache = new WeightedCache<>("test", 30, (key, value) -> value.length());
+    cache.put("a", "aaaaaaaaaa");
+    cache.put("b", "bbbbbbbbbb");
+    cache.put("c", "cccccccccc");
+    assertEquals("aaaaaaaaaa", cache.getIfPresent("a"));
+
+    cache.put("d", "dddddddddd");
+
+    assertFalse(cache.contains("b"));
+    assertTrue(cache.contains("a"));
+    assertTrue(cache.contains("c"));
+    assertTrue(cache.contains("d"));
+    assertEquals(30, cache.getWeightBytes());
+    assertEquals(1, cache.getEvictions());
+
+    // Heavier than the whole budget: returned, never stored.
+    String heavy = "x".repeat(31);
+    assertSame(heavy, cache.putIfAbsent("heavy", heavy));
+    assertFalse(cache.contains("heavy"));
+    assertEquals(30, cache.getWeightBytes());
+  }
+
+  @Test
+  void statsCountLookupsLoadsAndFailures() {
+    WeightedCache<String, String> cache = new WeightedCache<>("rooms", 1_000, (key, value) -> 1);
+    assertNull(cache.getIfPresent("a"));
+    assertEquals("A", cache.get("a", key -> "A"));
+    assertEquals("A", cache.get("a", key -> "other"));
+    assertThrows(IllegalStateException.class, () -> cache.get("b", key -> {
+      throw new IllegalStateException("broken prefab");
+    }));
+    assertNull(cache.get("c", key -> null));
+
+    WeightedCache.Stats stats = cache.stats();
+    assertEquals("rooms", stats.getName());
+    assertEquals(1, stats.getSize());
+    assertEquals(1, stats.getWeightBytes());
+    assertEquals(1, stats.getHits());
+    assertEquals(4, stats.getMisses());
+    assertEquals(3, stats.getLoads());
+    assertEquals(1, stats.getLoadFailures());
+    assertEquals(0.2, stats.getHitRate(), 1e-9);
+    assertFalse(cache.contains("b"));
+    assertFalse(cache.contains("c"));
+  }
+
+  @Test
+  void invalidateDuringLoadKeepsTheLoadedValueOut() throws Exception {
+    WeightedCache<String, String> cache = new WeightedCache<>("test", 1_000, (key, value) -> 1);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> stale = pool.submit(() -> cache.get("room", key -> {
+        loading.countDown();
+        await(release);
+        return "stale";
+      }));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+      cache.invalidate("room");
+      release.countDown();
+
+      assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+    assertFalse(cache.contains("room"));
+    assertEquals(0, cache.getWeightBytes());
+    assertEquals("fresh", cache.get("room", key -> "fresh"));
+    assertEquals(2, cache.getLoads());
+  }
+
+  @Test
+  void clearDuringLoadKeepsTheLoadedValueOut() throws Exception {
+    WeightedCache<String, String> cache = new WeightedCache<>("test", 1_000, (key, value) -> 1);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> stale = pool.submit(() -> cache.get("room", key -> {
+        loading.countDown();
+        await(release);
+        return "stale";
+      }));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+      cache.clear();
+      release.countDown();
+
+      assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(0, cache.size());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(5, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Timed out waiting for the test");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
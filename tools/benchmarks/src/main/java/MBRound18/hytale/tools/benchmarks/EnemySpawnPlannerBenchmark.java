@@ -0,0 +1,50 @@
+package MBRound18.hytale.tools.benchmarks;
+
+import MBRound18.hytale.vexlichdungeon.data.SpawnPool;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPoolEntry;
+import MBRound18.hytale.vexlichdungeon.dungeon.EnemySpawnPlanner;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Enemy planning for a single room across early- to late-game score budgets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnemySpawnPlannerBenchmark {
+
+  @Param({ "10", "100", "500", "2000", "10000" })
+  public int budget;
+
+  private SpawnPool pool;
+  private EnemySpawnPlanner planner;
+  private SplittableRandom random;
+
+  @Setup
+  public void setUp() {
+    pool = SyntheticCatalog.spawnPool();
+    planner = new EnemySpawnPlanner(42L);
+    random = new SplittableRandom(42L);
+  }
+
+  @Benchmark
+  public List<SpawnPoolEntry> planEnemies() {
+    return planner.planEnemies(pool, budget, random);
+  }
+}
@@ -0,0 +1,89 @@
+package MBRound18.hytale.tools.benchmarks;
+
+import MBRound18.hytale.vexlichdungeon.dungeon.DungeonTile;
+import MBRound18.hytale.vexlichdungeon.dungeon.GenerationConfig;
+import MBRound18.hytale.vexlichdungeon.dungeon.RegionLayoutGenerator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Full layout generation as done by {@code DungeonGenerator.generateLayout}:
+ * the serial path and the region-parallel streamed path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutGenerationBenchmark {
+
+  @Param({ "5", "10", "25", "50" })
+  public int radius;
+
+  private RegionLayoutGenerator generator;
+
+  @Setup
+  public void setUp() {
+    SyntheticCatalog catalog = SyntheticCatalog.standard();
+    generator = new RegionLayoutGenerator(catalog.getAllRooms(), catalog.getAllHallways(),
+        "Base/Vex_Courtyard_Base", GenerationConfig.DEFAULT_ROOM_PROBABILITY, 42L);
+  }
+
+  @Benchmark
+  public void serial(Blackhole blackhole) {
+    generator.generate(radius, true, blackhole::consume);
+  }
+
+  @Benchmark
+  public void streamed(Regions regions, Blackhole blackhole) throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    Flow.Publisher<DungeonTile> publisher = generator.stream(radius, regions.regionSize, true,
+        ForkJoinPool.commonPool(), null);
+    publisher.subscribe(new Flow.Subscriber<DungeonTile>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(DungeonTile tile) {
+        blackhole.consume(tile);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        done.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        done.countDown();
+      }
+    });
+    done.await();
+  }
+
+  /**
+   * Region size only matters for the streamed path.
+   */
+  @State(Scope.Benchmark)
+  public static class Regions {
+    @Param({ "4", "8", "16" })
+    public int regionSize;
+  }
+}
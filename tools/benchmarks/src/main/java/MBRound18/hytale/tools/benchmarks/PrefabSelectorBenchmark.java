@@ -0,0 +1,71 @@
+package MBRound18.hytale.tools.benchmarks;
+
+import MBRound18.hytale.vexlichdungeon.dungeon.GenerationConfig;
+import MBRound18.hytale.vexlichdungeon.dungeon.PrefabAdjacencyTable;
+import MBRound18.hytale.vexlichdungeon.dungeon.PrefabSelector;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Prefab sampling primitives: the selector's list-based picks and the alias
+ * table lookups the controller uses for adjacency.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrefabSelectorBenchmark {
+
+  private PrefabSelector selector;
+  private PrefabAdjacencyTable adjacency;
+  private SplittableRandom random;
+  private String[] sources;
+  private int cursor;
+
+  @Setup
+  public void setUp() {
+    SyntheticCatalog catalog = SyntheticCatalog.standard();
+    selector = new PrefabSelector(42L, catalog);
+    adjacency = PrefabAdjacencyTable.build(catalog.getEdgeIndex().toStitchIndex(),
+        new HashSet<>(catalog.getAllDungeonPrefabs()), catalog.getAllRooms(), catalog.getAllEventPrefabs());
+    random = new SplittableRandom(42L);
+    List<String> rooms = catalog.getAllRooms();
+    sources = rooms.toArray(new String[0]);
+  }
+
+  @Benchmark
+  public String selectRoomOrHallway() {
+    return selector.selectRoomOrHallway(GenerationConfig.DEFAULT_ROOM_PROBABILITY, random);
+  }
+
+  @Benchmark
+  public String selectRandomRoom() {
+    return selector.selectRandomRoom(random);
+  }
+
+  @Benchmark
+  public int selectRandomRotation() {
+    return selector.selectRandomRotation(random);
+  }
+
+  @Benchmark
+  public String adjacencySampleRoom() {
+    String source = sources[cursor];
+    cursor = cursor + 1 == sources.length ? 0 : cursor + 1;
+    return adjacency.sampleRoom(source, random);
+  }
+}
@@ -0,0 +1,113 @@
+package MBRound18.hytale.tools.benchmarks;
+
+import MBRound18.hytale.vexlichdungeon.dungeon.DungeonTile;
+import MBRound18.hytale.vexlichdungeon.dungeon.GridKeys;
+import MBRound18.hytale.vexlichdungeon.dungeon.PrefabSelector;
+import MBRound18.hytale.vexlichdungeon.dungeon.RegionLayoutGenerator;
+import MBRound18.hytale.vexlichdungeon.dungeon.RoomRandomStreams;
+import MBRound18.hytale.vexlichdungeon.dungeon.RoomTileSelector;
+import MBRound18.hytale.vexlichdungeon.dungeon.TileConstraintSolver;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Room selection as done by {@code RoguelikeDungeonController} when a player
+ * opens a new cell: edge-constrained solving against decided neighbours, and
+ * the adjacency-table path used when there is no edge index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomSelectionBenchmark {
+
+  private static final int RADIUS = 16;
+
+  private RoomRandomStreams streams;
+  private RoomTileSelector constrained;
+  private RoomTileSelector adjacencyOnly;
+  private TileConstraintSolver.Neighbors neighbors;
+  private int[] cellX;
+  private int[] cellZ;
+  private DungeonTile[] sources;
+  private int cursor;
+
+  @Setup
+  public void setUp() {
+    SyntheticCatalog catalog = SyntheticCatalog.standard();
+    streams = new RoomRandomStreams(42L);
+
+    constrained = new RoomTileSelector(new PrefabSelector(42L, catalog));
+    constrained.rebuildAdjacency(catalog.getEdgeIndex().toStitchIndex());
+    constrained.rebuildSolver(catalog.getEdgeIndex());
+
+    adjacencyOnly = new RoomTileSelector(new PrefabSelector(42L, catalog));
+    adjacencyOnly.rebuildAdjacency(catalog.getEdgeIndex().toStitchIndex());
+
+    // Decided neighbourhood: every cell of a pre-generated grid except the
+    // checkerboard cells we solve, so each target sees up to four neighbours.
+    Map<Long, DungeonTile> grid = new HashMap<>();
+    new RegionLayoutGenerator(catalog.getAllRooms(), catalog.getAllHallways(), "Base/Vex_Courtyard_Base",
+        1.0, 42L).generate(RADIUS, true, tile -> grid.put(GridKeys.pack(tile.getGridX(), tile.getGridZ()), tile));
+    int count = 0;
+    int side = 2 * RADIUS - 1;
+    cellX = new int[side * side];
+    cellZ = new int[side * side];
+    sources = new DungeonTile[side * side];
+    for (int x = -RADIUS + 1; x < RADIUS; x++) {
+      for (int z = -RADIUS + 1; z < RADIUS; z++) {
+        if (((x + z) & 1) != 0) {
+          continue;
+        }
+        long key = GridKeys.pack(x, z);
+        grid.remove(key);
+        cellX[count] = x;
+        cellZ[count] = z;
+        sources[count] = grid.get(GridKeys.pack(x - 1, z));
+        count++;
+      }
+    }
+    cellX = Arrays.copyOf(cellX, count);
+    cellZ = Arrays.copyOf(cellZ, count);
+    sources = Arrays.copyOf(sources, count);
+    neighbors = (x, z) -> grid.get(GridKeys.pack(x, z));
+  }
+
+  @Benchmark
+  public DungeonTile solveAgainstNeighbours() {
+    int i = next();
+    return constrained.planRoomTile(streams, cellX[i], cellZ[i], sources[i], neighbors);
+  }
+
+  @Benchmark
+  public DungeonTile adjacencyTable() {
+    int i = next();
+    return adjacencyOnly.planRoomTile(streams, cellX[i], cellZ[i], sources[i], neighbors);
+  }
+
+  @Benchmark
+  public DungeonTile eventRoom() {
+    int i = next();
+    return constrained.planEventTile(streams, cellX[i], cellZ[i], sources[i], neighbors);
+  }
+
+  private int next() {
+    int i = cursor;
+    cursor = i + 1 == cellX.length ? 0 : i + 1;
+    return i;
+  }
+}
@@ -0,0 +1,140 @@
+package MBRound18.hytale.tools.benchmarks;
+
+import MBRound18.hytale.vexlichdungeon.data.SpawnPool;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPoolConfig;
+import MBRound18.hytale.vexlichdungeon.data.SpawnPoolEntry;
+import MBRound18.hytale.vexlichdungeon.dungeon.CardinalDirection;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabEdgeIndex;
+import MBRound18.hytale.vexlichdungeon.prefab.PrefabPool;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic in-memory prefab catalog, edge index and spawn pool, shaped
+ * like the shipped asset pack but without touching the server asset store.
+ * The list getters copy like {@code PrefabDiscovery} does so allocation
+ * numbers stay comparable.
+ */
+final class SyntheticCatalog implements PrefabPool {
+
+  private static final int[] ROTATIONS = { 0, 90, 180, 270 };
+
+  private final List<String> rooms = new ArrayList<>();
+  private final List<String> hallways = new ArrayList<>();
+  private final List<String> events = new ArrayList<>();
+  private final List<String> dungeonPrefabs = new ArrayList<>();
+  private final PrefabEdgeIndex edgeIndex;
+  private final SplittableRandom picks = new SplittableRandom(7L);
+
+  /**
+   * @param roomCount    Number of room prefabs
+   * @param hallwayCount Number of hallway prefabs
+   * @param eventCount   Number of event prefabs
+   * @param stitchCount  Size of the stitch alphabet; smaller means more
+   *                     compatible pairs
+   * @param seed         Seed for the edge assignment
+   */
+  SyntheticCatalog(int roomCount, int hallwayCount, int eventCount, int stitchCount, long seed) {
+    for (int i = 0; i < roomCount; i++) {
+      rooms.add("Dungeon/Rooms/Bench_Room_" + i);
+    }
+    for (int i = 0; i < hallwayCount; i++) {
+      hallways.add("Dungeon/Hallways/Bench_Hallway_" + i);
+    }
+    for (int i = 0; i < eventCount; i++) {
+      events.add("Event/Bench_Event_" + i);
+    }
+    dungeonPrefabs.addAll(rooms);
+    dungeonPrefabs.addAll(hallways);
+
+    SplittableRandom random = new SplittableRandom(seed);
+    PrefabEdgeIndex.Builder builder = new PrefabEdgeIndex.Builder();
+    List<String> indexed = new ArrayList<>(dungeonPrefabs);
+    indexed.addAll(events);
+    for (String prefab : indexed) {
+      for (int rotation : ROTATIONS) {
+        for (CardinalDirection edge : CardinalDirection.values()) {
+          builder.addMatches(prefab, rotation, edge, Set.of("Stitch/Bench_" + random.nextInt(stitchCount)));
+        }
+      }
+    }
+    this.edgeIndex = builder.build();
+  }
+
+  /**
+   * Catalog with roughly the shape of the shipped asset pack.
+   */
+  static SyntheticCatalog standard() {
+    return new SyntheticCatalog(48, 16, 8, 6, 42L);
+  }
+
+  PrefabEdgeIndex getEdgeIndex() {
+    return edgeIndex;
+  }
+
+  /**
+   * Spawn pool with four score bands of increasing enemy cost.
+   */
+  static SpawnPool spawnPool() {
+    Map<String, List<SpawnPoolEntry>> ranges = new LinkedHashMap<>();
+    ranges.put("0..50", entries("Skeleton", 1, 2, 3, 5));
+    ranges.put("51..250", entries("Skeleton_Knight", 2, 5, 8, 12, 20));
+    ranges.put("251..1000", entries("Wraith", 5, 10, 20, 35, 50, 80));
+    ranges.put("1001..100000", entries("Lich_Guard", 10, 25, 50, 100, 150, 250, 400));
+    SpawnPoolConfig config = new SpawnPoolConfig();
+    config.setRanges(ranges);
+    return config.toSpawnPool();
+  }
+
+  private static List<SpawnPoolEntry> entries(String prefix, int... points) {
+    List<SpawnPoolEntry> entries = new ArrayList<>();
+    for (int i = 0; i < points.length; i++) {
+      entries.add(new SpawnPoolEntry(prefix + "_" + i, points[i]));
+    }
+    return entries;
+  }
+
+  @Override
+  public String getRandomRoom() {
+    return rooms.isEmpty() ? null : rooms.get(picks.nextInt(rooms.size()));
+  }
+
+  @Override
+  public String getRandomHallway() {
+    return hallways.isEmpty() ? null : hallways.get(picks.nextInt(hallways.size()));
+  }
+
+  @Override
+  public String getRandomGate() {
+    return null;
+  }
+
+  @Override
+  public String getBlockedGate() {
+    return null;
+  }
+
+  @Override
+  public List<String> getAllRooms() {
+    return new ArrayList<>(rooms);
+  }
+
+  @Override
+  public List<String> getAllHallways() {
+    return new ArrayList<>(hallways);
+  }
+
+  @Override
+  public List<String> getAllDungeonPrefabs() {
+    return new ArrayList<>(dungeonPrefabs);
+  }
+
+  @Override
+  public List<String> getAllEventPrefabs() {
+    return new ArrayList<>(events);
+  }
+}